@@ -0,0 +1,86 @@
+package bench;
+
+import db.ArticleRepository;
+import model.Article;
+import model.ArticleRecord;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-author lookups over `authors x perAuthor` seeded rows (see {@link BenchDb} for the database):
+ *   keywordScan      the legacy filter on the comma-separated keywords tags (full scan); written as a
+ *                    LIKE over ",tags," rather than FIND_IN_SET so it also runs on H2
+ *   articleAuthors   findByAuthorTag through the article_authors index, query cache off
+ * Seeding 1M rows takes a while on MySQL; use -p authors=1000 for a quick run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx3g")
+public class AuthorLookupBenchmark {
+
+    private static final String KEYWORD_SCAN_SQL =
+            "SELECT id, title, authors, publication_date, abstract, link, keywords, cited_by FROM articles " +
+                    "WHERE CONCAT(',', REPLACE(keywords, ' ', ''), ',') LIKE CONCAT('%,', ?, ',%') ORDER BY id DESC";
+
+    @Param({"1000", "10000"})
+    public int authors;
+
+    @Param({"100"})
+    public int perAuthor;
+
+    private final ArticleRepository repo = new ArticleRepository(null); // time the queries, not the cache
+    private final Random rnd = new Random(42);
+    private Connection cn;
+
+    @Setup(Level.Trial)
+    public void seed() throws Exception {
+        cn = BenchDb.open();
+        BenchDb.cleanup(cn);
+        for (int a = 0; a < authors; a++) {
+            List<Article> batch = new ArrayList<>(perAuthor);
+            for (int i = 0; i < perAuthor; i++) {
+                Article art = new Article("Lookup article " + a + "/" + i, Integer.toString(1990 + i % 35), i);
+                art.setKeywords("databases, indexing");
+                batch.add(art);
+            }
+            repo.saveAll(cn, batch, BenchDb.TAG + "-" + a, 1_000);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws Exception {
+        BenchDb.cleanup(cn);
+        cn.close();
+    }
+
+    private String nextAuthor() {
+        return BenchDb.AUTHOR_ID + "-" + rnd.nextInt(authors);
+    }
+
+    @Benchmark
+    public int keywordScan() throws Exception {
+        int rows = 0;
+        try (PreparedStatement ps = cn.prepareStatement(KEYWORD_SCAN_SQL)) {
+            ps.setString(1, "author:" + nextAuthor());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) rows++;
+            }
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public List<ArticleRecord> articleAuthors() throws Exception {
+        return repo.findByAuthorTag(cn, nextAuthor());
+    }
+}
@@ -0,0 +1,64 @@
+package bench;
+
+import db.DedupeJob;
+import db.Migrations;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+/**
+ * Database for the persistence benchmarks. Defaults to an in-memory H2 in MySQL mode; point it at a real
+ * server with -DDB_URL=jdbc:mysql://... (and -DDB_USER / -DDB_PASSWORD), or the same environment variables.
+ * The resolved settings are published as system properties so DbConfig in the same JVM uses the same database.
+ * Rows are tagged with {@link #TAG} (or TAG + "-n" for many authors) and removed by {@link #cleanup(Connection)}.
+ */
+public final class BenchDb {
+
+    public static final String AUTHOR_ID = "__jmh__";
+    public static final String TAG = "author:" + AUTHOR_ID;
+
+    private static final String H2_URL =
+            "jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE";
+
+    private BenchDb() {
+    }
+
+    /** Opens a connection with the schema in place (H2 script, or migrate + dedupe on MySQL). */
+    public static Connection open() throws Exception {
+        String url = setting("DB_URL", H2_URL);
+        Connection cn = DriverManager.getConnection(url, setting("DB_USER", "root"), setting("DB_PASSWORD", ""));
+        if (url.startsWith("jdbc:h2:")) {
+            try (InputStream in = BenchDb.class.getResourceAsStream("/bench-schema-h2.sql");
+                 Statement st = cn.createStatement()) {
+                String script = new String(in.readAllBytes(), StandardCharsets.UTF_8).replaceAll("(?m)^--.*$", "");
+                for (String sql : script.split(";")) {
+                    if (!sql.isBlank()) st.execute(sql);
+                }
+            }
+        } else {
+            Migrations.migrate(cn);
+            try (Connection reader = DriverManager.getConnection(url, setting("DB_USER", "root"), setting("DB_PASSWORD", ""))) {
+                new DedupeJob().run(reader, cn); // the upsert needs the unique content_key index
+            }
+        }
+        return cn;
+    }
+
+    public static void cleanup(Connection cn) throws Exception {
+        try (Statement st = cn.createStatement()) {
+            st.executeUpdate("DELETE FROM articles WHERE keywords LIKE '%" + TAG + "%'"); // links cascade
+            st.executeUpdate("DELETE FROM author_stats WHERE author_id LIKE '" + AUTHOR_ID + "%'");
+        }
+    }
+
+    private static String setting(String k, String def) {
+        String v = System.getProperty(k);
+        if (v == null || v.isBlank()) v = System.getenv(k);
+        if (v == null || v.isBlank()) v = def;
+        System.setProperty(k, v);
+        return v;
+    }
+}
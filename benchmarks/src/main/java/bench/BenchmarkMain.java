@@ -0,0 +1,29 @@
+package bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of benchmarks.jar: plain JMH, except that results are written as JSON to
+ * target/jmh-results/jmh-yyyyMMdd-HHmmss.json unless -rf/-rff is given. Keep those files
+ * (or compare them at https://jmh.morethan.io) to spot regressions between releases.
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws Exception {
+        List<String> argv = new ArrayList<>(Arrays.asList(args));
+        boolean listOnly = argv.contains("-l") || argv.contains("-lp") || argv.contains("-h");
+        if (!listOnly && !argv.contains("-rf") && !argv.contains("-rff")) {
+            Path dir = Path.of("target", "jmh-results");
+            Files.createDirectories(dir);
+            String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+            argv.addAll(List.of("-rf", "json", "-rff", dir.resolve("jmh-" + stamp + ".json").toString()));
+        }
+        org.openjdk.jmh.Main.main(argv.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,59 @@
+package bench;
+
+import model.Article;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import util.AuthorJson;
+import util.SimpleJson;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Payload -> Article list, per payload size:
+ *   simpleJson   the SimpleJson helpers as callers use them (one extraction per field)
+ *   authorJson   single-pass AuthorJson mapping
+ *   regex        the pre-streaming regex helpers (baseline)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int articles;
+
+    private String json;
+
+    @Setup
+    public void setUp() {
+        json = Payloads.author(articles);
+    }
+
+    @Benchmark
+    public void simpleJson(Blackhole bh) {
+        bh.consume(SimpleJson.extractTopLevelString(json, "error"));
+        bh.consume(SimpleJson.extractNestedString(json, "author", "name"));
+        bh.consume(SimpleJson.extractNestedString(json, "author", "affiliations"));
+        for (String block : SimpleJson.extractArrayObjects(json, "articles")) {
+            bh.consume(SimpleJson.extractFieldString(block, "title"));
+            bh.consume(SimpleJson.extractFieldString(block, "year"));
+            bh.consume(SimpleJson.extractFieldString(block, "link"));
+            bh.consume(SimpleJson.extractFieldString(block, "authors"));
+            bh.consume(SimpleJson.extractNestedInt(block, "cited_by", "value"));
+        }
+    }
+
+    @Benchmark
+    public List<Article> authorJson() throws Exception {
+        return AuthorJson.parse(json).getArticles();
+    }
+
+    @Benchmark
+    public List<Article> regex() {
+        return RegexBaseline.parse(json);
+    }
+}
@@ -0,0 +1,29 @@
+package bench;
+
+/** SerpApi google_scholar_author payloads shaped like recorded responses, with a chosen number of articles. */
+public final class Payloads {
+
+    private Payloads() {
+    }
+
+    public static String author(int articles) {
+        StringBuilder sb = new StringBuilder(articles * 400);
+        sb.append("{\"search_metadata\":{\"id\":\"abc\",\"status\":\"Success\"},")
+                .append("\"author\":{\"name\":\"Jane Doe\",\"affiliations\":\"Example University\",")
+                .append("\"interests\":[{\"title\":\"Databases\",\"link\":\"https://x\"}]},")
+                .append("\"articles\":[");
+        for (int i = 0; i < articles; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"title\":\"On the \\\"scalability\\\" of system ").append(i).append("\",")
+                    .append("\"link\":\"https://scholar.google.com/citations?view_op=view_citation&citation_for_view=X:").append(i).append("\",")
+                    .append("\"citation_id\":\"X:").append(i).append("\",")
+                    .append("\"authors\":\"J Doe, R Roe, A Smith\",")
+                    .append("\"publication\":\"Journal of Examples ").append(i % 40).append(", 1-10, 2020\",")
+                    .append("\"cited_by\":{\"value\":").append(i * 7 % 1000)
+                    .append(",\"link\":\"https://scholar.google.com/scholar?cites=").append(i).append("\",\"cites_id\":\"").append(i).append("\"},")
+                    .append("\"year\":\"").append(1990 + i % 35).append("\"}");
+        }
+        sb.append("],\"cited_by\":{\"table\":[{\"citations\":{\"all\":1234,\"since_2019\":567}}],\"graph\":[{\"year\":2020,\"citations\":10}]}}");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,86 @@
+package bench;
+
+import controller.AuthorController;
+import model.Author;
+import model.SaveStats;
+import org.openjdk.jmh.annotations.*;
+import service.ScholarAuthorClient;
+import view.ConsoleView;
+
+import java.sql.Connection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AuthorController.showAuthorById end to end with the network stubbed out:
+ * recorded-shape payload -> AuthorJson -> idempotent save of the top 3 (pooled DbConfig connection) -> view.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PipelineBenchmark {
+
+    @Param({"10", "100"})
+    public int articles;
+
+    private AuthorController controller;
+    private QuietView view;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        try (Connection cn = BenchDb.open()) { // also points DbConfig at the benchmark database
+            BenchDb.cleanup(cn);
+        }
+        view = new QuietView();
+        controller = new AuthorController(new StubClient(Payloads.author(articles)), view);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        try (Connection cn = BenchDb.open()) {
+            BenchDb.cleanup(cn);
+        }
+    }
+
+    @Benchmark
+    public Author showAuthor() {
+        controller.showAuthorById(BenchDb.AUTHOR_ID);
+        return view.last;
+    }
+
+    /** Serves a fixed payload; parsing still runs in {@link ScholarAuthorClient#fetchAuthor}. */
+    static final class StubClient extends ScholarAuthorClient {
+        private final String payload;
+
+        StubClient(String payload) {
+            super("bench", null);
+            this.payload = payload;
+        }
+
+        @Override
+        public String fetchAuthorJson(String authorId, Integer start, Integer num, String hl, String sort, boolean noCache) {
+            return payload;
+        }
+    }
+
+    /** Keeps console output out of the measurement; any error fails the run. */
+    static final class QuietView extends ConsoleView {
+        Author last;
+
+        @Override
+        public void renderAuthor(Author author) {
+            last = author;
+        }
+
+        @Override
+        public void renderSaveStats(SaveStats stats) {
+        }
+
+        @Override
+        public void renderError(String message) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package bench;
+
+import model.Article;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/** The pre-streaming regex helpers, kept verbatim as the comparison baseline. */
+final class RegexBaseline {
+
+    private RegexBaseline() {
+    }
+
+    static List<Article> parse(String json) {
+        extractTopLevelString(json, "error");
+        extractNestedString(json, "author", "name");
+        extractNestedString(json, "author", "affiliations");
+        List<Article> articles = new ArrayList<>();
+        for (String block : extractArrayObjects(json, "articles")) {
+            String title = extractFieldString(block, "title");
+            String year = extractFieldString(block, "year");
+            Integer cited = extractNestedInt(block, "cited_by", "value");
+            String link = extractFieldString(block, "link");
+            String abstractText = extractFieldString(block, "snippet");
+            String authorsCsv = extractFieldString(block, "authors");
+            if (title == null || title.isBlank()) continue;
+            Article a = new Article(title, year, cited);
+            a.setLink(link);
+            a.setAbstractText(abstractText);
+            a.setAuthors(authorsCsv);
+            articles.add(a);
+        }
+        return articles;
+    }
+
+    static String extractTopLevelString(String json, String field) {
+        String regex = "\"" + Pattern.quote(field) + "\"\\s*:\\s*\"([^\"]*)\"";
+        Matcher m = Pattern.compile(regex).matcher(json);
+        return m.find() ? m.group(1) : null;
+    }
+
+    static String extractNestedString(String json, String object, String field) {
+        String objRegex = "\"" + Pattern.quote(object) + "\"\\s*:\\s*\\{(.*?)\\}";
+        Matcher mObj = Pattern.compile(objRegex, Pattern.DOTALL).matcher(json);
+        if (mObj.find()) {
+            String fieldRegex = "\"" + Pattern.quote(field) + "\"\\s*:\\s*\"([^\"]*)\"";
+            Matcher mField = Pattern.compile(fieldRegex).matcher(mObj.group(1));
+            if (mField.find()) return mField.group(1);
+        }
+        return null;
+    }
+
+    static Integer extractNestedInt(String json, String object, String field) {
+        String objRegex = "\"" + Pattern.quote(object) + "\"\\s*:\\s*\\{(.*?)\\}";
+        Matcher mObj = Pattern.compile(objRegex, Pattern.DOTALL).matcher(json);
+        if (mObj.find()) {
+            String fieldRegex = "\"" + Pattern.quote(field) + "\"\\s*:\\s*(\\d+)";
+            Matcher mField = Pattern.compile(fieldRegex).matcher(mObj.group(1));
+            if (mField.find()) return Integer.parseInt(mField.group(1));
+        }
+        return null;
+    }
+
+    static List<String> extractArrayObjects(String json, String arrayName) {
+        List<String> blocks = new ArrayList<>();
+        String arrRegex = "\"" + Pattern.quote(arrayName) + "\"\\s*:\\s*\\[(.*?)]";
+        Matcher mArr = Pattern.compile(arrRegex, Pattern.DOTALL).matcher(json);
+        if (!mArr.find()) return blocks;
+        Matcher mObj = Pattern.compile("\\{(?>[^{}]|\\{[^{}]*\\})*\\}").matcher(mArr.group(1));
+        while (mObj.find()) blocks.add(mObj.group());
+        return blocks;
+    }
+
+    static String extractFieldString(String objectBlock, String field) {
+        String fieldRegex = "\"" + Pattern.quote(field) + "\"\\s*:\\s*\"([^\"]*)\"";
+        Matcher m = Pattern.compile(fieldRegex).matcher(objectBlock);
+        return m.find() ? m.group(1) : null;
+    }
+}
@@ -0,0 +1,84 @@
+package bench;
+
+import db.ArticleRepository;
+import model.Article;
+import model.SaveStats;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ArticleRepository writes of one batch of articles (see {@link BenchDb} for the database):
+ *   saveAllNew        every article is new (batched upsert + link)
+ *   saveAllUnchanged  the same batch again (key lookup + links only)
+ *   saveRowByRow      save() per article, all new
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SaveBenchmark {
+
+    @Param({"100"})
+    public int batch;
+
+    private final ArticleRepository repo = new ArticleRepository();
+    private Connection cn;
+    private List<Article> stored;
+    private long generation;
+
+    @Setup(Level.Trial)
+    public void open() throws Exception {
+        cn = BenchDb.open();
+        BenchDb.cleanup(cn);
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() throws Exception {
+        BenchDb.cleanup(cn); // keep the table from growing across iterations
+        stored = articles(-1);
+        repo.saveAll(cn, stored, BenchDb.TAG);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws Exception {
+        BenchDb.cleanup(cn);
+        cn.close();
+    }
+
+    @Benchmark
+    public SaveStats saveAllNew() throws Exception {
+        return repo.saveAll(cn, articles(generation++), BenchDb.TAG);
+    }
+
+    @Benchmark
+    public SaveStats saveAllUnchanged() throws Exception {
+        return repo.saveAll(cn, stored, BenchDb.TAG);
+    }
+
+    @Benchmark
+    public int saveRowByRow() throws Exception {
+        int written = 0;
+        for (Article a : articles(generation++)) {
+            written += repo.save(cn, a, BenchDb.TAG).getWritten();
+        }
+        return written;
+    }
+
+    private List<Article> articles(long gen) {
+        List<Article> list = new ArrayList<>(batch);
+        for (int i = 0; i < batch; i++) {
+            Article a = new Article("Benchmark article " + gen + "-" + i, Integer.toString(1990 + i % 35), i % 500);
+            a.setAuthors("J Doe, R Roe");
+            a.setLink("https://example.org/a/" + gen + "/" + i);
+            a.setAbstractText("Synthetic abstract for row " + i);
+            list.add(a);
+        }
+        return list;
+    }
+}
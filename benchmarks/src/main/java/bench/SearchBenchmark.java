@@ -0,0 +1,75 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+import search.InvertedIndex;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory search index over a synthetic corpus (8-word titles, 40-word abstracts, Gaussian word
+ * frequencies over a 20k vocabulary):
+ *   rareTerm / commonTerm   one-term queries matching ~0.03% / ~1.5% of the documents
+ *   twoTerms                AND of two common terms (rarest list drives, the other is skipped)
+ *   byCitations             commonTerm ordered by cited_by
+ * The MySQL FULLTEXT path is measured by hand (see README, Search).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx3g")
+public class SearchBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int docs;
+
+    private final String[] vocab = new String[20_000];
+    private InvertedIndex index;
+
+    @Setup
+    public void setUp() {
+        Random r = new Random(7);
+        for (int i = 0; i < vocab.length; i++) {
+            StringBuilder w = new StringBuilder();
+            for (int j = 4 + r.nextInt(6); j > 0; j--) w.append((char) ('a' + r.nextInt(26)));
+            vocab[i] = w.toString();
+        }
+        index = new InvertedIndex();
+        for (int i = 1; i <= docs; i++) {
+            index.add(i, words(r, 8), words(r, 40), r.nextInt(5000));
+        }
+        index.trim();
+    }
+
+    private String words(Random r, int n) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            int k = (int) Math.min(vocab.length - 1, Math.abs(r.nextGaussian()) * 2500);
+            sb.append(i == 0 ? "" : " ").append(vocab[k]);
+        }
+        return sb.toString();
+    }
+
+    @Benchmark
+    public List<InvertedIndex.Hit> rareTerm() {
+        return index.search(vocab[7_000], false, 20, 0);
+    }
+
+    @Benchmark
+    public List<InvertedIndex.Hit> commonTerm() {
+        return index.search(vocab[10], false, 20, 0);
+    }
+
+    @Benchmark
+    public List<InvertedIndex.Hit> twoTerms() {
+        return index.search(vocab[3] + " " + vocab[40], false, 20, 0);
+    }
+
+    @Benchmark
+    public List<InvertedIndex.Hit> byCitations() {
+        return index.search(vocab[10], true, 20, 0);
+    }
+}
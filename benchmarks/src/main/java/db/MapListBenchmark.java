@@ -0,0 +1,63 @@
+package db;
+
+import model.ArticleColumns;
+import model.ArticleRecord;
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Types;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ArticleRepository.mapList over an in-memory ResultSet (no driver or network), i.e. the
+ * per-row cost of column lookups and ArticleRecord construction, against mapColumns filling an
+ * ArticleColumns. Lives in package db to reach both.
+ * SimpleResultSet hands out the same String instances on every pass, so mapList's allocation here
+ * excludes the per-row strings a real driver creates (and the record list keeps); mapColumns copies
+ * the text into its own arrays either way. Compare retained heap, not just gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapListBenchmark {
+
+    @Param({"100", "10000"})
+    public int rows;
+
+    private SimpleResultSet rs;
+
+    @Setup
+    public void setUp() {
+        rs = new SimpleResultSet();
+        rs.setAutoClose(false); // rewound with beforeFirst() before every invocation
+        rs.addColumn("id", Types.BIGINT, 19, 0);
+        rs.addColumn("title", Types.VARCHAR, 1024, 0);
+        rs.addColumn("authors", Types.VARCHAR, 255, 0);
+        rs.addColumn("publication_date", Types.VARCHAR, 32, 0);
+        rs.addColumn("abstract", Types.VARCHAR, 4096, 0);
+        rs.addColumn("link", Types.VARCHAR, 1024, 0);
+        rs.addColumn("keywords", Types.VARCHAR, 255, 0);
+        rs.addColumn("cited_by", Types.INTEGER, 10, 0);
+        for (int i = 0; i < rows; i++) {
+            rs.addRow((long) i, "Benchmark article " + i, "J Doe, R Roe", Integer.toString(1990 + i % 35),
+                    "Synthetic abstract for row " + i, "https://example.org/a/" + i, "author:bench",
+                    (i % 10 == 0) ? null : i % 500);
+        }
+    }
+
+    @Benchmark
+    public List<ArticleRecord> mapList() throws Exception {
+        rs.beforeFirst();
+        return ArticleRepository.mapList(rs);
+    }
+
+    @Benchmark
+    public ArticleColumns mapColumns() throws Exception {
+        rs.beforeFirst();
+        return ArticleRepository.mapColumns(rs, rows);
+    }
+}
@@ -0,0 +1,39 @@
+-- H2 (MODE=MySQL) equivalent of the db/migration tables that saves write (V1..V3, V6, V7, V9) plus the unique
+-- index added by `app.Main dedupe`. Keep in step with every migration that changes them.
+CREATE TABLE IF NOT EXISTS articles (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  title VARCHAR(1024) NOT NULL,
+  authors TEXT,
+  publication_date VARCHAR(32),
+  abstract TEXT,
+  link TEXT,
+  keywords TEXT,
+  cited_by INT,
+  content_key CHAR(64) NULL,
+  pub_year SMALLINT NULL,
+  CONSTRAINT uk_articles_content_key UNIQUE (content_key)
+);
+CREATE INDEX IF NOT EXISTS idx_articles_cited_by ON articles (cited_by);
+CREATE INDEX IF NOT EXISTS idx_articles_year_cited ON articles (pub_year, cited_by);
+CREATE TABLE IF NOT EXISTS article_authors (
+  author_id  VARCHAR(64) NOT NULL,
+  article_id BIGINT      NOT NULL,
+  PRIMARY KEY (author_id, article_id),
+  CONSTRAINT fk_article_authors_article FOREIGN KEY (article_id) REFERENCES articles (id) ON DELETE CASCADE
+);
+CREATE INDEX IF NOT EXISTS idx_article_authors_article ON article_authors (article_id);
+CREATE TABLE IF NOT EXISTS author_stats (
+  author_id   VARCHAR(64) NOT NULL PRIMARY KEY,
+  articles    INT         NOT NULL DEFAULT 0,
+  citations   BIGINT      NOT NULL DEFAULT 0,
+  h_index     INT         NOT NULL DEFAULT 0,
+  latest_year SMALLINT    NULL,
+  updated_at  TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+CREATE INDEX IF NOT EXISTS idx_author_stats_citations ON author_stats (citations, h_index);
+CREATE INDEX IF NOT EXISTS idx_author_stats_h_index ON author_stats (h_index, citations);
+CREATE TABLE IF NOT EXISTS articles_version (
+  id      TINYINT NOT NULL PRIMARY KEY,
+  version BIGINT  NOT NULL
+);
+INSERT IGNORE INTO articles_version (id, version) VALUES (1, 0);
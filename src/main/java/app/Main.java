@@ -1,16 +1,552 @@
 package app;
 
 import controller.AuthorController;
+import controller.BatchPipeline;
+import controller.HarvestController;
+import controller.RefreshScheduler;
+import db.ArticleRepository;
+import db.AuthorStatsRepository;
+import db.BulkLoader;
+import db.DbConfig;
+import db.DedupeJob;
+import db.Migrations;
+import db.RefreshScheduleRepository;
+import export.ExportFormat;
+import export.ExportJob;
+import metrics.Metrics;
+import model.ArticleRecord;
+import model.AuthorStats;
+import search.ArticleSearch;
+import server.ArticleServer;
+import service.RateLimiter;
 import service.ScholarAuthorClient;
+import stub.LoadDriver;
+import stub.SerpApiStub;
+import util.Env;
 import view.ConsoleView;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.zip.GZIPInputStream;
+
 public class Main {
-    public static void main(String[] args) {
-        String apiKey = System.getenv("SERPAPI_KEY");
-        if (apiKey == null || apiKey.isBlank()) {
-            System.err.println("Set SERPAPI_KEY environment variable.");
+    public static void main(String[] args) throws Exception {
+        String command = (args.length > 0) ? args[0] : "";
+        try {
+            run(command, args);
+        } finally {
+            Metrics.dumpFromEnv(); // METRICS=console|json, METRICS_FILE=path
+        }
+    }
+
+    private static void run(String command, String[] args) throws Exception {
+        switch (command) {
+            case "migrate":
+                migrate();
+                break;
+            case "dedupe":
+                dedupe();
+                break;
+            case "harvest":
+                harvest(args);
+                break;
+            case "sync":
+                sync(args);
+                break;
+            case "batch":
+                batch(args);
+                break;
+            case "search":
+                search(args);
+                break;
+            case "stub":
+                stub();
+                break;
+            case "loadtest":
+                loadtest(args);
+                break;
+            case "export":
+                export(args);
+                break;
+            case "import":
+                importFiles(args);
+                break;
+            case "stats":
+                stats(args);
+                break;
+            case "top":
+                top(args);
+                break;
+            case "schedule":
+                schedule(args);
+                break;
+            case "serve":
+                serve();
+                break;
+            default:
+                showAuthor(args);
+        }
+    }
+
+    // Usage: migrate  -> applies pending db/migration scripts
+    private static void migrate() throws Exception {
+        try (Connection cn = DbConfig.get()) {
+            List<String> applied = Migrations.migrate(cn);
+            if (applied.isEmpty()) {
+                System.out.println("Schema is up to date (version " + Migrations.currentVersion(cn) + ").");
+            } else {
+                applied.forEach(s -> System.out.println("Applied " + s));
+            }
+        }
+    }
+
+    // Usage: dedupe  -> one-time merge of duplicate articles + unique content_key index (run after migrate)
+    private static void dedupe() throws Exception {
+        try (Connection reader = DbConfig.get(); Connection writer = DbConfig.get()) {
+            long t0 = System.currentTimeMillis();
+            DedupeJob.Report report = new DedupeJob().run(reader, writer);
+            System.out.println("Dedupe: " + report + " (" + (System.currentTimeMillis() - t0) + " ms)");
+        }
+    }
+
+    // Usage: harvest <author_id>... | harvest @ids.txt | harvest -   (one id per line from stdin)
+    // Tuning: HARVEST_CONCURRENCY (8), SERPAPI_RATE_PER_SEC (5), SERPAPI_BURST (5)
+    private static void harvest(String[] args) throws Exception {
+        String apiKey = requireApiKey();
+        List<String> ids = readIds(Arrays.copyOfRange(args, 1, args.length));
+        if (ids.isEmpty()) {
+            System.err.println("Usage: harvest <author_id>... | @file | -");
+            System.exit(1);
+        }
+
+        requireUniqueContentKey("harvest", harvestConcurrency());
+        ScholarAuthorClient client = new ScholarAuthorClient(apiKey);
+        harvester(client).harvest(ids);
+        System.out.println(client.stats());
+        System.out.println(DbConfig.pool().stats());
+    }
+
+    // Usage: sync [--full] <author_id>... | @ids.txt | -   (delta refresh with author_sync checkpoints)
+    // Same tuning variables as harvest.
+    private static void sync(String[] args) throws Exception {
+        String apiKey = requireApiKey();
+        List<String> rest = new ArrayList<>(Arrays.asList(args).subList(1, args.length));
+        boolean full = rest.remove("--full");
+        List<String> ids = readIds(rest.toArray(new String[0]));
+        if (ids.isEmpty()) {
+            System.err.println("Usage: sync [--full] <author_id>... | @file | -");
+            System.exit(1);
+        }
+
+        requireUniqueContentKey("sync", harvestConcurrency());
+        ScholarAuthorClient client = new ScholarAuthorClient(apiKey);
+        harvester(client).sync(ids, full);
+        System.out.println(client.stats());
+        System.out.println(DbConfig.pool().stats());
+    }
+
+    // Usage: batch <author_id>... | @ids.txt | -   (headless: ids are streamed, not loaded up front)
+    // Tuning: BATCH_FETCH_THREADS (8), BATCH_PARSE_THREADS (cores), BATCH_PERSIST_THREADS (1), BATCH_QUEUE (64),
+    //         BATCH_TX_ARTICLES (5000), BATCH_LINGER_MS (200), SERPAPI_RATE_PER_SEC (5), SERPAPI_BURST (5)
+    private static void batch(String[] args) throws Exception {
+        String apiKey = requireApiKey();
+        if (args.length < 2) {
+            System.err.println("Usage: batch <author_id>... | @file | -");
+            System.exit(1);
+        }
+        RateLimiter limiter = new RateLimiter(
+                Double.parseDouble(Env.get("SERPAPI_RATE_PER_SEC", "5")),
+                Integer.parseInt(Env.get("SERPAPI_BURST", "5")));
+        BatchPipeline.Options options = BatchPipeline.Options.fromEnv();
+        requireUniqueContentKey("batch", options.getPersistThreads());
+        ScholarAuthorClient client = new ScholarAuthorClient(apiKey);
+        BatchPipeline pipeline = new BatchPipeline(client, limiter, options);
+        try (IdReader ids = new IdReader(Arrays.copyOfRange(args, 1, args.length))) {
+            BatchPipeline.Report report = pipeline.run(ids,
+                    (id, error) -> System.err.println("[FAILED] " + id + ": " + error));
+            new ConsoleView().renderBatch(report);
+            System.out.println(client.stats());
+            System.out.println(DbConfig.pool().stats());
+        }
+    }
+
+    // Usage: search [--cited] [--limit N] <words>...   (stored articles; SEARCH_MODE=auto|fulltext|memory)
+    private static void search(String[] args) throws Exception {
+        boolean byCitations = false;
+        int limit = 20;
+        StringBuilder query = new StringBuilder();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--cited")) byCitations = true;
+            else if (args[i].equals("--limit") && i + 1 < args.length) limit = Integer.parseInt(args[++i]);
+            else query.append(query.length() == 0 ? "" : " ").append(args[i]);
+        }
+        if (query.length() == 0) {
+            System.err.println("Usage: search [--cited] [--limit N] <words>...");
+            System.exit(1);
+        }
+
+        ArticleSearch search = ArticleSearch.shared();
+        try (Connection cn = DbConfig.get()) {
+            long t0 = System.currentTimeMillis();
+            List<ArticleRecord> rows = search.search(cn, query.toString(), byCitations, limit, 0);
+            new ConsoleView().renderSearch(query.toString(), search.mode(cn).name().toLowerCase(), rows,
+                    System.currentTimeMillis() - t0);
+        }
+    }
+
+    // Usage: stub  -> local SerpApi stand-in until killed (STUB_* variables, see stub.SerpApiStub)
+    private static void stub() throws Exception {
+        SerpApiStub.Options options = SerpApiStub.Options.fromEnv();
+        SerpApiStub stub = SerpApiStub.start(options);
+        System.out.println("SerpApi stub on " + stub.baseUrl() + " (" + options + ")");
+        System.out.println("Use: SERPAPI_BASE_URL=" + stub.baseUrl());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.println("Served " + stub.getRequests() + " requests " + stub.statusCounts());
+            stub.close();
+        }));
+        Thread.currentThread().join(); // serve until the process is stopped
+    }
+
+    // Usage: serve   (HTTP/JSON reads of the articles table; SERVE_HOST, SERVE_PORT, SERVE_*_LIMIT)
+    private static void serve() throws Exception {
+        ArticleServer.Options options = ArticleServer.Options.fromEnv();
+        ArticleServer server = ArticleServer.start(options);
+        System.out.println("Serving articles on " + server.baseUrl() + " (" + options + ")");
+        System.out.println("Try: " + server.baseUrl() + "/articles?limit=10");
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        Thread.currentThread().join(); // serve until the process is stopped
+    }
+
+    // Usage: loadtest [--requests N] [--concurrency C] [--authors A] [--pages P] [--num S] [--rate R]
+    // Targets SERPAPI_BASE_URL when set, otherwise an in-process stub configured from STUB_*.
+    private static void loadtest(String[] args) throws Exception {
+        Map<String, String> opts = new HashMap<>();
+        for (int i = 1; i + 1 < args.length; i += 2) opts.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        int requests = Integer.parseInt(opts.getOrDefault("requests", "2000"));
+        int concurrency = Integer.parseInt(opts.getOrDefault("concurrency", "32"));
+        int authors = Integer.parseInt(opts.getOrDefault("authors", "100"));
+        int pages = Integer.parseInt(opts.getOrDefault("pages", "3"));
+        int num = Integer.parseInt(opts.getOrDefault("num", "20"));
+        RateLimiter limiter = opts.containsKey("rate")
+                ? new RateLimiter(Double.parseDouble(opts.get("rate")), Math.max(1, concurrency)) : null;
+
+        String baseUrl = System.getenv("SERPAPI_BASE_URL");
+        SerpApiStub stub = null;
+        if (baseUrl == null || baseUrl.isBlank()) {
+            SerpApiStub.Options options = SerpApiStub.Options.fromEnv().port(0);
+            stub = SerpApiStub.start(options);
+            baseUrl = stub.baseUrl();
+            System.out.println("In-process stub: " + options);
+        }
+        try {
+            System.out.printf("Load: %d requests, concurrency=%d, %d authors x %d pages of %d -> %s%n",
+                    requests, concurrency, authors, pages, num, baseUrl);
+            LoadDriver driver = new LoadDriver(baseUrl, concurrency, limiter);
+            LoadDriver.Report report = driver.run(requests, authors, pages, num);
+            System.out.println(report);
+            System.out.println(driver.clientStats());
+        } finally {
+            if (stub != null) stub.close();
+        }
+    }
+
+    // Usage: export [--format ndjson|csv] [--gzip] [--author ID] [--from-id N] [--to-id N] [--resume] <file>
+    // Format and gzip default from the file name (.csv, .gz); EXPORT_CHECKPOINT_ROWS sets the checkpoint interval,
+    // EXPORT_GZIP_LEVEL (1-9, default 6) trades size for speed.
+    private static void export(String[] args) throws Exception {
+        ExportJob.Options options = new ExportJob.Options()
+                .checkpointRows(Integer.parseInt(Env.get("EXPORT_CHECKPOINT_ROWS", "100000")))
+                .gzipLevel(Integer.parseInt(Env.get("EXPORT_GZIP_LEVEL", "6")));
+        String format = null;
+        boolean gzip = false, resume = false;
+        String file = null;
+        boolean usage = false;
+        for (int i = 1; i < args.length && !usage; i++) {
+            boolean hasValue = i + 1 < args.length;
+            if (args[i].equals("--format") && hasValue) format = args[++i];
+            else if (args[i].equals("--gzip")) gzip = true;
+            else if (args[i].equals("--author") && hasValue) options.author(args[++i]);
+            else if (args[i].equals("--from-id") && hasValue) options.fromId(Long.parseLong(args[++i]));
+            else if (args[i].equals("--to-id") && hasValue) options.toId(Long.parseLong(args[++i]));
+            else if (args[i].equals("--resume")) resume = true;
+            else if (args[i].startsWith("--") || file != null) usage = true; // unknown flag, or a second file
+            else file = args[i];
+        }
+        if (usage || file == null || (format != null && !format.matches("(?i)ndjson|csv"))) {
+            System.err.println("Usage: export [--format ndjson|csv] [--gzip] [--author ID] [--from-id N] [--to-id N] [--resume] <file>");
             System.exit(1);
         }
+        options.format(format != null ? ExportFormat.valueOf(format.toUpperCase()) : ExportFormat.forFile(file))
+                .gzip(gzip || file.endsWith(".gz"));
+
+        try (Connection cn = DbConfig.get()) {
+            System.out.println("Export " + options + " -> " + file);
+            System.out.println(new ExportJob(options).run(cn, Path.of(file), resume));
+        }
+    }
+
+    // Usage: import [--format ndjson|csv] [--author ID] [--defer-fulltext] <file>...   (files as written by export; .gz ok)
+    // Bulk path: LOAD DATA LOCAL INFILE into a staging table, then set-based merge (IMPORT_CHUNK_ROWS per statement).
+    private static void importFiles(String[] args) throws Exception {
+        String format = null, authorId = null;
+        boolean deferFulltext = false;
+        List<String> files = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--format") && i + 1 < args.length) format = args[++i];
+            else if (args[i].equals("--author") && i + 1 < args.length) authorId = args[++i];
+            else if (args[i].equals("--defer-fulltext")) deferFulltext = true;
+            else files.add(args[i]);
+        }
+        if (files.isEmpty()) {
+            System.err.println("Usage: import [--format ndjson|csv] [--author ID] [--defer-fulltext] <file>...");
+            System.exit(1);
+        }
+
+        BulkLoader loader = new BulkLoader(Integer.parseInt(Env.get("IMPORT_CHUNK_ROWS", "50000")), deferFulltext);
+        try (Connection cn = DbConfig.openBulk()) {
+            for (String file : files) {
+                ExportFormat f = (format != null) ? ExportFormat.valueOf(format.toUpperCase()) : ExportFormat.forFile(file);
+                // the raw stream is its own resource so a bad gzip header does not leak the file handle
+                try (InputStream raw = Files.newInputStream(Path.of(file));
+                     InputStream in = file.endsWith(".gz") ? new GZIPInputStream(raw, 1 << 16) : raw;
+                     ExportFormat.RowReader rows = f.reader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                    System.out.println("Import " + file + " (" + f.name().toLowerCase() + ")");
+                    System.out.println(loader.load(cn, rows::next, authorId));
+                }
+            }
+        }
+    }
+
+    // Usage: schedule add|remove <author_id>... | @ids.txt | -    (tracked authors of the refresh scheduler)
+    //        schedule list [--limit N]                           (soonest due first, with this hour's spend)
+    //        schedule run [--max N]                              (daemon: refresh due authors within the budget)
+    // Tuning: REFRESH_CREDITS_PER_HOUR (100), REFRESH_BASE_HOURS (168), REFRESH_MIN_HOURS (6),
+    //         REFRESH_RETRY_MINUTES (30), REFRESH_RELOAD_SECONDS (60)
+    private static void schedule(String[] args) throws Exception {
+        String sub = (args.length > 1) ? args[1] : "";
+        String[] rest = Arrays.copyOfRange(args, Math.min(2, args.length), args.length);
+        RefreshScheduleRepository repo = new RefreshScheduleRepository();
+        RefreshScheduler.Options options = RefreshScheduler.Options.fromEnv();
+        switch (sub) {
+            case "add":
+            case "remove": {
+                List<String> ids = readIds(rest);
+                if (ids.isEmpty()) break;
+                try (Connection cn = DbConfig.get()) {
+                    int n = sub.equals("add") ? repo.add(cn, ids) : repo.remove(cn, ids);
+                    System.out.println((sub.equals("add") ? "Added " : "Removed ") + n + " of " + ids.size()
+                            + " authors; " + repo.count(cn) + " tracked.");
+                }
+                return;
+            }
+            case "list": {
+                int limit = (rest.length == 2 && rest[0].equals("--limit")) ? Integer.parseInt(rest[1]) : 20;
+                try (Connection cn = DbConfig.get()) {
+                    new ConsoleView().renderSchedule(repo.findAll(cn, limit), repo.count(cn),
+                            repo.creditsSpent(cn, Instant.now()), options.getCreditsPerHour());
+                }
+                return;
+            }
+            case "run": {
+                int max = (rest.length == 2 && rest[0].equals("--max")) ? Integer.parseInt(rest[1]) : 0;
+                ScholarAuthorClient client = new ScholarAuthorClient(requireApiKey(), null);
+                // one token per call, refilled at the hourly budget: a steady rate, no bursts
+                RateLimiter limiter = new RateLimiter(options.getCreditsPerHour() / 3600.0, 1);
+                HarvestController harvester = new HarvestController(client, new ConsoleView(), limiter, 1);
+                System.out.println("Refresh scheduler: " + options);
+                ConsoleView view = new ConsoleView();
+                int done = new RefreshScheduler(harvester, options).run(max, view::renderScheduledRefresh);
+                System.out.println("Refreshed " + done + " authors. " + client.stats());
+                System.out.println(DbConfig.pool().stats());
+                return;
+            }
+            default:
+                break;
+        }
+        System.err.println("Usage: schedule add|remove <author_id>... | @file | -  |  schedule list [--limit N]  |  schedule run [--max N]");
+        System.exit(1);
+    }
+
+    // Usage: top [--years FROM-TO] [--min-cited N] [--limit N]   (most cited stored articles, indexed)
+    private static void top(String[] args) throws Exception {
+        Integer fromYear = null, toYear = null;
+        int minCited = 0, limit = 20;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--years") && i + 1 < args.length) {
+                String[] range = args[++i].split("-", 2);
+                fromYear = Integer.parseInt(range[0]);
+                toYear = Integer.parseInt(range.length > 1 ? range[1] : range[0]);
+            } else if (args[i].equals("--min-cited") && i + 1 < args.length) {
+                minCited = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--limit") && i + 1 < args.length) {
+                limit = Integer.parseInt(args[++i]);
+            } else {
+                System.err.println("Usage: top [--years FROM-TO] [--min-cited N] [--limit N]");
+                System.exit(1);
+            }
+        }
+
+        ArticleRepository repo = new ArticleRepository();
+        try (Connection cn = DbConfig.get()) {
+            long t0 = System.currentTimeMillis();
+            if (fromYear != null) {
+                List<ArticleRecord> rows = repo.topCitedInYears(cn, fromYear, toYear, limit);
+                new ConsoleView().renderArticles("Most cited " + fromYear + "-" + toYear, rows, System.currentTimeMillis() - t0);
+            } else {
+                List<ArticleRecord> rows = repo.citedAtLeast(cn, minCited, limit);
+                long total = repo.countCitedAtLeast(cn, minCited);
+                new ConsoleView().renderArticles(total + " articles cited at least " + minCited + " times, top " + rows.size(),
+                        rows, System.currentTimeMillis() - t0);
+            }
+        }
+    }
+
+    // Usage: stats [--rebuild] [--by citations|h] [--limit N]   (author leaderboard from author_stats)
+    private static void stats(String[] args) throws Exception {
+        boolean rebuild = false;
+        AuthorStatsRepository.Order order = AuthorStatsRepository.Order.CITATIONS;
+        int limit = 20;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--rebuild")) rebuild = true;
+            else if (args[i].equals("--by") && i + 1 < args.length) order = AuthorStatsRepository.Order.of(args[++i]);
+            else if (args[i].equals("--limit") && i + 1 < args.length) limit = Integer.parseInt(args[++i]);
+            else {
+                System.err.println("Usage: stats [--rebuild] [--by citations|h] [--limit N]");
+                System.exit(1);
+            }
+        }
+
+        AuthorStatsRepository repo = new AuthorStatsRepository();
+        try (Connection cn = DbConfig.get()) {
+            if (rebuild) {
+                long t0 = System.currentTimeMillis();
+                int authors = repo.rebuild(cn);
+                System.out.println("author_stats rebuilt: " + authors + " authors (" + (System.currentTimeMillis() - t0) + " ms)");
+            }
+            long t0 = System.currentTimeMillis();
+            List<AuthorStats> rows = repo.top(cn, order, limit);
+            new ConsoleView().renderLeaderboard(order == AuthorStatsRepository.Order.H_INDEX ? "h-index" : "citations",
+                    rows, repo.count(cn), System.currentTimeMillis() - t0);
+        }
+    }
+
+    private static HarvestController harvester(ScholarAuthorClient client) {
+        RateLimiter limiter = new RateLimiter(
+                Double.parseDouble(Env.get("SERPAPI_RATE_PER_SEC", "5")),
+                Integer.parseInt(Env.get("SERPAPI_BURST", "5")));
+        return new HarvestController(client, new ConsoleView(), limiter, harvestConcurrency());
+    }
+
+    private static int harvestConcurrency() {
+        return Integer.parseInt(Env.get("HARVEST_CONCURRENCY", "8"));
+    }
+
+    // Concurrent writers rely on uk_articles_content_key to turn a racing insert of the same article
+    // into an update; with only the plain V3 index they can store it twice. One writer is always safe.
+    private static void requireUniqueContentKey(String command, int writers) throws Exception {
+        if (writers <= 1) return;
+        try (Connection cn = DbConfig.get()) {
+            if (DedupeJob.hasUniqueIndex(cn)) return;
+        }
+        System.err.println(command + " saves from " + writers + " threads, which needs the unique content_key index: "
+                + "run `app.Main dedupe` first (or use a single writer).");
+        System.exit(1);
+    }
+
+    // Like readIds, but lazily: a file or stdin is read line by line as the consumer advances
+    // (Stream.flatMap would buffer a whole file behind iterator()).
+    private static final class IdReader implements Iterator<String>, AutoCloseable {
+        private final Iterator<String> args;
+        private BufferedReader in;
+        private String next;
+
+        IdReader(String[] args) {
+            this.args = Arrays.asList(args).iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (next == null) {
+                    if (in != null) {
+                        String line = in.readLine();
+                        if (line == null) {
+                            close();
+                            continue;
+                        }
+                        String id = line.trim();
+                        if (!id.isEmpty() && !id.startsWith("#")) next = id;
+                    } else if (!args.hasNext()) {
+                        return false;
+                    } else {
+                        String a = args.next();
+                        if (a.equals("-")) {
+                            in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+                        } else if (a.startsWith("@")) {
+                            in = Files.newBufferedReader(Path.of(a.substring(1)), StandardCharsets.UTF_8);
+                        } else if (!a.isBlank()) {
+                            next = a.trim();
+                        }
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            String id = next;
+            next = null;
+            return id;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (in != null) in.close();
+            in = null;
+        }
+    }
+
+    // Ids from the arguments; "@path" reads a file and "-" reads stdin (blank lines and # comments skipped).
+    private static List<String> readIds(String[] args) throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (String a : args) {
+            List<String> lines;
+            if (a.equals("-")) {
+                lines = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)).lines().toList();
+            } else if (a.startsWith("@")) {
+                lines = Files.readAllLines(Path.of(a.substring(1)), StandardCharsets.UTF_8);
+            } else {
+                lines = List.of(a);
+            }
+            for (String line : lines) {
+                String id = line.trim();
+                if (!id.isEmpty() && !id.startsWith("#")) ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private static void showAuthor(String[] args) {
+        String apiKey = requireApiKey();
 
         // Pass an author_id as a program argument, or use a test id.
         String authorId = (args.length > 0) ? args[0] : "_xwYD2sAAAAJ"; // example id
@@ -21,4 +557,16 @@ public class Main {
 
         controller.showAuthorById(authorId);
     }
+
+    private static String requireApiKey() {
+        String apiKey = System.getenv("SERPAPI_KEY");
+        if ((apiKey == null || apiKey.isBlank()) && Boolean.parseBoolean(System.getenv("SERPAPI_OFFLINE"))) {
+            return "offline"; // served from the response cache only
+        }
+        if (apiKey == null || apiKey.isBlank()) {
+            System.err.println("Set SERPAPI_KEY environment variable.");
+            System.exit(1);
+        }
+        return apiKey;
+    }
 }
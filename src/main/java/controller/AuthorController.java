@@ -2,18 +2,22 @@ package controller;
 
 import db.ArticleRepository;
 import db.DbConfig;
+import metrics.Metrics;
 import model.Author;
 import model.Article;
+import model.SaveStats;
 import service.ScholarAuthorClient;
-import util.SimpleJson;
+import util.AuthorJson;
 import view.ConsoleView;
 
 import java.sql.Connection;
-import java.util.ArrayList;
 import java.util.List;
 
 public class AuthorController {
 
+    private static final Metrics.Phase RENDER = Metrics.phase("render");
+    private static final Metrics.Phase TOTAL = Metrics.phase("author.total");
+
     private final ScholarAuthorClient client;
     private final ConsoleView view;
 
@@ -22,78 +26,60 @@ public class AuthorController {
         this.view = view;
     }
 
+    /**
+     * fetch, parse and save are timed where they happen (client, AuthorJson, repository);
+     * this adds the render and author.total phases and names the failing phase in error messages.
+     */
     public void showAuthorById(String authorId) {
+        long t0 = System.nanoTime();
+        String phase = "fetch";
+        boolean ok = false;
         try {
-            // 1) Fetch JSON from SerpApi (Google Scholar Author engine)
+            // 1) Fetch JSON from SerpApi (Google Scholar Author engine), then map it in one pass
             String json = client.fetchAuthorJson(authorId, 0, 10, "en", "pubdate", false);
+            phase = "parse";
+            AuthorJson payload = AuthorJson.parse(json);
 
             // 2) API-level error
-            String apiError = SimpleJson.extractTopLevelString(json, "error");
-            if (apiError != null && !apiError.isBlank()) {
-                view.renderError("API error: " + apiError);
+            if (payload.hasError()) {
+                Metrics.increment("api.errors");
+                view.renderError("API error: " + payload.getError());
                 return;
             }
 
-            // 3) Map Author (name, affiliations)
-            String authorName = SimpleJson.extractNestedString(json, "author", "name");
-            String affiliations = SimpleJson.extractNestedString(json, "author", "affiliations");
-
-            // 4) Map Articles: title, year, cited_by.value (+ optional fields)
-            List<Article> articles = new ArrayList<>();
-            List<String> articleBlocks = SimpleJson.extractArrayObjects(json, "articles");
-
-            for (String block : articleBlocks) {
-                String title = SimpleJson.extractFieldString(block, "title");
-                String year = SimpleJson.extractFieldString(block, "year");
-                Integer cited = SimpleJson.extractNestedInt(block, "cited_by", "value");
-
-                // Optional extra fields
-                String link = SimpleJson.extractFieldString(block, "link");            // often present
-                String abstractText = SimpleJson.extractFieldString(block, "snippet"); // short summary/snippet
-                String authorsCsv = SimpleJson.extractFieldString(block, "authors");   // provider-dependent
-
-                if (title == null || title.isBlank()) {
-                    continue; // skip incomplete rows
-                }
-
-                Article art = new Article(title, year, cited);
-                art.setLink(link);
-                art.setAbstractText(abstractText);
-                art.setAuthors(authorsCsv);
-                articles.add(art);
-            }
-
-            Author author = new Author(
-                    (authorName != null && !authorName.isBlank()) ? authorName : "(unknown)",
-                    (affiliations != null && !affiliations.isBlank()) ? affiliations : "(unknown)",
-                    articles
-            );
+            // 3) Map Author (name, affiliations) + 4) Articles: title, year, cited_by.value (+ optional fields)
+            Author author = payload.toAuthor();
+            List<Article> articles = author.getArticles();
 
             // 5) Persist top 3 articles for this researcher (DB transaction)
             //    - matches Sprint 3 requirement: store 3 articles per researcher
+            //    - idempotent: re-running only writes articles that are new or changed
+            SaveStats saved = null;
+            phase = "save";
             if (!articles.isEmpty()) {
                 try (Connection cn = DbConfig.get()) {
-                    cn.setAutoCommit(false);
                     ArticleRepository repo = new ArticleRepository();
                     String researcherTag = "author:" + authorId; // stored in 'keywords' column
-
-                    int count = 0;
-                    for (Article a : articles) {
-                        repo.save(cn, a, researcherTag);
-                        if (++count >= 3) break;
-                    }
-                    cn.commit();
+                    saved = repo.saveAll(cn, articles.subList(0, Math.min(3, articles.size())), researcherTag);
                 } catch (Exception dbEx) {
                     // Show concise DB error; still render author info to the console
+                    Metrics.increment("db.errors");
                     view.renderError("DB error: " + dbEx.getMessage());
                 }
             }
 
             // 6) Finally, render to console
+            phase = "render";
+            long r0 = System.nanoTime();
             view.renderAuthor(author);
+            if (saved != null) view.renderSaveStats(saved);
+            RENDER.record(r0, true);
+            ok = true;
 
         } catch (Exception e) {
-            view.renderError("Failed to load author: " + e.getMessage());
+            view.renderError("Failed to load author (" + phase + "): " + e.getMessage());
+        } finally {
+            TOTAL.record(t0, ok);
         }
     }
 }
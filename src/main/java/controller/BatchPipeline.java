@@ -0,0 +1,409 @@
+package controller;
+
+import db.ArticleRepository;
+import db.DbConfig;
+import metrics.Metrics;
+import model.Article;
+import model.SaveStats;
+import service.RateLimiter;
+import service.ScholarAuthorClient;
+import util.AuthorJson;
+import util.Env;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Headless ingestion for long id lists: fetch, parse and persist run as separate stages, each with
+ * its own workers, connected by bounded queues:
+ *
+ *   ids --[ids]--> fetch (HTTP, virtual threads) --[pages]--> parse (CPU) --[parsed]--> persist (DB)
+ *
+ * A full queue blocks its producers, so a slow stage slows everything upstream of it (down to the
+ * id reader) instead of piling up payloads: memory is bounded by the queue capacities whatever the
+ * input size. Persist workers group consecutive authors into one transaction
+ * ({@link ArticleRepository#saveGroup}) until txArticles articles or lingerMs without input; if a
+ * group fails, its authors are retried one by one so a single bad author does not fail the others.
+ *
+ * Each stage reports items, busy time, time blocked on a full output queue (backpressure) and time
+ * waiting on an empty input queue (starved), which says where the bottleneck is.
+ */
+public class BatchPipeline {
+
+    private static final Metrics.Phase AUTHOR = Metrics.phase("batch.author");
+
+    /** Threads per stage, queue capacity between stages, page size and articles per persist transaction. */
+    public static final class Options {
+        int fetchThreads = 8;
+        int parseThreads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        int persistThreads = 1;
+        int queueCapacity = 64;
+        int pageSize = HarvestController.SYNC_PAGE_SIZE;
+        int txArticles = 5_000;
+        long lingerMs = 200;
+
+        public Options fetchThreads(int n) { this.fetchThreads = positive(n); return this; }
+        public Options parseThreads(int n) { this.parseThreads = positive(n); return this; }
+        public Options persistThreads(int n) { this.persistThreads = positive(n); return this; }
+        public Options queueCapacity(int n) { this.queueCapacity = positive(n); return this; }
+        public Options pageSize(int n) { this.pageSize = positive(n); return this; }
+        public Options txArticles(int n) { this.txArticles = positive(n); return this; }
+        public Options lingerMs(long ms) { this.lingerMs = ms; return this; }
+
+        public int getPersistThreads() { return persistThreads; }
+
+        public static Options fromEnv() {
+            Options o = new Options();
+            o.fetchThreads(Integer.parseInt(Env.get("BATCH_FETCH_THREADS", "8")));
+            o.parseThreads(Integer.parseInt(Env.get("BATCH_PARSE_THREADS", String.valueOf(o.parseThreads))));
+            o.persistThreads(Integer.parseInt(Env.get("BATCH_PERSIST_THREADS", "1")));
+            o.queueCapacity(Integer.parseInt(Env.get("BATCH_QUEUE", "64")));
+            o.pageSize(Integer.parseInt(Env.get("BATCH_PAGE_SIZE", String.valueOf(HarvestController.SYNC_PAGE_SIZE))));
+            o.txArticles(Integer.parseInt(Env.get("BATCH_TX_ARTICLES", "5000")));
+            o.lingerMs(Long.parseLong(Env.get("BATCH_LINGER_MS", "200")));
+            return o;
+        }
+
+        private static int positive(int n) {
+            if (n < 1) throw new IllegalArgumentException("must be >= 1: " + n);
+            return n;
+        }
+
+        @Override
+        public String toString() {
+            return "fetch=" + fetchThreads + " parse=" + parseThreads + " persist=" + persistThreads
+                    + " queue=" + queueCapacity + " num=" + pageSize + " tx.articles=" + txArticles
+                    + " linger=" + lingerMs + "ms";
+        }
+    }
+
+    /** Receives each author's outcome as soon as it is known (from pipeline threads). */
+    public interface Listener {
+        void failed(String authorId, String error);
+    }
+
+    /** One author's first page on its way through the stages. */
+    private static final class Item {
+        final String authorId;
+        final long t0 = System.nanoTime();
+        String json;
+        List<Article> articles;
+
+        Item(String authorId) {
+            this.authorId = authorId;
+        }
+    }
+
+    private final ScholarAuthorClient client;
+    private final RateLimiter rateLimiter;
+    private final Options options;
+    private final ArticleRepository repo = new ArticleRepository();
+
+    public BatchPipeline(ScholarAuthorClient client, RateLimiter rateLimiter, Options options) {
+        this.client = client;
+        this.rateLimiter = rateLimiter;
+        this.options = options;
+    }
+
+    /** Runs every id through the stages; returns when the last author is persisted (or failed). */
+    public Report run(Iterator<String> authorIds, Listener listener) throws InterruptedException {
+        long t0 = System.nanoTime();
+        Report report = new Report(options);
+        StageQueue<Item> ids = new StageQueue<>(options.queueCapacity, 1);
+        StageQueue<Item> pages = new StageQueue<>(options.queueCapacity, options.fetchThreads);
+        StageQueue<Item> parsed = new StageQueue<>(options.queueCapacity, options.parseThreads);
+
+        List<Thread> threads = new ArrayList<>();
+        threads.add(Thread.ofVirtual().name("batch-ids").start(() -> readIds(authorIds, ids, report.read)));
+        for (int i = 0; i < options.fetchThreads; i++) {
+            threads.add(Thread.ofVirtual().name("batch-fetch-" + i).start(
+                    () -> work(ids, pages, report.fetch, item -> fetch(item, report, listener))));
+        }
+        for (int i = 0; i < options.parseThreads; i++) {
+            threads.add(Thread.ofPlatform().name("batch-parse-" + i).start(
+                    () -> work(pages, parsed, report.parse, item -> parse(item, report, listener))));
+        }
+        for (int i = 0; i < options.persistThreads; i++) {
+            threads.add(Thread.ofPlatform().name("batch-persist-" + i).start(() -> persist(parsed, report, listener)));
+        }
+        for (Thread t : threads) t.join();
+        report.wallNanos = System.nanoTime() - t0;
+        return report;
+    }
+
+    private void readIds(Iterator<String> authorIds, StageQueue<Item> out, StageStats stats) {
+        try {
+            while (true) {
+                long t = System.nanoTime();
+                if (!authorIds.hasNext()) break;
+                Item item = new Item(authorIds.next());
+                stats.busy.add(System.nanoTime() - t);
+                stats.items.increment();
+                out.put(item, stats);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            out.producerDone();
+        }
+    }
+
+    /** Item in, item (or null = dropped) out; a stage worker never throws. */
+    private interface Step {
+        Item apply(Item item) throws InterruptedException;
+    }
+
+    private static void work(StageQueue<Item> in, StageQueue<Item> out, StageStats stats, Step step) {
+        try {
+            Item item;
+            while ((item = in.take(stats)) != null) {
+                long t = System.nanoTime();
+                Item result = step.apply(item);
+                stats.busy.add(System.nanoTime() - t);
+                stats.items.increment();
+                if (result != null) out.put(result, stats);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            out.producerDone();
+        }
+    }
+
+    private Item fetch(Item item, Report report, Listener listener) throws InterruptedException {
+        rateLimiter.acquire();
+        try {
+            item.json = client.fetchAuthorJson(item.authorId, 0, options.pageSize, "en", "pubdate", false);
+            return item;
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            fail(item, "fetch: " + e.getMessage(), report, listener);
+            return null;
+        }
+    }
+
+    private Item parse(Item item, Report report, Listener listener) {
+        try {
+            AuthorJson payload = AuthorJson.parse(item.json);
+            item.json = null; // the page is the bulk of what is queued
+            if (payload.hasError()) {
+                Metrics.increment("api.errors");
+                fail(item, "API error: " + payload.getError(), report, listener);
+                return null;
+            }
+            item.articles = payload.getArticles();
+            report.articles.add(item.articles.size());
+            return item;
+        } catch (Exception e) {
+            fail(item, "parse: " + e.getMessage(), report, listener);
+            return null;
+        }
+    }
+
+    // Groups authors until txArticles articles, or lingerMs pass without another one arriving.
+    private void persist(StageQueue<Item> in, Report report, Listener listener) {
+        StageStats stats = report.persist;
+        try {
+            Item first;
+            while ((first = in.take(stats)) != null) {
+                List<Item> group = new ArrayList<>();
+                group.add(first);
+                int articles = first.articles.size();
+                Item next;
+                while (articles < options.txArticles && (next = in.poll(options.lingerMs, stats)) != null) {
+                    group.add(next);
+                    articles += next.articles.size();
+                }
+                long t = System.nanoTime();
+                save(group, report, listener);
+                stats.busy.add(System.nanoTime() - t);
+                stats.items.add(group.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void save(List<Item> group, Report report, Listener listener) {
+        Map<String, List<Article>> byTag = new LinkedHashMap<>();
+        for (Item item : group) byTag.computeIfAbsent("author:" + item.authorId, k -> new ArrayList<>()).addAll(item.articles);
+        try (Connection cn = DbConfig.get()) {
+            try {
+                report.saved(repo.saveGroup(cn, byTag));
+                report.transactions.increment();
+                for (Item item : group) succeed(item, report);
+                return;
+            } catch (Exception e) {
+                if (group.size() == 1) throw e;
+                report.groupRetries.increment();
+            }
+            // one author at a time, so only the one that cannot be written fails
+            for (Item item : group) {
+                try {
+                    report.saved(repo.saveAll(cn, item.articles, "author:" + item.authorId));
+                    report.transactions.increment();
+                    succeed(item, report);
+                } catch (Exception e) {
+                    fail(item, "save: " + e.getMessage(), report, listener);
+                }
+            }
+        } catch (Exception e) {
+            for (Item item : group) fail(item, "save: " + e.getMessage(), report, listener);
+        }
+    }
+
+    private static void succeed(Item item, Report report) {
+        report.ok.increment();
+        AUTHOR.recordElapsed(System.nanoTime() - item.t0, true);
+    }
+
+    private static void fail(Item item, String error, Report report, Listener listener) {
+        report.failed.increment();
+        AUTHOR.recordElapsed(System.nanoTime() - item.t0, false);
+        if (listener != null) listener.failed(item.authorId, error);
+    }
+
+    /**
+     * Bounded hand-off between two stages. Closed once every producer called producerDone();
+     * take() then returns null to all consumers after the remaining items are drained.
+     */
+    static final class StageQueue<T> {
+        private static final Object END = new Object();
+
+        private final BlockingQueue<Object> queue;
+        private final AtomicInteger producers;
+
+        StageQueue(int capacity, int producers) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.producers = new AtomicInteger(producers);
+        }
+
+        void put(T item, StageStats stats) throws InterruptedException {
+            if (queue.offer(item)) return;
+            long t = System.nanoTime();
+            queue.put(item);
+            stats.blocked.add(System.nanoTime() - t);
+        }
+
+        void producerDone() {
+            if (producers.decrementAndGet() == 0) {
+                try {
+                    queue.put(END);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        /** Next item, or null once closed and drained. */
+        T take(StageStats stats) throws InterruptedException {
+            Object o = queue.poll();
+            if (o == null) {
+                long t = System.nanoTime();
+                o = queue.take();
+                stats.starved.add(System.nanoTime() - t);
+            }
+            return unwrap(o);
+        }
+
+        /** Like take() but gives up (null) after timeoutMs; null also once closed and drained. */
+        T poll(long timeoutMs, StageStats stats) throws InterruptedException {
+            Object o = queue.poll();
+            if (o == null) {
+                long t = System.nanoTime();
+                o = queue.poll(timeoutMs, TimeUnit.MILLISECONDS);
+                stats.starved.add(System.nanoTime() - t);
+                if (o == null) return null;
+            }
+            return unwrap(o);
+        }
+
+        @SuppressWarnings("unchecked")
+        private T unwrap(Object o) throws InterruptedException {
+            if (o == END) {
+                queue.put(END); // for the next consumer
+                return null;
+            }
+            return (T) o;
+        }
+    }
+
+    /** Counters of one stage, summed over its workers (nanoseconds). */
+    public static final class StageStats {
+        private final String name;
+        private final int workers;
+        final LongAdder items = new LongAdder();
+        final LongAdder busy = new LongAdder();
+        final LongAdder blocked = new LongAdder();
+        final LongAdder starved = new LongAdder();
+
+        StageStats(String name, int workers) {
+            this.name = name;
+            this.workers = workers;
+        }
+
+        public String getName() { return name; }
+        public int getWorkers() { return workers; }
+        public long getItems() { return items.sum(); }
+        public long getBusyMillis() { return busy.sum() / 1_000_000; }
+        /** Time spent waiting for room in the next stage's queue (backpressure). */
+        public long getBlockedMillis() { return blocked.sum() / 1_000_000; }
+        /** Time spent waiting for input. */
+        public long getStarvedMillis() { return starved.sum() / 1_000_000; }
+
+        /** Share of the workers' time spent working, 0..1 (1 = this stage is the bottleneck). */
+        public double utilization(long wallNanos) {
+            return wallNanos <= 0 ? 0 : Math.min(1.0, busy.sum() / ((double) wallNanos * workers));
+        }
+    }
+
+    /** What one run did, per stage and in total. */
+    public static final class Report {
+        private final String options;
+        private final StageStats read = new StageStats("read", 1);
+        private final StageStats fetch, parse, persist;
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder articles = new LongAdder();
+        private final LongAdder written = new LongAdder();
+        private final LongAdder unchanged = new LongAdder();
+        private final LongAdder transactions = new LongAdder();
+        private final LongAdder groupRetries = new LongAdder();
+        private long wallNanos;
+
+        Report(Options options) {
+            this.options = options.toString();
+            this.fetch = new StageStats("fetch", options.fetchThreads);
+            this.parse = new StageStats("parse", options.parseThreads);
+            this.persist = new StageStats("persist", options.persistThreads);
+        }
+
+        private void saved(SaveStats s) {
+            written.add(s.getWritten());
+            unchanged.add(s.getUnchanged());
+        }
+
+        public List<StageStats> getStages() { return List.of(read, fetch, parse, persist); }
+        public String getOptions() { return options; }
+        public long getOk() { return ok.sum(); }
+        public long getFailed() { return failed.sum(); }
+        public long getArticles() { return articles.sum(); }
+        public long getWritten() { return written.sum(); }
+        public long getUnchanged() { return unchanged.sum(); }
+        public long getTransactions() { return transactions.sum(); }
+        /** Groups that failed as a whole and were retried author by author. */
+        public long getGroupRetries() { return groupRetries.sum(); }
+        public long getWallNanos() { return wallNanos; }
+        public long getWallMillis() { return wallNanos / 1_000_000; }
+    }
+}
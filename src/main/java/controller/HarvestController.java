@@ -0,0 +1,212 @@
+package controller;
+
+import db.ArticleRepository;
+import db.AuthorSyncRepository;
+import db.ContentKey;
+import db.DbConfig;
+import metrics.Metrics;
+import model.Article;
+import model.HarvestResult;
+import model.SaveStats;
+import model.SyncCheckpoint;
+import service.ArticlePager;
+import service.Pacer;
+import service.RateLimiter;
+import service.ScholarAuthorClient;
+import util.AuthorJson;
+import view.ConsoleView;
+
+import java.sql.Connection;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Refreshes many authors concurrently: one virtual thread per author, at most `concurrency`
+ * in flight (HTTP + DB), and every API call paced by a shared token-bucket RateLimiter.
+ * Wall time is roughly authors / min(concurrency, rate * latency) instead of authors * latency.
+ *
+ * harvest() saves the first page of every author; sync() is the incremental mode that pages
+ * through sort=pubdate only until it reaches articles already stored for the author.
+ */
+public class HarvestController {
+
+    private static final Metrics.Phase AUTHOR = Metrics.phase("harvest.author");
+    private static final Metrics.Phase SYNC = Metrics.phase("sync.author");
+
+    /** SerpApi's maximum page size; one call covers up to 100 new articles. */
+    public static final int SYNC_PAGE_SIZE = 100;
+    /** Pages a full sync keeps requested ahead of the one being saved. */
+    public static final int SYNC_PREFETCH = 2;
+
+    private final ScholarAuthorClient client;
+    private final ConsoleView view;
+    private final RateLimiter rateLimiter;
+    private final Semaphore inFlight;
+    private final ArticleRepository repo = new ArticleRepository();
+    private final AuthorSyncRepository checkpoints = new AuthorSyncRepository();
+
+    public HarvestController(ScholarAuthorClient client, ConsoleView view, RateLimiter rateLimiter, int concurrency) {
+        if (concurrency < 1) throw new IllegalArgumentException("concurrency must be >= 1");
+        this.client = client;
+        this.view = view;
+        this.rateLimiter = rateLimiter;
+        this.inFlight = new Semaphore(concurrency);
+    }
+
+    /** Harvests all ids and renders a per-author report; results keep the input order. */
+    public List<HarvestResult> harvest(List<String> authorIds) {
+        return runAll("Harvest", authorIds, AUTHOR, this::refresh);
+    }
+
+    /**
+     * Delta sync: per author, requests sort=pubdate pages until a page contains an article already
+     * linked to the author (or the profile ends), saves what was fetched (only new or changed rows
+     * are written) and updates the author_sync checkpoint. An unchanged author costs one API call.
+     * full=true ignores what is stored and walks the whole profile (also refreshes old citation counts).
+     */
+    public List<HarvestResult> sync(List<String> authorIds, boolean full) {
+        return runAll(full ? "Sync (full)" : "Sync", authorIds, SYNC, (id, t0) -> syncOne(id, full, rateLimiter, t0));
+    }
+
+    /** Delta (or full) sync of one author on the calling thread, without rendering; never throws. */
+    public HarvestResult syncAuthor(String authorId, boolean full) {
+        return syncAuthor(authorId, full, null);
+    }
+
+    /** Same, with budget (if not null) asked for a permit after the rate limiter before every API call. */
+    public HarvestResult syncAuthor(String authorId, boolean full, Pacer budget) {
+        Pacer pacer = (budget == null) ? rateLimiter : Pacer.both(rateLimiter, budget);
+        return runOne(authorId, SYNC, (id, t0) -> syncOne(id, full, pacer, t0));
+    }
+
+    private interface AuthorTask {
+        HarvestResult run(String authorId, long t0) throws Exception;
+    }
+
+    private List<HarvestResult> runAll(String title, List<String> authorIds, Metrics.Phase phase, AuthorTask task) {
+        long t0 = System.currentTimeMillis();
+        List<Future<HarvestResult>> futures = new ArrayList<>(authorIds.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String id : authorIds) {
+                futures.add(executor.submit(() -> runOne(id, phase, task)));
+            }
+        } // close() waits for all tasks
+
+        List<HarvestResult> results = new ArrayList<>(futures.size());
+        for (Future<HarvestResult> f : futures) {
+            results.add(f.resultNow()); // runOne never throws
+        }
+        view.renderHarvest(title, results, System.currentTimeMillis() - t0);
+        return results;
+    }
+
+    // Work time per author (queueing behind the concurrency cap excluded), failures as errors.
+    private HarvestResult runOne(String authorId, Metrics.Phase phase, AuthorTask task) {
+        long t0 = System.currentTimeMillis();
+        HarvestResult r;
+        try {
+            inFlight.acquire();
+            t0 = System.currentTimeMillis(); // report work time, not time queued behind the cap
+            try {
+                r = task.run(authorId, t0);
+            } finally {
+                inFlight.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            r = HarvestResult.failure(authorId, "interrupted", elapsed(t0));
+        } catch (Exception e) {
+            r = HarvestResult.failure(authorId, e.getMessage(), elapsed(t0));
+        }
+        phase.recordElapsed(r.getElapsedMillis() * 1_000_000L, r.isOk());
+        return r;
+    }
+
+    private HarvestResult refresh(String authorId, long t0) throws Exception {
+        rateLimiter.acquire();
+        AuthorJson payload = client.fetchAuthor(authorId, 0, 10, "en", "pubdate", false);
+        if (payload.hasError()) {
+            Metrics.increment("api.errors");
+            return HarvestResult.failure(authorId, "API error: " + payload.getError(), elapsed(t0));
+        }
+
+        SaveStats saved = new SaveStats();
+        if (!payload.getArticles().isEmpty()) {
+            try (Connection cn = DbConfig.get()) {
+                saved = repo.saveAll(cn, payload.getArticles(), "author:" + authorId);
+            }
+        }
+        return HarvestResult.success(authorId, payload.toAuthor().getName(),
+                payload.getArticles().size(), saved.getWritten(), saved.getUnchanged(), elapsed(t0));
+    }
+
+    private HarvestResult syncOne(String authorId, boolean full, Pacer pacer, long t0) throws Exception {
+        String tag = "author:" + authorId;
+        SyncCheckpoint previous;
+        try (Connection cn = DbConfig.get()) {
+            previous = checkpoints.find(cn, authorId);
+        }
+
+        SaveStats saved = new SaveStats();
+        String name = null;
+        Article newest = null;
+        Long citations = null;
+        int pages, fetched = 0;
+        // a delta sync usually stops on its first page, so only a full walk requests pages ahead
+        try (ArticlePager pager = client.pages(authorId, SYNC_PAGE_SIZE, "en", "pubdate", full ? SYNC_PREFETCH : 0, pacer)) {
+            AuthorJson page;
+            while ((page = pager.next()) != null) {
+                if (page.hasError()) {
+                    Metrics.increment("api.errors");
+                    return HarvestResult.failure(authorId, "API error: " + page.getError(), elapsed(t0));
+                }
+                if (name == null) name = page.toAuthor().getName();
+                if (citations == null) citations = page.getCitedByTotal();
+
+                List<Article> articles = page.getArticles();
+                if (articles.isEmpty()) break;
+                if (newest == null) newest = articles.get(0);
+                fetched += articles.size();
+
+                boolean reachedKnown;
+                try (Connection cn = DbConfig.get()) { // not held across the HTTP calls
+                    reachedKnown = !full && reachesKnown(cn, authorId, previous, articles);
+                    saved.add(repo.saveAll(cn, articles, tag));
+                }
+                // newest first: everything after a known article is known too; the pager stops on a short page
+                if (reachedKnown) break;
+            }
+            pages = pager.getRequests();
+        }
+
+        try (Connection cn = DbConfig.get()) {
+            String newestKey = (newest == null) ? null : ContentKey.of(newest.getTitle(), newest.getLink());
+            checkpoints.save(cn, new SyncCheckpoint(authorId, Instant.now(),
+                    newest != null ? newest.getYear() : previous != null ? previous.getNewestYear() : null,
+                    newest != null ? newest.getTitle() : previous != null ? previous.getNewestTitle() : null,
+                    newestKey != null ? newestKey : previous != null ? previous.getNewestKey() : null,
+                    repo.countByAuthor(cn, authorId)));
+        }
+        Metrics.add("sync.pages", pages);
+        return HarvestResult.success(authorId, name, pages, fetched, saved.getWritten(), saved.getUnchanged(), citations, elapsed(t0));
+    }
+
+    // The checkpoint's newest article answers the common "nothing new" case without a query.
+    private boolean reachesKnown(Connection cn, String authorId, SyncCheckpoint previous, List<Article> articles) throws Exception {
+        List<String> keys = new ArrayList<>(articles.size());
+        for (Article a : articles) keys.add(ContentKey.of(a.getTitle(), a.getLink()));
+        if (previous != null && previous.getNewestKey() != null && keys.contains(previous.getNewestKey())) return true;
+        Set<String> known = repo.knownKeys(cn, authorId, keys);
+        return !known.isEmpty();
+    }
+
+    private static long elapsed(long t0) {
+        return System.currentTimeMillis() - t0;
+    }
+}
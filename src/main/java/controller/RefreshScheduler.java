@@ -0,0 +1,227 @@
+package controller;
+
+import db.DbConfig;
+import db.RefreshScheduleRepository;
+import metrics.Metrics;
+import model.HarvestResult;
+import model.ScheduledAuthor;
+import service.Pacer;
+import util.Env;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.Year;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Long-running refresh of tracked authors (refresh_schedule) within an API credit budget.
+ *
+ * An author's priority is staleness weighted by citation velocity, (hours since refresh) x
+ * (1 + citations gained per day). It is due once that reaches baseHours, i.e. baseHours / (1 + velocity)
+ * after its last refresh (at least minHours): a dormant profile waits the full base interval, one
+ * gaining 10 citations a day is refreshed 11 times as often. The due time does not change until the
+ * next refresh, so the queue is a PriorityQueue ordered by it; when the budget cannot keep up, authors
+ * are served in the order they became due. Velocity is measured from the profile's total citations,
+ * which the API reports with every page, between refreshes (smoothed); a delta sync only re-reads
+ * the newest articles, so summing stored cited_by would miss growth on older ones. Stored sums are
+ * the fallback when a response carries no total. On the first refresh velocity is the lifetime
+ * average since the oldest stored year.
+ *
+ * Each refresh is a delta sync (HarvestController#syncAuthor, usually one API call). Calls are paced
+ * by a RateLimiter at creditsPerHour / 3600 per second with no burst, so the daemon spends its budget
+ * as a steady trickle. Before each call, a multi-page sync included, one credit of the current clock
+ * hour is reserved in api_credits; when the hour is spent the call waits for the next one, so neither
+ * a long sync nor a restarted daemon overspends. State is written after every refresh, and the queue
+ * is reloaded from the table every reloadSeconds to pick up `schedule add/remove`.
+ */
+public class RefreshScheduler {
+
+    private static final Metrics.Phase REFRESH = Metrics.phase("schedule.refresh");
+
+    /** Hourly credit budget and refresh intervals, as documented on the `schedule` command in Main. */
+    public static final class Options {
+        int creditsPerHour = 100;
+        double baseHours = 168;
+        double minHours = 6;
+        long retryMinutes = 30;
+        long reloadSeconds = 60;
+
+        public Options creditsPerHour(int n) { this.creditsPerHour = n; return this; }
+        /** Interval of an author without new citations (and the longest one). */
+        public Options baseHours(double h) { this.baseHours = h; return this; }
+        /** Shortest interval, however fast an author gains citations. */
+        public Options minHours(double h) { this.minHours = h; return this; }
+        /** First retry delay after a failed refresh; doubles per consecutive failure up to baseHours. */
+        public Options retryMinutes(long m) { this.retryMinutes = m; return this; }
+        public Options reloadSeconds(long s) { this.reloadSeconds = s; return this; }
+
+        public int getCreditsPerHour() { return creditsPerHour; }
+
+        public static Options fromEnv() {
+            return new Options()
+                    .creditsPerHour(Integer.parseInt(Env.get("REFRESH_CREDITS_PER_HOUR", "100")))
+                    .baseHours(Double.parseDouble(Env.get("REFRESH_BASE_HOURS", "168")))
+                    .minHours(Double.parseDouble(Env.get("REFRESH_MIN_HOURS", "6")))
+                    .retryMinutes(Long.parseLong(Env.get("REFRESH_RETRY_MINUTES", "30")))
+                    .reloadSeconds(Long.parseLong(Env.get("REFRESH_RELOAD_SECONDS", "60")));
+        }
+
+        @Override
+        public String toString() {
+            return "credits/h=" + creditsPerHour + " base=" + baseHours + "h min=" + minHours + "h retry="
+                    + retryMinutes + "m reload=" + reloadSeconds + "s";
+        }
+    }
+
+    /** Called after each refresh (daemon thread). */
+    public interface Listener {
+        void refreshed(ScheduledAuthor after, HarvestResult result, int creditsThisHour);
+    }
+
+    /** Soonest due first; ties in the order authors were added. */
+    static final Comparator<ScheduledAuthor> BY_DUE = Comparator.comparing(ScheduledAuthor::getNextDueAt)
+            .thenComparing(ScheduledAuthor::getAddedAt)
+            .thenComparing(ScheduledAuthor::getAuthorId);
+
+    private final HarvestController harvester;
+    private final Options options;
+    private final RefreshScheduleRepository repo = new RefreshScheduleRepository();
+    private final PriorityQueue<ScheduledAuthor> queue = new PriorityQueue<>(BY_DUE);
+
+    /** harvester should pace its calls at options.creditsPerHour (see app.Main schedule). */
+    public RefreshScheduler(HarvestController harvester, Options options) {
+        if (options.creditsPerHour < 1) throw new IllegalArgumentException("creditsPerHour must be >= 1");
+        this.harvester = harvester;
+        this.options = options;
+    }
+
+    /** Refreshes due authors until maxRefreshes is reached (0 = until interrupted). Returns the number done. */
+    public int run(int maxRefreshes, Listener listener) throws Exception {
+        int done = 0;
+        long reloadAt = 0;
+        while (maxRefreshes <= 0 || done < maxRefreshes) {
+            long now = System.currentTimeMillis();
+            if (now >= reloadAt) {
+                reload();
+                reloadAt = now + options.reloadSeconds * 1000;
+            }
+            ScheduledAuthor head = queue.peek();
+            long waitMillis = (head == null) ? Long.MAX_VALUE : head.getNextDueAt().toEpochMilli() - now;
+            if (waitMillis > 0) {
+                Thread.sleep(Math.max(1, Math.min(waitMillis, reloadAt - now)));
+                continue;
+            }
+
+            int spent;
+            try (Connection cn = DbConfig.get()) {
+                spent = repo.creditsSpent(cn, Instant.now());
+            }
+            if (spent >= options.creditsPerHour) {
+                sleepUntilNextHour();
+                continue;
+            }
+
+            queue.poll();
+            long t0 = System.nanoTime();
+            HourlyBudget budget = new HourlyBudget();
+            HarvestResult result = harvester.syncAuthor(head.getAuthorId(), false, budget);
+            Instant at = Instant.now();
+            ScheduledAuthor next;
+            try (Connection cn = DbConfig.get()) {
+                next = result.isOk()
+                        ? afterRefresh(head, measured(result, repo.citations(cn, head.getAuthorId())), at, options)
+                        : afterFailure(head, at, options);
+                repo.update(cn, next);
+                spent = repo.creditsSpent(cn, at);
+            }
+            REFRESH.record(t0, result.isOk());
+            Metrics.add("schedule.credits", budget.reserved);
+            queue.add(next);
+            done++;
+            if (listener != null) listener.refreshed(next, result, spent);
+        }
+        return done;
+    }
+
+    private void reload() throws Exception {
+        List<ScheduledAuthor> all;
+        try (Connection cn = DbConfig.get()) {
+            all = repo.findAll(cn, 0);
+        }
+        queue.clear();
+        queue.addAll(all);
+    }
+
+    /** The profile total reported with the refresh, else the stored sum; the first year always comes from storage. */
+    static RefreshScheduleRepository.Citations measured(HarvestResult result, RefreshScheduleRepository.Citations stored) {
+        return (result.getCitations() == null) ? stored
+                : new RefreshScheduleRepository.Citations(result.getCitations(), stored.getFirstYear());
+    }
+
+    /** State after a successful refresh that measured `now` citations. */
+    static ScheduledAuthor afterRefresh(ScheduledAuthor prev, RefreshScheduleRepository.Citations now, Instant at, Options o) {
+        double velocity;
+        if (prev.getCitations() != null && prev.getLastRefreshedAt() != null) {
+            double days = Math.max(1.0 / 24, Duration.between(prev.getLastRefreshedAt(), at).toMillis() / 86_400_000.0);
+            double observed = Math.max(0, now.getTotal() - prev.getCitations()) / days;
+            velocity = prev.getVelocity() + (observed - prev.getVelocity()) / 2;
+        } else {
+            int years = (now.getFirstYear() == null) ? 1 : Math.max(1, Year.now().getValue() - now.getFirstYear() + 1);
+            velocity = now.getTotal() / (years * 365.0);
+        }
+        return new ScheduledAuthor(prev.getAuthorId(), prev.getAddedAt(), at, at.plus(interval(velocity, o)),
+                now.getTotal(), velocity, 0);
+    }
+
+    /** State after a failed refresh: retry with exponential delay, keep what was measured. */
+    static ScheduledAuthor afterFailure(ScheduledAuthor prev, Instant at, Options o) {
+        int failures = prev.getFailures() + 1;
+        long minutes = Math.min((long) (o.baseHours * 60), o.retryMinutes << Math.min(failures - 1, 20));
+        return new ScheduledAuthor(prev.getAuthorId(), prev.getAddedAt(), prev.getLastRefreshedAt(),
+                at.plus(Duration.ofMinutes(minutes)), prev.getCitations(), prev.getVelocity(), failures);
+    }
+
+    private static void sleepUntilNextHour() throws InterruptedException {
+        Instant nextHour = Instant.now().truncatedTo(ChronoUnit.HOURS).plus(1, ChronoUnit.HOURS);
+        Thread.sleep(Math.max(1, Duration.between(Instant.now(), nextHour).toMillis()));
+    }
+
+    // One credit of the current hour per API call, reserved in api_credits before the call goes out.
+    private final class HourlyBudget implements Pacer {
+        int reserved;
+
+        @Override
+        public void acquire() throws Exception {
+            while (!reserve()) sleepUntilNextHour();
+        }
+
+        @Override
+        public boolean tryAcquire() {
+            try {
+                return reserve();
+            } catch (Exception e) {
+                return false; // a skipped speculative call costs nothing
+            }
+        }
+
+        private boolean reserve() throws Exception {
+            try (Connection cn = DbConfig.get()) {
+                Instant now = Instant.now();
+                if (repo.creditsSpent(cn, now) >= options.creditsPerHour) return false;
+                repo.addCredits(cn, now, 1);
+                reserved++;
+                return true;
+            }
+        }
+    }
+
+    /** baseHours / (1 + velocity), at least minHours. */
+    static Duration interval(double velocity, Options o) {
+        double hours = Math.max(o.minHours, o.baseHours / (1 + Math.max(0, velocity)));
+        return Duration.ofSeconds(Math.round(hours * 3600));
+    }
+}
@@ -1,59 +1,821 @@
 package db;
 
+import metrics.Metrics;
+import metrics.SaveEvent;
 import model.Article;
+import model.ArticleColumns;
 import model.ArticleRecord;
+import model.SaveStats;
+import search.Tokenizer;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.StringJoiner;
 
 public class ArticleRepository {
 
-    private static final String INSERT_SQL =
-            "INSERT INTO articles (title, authors, publication_date, abstract, link, keywords, cited_by) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    // Upsert keyed on content_key (see ContentKey). Keywords keep the tag of the first author that saved the row;
+    // other researchers are recorded in article_authors.
+    // shared with BulkLoader's INSERT ... SELECT so both paths merge re-fetched rows the same way
+    // (qualified: there the staging table has the same column names; CASE rather than IF() so the H2
+    // benchmark schema accepts it too)
+    static final String UPSERT_UPDATE =
+            "ON DUPLICATE KEY UPDATE " +
+                    "articles.cited_by = COALESCE(VALUES(cited_by), articles.cited_by), " +
+                    "articles.authors = COALESCE(NULLIF(VALUES(authors), ''), articles.authors), " +
+                    "articles.pub_year = CASE WHEN NULLIF(VALUES(publication_date), '') IS NULL THEN articles.pub_year ELSE VALUES(pub_year) END, " +
+                    "articles.publication_date = COALESCE(NULLIF(VALUES(publication_date), ''), articles.publication_date), " +
+                    "articles.abstract = COALESCE(NULLIF(VALUES(abstract), ''), articles.abstract)";
 
-    public void save(Connection cn, Article a, String researcherTag) throws Exception {
-        try (PreparedStatement ps = cn.prepareStatement(INSERT_SQL)) {
-            ps.setString(1, nz(a.getTitle()));
-            ps.setString(2, nz(a.getAuthors()));
-            ps.setString(3, nz(a.getYear()));
-            ps.setString(4, nz(a.getAbstractText()));
-            ps.setString(5, nz(a.getLink()));
-            String keywords = (a.getKeywords() == null || a.getKeywords().isBlank())
-                    ? researcherTag : a.getKeywords() + "," + researcherTag;
-            ps.setString(6, keywords);
-            if (a.getCitedBy() == null) ps.setNull(7, Types.INTEGER); else ps.setInt(7, a.getCitedBy());
-            ps.executeUpdate();
+    private static final String UPSERT_SQL =
+            "INSERT INTO articles (title, authors, publication_date, abstract, link, keywords, cited_by, content_key, pub_year) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " + UPSERT_UPDATE;
+
+    private static final String UPDATE_SQL =
+            "UPDATE articles SET cited_by = ?, authors = ?, publication_date = ?, pub_year = ?, abstract = ? WHERE id = ?";
+
+    // author_id -> article_id relation (V2 migration); indexed replacement for the keywords tag scan
+    private static final String LINK_SQL =
+            "INSERT IGNORE INTO article_authors (author_id, article_id) VALUES (?, ?)";
+
+    private static final String TAG_PREFIX = "author:";
+
+    // V9 change counter, see tableVersion()
+    private static final String BUMP_VERSION_SQL = "UPDATE articles_version SET version = version + 1 WHERE id = 1";
+
+    private static final Metrics.Phase SAVE = Metrics.phase("save");
+
+    private static final AuthorStatsRepository STATS = new AuthorStatsRepository();
+
+    /** Rows per JDBC batch / commit in {@link #saveAll(Connection, Collection, String)}. */
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    // streamByAuthor keeps what it streamed for the cache up to this many rows
+    private static final int STREAM_CACHE_ROWS = 5_000;
+
+    private final QueryCache cache;
+
+    /** Reads go through {@link QueryCache#shared()}. */
+    public ArticleRepository() {
+        this(QueryCache.shared());
+    }
+
+    /**
+     * Reads through the given cache, which this repository's saves invalidate; null reads straight
+     * from the database (benchmarks). Writers other than ArticleRepository, BulkLoader and DedupeJob
+     * do not invalidate anything.
+     */
+    public ArticleRepository(QueryCache cache) {
+        this.cache = cache;
+    }
+
+    /** Single-row {@link #saveAll}: one lookup and at most one write per call. */
+    public SaveStats save(Connection cn, Article a, String researcherTag) throws Exception {
+        return saveAll(cn, List.of(a), researcherTag, 1);
+    }
+
+    public SaveStats saveAll(Connection cn, Collection<Article> articles, String researcherTag) throws Exception {
+        return saveAll(cn, articles, researcherTag, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Idempotent bulk save, committing after every chunk.
+     * Each chunk looks up its content keys in one query, then only writes what is new (batched upsert;
+     * with rewriteBatchedStatements=true the driver sends multi-row INSERTs) or what changed
+     * (cited_by, or a non-blank authors/year/abstract that differs). Identical re-fetches cost a
+     * SELECT and the article_authors links, nothing else.
+     * The author_stats rows of the researchers whose articles changed are refreshed in the chunk's
+     * transaction (see {@link AuthorStatsRepository}); after each commit the same researchers'
+     * cached reads are invalidated (and the whole-table ones if any row was written).
+     * Returns how many rows were inserted, updated and left unchanged.
+     * Timed as the "save" phase (save.inserted/updated/unchanged counters) and a scholar.Save JFR event.
+     */
+    public SaveStats saveAll(Connection cn, Collection<Article> articles, String researcherTag, int chunkSize) throws Exception {
+        if (chunkSize < 1) throw new IllegalArgumentException("chunkSize must be >= 1");
+        if (articles.isEmpty()) return new SaveStats();
+
+        return timed(researcherTag, articles.size(), () -> saveChunks(cn, articles, researcherTag, chunkSize));
+    }
+
+    /**
+     * Several researchers' articles in ONE transaction (tag -> articles, e.g. "author:<id>"), for
+     * writers that group many small saves: the commit (redo log flush) is paid once per group
+     * instead of once per author. Same per-chunk lookups and writes as {@link #saveAll}; on any
+     * failure the whole group is rolled back. Timed as the "save" phase like saveAll; the cache is
+     * invalidated once, after the commit.
+     */
+    public SaveStats saveGroup(Connection cn, Map<String, ? extends Collection<Article>> articlesByTag) throws Exception {
+        int articles = 0;
+        for (Collection<Article> c : articlesByTag.values()) articles += c.size();
+        if (articles == 0) return new SaveStats();
+        return timed(articlesByTag.size() + " tags", articles, () -> {
+            SaveStats stats = new SaveStats();
+            Set<String> changed = new HashSet<>();
+            boolean autoCommit = cn.getAutoCommit();
+            cn.setAutoCommit(false);
+            try {
+                for (Map.Entry<String, ? extends Collection<Article>> e : articlesByTag.entrySet()) {
+                    String authorId = authorIdOf(e.getKey());
+                    List<Article> chunk = new ArrayList<>();
+                    for (Article a : e.getValue()) {
+                        chunk.add(a);
+                        if (chunk.size() == DEFAULT_CHUNK_SIZE) {
+                            stats.add(flush(cn, chunk, e.getKey(), authorId, changed));
+                            chunk.clear();
+                        }
+                    }
+                    if (!chunk.isEmpty()) stats.add(flush(cn, chunk, e.getKey(), authorId, changed));
+                }
+                if (stats.getWritten() > 0 || !changed.isEmpty()) bumpVersion(cn);
+                cn.commit();
+                invalidate(changed, stats);
+            } catch (Exception e) {
+                cn.rollback();
+                throw e;
+            } finally {
+                cn.setAutoCommit(autoCommit);
+            }
+            return stats;
+        });
+    }
+
+    private interface SaveWork {
+        SaveStats run() throws Exception;
+    }
+
+    private static SaveStats timed(String tag, int articles, SaveWork work) throws Exception {
+        SaveEvent event = new SaveEvent();
+        event.begin();
+        long t0 = System.nanoTime();
+        SaveStats stats = null;
+        try {
+            stats = work.run();
+            return stats;
+        } finally {
+            SAVE.record(t0, stats != null);
+            if (stats != null) {
+                Metrics.add("save.inserted", stats.getInserted());
+                Metrics.add("save.updated", stats.getUpdated());
+                Metrics.add("save.unchanged", stats.getUnchanged());
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.tag = tag;
+                event.articles = articles;
+                if (stats != null) {
+                    event.inserted = stats.getInserted();
+                    event.updated = stats.getUpdated();
+                    event.unchanged = stats.getUnchanged();
+                }
+                event.commit();
+            }
+        }
+    }
+
+    private SaveStats saveChunks(Connection cn, Collection<Article> articles, String researcherTag, int chunkSize) throws Exception {
+        SaveStats stats = new SaveStats();
+
+        String authorId = authorIdOf(researcherTag);
+        boolean autoCommit = cn.getAutoCommit();
+        cn.setAutoCommit(false);
+        try {
+            List<Article> chunk = new ArrayList<>(Math.min(chunkSize, articles.size()));
+            for (Article a : articles) {
+                chunk.add(a);
+                if (chunk.size() == chunkSize) {
+                    commitChunk(cn, chunk, researcherTag, authorId, stats);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) commitChunk(cn, chunk, researcherTag, authorId, stats);
+        } catch (Exception e) {
+            cn.rollback(); // earlier chunks stay committed
+            throw e;
+        } finally {
+            cn.setAutoCommit(autoCommit);
+        }
+        return stats;
+    }
+
+    private void commitChunk(Connection cn, List<Article> chunk, String researcherTag, String authorId, SaveStats total) throws SQLException {
+        Set<String> changed = new HashSet<>();
+        SaveStats stats = flush(cn, chunk, researcherTag, authorId, changed);
+        if (stats.getWritten() > 0 || !changed.isEmpty()) bumpVersion(cn);
+        cn.commit();
+        invalidate(changed, stats);
+        total.add(stats);
+    }
+
+    /**
+     * Bumps the V9 change counter; call it last before the commit of a transaction that wrote
+     * articles or links, so concurrent writers only queue on its row lock for the commit itself.
+     */
+    static void bumpVersion(Connection cn) throws SQLException {
+        try (Statement st = cn.createStatement()) {
+            st.executeUpdate(BUMP_VERSION_SQL);
+        }
+    }
+
+    // After the commit, so a reader that misses in between loads committed rows. A load that started
+    // before the commit is not stored (see QueryCache), an entry stored before it is dropped here.
+    private void invalidate(Set<String> authorIds, SaveStats stats) {
+        if (cache == null) return;
+        List<String> tags = new ArrayList<>(authorIds.size() + 1);
+        for (String id : authorIds) tags.add(TAG_PREFIX + id);
+        if (stats.getWritten() > 0) tags.add(QueryCache.ALL_ARTICLES);
+        cache.invalidateAll(tags);
+    }
+
+    // changedAuthors receives the researchers whose article list or counts this chunk changed
+    private static SaveStats flush(Connection cn, List<Article> chunk, String researcherTag, String authorId,
+                                   Set<String> changedAuthors) throws SQLException {
+        SaveStats stats = new SaveStats();
+
+        // the last copy of a repeated article wins; the others count as unchanged
+        Map<String, Article> byKey = new LinkedHashMap<>();
+        for (Article a : chunk) {
+            byKey.put(ContentKey.of(a.getTitle(), a.getLink()), a);
+        }
+        stats.addUnchanged(chunk.size() - byKey.size());
+
+        Map<String, ArticleRecord> existing = findByContentKeys(cn, byKey.keySet());
+        Map<String, Long> ids = new HashMap<>();
+        List<String> inserted = new ArrayList<>();
+        List<Long> updatedIds = new ArrayList<>();
+
+        try (PreparedStatement upsert = cn.prepareStatement(UPSERT_SQL);
+             PreparedStatement update = cn.prepareStatement(UPDATE_SQL)) {
+            for (Map.Entry<String, Article> e : byKey.entrySet()) {
+                Article a = e.getValue();
+                ArticleRecord old = existing.get(e.getKey());
+                if (old == null) {
+                    bind(upsert, a, researcherTag, e.getKey());
+                    upsert.addBatch();
+                    inserted.add(e.getKey());
+                    continue;
+                }
+                ids.put(e.getKey(), old.getId());
+                if (changed(old, a)) {
+                    update.setObject(1, a.getCitedBy() != null ? a.getCitedBy() : old.getCitedBy(), Types.INTEGER);
+                    update.setString(2, pick(a.getAuthors(), old.getAuthors()));
+                    String date = pick(a.getYear(), old.getPublicationDate());
+                    update.setString(3, date);
+                    update.setObject(4, PubYear.of(date), Types.SMALLINT);
+                    update.setString(5, pick(a.getAbstractText(), old.getAbstractText()));
+                    update.setLong(6, old.getId());
+                    update.addBatch();
+                    updatedIds.add(old.getId());
+                    stats.addUpdated(1);
+                } else {
+                    stats.addUnchanged(1);
+                }
+            }
+            if (!inserted.isEmpty()) upsert.executeBatch();
+            if (stats.getUpdated() > 0) update.executeBatch();
         }
+        stats.addInserted(inserted.size());
+
+        // author_stats rows to refresh: everyone already linked to a changed row, plus the saving author
+        // if this chunk gained it a link
+        Set<String> touched = AuthorStatsRepository.authorsOf(cn, updatedIds);
+        if (authorId != null) {
+            // rewritten multi-row upserts don't return reliable per-row keys; read the new ids back by key
+            if (!inserted.isEmpty()) {
+                findByContentKeys(cn, inserted).forEach((k, r) -> ids.put(k, r.getId()));
+            }
+            try (PreparedStatement link = cn.prepareStatement(LINK_SQL)) {
+                for (Long id : ids.values()) {
+                    link.setString(1, authorId);
+                    link.setLong(2, id);
+                    link.addBatch();
+                }
+                // useAffectedRows: 0 per existing link; a rewritten batch that added any reports SUCCESS_NO_INFO
+                for (int n : link.executeBatch()) {
+                    if (n != 0) {
+                        touched.add(authorId);
+                        break;
+                    }
+                }
+            }
+        }
+        STATS.refresh(cn, touched);
+        changedAuthors.addAll(touched);
+        return stats;
+    }
+
+    // content_key -> lowest-id row carrying it (duplicates only exist until the dedupe job has run)
+    private static Map<String, ArticleRecord> findByContentKeys(Connection cn, Collection<String> keys) throws SQLException {
+        Map<String, ArticleRecord> out = new HashMap<>();
+        if (keys.isEmpty()) return out;
+        String sql = "SELECT id, title, authors, publication_date, abstract, link, keywords, cited_by, content_key " +
+                "FROM articles WHERE content_key IN (" + "?,".repeat(keys.size() - 1) + "?) ORDER BY id DESC";
+        try (PreparedStatement ps = cn.prepareStatement(sql)) {
+            int i = 1;
+            for (String k : keys) ps.setString(i++, k);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    out.put(rs.getString("content_key"), mapRow(rs));
+                }
+            }
+        }
+        return out;
+    }
+
+    // Blank or missing fetched values never overwrite stored ones.
+    private static boolean changed(ArticleRecord old, Article a) {
+        return (a.getCitedBy() != null && !a.getCitedBy().equals(old.getCitedBy()))
+                || differs(a.getAuthors(), old.getAuthors())
+                || differs(a.getYear(), old.getPublicationDate())
+                || differs(a.getAbstractText(), old.getAbstractText());
     }
 
+    private static boolean differs(String fetched, String stored) {
+        return fetched != null && !fetched.isBlank() && !Objects.equals(fetched, stored);
+    }
+
+    private static String pick(String fetched, String stored) {
+        return (fetched != null && !fetched.isBlank()) ? fetched : stored;
+    }
+
+    // "author:<id>" -> "<id>"; other tags are stored in keywords only
+    static String authorIdOf(String researcherTag) {
+        if (researcherTag == null || !researcherTag.startsWith(TAG_PREFIX)) return null;
+        String id = researcherTag.substring(TAG_PREFIX.length()).trim();
+        return id.isEmpty() ? null : id;
+    }
+
+    private static void bind(PreparedStatement ps, Article a, String researcherTag, String contentKey) throws SQLException {
+        ps.setString(1, nz(a.getTitle()));
+        ps.setString(2, nz(a.getAuthors()));
+        ps.setString(3, nz(a.getYear()));
+        ps.setString(4, nz(a.getAbstractText()));
+        ps.setString(5, nz(a.getLink()));
+        String keywords = (a.getKeywords() == null || a.getKeywords().isBlank())
+                ? researcherTag : a.getKeywords() + "," + researcherTag;
+        ps.setString(6, keywords);
+        if (a.getCitedBy() == null) ps.setNull(7, Types.INTEGER); else ps.setInt(7, a.getCitedBy());
+        ps.setString(8, contentKey);
+        ps.setObject(9, PubYear.of(a.getYear()), Types.SMALLINT);
+    }
+
+    private static final String SELECT_COLUMNS =
+            "SELECT id, title, authors, publication_date, abstract, link, keywords, cited_by FROM articles ";
+
+    /** Receives rows from {@link #streamAll}, {@link #streamRange} and {@link #streamByAuthor} one at a time. */
+    public interface RowHandler {
+        void accept(ArticleRecord row) throws Exception;
+    }
+
+    /** Loads every row into memory; prefer {@link #findPage} or {@link #streamAll} on large tables. */
     public List<ArticleRecord> findAll(Connection cn) throws Exception {
-        String sql = "SELECT id, title, authors, publication_date, abstract, link, keywords, cited_by FROM articles ORDER BY id DESC";
+        String sql = SELECT_COLUMNS + "ORDER BY id DESC";
         try (PreparedStatement ps = cn.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
             return mapList(rs);
         }
     }
 
+    /**
+     * Keyset page, newest first: rows with id < beforeId (or the first page when beforeId is null).
+     * Pass the id of the last row of one page as beforeId of the next; cost does not grow with depth.
+     */
+    public List<ArticleRecord> findPage(Connection cn, Long beforeId, int limit) throws Exception {
+        String sql = (beforeId == null)
+                ? SELECT_COLUMNS + "ORDER BY id DESC LIMIT ?"
+                : SELECT_COLUMNS + "WHERE id < ? ORDER BY id DESC LIMIT ?";
+        try (PreparedStatement ps = cn.prepareStatement(sql)) {
+            int i = 1;
+            if (beforeId != null) ps.setLong(i++, beforeId);
+            ps.setInt(i, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                return mapList(rs);
+            }
+        }
+    }
+
+    /** Same rows as {@link #findPage}, read straight into columns (no per-row objects are kept). */
+    public ArticleColumns findPageColumns(Connection cn, Long beforeId, int limit) throws Exception {
+        String sql = (beforeId == null)
+                ? SELECT_COLUMNS + "ORDER BY id DESC LIMIT ?"
+                : SELECT_COLUMNS + "WHERE id < ? ORDER BY id DESC LIMIT ?";
+        try (PreparedStatement ps = cn.prepareStatement(sql)) {
+            int i = 1;
+            if (beforeId != null) ps.setLong(i++, beforeId);
+            ps.setInt(i, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                ArticleColumns columns = mapColumns(rs, limit);
+                columns.trim();
+                return columns;
+            }
+        }
+    }
+
+    /**
+     * Id of the row at a 0-based position in "ORDER BY id DESC" order, or null past the end.
+     * Used to seed a keyset page when jumping to an arbitrary position (walks the primary key only).
+     */
+    public Long findIdAtOffset(Connection cn, long offset) throws Exception {
+        try (PreparedStatement ps = cn.prepareStatement("SELECT id FROM articles ORDER BY id DESC LIMIT 1 OFFSET ?")) {
+            ps.setLong(1, offset);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : null;
+            }
+        }
+    }
+
+    /**
+     * Same rows as {@link #findPage}, handed over one at a time from a streaming result set (see
+     * {@link #streamAll}). Returns the number of rows handed to the handler.
+     */
+    public long streamPage(Connection cn, Long beforeId, int limit, RowHandler handler) throws Exception {
+        String sql = (beforeId == null)
+                ? SELECT_COLUMNS + "ORDER BY id DESC LIMIT ?"
+                : SELECT_COLUMNS + "WHERE id < ? ORDER BY id DESC LIMIT ?";
+        try (PreparedStatement ps = cn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(Integer.MIN_VALUE);
+            int i = 1;
+            if (beforeId != null) ps.setLong(i++, beforeId);
+            ps.setInt(i, limit);
+            long n = 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    handler.accept(mapRow(rs));
+                    n++;
+                }
+            }
+            return n;
+        }
+    }
+
+    /**
+     * The V9 change counter: increases with every committed transaction that writes articles or
+     * author links (saves, import, dedupe), so equal values mean the same stored data. One primary
+     * key lookup.
+     */
+    public long tableVersion(Connection cn) throws Exception {
+        try (PreparedStatement ps = cn.prepareStatement("SELECT version FROM articles_version WHERE id = 1");
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    public long countAll(Connection cn) throws Exception {
+        try (PreparedStatement ps = cn.prepareStatement("SELECT COUNT(*) FROM articles");
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * Streams rows with id > afterId (all rows when null) in ascending id order through a MySQL
+     * streaming result set (fetch size Integer.MIN_VALUE): rows are read off the socket one at a time,
+     * so memory stays flat regardless of table size. The connection is busy until this returns.
+     * Returns the number of rows handed to the handler.
+     */
+    public long streamAll(Connection cn, Long afterId, RowHandler handler) throws Exception {
+        String sql = (afterId == null)
+                ? SELECT_COLUMNS + "ORDER BY id ASC"
+                : SELECT_COLUMNS + "WHERE id > ? ORDER BY id ASC";
+        try (PreparedStatement ps = cn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(Integer.MIN_VALUE);
+            if (afterId != null) ps.setLong(1, afterId);
+            long n = 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    handler.accept(mapRow(rs));
+                    n++;
+                }
+            }
+            return n;
+        }
+    }
+
+    /** Highest article id, 0 when the table is empty. */
+    public long maxId(Connection cn) throws Exception {
+        try (PreparedStatement ps = cn.prepareStatement("SELECT COALESCE(MAX(id), 0) FROM articles");
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * Streams rows with afterId < id <= toId in ascending id order, optionally only one researcher's
+     * (through the article_authors primary key). Same streaming result set as {@link #streamAll};
+     * the upper bound keeps a long read from picking up rows inserted after it started.
+     */
+    public long streamRange(Connection cn, String authorId, long afterId, long toId, RowHandler handler) throws Exception {
+        String sql = (authorId == null)
+                ? SELECT_COLUMNS + "WHERE id > ? AND id <= ? ORDER BY id ASC"
+                : "SELECT a.id, a.title, a.authors, a.publication_date, a.abstract, a.link, a.keywords, a.cited_by " +
+                  "FROM article_authors aa JOIN articles a ON a.id = aa.article_id " +
+                  "WHERE aa.author_id = ? AND aa.article_id > ? AND aa.article_id <= ? ORDER BY aa.article_id ASC";
+        try (PreparedStatement ps = cn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(Integer.MIN_VALUE);
+            int i = 1;
+            if (authorId != null) ps.setString(i++, authorId);
+            ps.setLong(i++, afterId);
+            ps.setLong(i, toId);
+            long n = 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    handler.accept(mapRow(rs));
+                    n++;
+                }
+            }
+            return n;
+        }
+    }
+
+    private static final String BY_AUTHOR_SQL =
+            "SELECT a.id, a.title, a.authors, a.publication_date, a.abstract, a.link, a.keywords, a.cited_by " +
+                    "FROM article_authors aa " +
+                    "JOIN articles a ON a.id = aa.article_id " +
+                    "WHERE aa.author_id = ? " +
+                    "ORDER BY aa.article_id DESC";
+
+    /**
+     * Articles of one researcher via the article_authors primary key (no scan over keywords).
+     * Cached; the list is shared and unmodifiable.
+     */
     public List<ArticleRecord> findByAuthorTag(Connection cn, String authorId) throws Exception {
-        String sql =
-                "SELECT id, title, authors, publication_date, abstract, link, keywords, cited_by " +
-                        "FROM articles " +
-                        "WHERE FIND_IN_SET(?, REPLACE(keywords, ' ', '')) " +
-                        "ORDER BY id DESC";
+        return cached("byAuthor:" + authorId, authorTags(authorId), () -> {
+            try (PreparedStatement ps = cn.prepareStatement(BY_AUTHOR_SQL)) {
+                ps.setString(1, authorId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return List.copyOf(mapList(rs));
+                }
+            }
+        });
+    }
+
+    /** Cached. */
+    public int countByAuthor(Connection cn, String authorId) throws Exception {
+        return cachedCount("countByAuthor:" + authorId, authorTags(authorId), () -> {
+            try (PreparedStatement ps = cn.prepareStatement("SELECT COUNT(*) FROM article_authors WHERE author_id = ?")) {
+                ps.setString(1, authorId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    return (long) rs.getInt(1);
+                }
+            }
+        }).intValue();
+    }
+
+    // One year of (pub_year, cited_by, id) read backwards from its most cited entry: covering, no sort.
+    static final String YEAR_TOP_SQL =
+            "(SELECT id FROM articles WHERE pub_year = ? ORDER BY cited_by DESC, id DESC LIMIT ?)";
+
+    // loose index scan: one index dive per distinct year
+    static final String YEARS_SQL =
+            "SELECT DISTINCT pub_year FROM articles WHERE pub_year BETWEEN ? AND ? ORDER BY pub_year";
+
+    static final String CITED_AT_LEAST_SQL =
+            SELECT_COLUMNS + "WHERE cited_by >= ? ORDER BY cited_by DESC, id DESC LIMIT ?";
+
+    /** One {@link #YEAR_TOP_SQL} per year, merged and joined back to the full rows. */
+    static String topCitedInYearsSql(int years) {
+        StringJoiner union = new StringJoiner(" UNION ALL ");
+        for (int i = 0; i < years; i++) union.add(YEAR_TOP_SQL);
+        return "SELECT a.id, a.title, a.authors, a.publication_date, a.abstract, a.link, a.keywords, a.cited_by " +
+                "FROM (" + union + ") t JOIN articles a ON a.id = t.id ORDER BY a.cited_by DESC, a.id DESC LIMIT ?";
+    }
+
+    /**
+     * Most cited articles published in fromYear..toYear (pub_year, V7), most cited first; articles
+     * without a year never match. Each stored year of the range contributes its own top limit through
+     * idx_articles_year_cited, so at most years x limit index entries are read. A plain
+     * "WHERE pub_year BETWEEN .. ORDER BY cited_by DESC LIMIT n" leaves the optimizer guessing: it
+     * walks idx_articles_cited_by from the top when the range looks large, which reads most of the
+     * table when the range holds many articles but few highly cited ones.
+     * Cached; the list is shared and unmodifiable.
+     */
+    public List<ArticleRecord> topCitedInYears(Connection cn, int fromYear, int toYear, int limit) throws Exception {
+        if (limit <= 0 || fromYear > toYear) return List.of();
+        return cached("topCited:" + fromYear + ":" + toYear + ":" + limit, WHOLE_TABLE,
+                () -> List.copyOf(loadTopCitedInYears(cn, fromYear, toYear, limit)));
+    }
+
+    private static List<ArticleRecord> loadTopCitedInYears(Connection cn, int fromYear, int toYear, int limit) throws Exception {
+        List<Integer> years = new ArrayList<>();
+        try (PreparedStatement ps = cn.prepareStatement(YEARS_SQL)) {
+            ps.setInt(1, fromYear);
+            ps.setInt(2, toYear);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) years.add(rs.getInt(1));
+            }
+        }
+        if (years.isEmpty()) return new ArrayList<>();
+        try (PreparedStatement ps = cn.prepareStatement(topCitedInYearsSql(years.size()))) {
+            int i = 1;
+            for (int y : years) {
+                ps.setInt(i++, y);
+                ps.setInt(i++, limit);
+            }
+            ps.setInt(i, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                return mapList(rs);
+            }
+        }
+    }
+
+    /**
+     * The most cited articles with at least minCitations citations, most cited first (idx_articles_cited_by).
+     * Cached; the list is shared and unmodifiable.
+     */
+    public List<ArticleRecord> citedAtLeast(Connection cn, int minCitations, int limit) throws Exception {
+        return cached("citedAtLeast:" + minCitations + ":" + limit, WHOLE_TABLE, () -> {
+            try (PreparedStatement ps = cn.prepareStatement(CITED_AT_LEAST_SQL)) {
+                ps.setInt(1, minCitations);
+                ps.setInt(2, limit);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return List.copyOf(mapList(rs));
+                }
+            }
+        });
+    }
+
+    /** How many articles have at least minCitations citations (range count on idx_articles_cited_by). Cached. */
+    public long countCitedAtLeast(Connection cn, int minCitations) throws Exception {
+        return cachedCount("countCitedAtLeast:" + minCitations, WHOLE_TABLE, () -> {
+            try (PreparedStatement ps = cn.prepareStatement("SELECT COUNT(*) FROM articles WHERE cited_by >= ?")) {
+                ps.setInt(1, minCitations);
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    return rs.getLong(1);
+                }
+            }
+        });
+    }
+
+    /** The subset of content keys already linked to the author (see {@link ContentKey}). */
+    public Set<String> knownKeys(Connection cn, String authorId, Collection<String> keys) throws Exception {
+        Set<String> known = new HashSet<>();
+        if (keys.isEmpty()) return known;
+        String sql = "SELECT a.content_key FROM article_authors aa JOIN articles a ON a.id = aa.article_id " +
+                "WHERE aa.author_id = ? AND a.content_key IN (" + "?,".repeat(keys.size() - 1) + "?)";
+        try (PreparedStatement ps = cn.prepareStatement(sql)) {
+            int i = 1;
+            ps.setString(i++, authorId);
+            for (String k : keys) ps.setString(i++, k);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) known.add(rs.getString(1));
+            }
+        }
+        return known;
+    }
+
+    /**
+     * Same rows as {@link #findByAuthorTag}, handed over one at a time from a streaming result set
+     * so a caller can show them as they arrive. A handler exception stops the read and is rethrown.
+     * Shares findByAuthorTag's cache entry: a hit replays the cached rows without a query, a complete
+     * read of at most STREAM_CACHE_ROWS rows is stored.
+     * Returns the number of rows handed to the handler.
+     */
+    public long streamByAuthor(Connection cn, String authorId, RowHandler handler) throws Exception {
+        String key = "byAuthor:" + authorId;
+        String[] tags = authorTags(authorId);
+        List<ArticleRecord> hit = (cache == null) ? null : cache.peek(key);
+        if (hit != null) {
+            for (ArticleRecord r : hit) handler.accept(r);
+            return hit.size();
+        }
+        long stamp = (cache == null) ? 0 : cache.stamp(tags);
+        List<ArticleRecord> kept = (cache == null) ? null : new ArrayList<>();
+        try (PreparedStatement ps = cn.prepareStatement(BY_AUTHOR_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(Integer.MIN_VALUE);
+            ps.setString(1, authorId);
+            long n = 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ArticleRecord r = mapRow(rs);
+                    if (kept != null) {
+                        if (kept.size() < STREAM_CACHE_ROWS) kept.add(r); else kept = null;
+                    }
+                    handler.accept(r);
+                    n++;
+                }
+            }
+            if (kept != null) {
+                List<ArticleRecord> rows = List.copyOf(kept);
+                cache.putIfUnchanged(key, tags, rows, weigh(rows), stamp);
+            }
+            return n;
+        }
+    }
+
+    private static final String SEARCH_SQL =
+            "SELECT id, title, authors, publication_date, abstract, link, keywords, cited_by, " +
+                    "MATCH(title, abstract) AGAINST (? IN BOOLEAN MODE) AS score " +
+                    "FROM articles WHERE MATCH(title, abstract) AGAINST (? IN BOOLEAN MODE) ";
+
+    /**
+     * Articles whose title or abstract contain every word of the query, through the FULLTEXT index
+     * (V5 migration): best relevance first, or most cited first (relevance breaking ties) when
+     * byCitations. Words are tokenized like {@link search.InvertedIndex}, so both search paths agree.
+     */
+    public List<ArticleRecord> search(Connection cn, String query, boolean byCitations, int limit, int offset) throws Exception {
+        List<String> words = Tokenizer.tokens(query);
+        if (words.isEmpty() || limit <= 0) return new ArrayList<>();
+        StringBuilder expr = new StringBuilder();
+        for (String w : new LinkedHashSet<>(words)) expr.append(expr.length() == 0 ? "+" : " +").append(w);
+
+        String sql = SEARCH_SQL + (byCitations ? "ORDER BY cited_by DESC, score DESC, id DESC" : "ORDER BY score DESC, id DESC")
+                + " LIMIT ? OFFSET ?";
         try (PreparedStatement ps = cn.prepareStatement(sql)) {
-            ps.setString(1, "author:" + authorId);
+            ps.setString(1, expr.toString());
+            ps.setString(2, expr.toString());
+            ps.setInt(3, limit);
+            ps.setInt(4, offset);
             try (ResultSet rs = ps.executeQuery()) {
                 return mapList(rs);
             }
         }
     }
 
-    private static List<ArticleRecord> mapList(ResultSet rs) throws Exception {
+    /** True when articles has a FULLTEXT index for {@link #search} to use. */
+    public boolean hasFulltextIndex(Connection cn) throws Exception {
+        try (PreparedStatement ps = cn.prepareStatement("SELECT 1 FROM information_schema.statistics " +
+                "WHERE table_schema = DATABASE() AND table_name = 'articles' AND index_type = 'FULLTEXT' LIMIT 1");
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next();
+        }
+    }
+
+    /** Rows for the given ids, in the order of the list (missing ids are skipped). */
+    public List<ArticleRecord> findByIds(Connection cn, List<Long> ids) throws Exception {
+        if (ids.isEmpty()) return new ArrayList<>();
+        String sql = SELECT_COLUMNS + "WHERE id IN (" + "?,".repeat(ids.size() - 1) + "?)";
+        Map<Long, ArticleRecord> byId = new HashMap<>();
+        try (PreparedStatement ps = cn.prepareStatement(sql)) {
+            int i = 1;
+            for (Long id : ids) ps.setLong(i++, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ArticleRecord r = mapRow(rs);
+                    byId.put(r.getId(), r);
+                }
+            }
+        }
+        List<ArticleRecord> out = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ArticleRecord r = byId.get(id);
+            if (r != null) out.add(r);
+        }
+        return out;
+    }
+
+    private static final String[] WHOLE_TABLE = {QueryCache.ALL_ARTICLES};
+
+    private static String[] authorTags(String authorId) {
+        return new String[] {TAG_PREFIX + authorId};
+    }
+
+    private List<ArticleRecord> cached(String key, String[] tags, QueryCache.Loader<List<ArticleRecord>> loader) throws Exception {
+        return (cache == null) ? loader.load() : cache.get(key, tags, loader, ArticleRepository::weigh);
+    }
+
+    private Long cachedCount(String key, String[] tags, QueryCache.Loader<Long> loader) throws Exception {
+        return (cache == null) ? loader.load() : cache.get(key, tags, loader, n -> 64 + 2L * key.length());
+    }
+
+    // rough heap size: object headers plus two bytes per char (Latin-1 strings take half, so this errs high)
+    static long weigh(List<ArticleRecord> rows) {
+        long bytes = 64;
+        for (ArticleRecord r : rows) {
+            bytes += 80 + 6 * 40 // row, boxed id and cited_by; six String headers
+                    + 2L * (len(r.getTitle()) + len(r.getAuthors()) + len(r.getPublicationDate())
+                    + len(r.getAbstractText()) + len(r.getLink()) + len(r.getKeywords()));
+        }
+        return bytes;
+    }
+
+    private static int len(String s) { return (s == null) ? 0 : s.length(); }
+
+    // package-private for benchmarks/db.MapListBenchmark
+    static List<ArticleRecord> mapList(ResultSet rs) throws Exception {
         List<ArticleRecord> list = new ArrayList<>();
         while (rs.next()) {
-            list.add(new ArticleRecord(
+            list.add(mapRow(rs));
+        }
+        return list;
+    }
+
+    // package-private for benchmarks/db.MapListBenchmark
+    static ArticleColumns mapColumns(ResultSet rs, int expectedRows) throws Exception {
+        ArticleColumns columns = new ArticleColumns(expectedRows);
+        while (rs.next()) {
+            columns.add(
                     rs.getLong("id"),
                     rs.getString("title"),
                     rs.getString("authors"),
@@ -61,10 +823,22 @@ public class ArticleRepository {
                     rs.getString("abstract"),
                     rs.getString("link"),
                     rs.getString("keywords"),
-                    (Integer) rs.getObject("cited_by")
-            ));
+                    (Integer) rs.getObject("cited_by"));
         }
-        return list;
+        return columns;
+    }
+
+    private static ArticleRecord mapRow(ResultSet rs) throws SQLException {
+        return new ArticleRecord(
+                rs.getLong("id"),
+                rs.getString("title"),
+                rs.getString("authors"),
+                rs.getString("publication_date"),
+                rs.getString("abstract"),
+                rs.getString("link"),
+                rs.getString("keywords"),
+                (Integer) rs.getObject("cited_by")
+        );
     }
 
     private static String nz(String s) { return (s == null) ? "" : s; }
@@ -0,0 +1,178 @@
+package db;
+
+import model.AuthorStats;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * author_stats summary (V6 migration): one row per researcher with article count, citations,
+ * h-index and newest year, so leaderboards read O(authors) rows instead of aggregating articles.
+ * Writers refresh only the authors they touched, inside their own transaction: a refresh recomputes
+ * those authors from article_authors + articles (O(their articles), through the article_authors
+ * primary key), which keeps the h-index exact without a second copy of every author's citations.
+ */
+public class AuthorStatsRepository {
+
+    /**
+     * Leaderboard order; ties fall back to the other measure, then author_id. All descending so the
+     * LIMIT reads the (citations, h_index) or (h_index, citations) index backwards, no sort.
+     */
+    public enum Order {
+        CITATIONS("citations DESC, h_index DESC, author_id DESC"),
+        H_INDEX("h_index DESC, citations DESC, author_id DESC");
+
+        private final String sql;
+
+        Order(String sql) {
+            this.sql = sql;
+        }
+
+        /** "citations" / "h" / "h-index" (any case). */
+        public static Order of(String name) {
+            switch (name.toLowerCase()) {
+                case "citations": case "cited": return CITATIONS;
+                case "h": case "h-index": case "h_index": return H_INDEX;
+                default: throw new IllegalArgumentException("Unknown order: " + name + " (citations|h)");
+            }
+        }
+    }
+
+    // h-index: with an author's articles ranked by citations (rn = 1, 2, ...) it is the number of
+    // articles cited at least rn times; %s restricts the authors (article_authors aa)
+    private static final String STATS_SELECT =
+            "SELECT author_id, COUNT(*), SUM(c), SUM(c >= rn), MAX(y) " +
+                    "FROM (SELECT aa.author_id, COALESCE(a.cited_by, 0) AS c, " +
+                    "ROW_NUMBER() OVER (PARTITION BY aa.author_id ORDER BY COALESCE(a.cited_by, 0) DESC) AS rn, " +
+                    "a.pub_year AS y " +
+                    "FROM article_authors aa JOIN articles a ON a.id = aa.article_id%s) t " +
+                    "GROUP BY author_id";
+
+    private static final String UPSERT_PREFIX =
+            "INSERT INTO author_stats (author_id, articles, citations, h_index, latest_year) ";
+
+    private static final String UPSERT_UPDATE =
+            " ON DUPLICATE KEY UPDATE articles = VALUES(articles), citations = VALUES(citations), " +
+                    "h_index = VALUES(h_index), latest_year = VALUES(latest_year)";
+
+    private static final String COLUMNS = "author_id, articles, citations, h_index, latest_year, updated_at";
+
+    /**
+     * Recomputes the given authors' rows; authors with no linked article left lose their row.
+     * Runs in the caller's transaction. Returns the number of authors refreshed.
+     */
+    public int refresh(Connection cn, Collection<String> authorIds) throws SQLException {
+        if (authorIds.isEmpty()) return 0;
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(authorIds));
+        String in = " IN (" + "?,".repeat(ids.size() - 1) + "?)";
+        try (PreparedStatement upsert = cn.prepareStatement(
+                UPSERT_PREFIX + String.format(STATS_SELECT, " WHERE aa.author_id" + in) + UPSERT_UPDATE);
+             PreparedStatement orphans = cn.prepareStatement("DELETE FROM author_stats WHERE author_id" + in +
+                     " AND NOT EXISTS (SELECT 1 FROM article_authors aa WHERE aa.author_id = author_stats.author_id)")) {
+            for (int i = 0; i < ids.size(); i++) {
+                upsert.setString(i + 1, ids.get(i));
+                orphans.setString(i + 1, ids.get(i));
+            }
+            upsert.executeUpdate();
+            orphans.executeUpdate();
+        }
+        return ids.size();
+    }
+
+    /**
+     * Set-based {@link #refresh} for the authors listed in a (temporary) table with an author_id
+     * column, for callers that touched too many authors to bind. Upserts only: meant for writers
+     * that add or merge links, never remove an author's last one. Returns the rows written.
+     */
+    int refreshListed(Connection cn, String table) throws SQLException {
+        try (Statement st = cn.createStatement()) {
+            return st.executeUpdate(UPSERT_PREFIX + String.format(STATS_SELECT,
+                    " WHERE aa.author_id IN (SELECT author_id FROM " + table + ")") + UPSERT_UPDATE);
+        }
+    }
+
+    /** Recomputes the whole table in one transaction. Returns the number of authors. */
+    public int rebuild(Connection cn) throws SQLException {
+        boolean autoCommit = cn.getAutoCommit();
+        cn.setAutoCommit(false);
+        try (Statement st = cn.createStatement()) {
+            st.executeUpdate("DELETE FROM author_stats");
+            int n = st.executeUpdate(UPSERT_PREFIX + String.format(STATS_SELECT, ""));
+            cn.commit();
+            return n;
+        } catch (SQLException e) {
+            cn.rollback();
+            throw e;
+        } finally {
+            cn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /** Summary of the author, or null if no article is linked to them. */
+    public AuthorStats find(Connection cn, String authorId) throws SQLException {
+        try (PreparedStatement ps = cn.prepareStatement("SELECT " + COLUMNS + " FROM author_stats WHERE author_id = ?")) {
+            ps.setString(1, authorId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapRow(rs) : null;
+            }
+        }
+    }
+
+    /** The first limit authors in the given order (index scan on citations / h_index, no article is read). */
+    public List<AuthorStats> top(Connection cn, Order order, int limit) throws SQLException {
+        List<AuthorStats> out = new ArrayList<>();
+        try (PreparedStatement ps = cn.prepareStatement(
+                "SELECT " + COLUMNS + " FROM author_stats ORDER BY " + order.sql + " LIMIT ?")) {
+            ps.setInt(1, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) out.add(mapRow(rs));
+            }
+        }
+        return out;
+    }
+
+    public int count(Connection cn) throws SQLException {
+        try (PreparedStatement ps = cn.prepareStatement("SELECT COUNT(*) FROM author_stats");
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    /** Authors linked to any of the given articles. */
+    static Set<String> authorsOf(Connection cn, Collection<Long> articleIds) throws SQLException {
+        Set<String> out = new LinkedHashSet<>();
+        if (articleIds.isEmpty()) return out;
+        try (PreparedStatement ps = cn.prepareStatement("SELECT DISTINCT author_id FROM article_authors WHERE article_id IN (" +
+                "?,".repeat(articleIds.size() - 1) + "?)")) {
+            int i = 1;
+            for (Long id : articleIds) ps.setLong(i++, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) out.add(rs.getString(1));
+            }
+        }
+        return out;
+    }
+
+    private static AuthorStats mapRow(ResultSet rs) throws SQLException {
+        int year = rs.getInt("latest_year");
+        Integer latestYear = rs.wasNull() ? null : year;
+        Timestamp at = rs.getTimestamp("updated_at");
+        return new AuthorStats(
+                rs.getString("author_id"),
+                rs.getInt("articles"),
+                rs.getLong("citations"),
+                rs.getInt("h_index"),
+                latestYear,
+                at == null ? null : at.toInstant());
+    }
+}
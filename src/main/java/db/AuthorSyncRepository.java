@@ -0,0 +1,50 @@
+package db;
+
+import model.SyncCheckpoint;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+
+/** author_sync checkpoints (V4 migration). */
+public class AuthorSyncRepository {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO author_sync (author_id, last_synced_at, newest_year, newest_title, newest_key, article_count) " +
+                    "VALUES (?, ?, ?, ?, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE last_synced_at = VALUES(last_synced_at), newest_year = VALUES(newest_year), " +
+                    "newest_title = VALUES(newest_title), newest_key = VALUES(newest_key), article_count = VALUES(article_count)";
+
+    /** Checkpoint of the author, or null if it was never synced. */
+    public SyncCheckpoint find(Connection cn, String authorId) throws Exception {
+        try (PreparedStatement ps = cn.prepareStatement(
+                "SELECT author_id, last_synced_at, newest_year, newest_title, newest_key, article_count " +
+                        "FROM author_sync WHERE author_id = ?")) {
+            ps.setString(1, authorId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return null;
+                Timestamp at = rs.getTimestamp("last_synced_at");
+                return new SyncCheckpoint(
+                        rs.getString("author_id"),
+                        at == null ? null : at.toInstant(),
+                        rs.getString("newest_year"),
+                        rs.getString("newest_title"),
+                        rs.getString("newest_key"),
+                        rs.getInt("article_count"));
+            }
+        }
+    }
+
+    public void save(Connection cn, SyncCheckpoint cp) throws Exception {
+        try (PreparedStatement ps = cn.prepareStatement(UPSERT_SQL)) {
+            ps.setString(1, cp.getAuthorId());
+            ps.setTimestamp(2, cp.getLastSyncedAt() == null ? null : Timestamp.from(cp.getLastSyncedAt()));
+            ps.setString(3, cp.getNewestYear());
+            ps.setString(4, cp.getNewestTitle());
+            ps.setString(5, cp.getNewestKey());
+            ps.setInt(6, cp.getArticleCount());
+            ps.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,393 @@
+package db;
+
+import metrics.Metrics;
+import model.ArticleRecord;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bulk import for backfills (millions of rows), set-based instead of row-at-a-time:
+ *   1) rows are encoded on the fly as the tab-separated text LOAD DATA reads and streamed to the server
+ *      through the driver's local-infile stream hook into a temporary staging table; no temp file.
+ *      content_key is computed here, while encoding. Servers with local_infile=OFF get batched
+ *      multi-row INSERTs into the same staging table instead.
+ *   2) staged rows are merged into articles per chunk, like {@link ArticleRepository#saveAll} does per
+ *      batch. Only the last copy of each key in the chunk takes part: one joined UPDATE for keys already
+ *      stored (only rows that differ are written), then one INSERT ... SELECT of the keys that are not.
+ *      Each key reaches the INSERT at most once, so the merge does not depend on the unique content_key
+ *      index (`dedupe`), and already stored rows never reach it: a re-import burns no auto-increment ids.
+ *   3) article_authors is rebuilt with one INSERT IGNORE ... SELECT per chunk: the given author id, or
+ *      the 'author:' tag in keywords (same rule as the V2 backfill).
+ *   4) author_stats is refreshed once at the end for every author linked to an imported row.
+ * The connection must come from {@link DbConfig#openBulk()} for step 1 to use LOAD DATA.
+ *
+ * FULLTEXT maintenance is most of the merge cost (1M new rows: ~290 s with the V5 index, ~55 s
+ * without). With deferFulltext the FULLTEXT indexes are dropped for the merge and rebuilt once at
+ * the end (~100 s at 1M rows); that pays off for initial loads, not for top-ups of a large table.
+ */
+public class BulkLoader {
+
+    /** Rows to import; null ends the input. Ids are ignored (new rows get fresh ids). */
+    public interface Rows {
+        ArticleRecord next() throws Exception;
+    }
+
+    public static final int DEFAULT_CHUNK_ROWS = 50_000;
+
+    private static final Metrics.Phase IMPORT = Metrics.phase("import");
+
+    private static final String TAG_PREFIX = "author:";
+    private static final String COLUMNS = "title, authors, publication_date, abstract, link, keywords, cited_by, content_key";
+
+    private static final String LOAD_SQL =
+            "LOAD DATA LOCAL INFILE 'articles.tsv' INTO TABLE bulk_staging CHARACTER SET utf8mb4 " +
+                    "FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' " +
+                    "(" + COLUMNS + ", author_id, pub_year)";
+
+    // Last copy of each key in the chunk. A separate temporary table because MySQL cannot open one
+    // temporary table twice in a statement (ER_CANT_REOPEN_TABLE), which a derived table over
+    // bulk_staging joined back to bulk_staging would need.
+    private static final String LAST_SQL =
+            "INSERT INTO bulk_last (seq) SELECT MAX(seq) FROM bulk_staging WHERE seq > ? AND seq <= ? GROUP BY content_key";
+
+    // same merge rules as ArticleRepository.UPSERT_UPDATE, with the staged row in place of VALUES()
+    private static final String UPDATE_SQL =
+            "UPDATE bulk_last last " +
+                    "STRAIGHT_JOIN bulk_staging s ON s.seq = last.seq " +
+                    "STRAIGHT_JOIN articles a ON a.content_key = s.content_key " +
+                    "SET a.cited_by = COALESCE(s.cited_by, a.cited_by), " +
+                    "a.authors = COALESCE(NULLIF(s.authors, ''), a.authors), " +
+                    "a.pub_year = CASE WHEN NULLIF(s.publication_date, '') IS NULL THEN a.pub_year ELSE s.pub_year END, " +
+                    "a.publication_date = COALESCE(NULLIF(s.publication_date, ''), a.publication_date), " +
+                    "a.abstract = COALESCE(NULLIF(s.abstract, ''), a.abstract)";
+
+    // the upsert clause only matters if a concurrent writer stores the same key in between
+    private static final String INSERT_SQL =
+            "INSERT INTO articles (" + COLUMNS + ", pub_year) " +
+                    "SELECT " + COLUMNS + ", pub_year FROM bulk_last last " +
+                    "STRAIGHT_JOIN bulk_staging s ON s.seq = last.seq " +
+                    "WHERE NOT EXISTS (SELECT 1 FROM articles a WHERE a.content_key = s.content_key) ORDER BY s.seq " +
+                    ArticleRepository.UPSERT_UPDATE;
+
+    // STRAIGHT_JOIN: right after a bulk insert the statistics can still say articles is tiny, and the
+    // optimizer would then scan all of articles per chunk instead of probing its content_key index
+    private static final String LINK_SQL =
+            "INSERT IGNORE INTO article_authors (author_id, article_id) " +
+                    "SELECT STRAIGHT_JOIN t.author_id, a.id FROM (" +
+                    "SELECT COALESCE(author_id, SUBSTRING_INDEX(SUBSTRING_INDEX(REPLACE(keywords, ' ', ''), 'author:', -1), ',', 1)) AS author_id, " +
+                    "content_key FROM bulk_staging " +
+                    "WHERE seq > ? AND seq <= ? AND (author_id IS NOT NULL OR keywords LIKE '%author:%')) t " +
+                    "JOIN articles a ON a.content_key = t.content_key " +
+                    "WHERE t.author_id <> ''";
+
+    private final int chunkRows;
+    private final boolean deferFulltext;
+
+    public BulkLoader() {
+        this(DEFAULT_CHUNK_ROWS, false);
+    }
+
+    public BulkLoader(int chunkRows, boolean deferFulltext) {
+        if (chunkRows < 1) throw new IllegalArgumentException("chunkRows must be >= 1");
+        this.chunkRows = chunkRows;
+        this.deferFulltext = deferFulltext;
+    }
+
+    /**
+     * Imports every row; authorId (may be null) links all of them to that researcher and tags their
+     * keywords like a harvest would. Each merge chunk commits on its own, so a failure part-way leaves
+     * the earlier chunks in place and a re-run only updates what is still different.
+     */
+    public Report load(Connection cn, Rows rows, String authorId) throws Exception {
+        long t0 = System.nanoTime();
+        Report report = new Report();
+        boolean ok = false;
+        try (Statement st = cn.createStatement()) {
+            st.execute("DROP TEMPORARY TABLE IF EXISTS bulk_staging");
+            st.execute("CREATE TEMPORARY TABLE bulk_staging (" +
+                    "seq BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                    "title VARCHAR(1024) NOT NULL, authors TEXT, publication_date VARCHAR(32), abstract TEXT, " +
+                    "link TEXT, keywords TEXT, cited_by INT, content_key CHAR(64) NOT NULL, author_id VARCHAR(64), pub_year SMALLINT)");
+            st.execute("DROP TEMPORARY TABLE IF EXISTS bulk_last");
+            st.execute("CREATE TEMPORARY TABLE bulk_last (seq BIGINT PRIMARY KEY)");
+            try {
+                long t = System.nanoTime();
+                report.loadData = localInfileEnabled(st);
+                report.staged = report.loadData ? stageWithLoadData(st, rows, authorId) : stageWithInserts(cn, rows, authorId);
+                report.stageMillis = millisSince(t);
+
+                t = System.nanoTime();
+                long before = count(st);
+                long maxSeq = maxSeq(st);
+                long inserts = 0;
+                Map<String, String> fulltext = deferFulltext ? dropFulltextIndexes(st) : Map.of();
+                try (PreparedStatement last = cn.prepareStatement(LAST_SQL);
+                     PreparedStatement update = cn.prepareStatement(UPDATE_SQL);
+                     PreparedStatement insert = cn.prepareStatement(INSERT_SQL);
+                     PreparedStatement link = cn.prepareStatement(LINK_SQL)) {
+                    for (long lo = 0; lo < maxSeq; lo += chunkRows) {
+                        st.execute("DELETE FROM bulk_last");
+                        last.setLong(1, lo);
+                        last.setLong(2, lo + chunkRows);
+                        last.executeLargeUpdate();
+                        report.updated += update.executeLargeUpdate();
+                        inserts += insert.executeLargeUpdate();
+                        link.setLong(1, lo);
+                        link.setLong(2, lo + chunkRows);
+                        report.links += link.executeLargeUpdate();
+                    }
+                } finally {
+                    if (maxSeq > 0) ArticleRepository.bumpVersion(cn); // chunks autocommit: even a failed merge may have written
+                    long ti = System.nanoTime();
+                    for (Map.Entry<String, String> e : fulltext.entrySet()) {
+                        st.execute("ALTER TABLE articles ADD FULLTEXT INDEX " + e.getKey() + " (" + e.getValue() + ")");
+                    }
+                    report.indexMillis = millisSince(ti);
+                }
+                // useAffectedRows: the UPDATE counts changed rows only; earlier copies of a key count as unchanged
+                report.inserted = count(st) - before;
+                report.mergeMillis = millisSince(t) - report.indexMillis;
+
+                t = System.nanoTime();
+                if (report.updated > 0 || inserts > 0 || report.links > 0) report.authors = refreshAuthorStats(cn, st);
+                report.statsMillis = millisSince(t);
+            } finally {
+                st.execute("DROP TEMPORARY TABLE IF EXISTS bulk_staging");
+                st.execute("DROP TEMPORARY TABLE IF EXISTS bulk_last");
+            }
+            ok = true;
+            return report;
+        } finally {
+            QueryCache.shared().invalidateAll(); // committed chunks may touch any author
+            IMPORT.record(t0, ok);
+            Metrics.add("import.staged", report.staged);
+            Metrics.add("import.inserted", report.inserted);
+            Metrics.add("import.updated", report.updated);
+        }
+    }
+
+    // every author linked to a staged key, once (a superset of those whose rows changed; no per-row diff is kept)
+    private static long refreshAuthorStats(Connection cn, Statement st) throws Exception {
+        st.execute("DROP TEMPORARY TABLE IF EXISTS bulk_authors");
+        st.execute("CREATE TEMPORARY TABLE bulk_authors (author_id VARCHAR(64) PRIMARY KEY)");
+        try {
+            st.executeUpdate("INSERT IGNORE INTO bulk_authors (author_id) " +
+                    "SELECT STRAIGHT_JOIN aa.author_id FROM bulk_staging s " +
+                    "JOIN articles a ON a.content_key = s.content_key " +
+                    "JOIN article_authors aa ON aa.article_id = a.id");
+            return new AuthorStatsRepository().refreshListed(cn, "bulk_authors");
+        } finally {
+            st.execute("DROP TEMPORARY TABLE IF EXISTS bulk_authors");
+        }
+    }
+
+    private static boolean localInfileEnabled(Statement st) throws Exception {
+        try (ResultSet rs = st.executeQuery("SELECT @@local_infile")) {
+            return rs.next() && rs.getInt(1) == 1;
+        }
+    }
+
+    private static long stageWithLoadData(Statement st, Rows rows, String authorId) throws Exception {
+        TsvStream tsv = new TsvStream(rows, authorId);
+        st.unwrap(com.mysql.cj.jdbc.JdbcStatement.class).setLocalInfileInputStream(tsv);
+        try {
+            st.executeLargeUpdate(LOAD_SQL);
+        } catch (Exception e) {
+            if (tsv.failure != null) throw tsv.failure; // the input was bad, not the load
+            throw e;
+        }
+        // LOCAL implies IGNORE: malformed lines are skipped with a warning rather than failing the load
+        try (ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM bulk_staging")) {
+            rs.next();
+            long staged = rs.getLong(1);
+            if (staged != tsv.rows) {
+                throw new IllegalStateException("LOAD DATA staged " + staged + " of " + tsv.rows + " rows (see SHOW WARNINGS)");
+            }
+            return staged;
+        }
+    }
+
+    private static long stageWithInserts(Connection cn, Rows rows, String authorId) throws Exception {
+        long n = 0;
+        try (PreparedStatement ps = cn.prepareStatement(
+                "INSERT INTO bulk_staging (" + COLUMNS + ", author_id, pub_year) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            ArticleRecord r;
+            while ((r = rows.next()) != null) {
+                String[] values = stagedValues(r, authorId);
+                for (int i = 0; i < values.length; i++) ps.setString(i + 1, values[i]);
+                ps.addBatch();
+                if (++n % 1_000 == 0) ps.executeBatch();
+            }
+            ps.executeBatch();
+        }
+        return n;
+    }
+
+    /** Staging columns in LOAD_SQL order; null stays null. */
+    static String[] stagedValues(ArticleRecord r, String authorId) {
+        String title = (r.getTitle() == null) ? "" : r.getTitle();
+        String keywords = r.getKeywords();
+        if (authorId != null) {
+            String tag = TAG_PREFIX + authorId;
+            if (keywords == null || keywords.isBlank()) keywords = tag;
+            else if (!keywords.contains(tag)) keywords = keywords + "," + tag;
+        }
+        Integer year = PubYear.of(r.getPublicationDate());
+        return new String[]{
+                title, r.getAuthors(), r.getPublicationDate(), r.getAbstractText(), r.getLink(), keywords,
+                (r.getCitedBy() == null) ? null : r.getCitedBy().toString(),
+                ContentKey.of(r.getTitle(), r.getLink()),
+                authorId,
+                (year == null) ? null : year.toString()
+        };
+    }
+
+    /** Appends one LOAD DATA line: tab-separated, backslash escapes, \N for null. */
+    static void appendTsv(StringBuilder sb, String[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) sb.append('\t');
+            String v = values[i];
+            if (v == null) {
+                sb.append("\\N");
+                continue;
+            }
+            for (int j = 0, n = v.length(); j < n; j++) {
+                char c = v.charAt(j);
+                switch (c) {
+                    case '\\': sb.append("\\\\"); break;
+                    case '\t': sb.append("\\t"); break;
+                    case '\n': sb.append("\\n"); break;
+                    case '\r': sb.append("\\r"); break;
+                    case '\0': sb.append("\\0"); break;
+                    default: sb.append(c);
+                }
+            }
+        }
+        sb.append('\n');
+    }
+
+    /** Drops the FULLTEXT indexes on articles; returns name -> column list for re-creating them. */
+    private static Map<String, String> dropFulltextIndexes(Statement st) throws Exception {
+        Map<String, String> indexes = new LinkedHashMap<>();
+        try (ResultSet rs = st.executeQuery("SELECT index_name, GROUP_CONCAT(column_name ORDER BY seq_in_index) " +
+                "FROM information_schema.statistics WHERE table_schema = DATABASE() AND table_name = 'articles' " +
+                "AND index_type = 'FULLTEXT' GROUP BY index_name")) {
+            while (rs.next()) indexes.put(rs.getString(1), rs.getString(2));
+        }
+        for (String name : indexes.keySet()) st.execute("ALTER TABLE articles DROP INDEX " + name);
+        return indexes;
+    }
+
+    private static long count(Statement st) throws Exception {
+        try (ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM articles")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static long maxSeq(Statement st) throws Exception {
+        try (ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(seq), 0) FROM bulk_staging")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static long millisSince(long t0) {
+        return (System.nanoTime() - t0) / 1_000_000;
+    }
+
+    /** Pulls rows only as the driver reads, encoding ~64 KB of TSV at a time. */
+    static final class TsvStream extends InputStream {
+        private static final int CHUNK_CHARS = 1 << 16;
+
+        private final Rows source;
+        private final String authorId;
+        private final StringBuilder sb = new StringBuilder(CHUNK_CHARS + 4_096);
+        private byte[] buf = new byte[0];
+        private int pos;
+        private boolean eof;
+        long rows;         // rows encoded so far
+        Exception failure; // what the source threw, if anything
+
+        TsvStream(Rows source, String authorId) {
+            this.source = source;
+            this.authorId = authorId;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (pos == buf.length && !refill()) return -1;
+            return buf[pos++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            if (pos == buf.length && !refill()) return -1;
+            int n = Math.min(len, buf.length - pos);
+            System.arraycopy(buf, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+
+        private boolean refill() throws IOException {
+            if (eof) return false;
+            sb.setLength(0);
+            try {
+                while (sb.length() < CHUNK_CHARS) {
+                    ArticleRecord r = source.next();
+                    if (r == null) {
+                        eof = true;
+                        break;
+                    }
+                    appendTsv(sb, stagedValues(r, authorId));
+                    rows++;
+                }
+            } catch (Exception e) {
+                failure = e;
+                throw new IOException("Reading import rows failed", e);
+            }
+            buf = sb.toString().getBytes(StandardCharsets.UTF_8);
+            pos = 0;
+            return buf.length > 0;
+        }
+    }
+
+    /** What one load did. */
+    public static final class Report {
+        private boolean loadData;
+        private long staged, inserted, updated, links, authors, stageMillis, mergeMillis, indexMillis, statsMillis;
+
+        public boolean isLoadData() { return loadData; }
+        public long getStaged() { return staged; }
+        public long getInserted() { return inserted; }
+        public long getUpdated() { return updated; }
+        /** Staged rows that changed nothing, including earlier copies of a key repeated in the same chunk. */
+        public long getUnchanged() { return staged - inserted - updated; }
+        public long getLinks() { return links; }
+        /** author_stats rows refreshed: every author linked to an imported row. */
+        public long getAuthors() { return authors; }
+        public long getStageMillis() { return stageMillis; }
+        public long getMergeMillis() { return mergeMillis; }
+        /** Time spent re-creating deferred FULLTEXT indexes (0 unless deferFulltext). */
+        public long getIndexMillis() { return indexMillis; }
+        public long getStatsMillis() { return statsMillis; }
+
+        @Override
+        public String toString() {
+            return "staged=" + staged + " (" + (loadData ? "LOAD DATA" : "batched INSERT") + ", " + stageMillis + " ms)"
+                    + " inserted=" + inserted + " updated=" + updated + " unchanged=" + getUnchanged()
+                    + " links.added=" + links + " merge=" + mergeMillis + " ms"
+                    + (indexMillis > 0 ? " fulltext.rebuild=" + indexMillis + " ms" : "")
+                    + " author_stats=" + authors + " (" + statsMillis + " ms)";
+        }
+    }
+}
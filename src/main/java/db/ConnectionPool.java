@@ -0,0 +1,433 @@
+package db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small bounded JDBC connection pool.
+ * - at most maxSize physical connections (borrowers wait up to acquireTimeoutMs)
+ * - idle connections are validated before reuse and evicted after idleTimeoutMs
+ * - connections are retired after maxLifetimeMs
+ * - each physical connection keeps an LRU cache of prepared statements
+ * Callers just close() the connection they got; that returns it to the pool.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    private static final long VALIDATE_AFTER_IDLE_MS = 5_000;
+
+    private final String url;
+    private final Properties props;
+    private final int maxSize;
+    private final long idleTimeoutMs;
+    private final long maxLifetimeMs;
+    private final long acquireTimeoutMs;
+    private final int statementCacheSize;
+
+    private final Semaphore slots;
+    private final LinkedBlockingDeque<Pooled> idle = new LinkedBlockingDeque<>();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+
+    // metrics
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong destroyed = new AtomicLong();
+    private final AtomicLong borrows = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong waitNanosTotal = new AtomicLong();
+    private final AtomicLong waitNanosMax = new AtomicLong();
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+
+    public ConnectionPool(String url, Properties props, int maxSize, long idleTimeoutMs,
+                          long maxLifetimeMs, long acquireTimeoutMs, int statementCacheSize) {
+        if (maxSize < 1) throw new IllegalArgumentException("maxSize must be >= 1");
+        this.url = url;
+        this.props = props;
+        this.maxSize = maxSize;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.maxLifetimeMs = maxLifetimeMs;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.statementCacheSize = statementCacheSize;
+        this.slots = new Semaphore(maxSize, true);
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1_000, Math.min(idleTimeoutMs, maxLifetimeMs) / 2);
+        evictor.scheduleWithFixedDelay(this::evict, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /** Borrows a connection; close() it to give it back. */
+    public Connection getConnection() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed");
+        long t0 = System.nanoTime();
+        try {
+            if (!slots.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                throw new SQLException("Timed out after " + acquireTimeoutMs + " ms waiting for a DB connection "
+                        + "(active=" + active.get() + ", max=" + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a DB connection", e);
+        }
+        recordWait(System.nanoTime() - t0);
+
+        try {
+            Pooled pc = takeIdle();
+            if (pc == null) pc = open();
+            active.incrementAndGet();
+            borrows.incrementAndGet();
+            return pc.lease();
+        } catch (SQLException | RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    private Pooled takeIdle() {
+        Pooled pc;
+        while ((pc = idle.pollFirst()) != null) { // LIFO: warmest connection first
+            long now = System.currentTimeMillis();
+            if (pc.expired(now)) {
+                destroy(pc);
+                continue;
+            }
+            if (now - pc.lastUsed > VALIDATE_AFTER_IDLE_MS && !pc.isValid()) {
+                destroy(pc);
+                continue;
+            }
+            return pc;
+        }
+        return null;
+    }
+
+    private Pooled open() throws SQLException {
+        Connection raw = DriverManager.getConnection(url, props);
+        created.incrementAndGet();
+        return new Pooled(raw);
+    }
+
+    private void giveBack(Pooled pc) {
+        active.decrementAndGet();
+        try {
+            if (closed || pc.raw.isClosed() || pc.expired(System.currentTimeMillis())) {
+                destroy(pc);
+                return;
+            }
+            pc.dropLeakedStatements();
+            if (!pc.raw.getAutoCommit()) {
+                pc.raw.rollback(); // never leak an open transaction to the next borrower
+                pc.raw.setAutoCommit(true);
+            }
+            pc.raw.clearWarnings();
+            pc.lastUsed = System.currentTimeMillis();
+            idle.offerFirst(pc);
+        } catch (SQLException e) {
+            destroy(pc);
+        } finally {
+            slots.release();
+        }
+    }
+
+    private void evict() {
+        long now = System.currentTimeMillis();
+        Iterator<Pooled> it = idle.descendingIterator(); // oldest idle first
+        while (it.hasNext()) {
+            Pooled pc = it.next();
+            if ((now - pc.lastUsed > idleTimeoutMs || pc.expired(now)) && idle.remove(pc)) {
+                destroy(pc);
+            }
+        }
+    }
+
+    private void destroy(Pooled pc) {
+        destroyed.incrementAndGet();
+        pc.closeStatements();
+        try {
+            pc.raw.close();
+        } catch (SQLException ignored) {
+            // already broken
+        }
+    }
+
+    private void recordWait(long nanos) {
+        waitNanosTotal.addAndGet(nanos);
+        waitNanosMax.accumulateAndGet(nanos, Math::max);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        Pooled pc;
+        while ((pc = idle.pollFirst()) != null) destroy(pc);
+    }
+
+    public Stats stats() {
+        return new Stats(active.get(), idle.size(), maxSize, slots.getQueueLength(), created.get(), destroyed.get(),
+                borrows.get(), timeouts.get(), waitNanosTotal.get(), waitNanosMax.get(),
+                statementHits.get(), statementMisses.get());
+    }
+
+    /** Point-in-time pool metrics. */
+    public static final class Stats {
+        private final int active, idle, max, waiting;
+        private final long created, destroyed, borrows, timeouts, waitNanosTotal, waitNanosMax;
+        private final long statementHits, statementMisses;
+
+        Stats(int active, int idle, int max, int waiting, long created, long destroyed, long borrows, long timeouts,
+              long waitNanosTotal, long waitNanosMax, long statementHits, long statementMisses) {
+            this.active = active;
+            this.idle = idle;
+            this.max = max;
+            this.waiting = waiting;
+            this.created = created;
+            this.destroyed = destroyed;
+            this.borrows = borrows;
+            this.timeouts = timeouts;
+            this.waitNanosTotal = waitNanosTotal;
+            this.waitNanosMax = waitNanosMax;
+            this.statementHits = statementHits;
+            this.statementMisses = statementMisses;
+        }
+
+        public int getActive() { return active; }
+        public int getIdle() { return idle; }
+        public int getMax() { return max; }
+        public int getWaiting() { return waiting; }
+        public long getCreated() { return created; }
+        public long getDestroyed() { return destroyed; }
+        public long getBorrows() { return borrows; }
+        public long getTimeouts() { return timeouts; }
+        public double getAvgWaitMillis() { return borrows == 0 ? 0 : waitNanosTotal / 1e6 / borrows; }
+        public double getMaxWaitMillis() { return waitNanosMax / 1e6; }
+        public long getStatementHits() { return statementHits; }
+        public long getStatementMisses() { return statementMisses; }
+
+        @Override
+        public String toString() {
+            return String.format("pool[active=%d idle=%d max=%d waiting=%d created=%d destroyed=%d borrows=%d timeouts=%d "
+                            + "wait.avg=%.2fms wait.max=%.2fms stmt.hits=%d stmt.misses=%d]",
+                    active, idle, max, waiting, created, destroyed, borrows, timeouts,
+                    getAvgWaitMillis(), getMaxWaitMillis(), statementHits, statementMisses);
+        }
+    }
+
+    // ---------- physical connection + per-connection statement cache ----------
+
+    private final class Pooled {
+        final Connection raw;
+        final long createdAt = System.currentTimeMillis();
+        volatile long lastUsed = createdAt;
+        private final Map<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() <= statementCacheSize) return false;
+                if (!eldest.getValue().inUse) closeQuietly(eldest.getValue().ps);
+                else eldest.getValue().evicted = true;
+                return true;
+            }
+        };
+
+        Pooled(Connection raw) {
+            this.raw = raw;
+        }
+
+        boolean expired(long now) {
+            return now - createdAt > maxLifetimeMs;
+        }
+
+        boolean isValid() {
+            try {
+                return raw.isValid(2);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new Lease(this));
+        }
+
+        PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+            if (statementCacheSize <= 0) return create(sql, autoGeneratedKeys);
+            String key = autoGeneratedKeys + ":" + sql;
+            CachedStatement cs = statements.get(key);
+            if (cs != null && !cs.inUse) {
+                statementHits.incrementAndGet();
+            } else if (cs != null) {
+                // same SQL already open in this lease (nested use): hand out a private one
+                statementMisses.incrementAndGet();
+                return create(sql, autoGeneratedKeys);
+            } else {
+                statementMisses.incrementAndGet();
+                cs = new CachedStatement(create(sql, autoGeneratedKeys));
+                statements.put(key, cs);
+            }
+            cs.inUse = true;
+            return cs.handle();
+        }
+
+        private PreparedStatement create(String sql, int autoGeneratedKeys) throws SQLException {
+            return autoGeneratedKeys == Statement.NO_GENERATED_KEYS
+                    ? raw.prepareStatement(sql)
+                    : raw.prepareStatement(sql, autoGeneratedKeys);
+        }
+
+        // Statements the borrower never closed can't be trusted by the next one.
+        void dropLeakedStatements() {
+            statements.values().removeIf(cs -> {
+                if (!cs.inUse) return false;
+                closeQuietly(cs.ps);
+                return true;
+            });
+        }
+
+        void closeStatements() {
+            for (CachedStatement cs : statements.values()) closeQuietly(cs.ps);
+            statements.clear();
+        }
+    }
+
+    /** One borrow of a physical connection; close() returns it to the pool. */
+    private final class Lease implements InvocationHandler {
+        private final Pooled pc;
+        private boolean released;
+
+        Lease(Pooled pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method m, Object[] args) throws Throwable {
+            String name = m.getName();
+            switch (name) {
+                case "close":
+                    if (!released) {
+                        released = true;
+                        giveBack(pc);
+                    }
+                    return null;
+                case "isClosed":
+                    return released || pc.raw.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "pooled:" + pc.raw;
+                default:
+                    break;
+            }
+            if (released) throw new SQLException("Connection already returned to the pool");
+            if (name.equals("prepareStatement") && args.length == 1) {
+                return pc.prepare((String) args[0], Statement.NO_GENERATED_KEYS);
+            }
+            if (name.equals("prepareStatement") && args.length == 2 && m.getParameterTypes()[1] == int.class) {
+                return pc.prepare((String) args[0], (Integer) args[1]);
+            }
+            try {
+                return m.invoke(pc.raw, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /** Cached PreparedStatement; the handed-out proxy resets it on close() instead of closing it. */
+    private static final class CachedStatement {
+        final PreparedStatement ps;
+        boolean inUse;
+        boolean evicted;
+
+        CachedStatement(PreparedStatement ps) {
+            this.ps = ps;
+        }
+
+        PreparedStatement handle() {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, new Handle());
+        }
+
+        private final class Handle implements InvocationHandler {
+            private boolean released;
+
+            @Override
+            public Object invoke(Object proxy, Method m, Object[] args) throws Throwable {
+                return CachedStatement.this.invoke(this, proxy, m, args);
+            }
+        }
+
+        private Object invoke(Handle h, Object proxy, Method m, Object[] args) throws Throwable {
+            switch (m.getName()) {
+                case "close":
+                    if (!h.released) {
+                        h.released = true;
+                        release();
+                    }
+                    return null;
+                case "isClosed":
+                    return h.released || ps.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            if (h.released) throw new SQLException("Statement is closed");
+            try {
+                return m.invoke(ps, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void release() throws SQLException {
+            inUse = false;
+            if (evicted) {
+                closeQuietly(ps);
+                return;
+            }
+            ResultSet rs = ps.getResultSet();
+            if (rs != null) rs.close();
+            ps.clearParameters();
+            ps.clearBatch();
+            ps.clearWarnings();
+            ps.setFetchSize(0);
+            ps.setMaxRows(0);
+        }
+    }
+
+    private static void closeQuietly(Statement st) {
+        try {
+            st.close();
+        } catch (SQLException ignored) {
+            // best effort
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package db;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * Stable identity of an article: SHA-256 (hex) of normalized title + "\n" + normalized link.
+ * Normalization lower-cases, collapses whitespace and trims, so re-fetched copies of the same
+ * article map to the same key (articles.content_key, unique once the dedupe job has run).
+ */
+public final class ContentKey {
+
+    private ContentKey() {
+    }
+
+    public static String of(String title, String link) {
+        String text = normalize(title) + "\n" + normalize(link);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String normalize(String s) {
+        if (s == null) return "";
+        return s.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ").trim();
+    }
+}
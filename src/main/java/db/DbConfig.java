@@ -1,18 +1,90 @@
 package db;
 
+import util.Env;
+
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.util.Properties;
 
+/**
+ * Connection settings from environment variables (or same-named system properties),
+ * backed by a shared {@link ConnectionPool}.
+ * get() borrows a pooled connection; closing it returns it to the pool.
+ *
+ * Pool tuning (optional):
+ *   DB_POOL_MAX (10), DB_POOL_IDLE_TIMEOUT_MS (300000), DB_POOL_MAX_LIFETIME_MS (1800000),
+ *   DB_POOL_ACQUIRE_TIMEOUT_MS (30000), DB_STMT_CACHE_SIZE (64, 0 disables)
+ */
 public class DbConfig {
+
+    private static volatile ConnectionPool pool;
+
     public static Connection get() throws Exception {
-        String url = getenv("DB_URL", "jdbc:mysql://localhost:3306/scholardb");
-        String user = getenv("DB_USER", "root");
-        String pass = getenv("DB_PASSWORD", "");
-        return DriverManager.getConnection(url, user, pass);
+        return pool().getConnection();
+    }
+
+    /**
+     * A dedicated, unpooled connection that may run LOAD DATA LOCAL INFILE (see {@link BulkLoader}).
+     * Kept out of the pool because allowLoadLocalInfile lets the server request local files; the
+     * caller closes it as soon as the load is done.
+     */
+    public static Connection openBulk() throws Exception {
+        Properties props = connectionProperties();
+        props.setProperty("allowLoadLocalInfile", "true");
+        return DriverManager.getConnection(url(), props);
+    }
+
+    public static ConnectionPool pool() {
+        ConnectionPool p = pool;
+        if (p == null) {
+            synchronized (DbConfig.class) {
+                p = pool;
+                if (p == null) {
+                    p = createPool();
+                    Runtime.getRuntime().addShutdownHook(new Thread(p::close, "db-pool-shutdown"));
+                    pool = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    private static ConnectionPool createPool() {
+        Properties props = connectionProperties();
+        int stmtCache = getenvInt("DB_STMT_CACHE_SIZE", 64);
+        if (stmtCache > 0) {
+            // server-side prepares make the per-connection statement cache save a round trip, not just parsing
+            props.setProperty("useServerPrepStmts", "true");
+        }
+
+        return new ConnectionPool(url(), props,
+                getenvInt("DB_POOL_MAX", 10),
+                getenvLong("DB_POOL_IDLE_TIMEOUT_MS", 300_000),
+                getenvLong("DB_POOL_MAX_LIFETIME_MS", 1_800_000),
+                getenvLong("DB_POOL_ACQUIRE_TIMEOUT_MS", 30_000),
+                stmtCache);
+    }
+
+    private static String url() {
+        return Env.get("DB_URL", "jdbc:mysql://localhost:3306/scholardb");
+    }
+
+    private static Properties connectionProperties() {
+        Properties props = new Properties();
+        props.setProperty("user", Env.get("DB_USER", "root"));
+        props.setProperty("password", Env.get("DB_PASSWORD", ""));
+        // lets ArticleRepository.saveAll send each JDBC batch as multi-row INSERTs
+        props.setProperty("rewriteBatchedStatements", "true");
+        // upserts report 1 = inserted, 2 = updated, 0 = unchanged instead of rows matched
+        props.setProperty("useAffectedRows", "true");
+        return props;
+    }
+
+    private static int getenvInt(String k, int def) {
+        return Integer.parseInt(Env.get(k, Integer.toString(def)));
     }
 
-    private static String getenv(String k, String def) {
-        String v = System.getenv(k);
-        return (v == null || v.isBlank()) ? def : v;
+    private static long getenvLong(String k, long def) {
+        return Long.parseLong(Env.get(k, Long.toString(def)));
     }
 }
@@ -0,0 +1,163 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * One-time compaction for tables filled before content keys existed (run after the V3 migration):
+ *   1) computes content_key for rows that have none (streamed, batched updates),
+ *   2) merges every group of rows sharing a key into its oldest row: the keeper takes the newest
+ *      copy's cited_by, inherits all article_authors links, and the other copies are deleted
+ *      (the authors of merged articles get their author_stats row refreshed),
+ *   3) replaces the plain content_key index with the unique index the upsert relies on.
+ * Safe to re-run; a compacted table only costs the two checks.
+ */
+public class DedupeJob {
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final String UNIQUE_INDEX = "uk_articles_content_key";
+    private static final String PLAIN_INDEX = "idx_articles_content_key";
+
+    /**
+     * reader streams the rows to key and must be a different connection from writer
+     * (a MySQL streaming result set keeps its connection busy until fully read).
+     */
+    public Report run(Connection reader, Connection writer) throws Exception {
+        Report report = new Report();
+        report.keyed = backfillKeys(reader, writer);
+        merge(writer, report);
+        report.indexCreated = ensureUniqueIndex(writer);
+        return report;
+    }
+
+    private static long backfillKeys(Connection reader, Connection writer) throws Exception {
+        boolean autoCommit = writer.getAutoCommit();
+        writer.setAutoCommit(false);
+        long n = 0;
+        try (PreparedStatement select = reader.prepareStatement(
+                     "SELECT id, title, link FROM articles WHERE content_key IS NULL",
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+             PreparedStatement update = writer.prepareStatement("UPDATE articles SET content_key = ? WHERE id = ?")) {
+            select.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    update.setString(1, ContentKey.of(rs.getString("title"), rs.getString("link")));
+                    update.setLong(2, rs.getLong("id"));
+                    update.addBatch();
+                    if (++n % BATCH_SIZE == 0) {
+                        update.executeBatch();
+                        writer.commit();
+                    }
+                }
+            }
+            update.executeBatch();
+            writer.commit();
+        } catch (Exception e) {
+            writer.rollback();
+            throw e;
+        } finally {
+            writer.setAutoCommit(autoCommit);
+        }
+        return n;
+    }
+
+    // All three steps in one transaction so a failure leaves the duplicates (and their links) intact.
+    private static void merge(Connection cn, Report report) throws Exception {
+        try (Statement st = cn.createStatement()) {
+            st.execute("DROP TEMPORARY TABLE IF EXISTS dedupe_groups");
+            st.execute("CREATE TEMPORARY TABLE dedupe_groups (" +
+                    "content_key CHAR(64) PRIMARY KEY, keep_id BIGINT NOT NULL, newest_id BIGINT NOT NULL)");
+            report.groups = st.executeUpdate("INSERT INTO dedupe_groups (content_key, keep_id, newest_id) " +
+                    "SELECT content_key, MIN(id), MAX(id) FROM articles " +
+                    "WHERE content_key IS NOT NULL GROUP BY content_key HAVING COUNT(*) > 1");
+            if (report.groups == 0) {
+                st.execute("DROP TEMPORARY TABLE dedupe_groups");
+                return;
+            }
+
+            boolean autoCommit = cn.getAutoCommit();
+            cn.setAutoCommit(false);
+            try {
+                st.executeUpdate("UPDATE articles k " +
+                        "JOIN dedupe_groups g ON k.id = g.keep_id " +
+                        "JOIN articles n ON n.id = g.newest_id " +
+                        "SET k.cited_by = COALESCE(n.cited_by, k.cited_by)");
+                st.executeUpdate("INSERT IGNORE INTO article_authors (author_id, article_id) " +
+                        "SELECT aa.author_id, g.keep_id FROM article_authors aa " +
+                        "JOIN articles a ON a.id = aa.article_id " +
+                        "JOIN dedupe_groups g ON g.content_key = a.content_key " +
+                        "WHERE a.id <> g.keep_id");
+                // the article_authors FK cascades the removed copies' links
+                report.deleted = st.executeUpdate("DELETE a FROM articles a " +
+                        "JOIN dedupe_groups g ON g.content_key = a.content_key " +
+                        "WHERE a.id <> g.keep_id");
+                // duplicates were counted once per copy and their citations may have moved to the keeper
+                st.execute("CREATE TEMPORARY TABLE dedupe_authors (author_id VARCHAR(64) PRIMARY KEY)");
+                st.executeUpdate("INSERT IGNORE INTO dedupe_authors (author_id) " +
+                        "SELECT aa.author_id FROM dedupe_groups g JOIN article_authors aa ON aa.article_id = g.keep_id");
+                report.authors = new AuthorStatsRepository().refreshListed(cn, "dedupe_authors");
+                ArticleRepository.bumpVersion(cn);
+                cn.commit();
+                QueryCache.shared().invalidateAll(); // merged copies leave cached author lists
+            } catch (Exception e) {
+                cn.rollback();
+                throw e;
+            } finally {
+                cn.setAutoCommit(autoCommit);
+                st.execute("DROP TEMPORARY TABLE IF EXISTS dedupe_groups");
+                st.execute("DROP TEMPORARY TABLE IF EXISTS dedupe_authors");
+            }
+        }
+    }
+
+    /**
+     * Whether the unique content_key index exists. Without it (V3 only creates a plain index) two
+     * writers saving the same new article at once both insert it, so concurrent saves need it.
+     */
+    public static boolean hasUniqueIndex(Connection cn) throws Exception {
+        return hasIndex(cn, UNIQUE_INDEX);
+    }
+
+    private static boolean ensureUniqueIndex(Connection cn) throws Exception {
+        if (hasIndex(cn, UNIQUE_INDEX)) return false;
+        try (Statement st = cn.createStatement()) {
+            String dropPlain = hasIndex(cn, PLAIN_INDEX) ? ", DROP INDEX " + PLAIN_INDEX : "";
+            st.execute("ALTER TABLE articles ADD UNIQUE INDEX " + UNIQUE_INDEX + " (content_key)" + dropPlain);
+        }
+        return true;
+    }
+
+    private static boolean hasIndex(Connection cn, String name) throws Exception {
+        try (PreparedStatement ps = cn.prepareStatement("SELECT 1 FROM information_schema.statistics " +
+                "WHERE table_schema = DATABASE() AND table_name = 'articles' AND index_name = ? LIMIT 1")) {
+            ps.setString(1, name);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /** What one run changed. */
+    public static final class Report {
+        private long keyed;
+        private int groups;
+        private int deleted;
+        private int authors;
+        private boolean indexCreated;
+
+        public long getKeyed() { return keyed; }
+        public int getGroups() { return groups; }
+        public int getDeleted() { return deleted; }
+        /** author_stats rows refreshed (authors of merged articles). */
+        public int getAuthors() { return authors; }
+        public boolean isIndexCreated() { return indexCreated; }
+
+        @Override
+        public String toString() {
+            return "keyed=" + keyed + " duplicate.groups=" + groups + " rows.deleted=" + deleted + " author_stats=" + authors
+                    + " unique.index=" + (indexCreated ? "created" : "present");
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package db;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Versioned schema migrations.
+ * Scripts live in src/main/resources/db/migration as V{n}__{name}.sql and are applied in order;
+ * applied versions are recorded in schema_version so each script runs once per database.
+ */
+public class Migrations {
+
+    // Append new scripts here (never edit one that has shipped).
+    private static final String[] SCRIPTS = {
+            "V1__create_articles.sql",
+            "V2__article_authors.sql",
+            "V3__content_key.sql",
+            "V4__author_sync.sql",
+            "V5__fulltext.sql",
+            "V6__author_stats.sql",
+            "V7__pub_year.sql",
+            "V8__refresh_schedule.sql",
+            "V9__articles_version.sql",
+            "V10__author_stats_latest_year.sql",
+    };
+
+    private static final String VERSION_TABLE_SQL =
+            "CREATE TABLE IF NOT EXISTS schema_version (" +
+                    "version INT PRIMARY KEY, " +
+                    "script VARCHAR(255) NOT NULL, " +
+                    "applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)";
+
+    /** Applies pending scripts and returns the names of the ones that ran. */
+    public static List<String> migrate(Connection cn) throws Exception {
+        try (Statement st = cn.createStatement()) {
+            st.execute(VERSION_TABLE_SQL);
+        }
+        int current = currentVersion(cn);
+
+        List<String> applied = new ArrayList<>();
+        for (String script : SCRIPTS) {
+            int version = versionOf(script);
+            if (version <= current) continue;
+
+            // MySQL DDL auto-commits: a script that fails halfway must be fixed up by hand before re-running
+            try (Statement st = cn.createStatement()) {
+                for (String sql : statements(load(script))) {
+                    st.execute(sql);
+                }
+            }
+            try (PreparedStatement ps = cn.prepareStatement("INSERT INTO schema_version (version, script) VALUES (?, ?)")) {
+                ps.setInt(1, version);
+                ps.setString(2, script);
+                ps.executeUpdate();
+            }
+            applied.add(script);
+        }
+        return applied;
+    }
+
+    public static int currentVersion(Connection cn) throws Exception {
+        try (Statement st = cn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static int versionOf(String script) {
+        return Integer.parseInt(script.substring(1, script.indexOf("__")));
+    }
+
+    private static String load(String script) throws IOException {
+        try (InputStream in = Migrations.class.getResourceAsStream("/db/migration/" + script)) {
+            if (in == null) throw new IOException("Migration script not found on classpath: " + script);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    // Splits a script on ';' at end of line; full-line "--" comments are dropped.
+    static List<String> statements(String script) {
+        List<String> out = new ArrayList<>();
+        StringBuilder cur = new StringBuilder();
+        for (String line : script.split("\\R")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) continue;
+            cur.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                String sql = cur.toString().trim();
+                out.add(sql.substring(0, sql.length() - 1));
+                cur.setLength(0);
+            }
+        }
+        if (!cur.toString().isBlank()) out.add(cur.toString().trim());
+        return out;
+    }
+}
@@ -0,0 +1,26 @@
+package db;
+
+/**
+ * Publication year of an article (articles.pub_year, V7): the leading four-digit year of the
+ * free-text date SerpApi returns ("2019", "2019/5/1", "2019 - Nature"), or null if there is none.
+ * V7__pub_year.sql backfills stored rows with the same rule in SQL.
+ */
+public final class PubYear {
+
+    private PubYear() {
+    }
+
+    public static Integer of(String date) {
+        if (date == null) return null;
+        String s = date.trim();
+        if (s.length() < 4 || (s.charAt(0) != '1' && s.charAt(0) != '2')) return null;
+        int year = 0;
+        for (int i = 0; i < 4; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return null;
+            year = year * 10 + (c - '0');
+        }
+        if (s.length() > 4 && s.charAt(4) >= '0' && s.charAt(4) <= '9') return null; // "20190" is not a year
+        return year;
+    }
+}
@@ -0,0 +1,331 @@
+package db;
+
+import metrics.Metrics;
+import util.Env;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+/**
+ * In-process read-through cache of query results (ArticleRepository reads), bounded by an estimate
+ * of the bytes the cached values hold.
+ *
+ * Eviction is LRU with a TinyLFU admission filter: a count-min sketch counts how often each key was
+ * asked for (halved periodically, so old popularity fades), and when the budget is full a new result
+ * only gets in if its key is asked for more often than the LRU victim's. A one-off lookup of a large
+ * author cannot push out the researchers that are viewed all the time.
+ *
+ * Entries carry tags ("author:<id>" and {@link #ALL_ARTICLES}); writers invalidate the tags they
+ * changed after their commit. A load that overlaps an invalidation of one of its tags is returned
+ * but not stored, so a reader never caches what it read just before another thread's commit.
+ * Writes from other processes are only seen after ttlMillis.
+ *
+ * QUERY_CACHE_MB (32, 0 = off) and QUERY_CACHE_TTL_S (300) configure {@link #shared()}.
+ */
+public final class QueryCache {
+
+    /** Tag of results that depend on every article (top cited, counts over the whole table). */
+    public static final String ALL_ARTICLES = "*";
+
+    // tagVersions past this size is cleared and folded into the floor
+    static final int MAX_TAG_VERSIONS = 4096;
+
+    private static volatile QueryCache shared;
+
+    /** Loads a value on a miss. */
+    public interface Loader<T> {
+        T load() throws Exception;
+    }
+
+    private static final class Entry {
+        final Object value;
+        final long bytes;
+        final long expiresAt;
+        final String[] tags;
+
+        Entry(Object value, long bytes, long expiresAt, String[] tags) {
+            this.value = value;
+            this.bytes = bytes;
+            this.expiresAt = expiresAt;
+            this.tags = tags;
+        }
+    }
+
+    private final long maxBytes;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true); // access order = LRU
+    private final Map<String, Set<String>> keysByTag = new HashMap<>();
+    // tag -> clock value of its last invalidation; tags not in the map count as `floor`
+    private final Map<String, Long> tagVersions = new HashMap<>();
+    private final FrequencySketch sketch = new FrequencySketch(4096);
+    private long clock; // ticks on every invalidation
+    private long floor; // at least the version of every tag dropped from tagVersions
+    private long bytes;
+    private long hits, misses, stores, rejected, evictions, invalidations;
+
+    public QueryCache(long maxBytes, long ttlMillis) {
+        this.maxBytes = maxBytes;
+        this.ttlNanos = ttlMillis * 1_000_000;
+    }
+
+    /** Process-wide instance used by ArticleRepository. */
+    public static QueryCache shared() {
+        QueryCache c = shared;
+        if (c == null) {
+            synchronized (QueryCache.class) {
+                c = shared;
+                if (c == null) {
+                    c = new QueryCache(Long.parseLong(Env.get("QUERY_CACHE_MB", "32")) << 20,
+                            Long.parseLong(Env.get("QUERY_CACHE_TTL_S", "300")) * 1000);
+                    shared = c;
+                }
+            }
+        }
+        return c;
+    }
+
+    /**
+     * The cached value for key, or loader's result (stored if it fits and wins admission).
+     * The loader runs outside the cache lock; weigher estimates the value's size in bytes.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, String[] tags, Loader<T> loader, ToLongFunction<T> weigher) throws Exception {
+        if (maxBytes <= 0) return loader.load();
+        long stamp;
+        synchronized (this) {
+            sketch.increment(key);
+            Entry e = entries.get(key);
+            if (e != null && e.expiresAt - System.nanoTime() > 0) {
+                hits++;
+                Metrics.increment("qcache.hits");
+                return (T) e.value;
+            }
+            if (e != null) remove(key);
+            misses++;
+            Metrics.increment("qcache.misses");
+            stamp = stamp(tags);
+        }
+        T value = loader.load();
+        put(key, tags, value, weigher.applyAsLong(value), stamp);
+        return value;
+    }
+
+    /** The cached value, or null on a miss (counted like get(); pair it with putIfUnchanged). */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> T peek(String key) {
+        if (maxBytes <= 0) return null;
+        sketch.increment(key);
+        Entry e = entries.get(key);
+        if (e != null && e.expiresAt - System.nanoTime() > 0) {
+            hits++;
+            Metrics.increment("qcache.hits");
+            return (T) e.value;
+        }
+        if (e != null) remove(key);
+        misses++;
+        Metrics.increment("qcache.misses");
+        return null;
+    }
+
+    /** Token to pass to putIfUnchanged: taken before a load, it tells whether the load overlapped an invalidation. */
+    public synchronized long stamp(String[] tags) {
+        long s = floor;
+        for (String t : tags) s = Math.max(s, tagVersions.getOrDefault(t, floor));
+        return s; // an invalidation takes a clock value above every stamp so far, so any change raises the max
+    }
+
+    /** Stores a value loaded by the caller (see peek) unless one of its tags was invalidated since stamp. */
+    public void putIfUnchanged(String key, String[] tags, Object value, long bytes, long stamp) {
+        if (maxBytes > 0) put(key, tags, value, bytes, stamp);
+    }
+
+    public synchronized void invalidate(String tag) {
+        if (tagVersions.size() >= MAX_TAG_VERSIONS) { // forget old versions; loads in flight are not stored
+            tagVersions.clear();
+            floor = clock;
+        }
+        tagVersions.put(tag, ++clock);
+        Set<String> keys = keysByTag.remove(tag);
+        if (keys == null) return;
+        for (String k : keys) {
+            if (remove(k)) invalidations++;
+        }
+    }
+
+    public synchronized void invalidateAll(Collection<String> tags) {
+        for (String t : tags) invalidate(t);
+    }
+
+    /** After bulk writes whose author set is unknown. */
+    public synchronized void invalidateAll() {
+        tagVersions.clear();
+        floor = ++clock;
+        invalidations += entries.size();
+        entries.clear();
+        keysByTag.clear();
+        bytes = 0;
+    }
+
+    /** Tags whose last invalidation is remembered individually (at most MAX_TAG_VERSIONS). */
+    synchronized int trackedTags() {
+        return tagVersions.size();
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, stores, rejected, evictions, invalidations, entries.size(), bytes, maxBytes);
+    }
+
+    private synchronized void put(String key, String[] tags, Object value, long size, long stamp) {
+        if (stamp != stamp(tags)) return; // a writer committed during the load
+        if (entries.containsKey(key)) remove(key);
+        if (size > maxBytes / 4) { // one author must not flush the whole cache
+            reject();
+            return;
+        }
+        // admission first: the LRU entries that would have to go must all be less popular
+        int frequency = sketch.frequency(key);
+        int victims = 0;
+        long freed = 0;
+        for (Map.Entry<String, Entry> victim : entries.entrySet()) {
+            if (bytes - freed + size <= maxBytes) break;
+            if (frequency <= sketch.frequency(victim.getKey())) {
+                reject();
+                return;
+            }
+            freed += victim.getValue().bytes;
+            victims++;
+        }
+        Iterator<Map.Entry<String, Entry>> lru = entries.entrySet().iterator();
+        for (int i = 0; i < victims; i++) {
+            Map.Entry<String, Entry> victim = lru.next();
+            lru.remove();
+            unindex(victim.getKey(), victim.getValue());
+            evictions++;
+            Metrics.increment("qcache.evictions");
+        }
+        entries.put(key, new Entry(value, size, System.nanoTime() + ttlNanos, tags));
+        bytes += size;
+        for (String t : tags) keysByTag.computeIfAbsent(t, k -> new HashSet<>()).add(key);
+        stores++;
+    }
+
+    private void reject() {
+        rejected++;
+        Metrics.increment("qcache.rejected");
+    }
+
+    private boolean remove(String key) {
+        Entry e = entries.remove(key);
+        if (e == null) return false;
+        unindex(key, e);
+        return true;
+    }
+
+    private void unindex(String key, Entry e) {
+        bytes -= e.bytes;
+        for (String t : e.tags) {
+            Set<String> keys = keysByTag.get(t);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) keysByTag.remove(t);
+        }
+    }
+
+    /**
+     * Count-min sketch of key popularity: 4 rows of saturating counters, the estimate is the row
+     * minimum. After 10 x width increments every counter is halved, so the counts follow recent traffic.
+     */
+    static final class FrequencySketch {
+        private static final int MAX = 15;
+        private final int[][] rows = new int[4][];
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int width) {
+            int w = Integer.highestOneBit(Math.max(16, width - 1) << 1);
+            for (int i = 0; i < rows.length; i++) rows[i] = new int[w];
+            this.mask = w - 1;
+            this.sampleSize = 10 * w;
+        }
+
+        void increment(String key) {
+            int h = spread(key.hashCode());
+            for (int i = 0; i < rows.length; i++) {
+                int slot = index(h, i);
+                if (rows[i][slot] < MAX) rows[i][slot]++;
+            }
+            if (++additions >= sampleSize) age();
+        }
+
+        int frequency(String key) {
+            int h = spread(key.hashCode());
+            int min = MAX;
+            for (int i = 0; i < rows.length; i++) min = Math.min(min, rows[i][index(h, i)]);
+            return min;
+        }
+
+        private void age() {
+            for (int[] row : rows) {
+                for (int j = 0; j < row.length; j++) row[j] >>>= 1;
+            }
+            additions /= 2;
+        }
+
+        private int index(int h, int row) {
+            int x = h * (0x9E3779B9 + 2 * row + 1); // a different odd multiplier per row
+            return (x ^ (x >>> 16)) & mask;
+        }
+
+        private static int spread(int h) {
+            h ^= h >>> 16;
+            h *= 0x45d9f3b;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    public static final class Stats {
+        private final long hits, misses, stores, rejected, evictions, invalidations;
+        private final int entries;
+        private final long bytes, maxBytes;
+
+        Stats(long hits, long misses, long stores, long rejected, long evictions, long invalidations,
+              int entries, long bytes, long maxBytes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.stores = stores;
+            this.rejected = rejected;
+            this.evictions = evictions;
+            this.invalidations = invalidations;
+            this.entries = entries;
+            this.bytes = bytes;
+            this.maxBytes = maxBytes;
+        }
+
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getStores() { return stores; }
+        /** Loads not stored: too large, or less popular than what they would have evicted. */
+        public long getRejected() { return rejected; }
+        public long getEvictions() { return evictions; }
+        public long getInvalidations() { return invalidations; }
+        public int getEntries() { return entries; }
+        public long getBytes() { return bytes; }
+
+        public double getHitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("qcache[hits=%d misses=%d hit.ratio=%.2f stores=%d rejected=%d evictions=%d invalidations=%d entries=%d mb=%.1f/%d]",
+                    hits, misses, getHitRatio(), stores, rejected, evictions, invalidations, entries,
+                    bytes / 1048576.0, maxBytes >> 20);
+        }
+    }
+}
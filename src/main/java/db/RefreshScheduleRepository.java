@@ -0,0 +1,148 @@
+package db;
+
+import model.ScheduledAuthor;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/** refresh_schedule and api_credits (V8 migration): the scheduler's persisted queue and hourly spend. */
+public class RefreshScheduleRepository {
+
+    private static final String COLUMNS =
+            "author_id, added_at, last_refreshed_at, next_due_at, citations, velocity, failures";
+
+    /** Starts tracking the authors (due now); already tracked ones are left as they are. Returns the number added. */
+    public int add(Connection cn, Collection<String> authorIds) throws SQLException {
+        if (authorIds.isEmpty()) return 0;
+        Timestamp now = Timestamp.from(Instant.now());
+        int added = 0;
+        try (PreparedStatement ps = cn.prepareStatement(
+                "INSERT IGNORE INTO refresh_schedule (author_id, added_at, next_due_at) VALUES (?, ?, ?)")) {
+            for (String id : authorIds) {
+                ps.setString(1, id);
+                ps.setTimestamp(2, now);
+                ps.setTimestamp(3, now);
+                added += ps.executeUpdate(); // one at a time: a rewritten batch would not report per row
+            }
+        }
+        return added;
+    }
+
+    public int remove(Connection cn, Collection<String> authorIds) throws SQLException {
+        int removed = 0;
+        try (PreparedStatement ps = cn.prepareStatement("DELETE FROM refresh_schedule WHERE author_id = ?")) {
+            for (String id : authorIds) {
+                ps.setString(1, id);
+                removed += ps.executeUpdate();
+            }
+        }
+        return removed;
+    }
+
+    /** Every tracked author, soonest due first (limit <= 0 = all). */
+    public List<ScheduledAuthor> findAll(Connection cn, int limit) throws SQLException {
+        List<ScheduledAuthor> out = new ArrayList<>();
+        String sql = "SELECT " + COLUMNS + " FROM refresh_schedule ORDER BY next_due_at, added_at, author_id"
+                + (limit > 0 ? " LIMIT " + limit : "");
+        try (PreparedStatement ps = cn.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) out.add(mapRow(rs));
+        }
+        return out;
+    }
+
+    public int count(Connection cn) throws SQLException {
+        try (PreparedStatement ps = cn.prepareStatement("SELECT COUNT(*) FROM refresh_schedule");
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    /** Stores the outcome of a refresh; a row removed meanwhile (schedule remove) stays removed. */
+    public void update(Connection cn, ScheduledAuthor a) throws SQLException {
+        try (PreparedStatement ps = cn.prepareStatement(
+                "UPDATE refresh_schedule SET last_refreshed_at = ?, next_due_at = ?, citations = ?, velocity = ?, failures = ? " +
+                        "WHERE author_id = ?")) {
+            ps.setTimestamp(1, a.getLastRefreshedAt() == null ? null : Timestamp.from(a.getLastRefreshedAt()));
+            ps.setTimestamp(2, Timestamp.from(a.getNextDueAt()));
+            if (a.getCitations() == null) ps.setNull(3, Types.BIGINT); else ps.setLong(3, a.getCitations());
+            ps.setDouble(4, a.getVelocity());
+            ps.setInt(5, a.getFailures());
+            ps.setString(6, a.getAuthorId());
+            ps.executeUpdate();
+        }
+    }
+
+    /** What is stored for an author right now, read by the scheduler after each refresh. */
+    public static final class Citations {
+        private final long total;
+        private final Integer firstYear;
+
+        public Citations(long total, Integer firstYear) {
+            this.total = total;
+            this.firstYear = firstYear;
+        }
+
+        /** Sum of cited_by over the author's linked articles. */
+        public long getTotal() { return total; }
+        /** Year of the oldest dated article, or null. */
+        public Integer getFirstYear() { return firstYear; }
+    }
+
+    /** Citations of the author's stored articles, through the article_authors primary key. */
+    public Citations citations(Connection cn, String authorId) throws SQLException {
+        try (PreparedStatement ps = cn.prepareStatement(
+                "SELECT COALESCE(SUM(a.cited_by), 0), MIN(a.pub_year) " +
+                        "FROM article_authors aa JOIN articles a ON a.id = aa.article_id WHERE aa.author_id = ?")) {
+            ps.setString(1, authorId);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                long citations = rs.getLong(1);
+                int year = rs.getInt(2);
+                return new Citations(citations, rs.wasNull() ? null : year);
+            }
+        }
+    }
+
+    /** API calls recorded in the clock hour (UTC) containing `at`. */
+    public int creditsSpent(Connection cn, Instant at) throws SQLException {
+        try (PreparedStatement ps = cn.prepareStatement("SELECT credits FROM api_credits WHERE hour_start = ?")) {
+            ps.setTimestamp(1, Timestamp.from(at.truncatedTo(ChronoUnit.HOURS)));
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    public void addCredits(Connection cn, Instant at, int credits) throws SQLException {
+        try (PreparedStatement ps = cn.prepareStatement(
+                "INSERT INTO api_credits (hour_start, credits) VALUES (?, ?) ON DUPLICATE KEY UPDATE credits = credits + VALUES(credits)")) {
+            ps.setTimestamp(1, Timestamp.from(at.truncatedTo(ChronoUnit.HOURS)));
+            ps.setInt(2, credits);
+            ps.executeUpdate();
+        }
+    }
+
+    private static ScheduledAuthor mapRow(ResultSet rs) throws SQLException {
+        long c = rs.getLong("citations");
+        Long citations = rs.wasNull() ? null : c;
+        Timestamp last = rs.getTimestamp("last_refreshed_at");
+        return new ScheduledAuthor(
+                rs.getString("author_id"),
+                rs.getTimestamp("added_at").toInstant(),
+                last == null ? null : last.toInstant(),
+                rs.getTimestamp("next_due_at").toInstant(),
+                citations,
+                rs.getDouble("velocity"),
+                rs.getInt("failures"));
+    }
+}
@@ -0,0 +1,86 @@
+package export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RFC 4180 record reader: quoted fields may contain separators, doubled quotes and line breaks;
+ * records end with CRLF, LF or CR. Reads through its own char buffer, one record at a time.
+ */
+final class CsvReader implements Closeable {
+
+    private final Reader in;
+    private final char[] buf = new char[1 << 16];
+    private int pos, limit;
+    private final StringBuilder sb = new StringBuilder();
+    private long line = 1;
+
+    CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    /** Fields of the next record, or null at end of input. */
+    List<String> next() throws IOException {
+        int c = read();
+        if (c == -1) return null;
+        List<String> fields = new ArrayList<>();
+        while (true) {
+            sb.setLength(0);
+            if (c == '"') {
+                while (true) {
+                    c = read();
+                    if (c == -1) throw new IOException("Unterminated quoted field at line " + line);
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') break;
+                    } else if (c == '\n') {
+                        line++;
+                    }
+                    sb.append((char) c);
+                }
+            } else {
+                while (c != ',' && c != '\n' && c != '\r' && c != -1) {
+                    sb.append((char) c);
+                    c = read();
+                }
+            }
+            fields.add(sb.toString());
+            if (c == ',') {
+                c = read();
+                continue;
+            }
+            if (c == '\r' && peek() == '\n') read();
+            if (c != -1 && c != '\n' && c != '\r') throw new IOException("Unexpected character after quoted field at line " + line);
+            line++;
+            return fields;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private int read() throws IOException {
+        if (pos == limit && !fill()) return -1;
+        return buf[pos++];
+    }
+
+    private int peek() throws IOException {
+        if (pos == limit && !fill()) return -1;
+        return buf[pos];
+    }
+
+    private boolean fill() throws IOException {
+        pos = 0;
+        limit = 0;
+        int n;
+        while ((n = in.read(buf, 0, buf.length)) == 0) { /* retry */ }
+        if (n < 0) return false;
+        limit = n;
+        return true;
+    }
+}
@@ -0,0 +1,201 @@
+package export;
+
+import model.ArticleRecord;
+import util.JsonReader;
+import util.JsonWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Row encodings for {@link ExportJob}, read back by the bulk import; one line per article, UTF-8. */
+public enum ExportFormat {
+
+    /** One JSON object per line; null columns are written as null. */
+    NDJSON {
+        @Override
+        void writeHeader(Writer out) {
+            // no header
+        }
+
+        @Override
+        void writeRow(Writer out, ArticleRecord r) throws IOException {
+            out.write("{\"id\":");
+            out.write(Long.toString(r.getId()));
+            field(out, "title", r.getTitle());
+            field(out, "authors", r.getAuthors());
+            field(out, "publication_date", r.getPublicationDate());
+            field(out, "abstract", r.getAbstractText());
+            field(out, "link", r.getLink());
+            field(out, "keywords", r.getKeywords());
+            out.write(",\"cited_by\":");
+            JsonWriter.number(out, r.getCitedBy());
+            out.write("}\n");
+        }
+
+        private void field(Writer out, String name, String value) throws IOException {
+            out.write(",\"");
+            out.write(name);
+            out.write("\":");
+            JsonWriter.string(out, value);
+        }
+
+        @Override
+        public RowReader reader(Reader in) {
+            JsonReader json = new JsonReader(in);
+            return new RowReader() {
+                @Override
+                public ArticleRecord next() throws IOException {
+                    if (!json.nextDocument()) return null;
+                    Long id = null;
+                    Integer citedBy = null;
+                    String[] text = new String[TEXT_COLUMNS.length];
+                    json.beginObject();
+                    while (json.hasNext()) {
+                        String name = json.nextName();
+                        int i = textColumn(name);
+                        if (i >= 0) {
+                            text[i] = json.nextString();
+                        } else if (name.equals("id")) {
+                            String v = json.nextString();
+                            id = (v == null) ? null : Long.valueOf(v);
+                        } else if (name.equals("cited_by")) {
+                            citedBy = json.nextInt();
+                        } else {
+                            json.skipValue();
+                        }
+                    }
+                    json.endObject();
+                    return record(id, text, citedBy);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    json.close();
+                }
+            };
+        }
+    },
+
+    /** RFC 4180 CSV with a header row; null and empty are both written as an empty field. */
+    CSV {
+        @Override
+        void writeHeader(Writer out) throws IOException {
+            out.write("id,title,authors,publication_date,abstract,link,keywords,cited_by\r\n");
+        }
+
+        @Override
+        void writeRow(Writer out, ArticleRecord r) throws IOException {
+            out.write(Long.toString(r.getId()));
+            field(out, r.getTitle());
+            field(out, r.getAuthors());
+            field(out, r.getPublicationDate());
+            field(out, r.getAbstractText());
+            field(out, r.getLink());
+            field(out, r.getKeywords());
+            out.write(',');
+            if (r.getCitedBy() != null) out.write(Integer.toString(r.getCitedBy()));
+            out.write("\r\n");
+        }
+
+        private void field(Writer out, String value) throws IOException {
+            out.write(',');
+            if (value == null || value.isEmpty()) return;
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            out.write(value.replace("\"", "\"\""));
+            out.write('"');
+        }
+
+        /** Columns are matched by header name, so extra or reordered columns are fine; empty fields read as null. */
+        @Override
+        public RowReader reader(Reader in) throws IOException {
+            CsvReader csv = new CsvReader(in);
+            List<String> header = csv.next();
+            if (header == null) throw new IOException("CSV input has no header row");
+            int[] textAt = new int[TEXT_COLUMNS.length];
+            for (int i = 0; i < textAt.length; i++) textAt[i] = header.indexOf(TEXT_COLUMNS[i]);
+            int idAt = header.indexOf("id");
+            int citedAt = header.indexOf("cited_by");
+            if (textAt[0] < 0) throw new IOException("CSV header has no title column: " + header);
+            return new RowReader() {
+                @Override
+                public ArticleRecord next() throws IOException {
+                    List<String> f;
+                    do {
+                        f = csv.next();
+                        if (f == null) return null;
+                    } while (f.size() == 1 && f.get(0).isEmpty()); // blank line
+                    String[] text = new String[TEXT_COLUMNS.length];
+                    for (int i = 0; i < text.length; i++) text[i] = cell(f, textAt[i]);
+                    String id = cell(f, idAt);
+                    String cited = cell(f, citedAt);
+                    try {
+                        return record(id == null ? null : Long.valueOf(id), text,
+                                cited == null ? null : Integer.valueOf(cited.trim()));
+                    } catch (NumberFormatException e) {
+                        throw new IOException("Bad number in CSV record " + f, e);
+                    }
+                }
+
+                @Override
+                public void close() throws IOException {
+                    csv.close();
+                }
+            };
+        }
+
+        private String cell(List<String> fields, int i) {
+            if (i < 0 || i >= fields.size()) return null;
+            String v = fields.get(i);
+            return v.isEmpty() ? null : v;
+        }
+    };
+
+    /** Reads rows back one at a time; implementations keep nothing but the current row. */
+    public interface RowReader extends Closeable {
+        /** Next row, or null at end of input. */
+        ArticleRecord next() throws IOException;
+    }
+
+    private static final String[] TEXT_COLUMNS = {"title", "authors", "publication_date", "abstract", "link", "keywords"};
+    private static final Map<String, Integer> TEXT_INDEX = new HashMap<>();
+
+    static {
+        for (int i = 0; i < TEXT_COLUMNS.length; i++) TEXT_INDEX.put(TEXT_COLUMNS[i], i);
+    }
+
+    abstract void writeHeader(Writer out) throws IOException;
+
+    abstract void writeRow(Writer out, ArticleRecord r) throws IOException;
+
+    /** Reader for input in this format (UTF-8 text, already decompressed). */
+    public abstract RowReader reader(Reader in) throws IOException;
+
+    private static int textColumn(String name) {
+        Integer i = TEXT_INDEX.get(name);
+        return (i == null) ? -1 : i;
+    }
+
+    private static ArticleRecord record(Long id, String[] text, Integer citedBy) {
+        return new ArticleRecord(id, text[0], text[1], text[2], text[3], text[4], text[5], citedBy);
+    }
+
+    /** csv for *.csv / *.csv.gz, ndjson otherwise. */
+    public static ExportFormat forFile(String fileName) {
+        String f = fileName.toLowerCase();
+        return (f.endsWith(".csv") || f.endsWith(".csv.gz")) ? CSV : NDJSON;
+    }
+}
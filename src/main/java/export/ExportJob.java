@@ -0,0 +1,202 @@
+package export;
+
+import db.ArticleRepository;
+import metrics.Metrics;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.zip.Deflater;
+
+/**
+ * Streams articles to an NDJSON or CSV file (optionally gzip) in ascending id order with constant
+ * memory: rows come off a streaming result set ({@link ArticleRepository#streamRange}) and go straight
+ * to an {@link ExportSink}, nothing is collected.
+ *
+ * Snapshot: the upper id bound is fixed when the export starts (MAX(id) unless given), so rows
+ * inserted while it runs are left for the next one.
+ *
+ * Resume: every {@code checkpointRows} rows the output is made durable and "<target>.ckpt" records
+ * the last exported id and the output length. A run with resume=true picks up from there (same
+ * options required), truncating anything written after the checkpoint; without a checkpoint it
+ * starts fresh. The finished file only appears under its name once complete ("<target>.part" until then).
+ */
+public class ExportJob {
+
+    private static final Metrics.Phase EXPORT = Metrics.phase("export");
+
+    /** Source rows; the repository in production, a generator in tests. */
+    interface Source {
+        long maxId() throws Exception;
+
+        void stream(long afterId, long toId, ArticleRepository.RowHandler handler) throws Exception;
+    }
+
+    public static final class Options {
+        ExportFormat format = ExportFormat.NDJSON;
+        boolean gzip;
+        int gzipLevel = Deflater.DEFAULT_COMPRESSION;
+        String authorId;
+        long fromId = 1;
+        Long toId;
+        int checkpointRows = 100_000;
+
+        public Options format(ExportFormat format) { this.format = format; return this; }
+        public Options gzip(boolean gzip) { this.gzip = gzip; return this; }
+        /** 1 (fastest) .. 9 (smallest); gzip output is CPU-bound, level 1 is ~30% faster for ~8% more bytes. */
+        public Options gzipLevel(int level) { this.gzipLevel = level; return this; }
+        public Options author(String authorId) { this.authorId = authorId; return this; }
+        public Options fromId(long fromId) { this.fromId = fromId; return this; }
+        public Options toId(Long toId) { this.toId = toId; return this; }
+        public Options checkpointRows(int rows) { this.checkpointRows = Math.max(1, rows); return this; }
+
+        private int sinkGzip() {
+            return gzip ? gzipLevel : ExportSink.NO_GZIP;
+        }
+
+        /** What a checkpoint must match to be resumed. */
+        private String signature() {
+            return format + " gzip=" + gzip + " author=" + authorId + " from=" + fromId + " to=" + toId;
+        }
+
+        @Override
+        public String toString() {
+            return signature().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final Options options;
+
+    public ExportJob(Options options) {
+        this.options = options;
+    }
+
+    public static Path checkpointFile(Path target) {
+        return target.resolveSibling(target.getFileName() + ".ckpt");
+    }
+
+    /** Exports through the given connection; it is busy for the whole run. */
+    public Report run(Connection cn, Path target, boolean resume) throws Exception {
+        ArticleRepository repo = new ArticleRepository();
+        return run(new Source() {
+            @Override
+            public long maxId() throws Exception {
+                return repo.maxId(cn);
+            }
+
+            @Override
+            public void stream(long afterId, long toId, ArticleRepository.RowHandler handler) throws Exception {
+                repo.streamRange(cn, options.authorId, afterId, toId, handler);
+            }
+        }, target, resume);
+    }
+
+    Report run(Source source, Path target, boolean resume) throws Exception {
+        long t0 = System.nanoTime();
+        boolean ok = false;
+        Path ckptFile = checkpointFile(target);
+        Report report = new Report();
+        ExportSink sink = null;
+        try {
+            Properties ckpt = (resume && Files.exists(ckptFile)) ? load(ckptFile) : null;
+            long toId;
+            if (ckpt != null) {
+                if (!options.signature().equals(ckpt.getProperty("options"))) {
+                    throw new IllegalStateException("Checkpoint " + ckptFile + " was written for [" + ckpt.getProperty("options")
+                            + "], not [" + options.signature() + "]; rerun with the same options or without --resume");
+                }
+                toId = Long.parseLong(ckpt.getProperty("toId"));
+                report.lastId = Long.parseLong(ckpt.getProperty("lastId"));
+                report.rows = report.resumedRows = Long.parseLong(ckpt.getProperty("rows"));
+                report.resumed = true;
+                sink = ExportSink.resume(target, options.format, options.sinkGzip(), Long.parseLong(ckpt.getProperty("position")));
+            } else {
+                toId = (options.toId != null) ? options.toId : source.maxId();
+                report.lastId = options.fromId - 1;
+                sink = ExportSink.create(target, options.format, options.sinkGzip());
+                save(ckptFile, toId, report, sink.checkpoint());
+            }
+            report.toId = toId;
+
+            ExportSink out = sink;
+            long[] sinceCheckpoint = {0};
+            source.stream(report.lastId, toId, row -> {
+                out.write(row);
+                report.lastId = row.getId();
+                report.rows++;
+                if (++sinceCheckpoint[0] == options.checkpointRows) {
+                    save(ckptFile, toId, report, out.checkpoint());
+                    sinceCheckpoint[0] = 0;
+                }
+            });
+
+            report.bytes = sink.finish();
+            Files.deleteIfExists(ckptFile);
+            ok = true;
+            return report;
+        } finally {
+            if (sink != null) sink.close();
+            report.wallNanos = System.nanoTime() - t0;
+            EXPORT.record(t0, ok);
+            Metrics.add("export.rows", report.rows - report.resumedRows);
+            if (ok) Metrics.add("export.bytes", report.bytes);
+        }
+    }
+
+    // written next to the output and moved into place, so a crash leaves the old or the new checkpoint
+    private void save(Path ckptFile, long toId, Report report, long position) throws IOException {
+        Properties p = new Properties();
+        p.setProperty("options", options.signature());
+        p.setProperty("toId", Long.toString(toId));
+        p.setProperty("lastId", Long.toString(report.lastId));
+        p.setProperty("rows", Long.toString(report.rows));
+        p.setProperty("position", Long.toString(position));
+        Path tmp = ckptFile.resolveSibling(ckptFile.getFileName() + ".tmp");
+        try (Writer w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            p.store(w, "export checkpoint");
+        }
+        Files.move(tmp, ckptFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Properties load(Path ckptFile) throws IOException {
+        Properties p = new Properties();
+        try (Reader r = Files.newBufferedReader(ckptFile, StandardCharsets.UTF_8)) {
+            p.load(r);
+        }
+        for (String key : new String[]{"options", "toId", "lastId", "rows", "position"}) {
+            if (p.getProperty(key) == null) throw new IllegalStateException("Checkpoint " + ckptFile + " has no " + key);
+        }
+        return p;
+    }
+
+    public static final class Report {
+        private long rows, resumedRows, lastId, toId, bytes, wallNanos;
+        private boolean resumed;
+
+        /** Rows in the finished file, including those written before a resume. */
+        public long getRows() { return rows; }
+        /** Rows written by this run. */
+        public long getWrittenRows() { return rows - resumedRows; }
+        public long getLastId() { return lastId; }
+        public long getToId() { return toId; }
+        public long getBytes() { return bytes; }
+        public boolean isResumed() { return resumed; }
+        public long getWallMillis() { return wallNanos / 1_000_000; }
+
+        @Override
+        public String toString() {
+            double secs = Math.max(1, wallNanos) / 1e9;
+            return String.format(Locale.ROOT,
+                    "rows=%d (this run %d%s) lastId=%d toId=%d bytes=%d wall=%d ms %.0f rows/s %.1f MB/s",
+                    rows, getWrittenRows(), resumed ? ", resumed" : "", lastId, toId, bytes, getWallMillis(),
+                    getWrittenRows() / secs, bytes / secs / 1e6);
+        }
+    }
+}
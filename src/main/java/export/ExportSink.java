@@ -0,0 +1,173 @@
+package export;
+
+import model.ArticleRecord;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Output side of an export: rows go to "<target>.part" through a FileChannel with a fixed-size direct
+ * buffer (optionally gzip in between) and the file is renamed to target by {@link #finish}.
+ * checkpoint() makes everything written so far durable and returns the file length at that point; a
+ * resumed export truncates the part file back to that length and carries on. With gzip every checkpoint
+ * ends a gzip member and the next rows start a new one: concatenated members are one valid gzip stream
+ * (gzip -d, zcat, GZIPInputStream all read them), so no compressed state has to survive a restart.
+ */
+final class ExportSink implements AutoCloseable {
+
+    private static final int CHANNEL_BUFFER = 1 << 17;
+    private static final int CHAR_BUFFER = 1 << 16;
+
+    static final int NO_GZIP = -2;
+
+    private final Path target;
+    private final Path part;
+    private final ExportFormat format;
+    private final int gzipLevel;     // NO_GZIP, or a Deflater level
+    private final FileChannel channel;
+    private final ChannelOutputStream out;
+    private GZIPOutputStream member; // current gzip member, if gzip
+    private Writer writer;           // null between a checkpoint and the next row
+
+    private ExportSink(Path target, ExportFormat format, int gzipLevel, FileChannel channel) {
+        this.target = target;
+        this.part = partFile(target);
+        this.format = format;
+        this.gzipLevel = gzipLevel;
+        this.channel = channel;
+        this.out = new ChannelOutputStream(channel);
+    }
+
+    static Path partFile(Path target) {
+        return target.resolveSibling(target.getFileName() + ".part");
+    }
+
+    /** Starts a new part file (replacing any previous one) and writes the format's header. */
+    static ExportSink create(Path target, ExportFormat format, int gzipLevel) throws IOException {
+        FileChannel ch = FileChannel.open(partFile(target), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ExportSink sink = new ExportSink(target, format, gzipLevel, ch);
+        format.writeHeader(sink.writer());
+        return sink;
+    }
+
+    /** Reopens the part file of an interrupted export, dropping whatever was written after the checkpoint. */
+    static ExportSink resume(Path target, ExportFormat format, int gzipLevel, long position) throws IOException {
+        Path part = partFile(target);
+        if (!Files.exists(part) || Files.size(part) < position) {
+            throw new IOException("Cannot resume: " + part + " is missing or shorter than the checkpoint (" + position + " bytes)");
+        }
+        FileChannel ch = FileChannel.open(part, StandardOpenOption.WRITE);
+        ch.truncate(position);
+        ch.position(position);
+        return new ExportSink(target, format, gzipLevel, ch);
+    }
+
+    void write(ArticleRecord r) throws IOException {
+        format.writeRow(writer(), r);
+    }
+
+    /** Flushes (ending the gzip member), forces the data to disk and returns the durable file length. */
+    long checkpoint() throws IOException {
+        if (writer != null) {
+            writer.flush();
+            if (member != null) member.finish();
+            writer = null;
+            member = null;
+        }
+        out.flush();
+        channel.force(false);
+        return channel.position();
+    }
+
+    /** Final checkpoint, then publishes the part file under the target name. */
+    long finish() throws IOException {
+        long length = checkpoint();
+        channel.close();
+        Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return length;
+    }
+
+    /** Closes without publishing; the part file stays for a resume. */
+    @Override
+    public void close() throws IOException {
+        if (channel.isOpen()) channel.close();
+    }
+
+    private Writer writer() throws IOException {
+        if (writer == null) {
+            OutputStream sinkOut = out;
+            if (gzipLevel != NO_GZIP) {
+                member = new GZIPOutputStream(new NonClosing(out), CHAR_BUFFER) {
+                    { def.setLevel(gzipLevel); }
+                };
+                sinkOut = member;
+            }
+            writer = new BufferedWriter(new OutputStreamWriter(sinkOut, StandardCharsets.UTF_8), CHAR_BUFFER);
+        }
+        return writer;
+    }
+
+    /** OutputStream over a FileChannel with one reusable direct buffer (no per-write allocation). */
+    private static final class ChannelOutputStream extends OutputStream {
+        private final FileChannel channel;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(CHANNEL_BUFFER);
+
+        ChannelOutputStream(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!buf.hasRemaining()) drain();
+            buf.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (!buf.hasRemaining()) drain();
+                int n = Math.min(len, buf.remaining());
+                buf.put(b, off, n);
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            drain();
+        }
+
+        private void drain() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) channel.write(buf);
+            buf.clear();
+        }
+    }
+
+    // GZIPOutputStream.finish() must not close the shared channel stream.
+    private static final class NonClosing extends OutputStream {
+        private final OutputStream out;
+
+        NonClosing(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override public void write(int b) throws IOException { out.write(b); }
+        @Override public void write(byte[] b, int off, int len) throws IOException { out.write(b, off, len); }
+        @Override public void flush() throws IOException { out.flush(); }
+        @Override public void close() { }
+    }
+}
@@ -0,0 +1,30 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** JFR event around ScholarAuthorClient.fetchAuthorJson (sync and async). */
+@Name("scholar.Fetch")
+@Label("SerpApi Fetch")
+@Category("Scholar")
+@Description("One google_scholar_author page, from the response cache or the network")
+public class FetchEvent extends Event {
+    @Label("Author Id")
+    public String authorId;
+
+    @Label("Start")
+    public int start;
+
+    @Label("Cached")
+    public boolean cached;
+
+    @Label("Body Length")
+    @Description("Characters of the decoded JSON body")
+    public int length;
+
+    @Label("Error")
+    public String error;
+}
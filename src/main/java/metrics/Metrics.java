@@ -0,0 +1,155 @@
+package metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide latency histograms per pipeline phase plus named counters.
+ * Phases used by the app: fetch (ScholarAuthorClient), parse (AuthorJson), save (ArticleRepository),
+ * render and author.total (AuthorController), harvest.author (HarvestController).
+ * Latencies are recorded in nanoseconds and dumped in milliseconds.
+ *
+ * Environment (read by app.Main after each command):
+ *   METRICS=console|json   print a snapshot to stdout
+ *   METRICS_FILE=path      write the JSON snapshot to a file
+ */
+public final class Metrics {
+
+    private static final Map<String, Phase> PHASES = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    public static Phase phase(String name) {
+        return PHASES.computeIfAbsent(name, Phase::new);
+    }
+
+    public static void increment(String counter) {
+        add(counter, 1);
+    }
+
+    public static void add(String counter, long n) {
+        COUNTERS.computeIfAbsent(counter, k -> new LongAdder()).add(n);
+    }
+
+    public static long counter(String name) {
+        LongAdder a = COUNTERS.get(name);
+        return a == null ? 0 : a.sum();
+    }
+
+    public static void reset() {
+        PHASES.values().forEach(Phase::reset);
+        COUNTERS.values().forEach(LongAdder::reset);
+    }
+
+    /** One line per phase (count, errors, p50/p90/p99/max/mean in ms), then the counters. */
+    public static String toText() {
+        StringBuilder sb = new StringBuilder("=== Metrics ===\n");
+        sb.append(String.format("%-16s %8s %6s %10s %10s %10s %10s %10s%n",
+                "phase", "count", "errors", "p50 ms", "p90 ms", "p99 ms", "max ms", "mean ms"));
+        for (Phase p : phases()) {
+            Histogram h = p.histogram;
+            sb.append(String.format(Locale.ROOT, "%-16s %8d %6d %10.3f %10.3f %10.3f %10.3f %10.3f%n",
+                    p.name, h.getCount(), p.getErrors(), ms(h.percentile(50)), ms(h.percentile(90)),
+                    ms(h.percentile(99)), ms(h.getMax()), h.getMean() / 1e6));
+        }
+        for (String name : counterNames()) {
+            sb.append(String.format("%-16s %8d%n", name, counter(name)));
+        }
+        return sb.toString();
+    }
+
+    /** {"phases":{"fetch":{"count":..,"errors":..,"p50_ms":..,...}},"counters":{...}} */
+    public static String toJson() {
+        StringBuilder sb = new StringBuilder("{\"phases\":{");
+        String sep = "";
+        for (Phase p : phases()) {
+            Histogram h = p.histogram;
+            sb.append(sep).append(quote(p.name)).append(":{")
+                    .append("\"count\":").append(h.getCount())
+                    .append(",\"errors\":").append(p.getErrors())
+                    .append(String.format(Locale.ROOT, ",\"p50_ms\":%.3f,\"p90_ms\":%.3f,\"p99_ms\":%.3f,\"max_ms\":%.3f,\"mean_ms\":%.3f}",
+                            ms(h.percentile(50)), ms(h.percentile(90)), ms(h.percentile(99)), ms(h.getMax()), h.getMean() / 1e6));
+            sep = ",";
+        }
+        sb.append("},\"counters\":{");
+        sep = "";
+        for (String name : counterNames()) {
+            sb.append(sep).append(quote(name)).append(':').append(counter(name));
+            sep = ",";
+        }
+        return sb.append("}}").toString();
+    }
+
+    /** Honors METRICS / METRICS_FILE; a no-op when neither is set. */
+    public static void dumpFromEnv() throws IOException {
+        String mode = System.getenv("METRICS");
+        if ("json".equalsIgnoreCase(mode)) System.out.println(toJson());
+        else if ("console".equalsIgnoreCase(mode)) System.out.print(toText());
+
+        String file = System.getenv("METRICS_FILE");
+        if (file != null && !file.isBlank()) {
+            Files.writeString(Path.of(file), toJson() + "\n", StandardCharsets.UTF_8);
+        }
+    }
+
+    private static List<Phase> phases() {
+        List<Phase> list = new ArrayList<>(PHASES.values());
+        list.sort(Comparator.comparing(p -> p.name));
+        return list;
+    }
+
+    private static List<String> counterNames() {
+        List<String> names = new ArrayList<>(COUNTERS.keySet());
+        names.sort(null);
+        return names;
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static String quote(String s) {
+        return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    /** Latency histogram + error count of one phase. */
+    public static final class Phase {
+        private final String name;
+        private final Histogram histogram = new Histogram();
+        private final LongAdder errors = new LongAdder();
+
+        private Phase(String name) {
+            this.name = name;
+        }
+
+        /** Records elapsed nanos since a System.nanoTime() start; failed calls also count as errors. */
+        public void record(long startNanos, boolean ok) {
+            recordElapsed(System.nanoTime() - startNanos, ok);
+        }
+
+        public void recordElapsed(long nanos, boolean ok) {
+            histogram.record(nanos);
+            if (!ok) errors.increment();
+        }
+
+        public String getName() { return name; }
+        public Histogram getHistogram() { return histogram; }
+        public long getErrors() { return errors.sum(); }
+
+        private void reset() {
+            histogram.reset();
+            errors.reset();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** JFR event around AuthorJson.parse of a payload string. */
+@Name("scholar.Parse")
+@Label("Author Payload Parse")
+@Category("Scholar")
+@Description("Mapping of one SerpApi author payload into Author/Article models")
+public class ParseEvent extends Event {
+    @Label("Payload Length")
+    @Description("Characters of the JSON payload")
+    public int length;
+
+    @Label("Articles")
+    public int articles;
+}
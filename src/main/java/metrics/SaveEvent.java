@@ -0,0 +1,29 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** JFR event around ArticleRepository.saveAll (save() is the single-row case). */
+@Name("scholar.Save")
+@Label("Article Save")
+@Category("Scholar")
+@Description("Idempotent save of a batch of articles for one researcher tag")
+public class SaveEvent extends Event {
+    @Label("Researcher Tag")
+    public String tag;
+
+    @Label("Articles")
+    public int articles;
+
+    @Label("Inserted")
+    public int inserted;
+
+    @Label("Updated")
+    public int updated;
+
+    @Label("Unchanged")
+    public int unchanged;
+}
@@ -0,0 +1,252 @@
+package model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-oriented, append-only holder for article rows; the compact alternative to a List of
+ * {@link ArticleRecord} for large result sets:
+ *   id, cited_by           primitive long[] / int[] (cited_by nulls in a bitmap)
+ *   authors, keywords,     dictionary-encoded: one int code per row, each distinct string stored once
+ *   publication_date       (the same "author:<id>" tag and author lists repeat across many rows)
+ *   title, abstract, link  UTF-8 bytes in one shared array per column, decoded only when a cell is read
+ * Not thread-safe; fill it on one thread and hand it over (e.g. SwingWorker result / process()).
+ */
+public class ArticleColumns {
+
+    private int size;
+    private long[] ids;
+    private int[] citedBy;
+    private long[] citedNull; // bit i set = cited_by of row i is null
+
+    private final Dictionary authors = new Dictionary();
+    private final Dictionary keywords = new Dictionary();
+    private final Dictionary publicationDates = new Dictionary();
+    private final Utf8Column titles;
+    private final Utf8Column abstracts;
+    private final Utf8Column links;
+
+    public ArticleColumns() {
+        this(256);
+    }
+
+    public ArticleColumns(int expectedRows) {
+        int n = Math.max(16, expectedRows);
+        ids = new long[n];
+        citedBy = new int[n];
+        citedNull = new long[(n + 63) >>> 6];
+        authors.ensure(n);
+        keywords.ensure(n);
+        publicationDates.ensure(n);
+        titles = new Utf8Column(n, 64);
+        abstracts = new Utf8Column(n, 0);
+        links = new Utf8Column(n, 48);
+    }
+
+    public void add(ArticleRecord r) {
+        add(r.getId() == null ? 0 : r.getId(), r.getTitle(), r.getAuthors(), r.getPublicationDate(),
+                r.getAbstractText(), r.getLink(), r.getKeywords(), r.getCitedBy());
+    }
+
+    public void add(long id, String title, String authorsValue, String publicationDate, String abstractText,
+                    String link, String keywordsValue, Integer cited) {
+        if (size == ids.length) grow();
+        int i = size++;
+        ids[i] = id;
+        if (cited == null) {
+            citedNull[i >>> 6] |= 1L << i;
+        } else {
+            citedBy[i] = cited;
+        }
+        authors.add(i, authorsValue);
+        keywords.add(i, keywordsValue);
+        publicationDates.add(i, publicationDate);
+        titles.add(i, title);
+        abstracts.add(i, abstractText);
+        links.add(i, link);
+    }
+
+    public int size() { return size; }
+
+    public long getId(int row) { return ids[check(row)]; }
+
+    public Integer getCitedBy(int row) {
+        check(row);
+        return (citedNull[row >>> 6] & (1L << row)) != 0 ? null : citedBy[row];
+    }
+
+    public String getTitle(int row) { return titles.get(check(row)); }
+    public String getAuthors(int row) { return authors.get(check(row)); }
+    public String getPublicationDate(int row) { return publicationDates.get(check(row)); }
+    public String getAbstractText(int row) { return abstracts.get(check(row)); }
+    public String getLink(int row) { return links.get(check(row)); }
+    public String getKeywords(int row) { return keywords.get(check(row)); }
+
+    /** Materializes one row (for code that still works with records, e.g. an edit dialog). */
+    public ArticleRecord get(int row) {
+        return new ArticleRecord(getId(row), getTitle(row), getAuthors(row), getPublicationDate(row),
+                getAbstractText(row), getLink(row), getKeywords(row), getCitedBy(row));
+    }
+
+    /** Approximate heap held by the arrays (excluding object headers), for comparisons and diagnostics. */
+    public long bytesUsed() {
+        return ids.length * 8L + citedBy.length * 4L + citedNull.length * 8L
+                + authors.bytesUsed() + keywords.bytesUsed() + publicationDates.bytesUsed()
+                + titles.bytesUsed() + abstracts.bytesUsed() + links.bytesUsed();
+    }
+
+    /** Distinct values per dictionary column, for diagnostics: {authors, keywords, publication_date}. */
+    public int[] dictionarySizes() {
+        return new int[]{authors.values.size(), keywords.values.size(), publicationDates.values.size()};
+    }
+
+    /** Drops spare capacity once filling is done. */
+    public void trim() {
+        ids = Arrays.copyOf(ids, size);
+        citedBy = Arrays.copyOf(citedBy, size);
+        citedNull = Arrays.copyOf(citedNull, (size + 63) >>> 6);
+        authors.trim(size);
+        keywords.trim(size);
+        publicationDates.trim(size);
+        titles.trim(size);
+        abstracts.trim(size);
+        links.trim(size);
+        authors.index = null; // lookups are only needed while appending
+        keywords.index = null;
+        publicationDates.index = null;
+    }
+
+    private int check(int row) {
+        if (row < 0 || row >= size) throw new IndexOutOfBoundsException("row " + row + " of " + size);
+        return row;
+    }
+
+    private void grow() {
+        int n = Math.max(16, ids.length * 2);
+        ids = Arrays.copyOf(ids, n);
+        citedBy = Arrays.copyOf(citedBy, n);
+        citedNull = Arrays.copyOf(citedNull, (n + 63) >>> 6);
+        authors.ensure(n);
+        keywords.ensure(n);
+        publicationDates.ensure(n);
+        titles.ensure(n);
+        abstracts.ensure(n);
+        links.ensure(n);
+    }
+
+    // Code 0 is null; code k > 0 is values.get(k - 1).
+    private static final class Dictionary {
+        int[] codes = new int[0];
+        final List<String> values = new ArrayList<>();
+        Map<String, Integer> index = new HashMap<>();
+
+        void ensure(int n) {
+            if (codes.length < n) codes = Arrays.copyOf(codes, n);
+        }
+
+        void add(int row, String value) {
+            if (value == null) {
+                codes[row] = 0;
+                return;
+            }
+            if (index == null) index = rebuildIndex();
+            Integer code = index.get(value);
+            if (code == null) {
+                values.add(value);
+                code = values.size();
+                index.put(value, code);
+            }
+            codes[row] = code;
+        }
+
+        String get(int row) {
+            int code = codes[row];
+            return code == 0 ? null : values.get(code - 1);
+        }
+
+        void trim(int size) {
+            codes = Arrays.copyOf(codes, size);
+        }
+
+        // after trim() the index is dropped; appending again rebuilds it
+        private Map<String, Integer> rebuildIndex() {
+            Map<String, Integer> m = new HashMap<>();
+            for (int k = 0; k < values.size(); k++) m.put(values.get(k), k + 1);
+            return m;
+        }
+
+        long bytesUsed() {
+            long strings = 0;
+            for (String v : values) strings += 40 + v.length(); // String + Latin-1 byte[] (typical)
+            return codes.length * 4L + strings;
+        }
+    }
+
+    // Row i spans bytes [offsets[i], offsets[i + 1]); a null value is flagged in its own bitmap.
+    private static final class Utf8Column {
+        byte[] bytes;
+        int[] offsets;
+        long[] nulls;
+        int used;
+
+        Utf8Column(int rows, int bytesPerRow) {
+            bytes = new byte[Math.max(64, rows * bytesPerRow)];
+            offsets = new int[rows + 1];
+            nulls = new long[(rows + 63) >>> 6];
+        }
+
+        void ensure(int rows) {
+            if (offsets.length < rows + 1) offsets = Arrays.copyOf(offsets, rows + 1);
+            if (nulls.length < (rows + 63) >>> 6) nulls = Arrays.copyOf(nulls, (rows + 63) >>> 6);
+        }
+
+        void add(int row, String value) {
+            if (value == null) {
+                nulls[row >>> 6] |= 1L << row;
+            } else {
+                // ASCII (nearly every title and link) is copied char by char, no temporary byte[]
+                int n = value.length();
+                reserve(n);
+                int k = 0;
+                for (; k < n; k++) {
+                    char ch = value.charAt(k);
+                    if (ch >= 0x80) break;
+                    bytes[used++] = (byte) ch;
+                }
+                if (k < n) {
+                    byte[] rest = value.substring(k).getBytes(StandardCharsets.UTF_8);
+                    reserve(rest.length);
+                    System.arraycopy(rest, 0, bytes, used, rest.length);
+                    used += rest.length;
+                }
+            }
+            offsets[row + 1] = used;
+        }
+
+        private void reserve(int extra) {
+            if (used + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, used + extra));
+            }
+        }
+
+        String get(int row) {
+            if ((nulls[row >>> 6] & (1L << row)) != 0) return null;
+            int from = offsets[row];
+            return new String(bytes, from, offsets[row + 1] - from, StandardCharsets.UTF_8);
+        }
+
+        void trim(int rows) {
+            bytes = Arrays.copyOf(bytes, used);
+            offsets = Arrays.copyOf(offsets, rows + 1);
+            nulls = Arrays.copyOf(nulls, (rows + 63) >>> 6);
+        }
+
+        long bytesUsed() {
+            return bytes.length + offsets.length * 4L + nulls.length * 8L;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package model;
+
+import java.time.Instant;
+
+/** Citation summary of one researcher (author_stats row), as of the last save that touched them. */
+public class AuthorStats {
+    private final String authorId;
+    private final int articles;       // linked articles (article_authors)
+    private final long citations;     // sum of cited_by
+    private final int hIndex;         // h articles cited at least h times each
+    private final Integer latestYear; // newest publication year, null if no article has one
+    private final Instant updatedAt;
+
+    public AuthorStats(String authorId, int articles, long citations, int hIndex, Integer latestYear, Instant updatedAt) {
+        this.authorId = authorId;
+        this.articles = articles;
+        this.citations = citations;
+        this.hIndex = hIndex;
+        this.latestYear = latestYear;
+        this.updatedAt = updatedAt;
+    }
+
+    public String getAuthorId() { return authorId; }
+    public int getArticles() { return articles; }
+    public long getCitations() { return citations; }
+    public int getHIndex() { return hIndex; }
+    public Integer getLatestYear() { return latestYear; }
+    public Instant getUpdatedAt() { return updatedAt; }
+}
@@ -0,0 +1,60 @@
+package model;
+
+/** Outcome of refreshing one author in a harvest or sync run. */
+public class HarvestResult {
+    private final String authorId;
+    private final boolean ok;
+    private final String authorName;
+    private final int requests;          // API pages fetched
+    private final int articlesFetched;
+    private final int articlesSaved;     // inserted or updated
+    private final int articlesUnchanged; // already stored as fetched
+    private final Long citations;        // profile total reported with the fetch; null = not reported
+    private final long elapsedMillis;
+    private final String error;
+
+    private HarvestResult(String authorId, boolean ok, String authorName, int requests, int articlesFetched,
+                          int articlesSaved, int articlesUnchanged, Long citations, long elapsedMillis, String error) {
+        this.authorId = authorId;
+        this.ok = ok;
+        this.authorName = authorName;
+        this.requests = requests;
+        this.articlesFetched = articlesFetched;
+        this.articlesSaved = articlesSaved;
+        this.articlesUnchanged = articlesUnchanged;
+        this.citations = citations;
+        this.elapsedMillis = elapsedMillis;
+        this.error = error;
+    }
+
+    public static HarvestResult success(String authorId, String authorName, int fetched, int saved, int unchanged,
+                                        long elapsedMillis) {
+        return success(authorId, authorName, 1, fetched, saved, unchanged, elapsedMillis);
+    }
+
+    public static HarvestResult success(String authorId, String authorName, int requests, int fetched, int saved,
+                                        int unchanged, long elapsedMillis) {
+        return success(authorId, authorName, requests, fetched, saved, unchanged, null, elapsedMillis);
+    }
+
+    public static HarvestResult success(String authorId, String authorName, int requests, int fetched, int saved,
+                                        int unchanged, Long citations, long elapsedMillis) {
+        return new HarvestResult(authorId, true, authorName, requests, fetched, saved, unchanged, citations, elapsedMillis, null);
+    }
+
+    public static HarvestResult failure(String authorId, String error, long elapsedMillis) {
+        return new HarvestResult(authorId, false, null, 0, 0, 0, 0, null, elapsedMillis, error);
+    }
+
+    public String getAuthorId() { return authorId; }
+    public boolean isOk() { return ok; }
+    public String getAuthorName() { return authorName; }
+    public int getRequests() { return requests; }
+    public int getArticlesFetched() { return articlesFetched; }
+    public int getArticlesSaved() { return articlesSaved; }
+    public int getArticlesUnchanged() { return articlesUnchanged; }
+    /** The profile's total citations as reported by the API with this fetch, or null. */
+    public Long getCitations() { return citations; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public String getError() { return error; }
+}
@@ -0,0 +1,29 @@
+package model;
+
+/** Rows written vs. skipped by ArticleRepository upserts. */
+public class SaveStats {
+    private int inserted;
+    private int updated;
+    private int unchanged;
+
+    public void addInserted(int n) { inserted += n; }
+    public void addUpdated(int n) { updated += n; }
+    public void addUnchanged(int n) { unchanged += n; }
+
+    public void add(SaveStats other) {
+        inserted += other.inserted;
+        updated += other.updated;
+        unchanged += other.unchanged;
+    }
+
+    public int getInserted() { return inserted; }
+    public int getUpdated() { return updated; }
+    public int getUnchanged() { return unchanged; }
+    public int getWritten() { return inserted + updated; }
+    public int getTotal() { return inserted + updated + unchanged; }
+
+    @Override
+    public String toString() {
+        return "inserted=" + inserted + " updated=" + updated + " unchanged=" + unchanged;
+    }
+}
@@ -0,0 +1,33 @@
+package model;
+
+import java.time.Instant;
+
+/** An author tracked by the refresh scheduler (refresh_schedule row). */
+public class ScheduledAuthor {
+    private final String authorId;
+    private final Instant addedAt;
+    private final Instant lastRefreshedAt; // null = never refreshed by the scheduler
+    private final Instant nextDueAt;
+    private final Long citations;          // stored citations after the last refresh
+    private final double velocity;         // citations gained per day, smoothed
+    private final int failures;            // consecutive failed refreshes
+
+    public ScheduledAuthor(String authorId, Instant addedAt, Instant lastRefreshedAt, Instant nextDueAt,
+                           Long citations, double velocity, int failures) {
+        this.authorId = authorId;
+        this.addedAt = addedAt;
+        this.lastRefreshedAt = lastRefreshedAt;
+        this.nextDueAt = nextDueAt;
+        this.citations = citations;
+        this.velocity = velocity;
+        this.failures = failures;
+    }
+
+    public String getAuthorId() { return authorId; }
+    public Instant getAddedAt() { return addedAt; }
+    public Instant getLastRefreshedAt() { return lastRefreshedAt; }
+    public Instant getNextDueAt() { return nextDueAt; }
+    public Long getCitations() { return citations; }
+    public double getVelocity() { return velocity; }
+    public int getFailures() { return failures; }
+}
@@ -0,0 +1,30 @@
+package model;
+
+import java.time.Instant;
+
+/** Where the last delta sync of an author stopped (author_sync row). */
+public class SyncCheckpoint {
+    private final String authorId;
+    private final Instant lastSyncedAt;
+    private final String newestYear;
+    private final String newestTitle;
+    private final String newestKey;   // content key of the newest article seen (sort=pubdate, first row)
+    private final int articleCount;   // articles linked to the author after the sync
+
+    public SyncCheckpoint(String authorId, Instant lastSyncedAt, String newestYear, String newestTitle,
+                          String newestKey, int articleCount) {
+        this.authorId = authorId;
+        this.lastSyncedAt = lastSyncedAt;
+        this.newestYear = newestYear;
+        this.newestTitle = newestTitle;
+        this.newestKey = newestKey;
+        this.articleCount = articleCount;
+    }
+
+    public String getAuthorId() { return authorId; }
+    public Instant getLastSyncedAt() { return lastSyncedAt; }
+    public String getNewestYear() { return newestYear; }
+    public String getNewestTitle() { return newestTitle; }
+    public String getNewestKey() { return newestKey; }
+    public int getArticleCount() { return articleCount; }
+}
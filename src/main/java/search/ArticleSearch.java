@@ -0,0 +1,115 @@
+package search;
+
+import db.ArticleRepository;
+import metrics.Metrics;
+import model.ArticleRecord;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Search over stored article titles and abstracts.
+ * Uses the MySQL FULLTEXT index (V5 migration) when the table has one; otherwise an in-process
+ * {@link InvertedIndex}, built by streaming the table on the first query and topped up with rows
+ * added since (id > last indexed id) before every later query. Rows updated in place keep their
+ * indexed text and cited_by until {@link #rebuild}; the returned records are always read fresh.
+ *
+ * SEARCH_MODE=auto (default: FULLTEXT if present) | fulltext | memory
+ */
+public class ArticleSearch {
+
+    private static final Metrics.Phase SEARCH = Metrics.phase("search");
+    private static volatile ArticleSearch shared;
+
+    public enum Mode { FULLTEXT, MEMORY }
+
+    private final ArticleRepository repo = new ArticleRepository();
+    private final Mode forced; // null = detect per database
+    private volatile Mode detected;
+    private volatile InvertedIndex index = new InvertedIndex();
+    private final Object refreshLock = new Object();
+
+    public ArticleSearch(Mode forced) {
+        this.forced = forced;
+    }
+
+    /** Process-wide instance configured from SEARCH_MODE (keeps one in-memory index per process). */
+    public static ArticleSearch shared() {
+        ArticleSearch s = shared;
+        if (s == null) {
+            synchronized (ArticleSearch.class) {
+                s = shared;
+                if (s == null) {
+                    String mode = System.getenv("SEARCH_MODE");
+                    s = new ArticleSearch(mode == null || mode.isBlank() || mode.equalsIgnoreCase("auto")
+                            ? null : Mode.valueOf(mode.trim().toUpperCase()));
+                    shared = s;
+                }
+            }
+        }
+        return s;
+    }
+
+    /** Best matches first by relevance; see {@link #search(Connection, String, boolean, int, int)}. */
+    public List<ArticleRecord> search(Connection cn, String query, int limit, int offset) throws Exception {
+        return search(cn, query, false, limit, offset);
+    }
+
+    /** Articles containing every word of the query; most cited first when byCitations. */
+    public List<ArticleRecord> search(Connection cn, String query, boolean byCitations, int limit, int offset) throws Exception {
+        long t0 = System.nanoTime();
+        boolean ok = false;
+        try {
+            List<ArticleRecord> rows;
+            if (mode(cn) == Mode.FULLTEXT) {
+                rows = repo.search(cn, query, byCitations, limit, offset);
+            } else {
+                refresh(cn);
+                List<Long> ids = new ArrayList<>();
+                for (InvertedIndex.Hit h : index.search(query, byCitations, limit, offset)) ids.add(h.getArticleId());
+                rows = repo.findByIds(cn, ids);
+            }
+            ok = true;
+            return rows;
+        } finally {
+            SEARCH.record(t0, ok);
+        }
+    }
+
+    public Mode mode(Connection cn) throws Exception {
+        if (forced != null) return forced;
+        Mode m = detected;
+        if (m == null) {
+            m = repo.hasFulltextIndex(cn) ? Mode.FULLTEXT : Mode.MEMORY;
+            detected = m;
+        }
+        return m;
+    }
+
+    /** Adds rows inserted since the last refresh to the in-memory index; returns how many. */
+    public long refresh(Connection cn) throws Exception {
+        synchronized (refreshLock) {
+            InvertedIndex target = index;
+            long n = repo.streamAll(cn, target.lastId() == 0 ? null : target.lastId(),
+                    row -> target.add(row.getId(), row.getTitle(), row.getAbstractText(), row.getCitedBy()));
+            if (n > 1_000) target.trim();
+            Metrics.add("search.indexed", n);
+            return n;
+        }
+    }
+
+    /** Re-reads the whole table into a fresh in-memory index (picks up edited rows and cited_by). */
+    public void rebuild(Connection cn) throws Exception {
+        synchronized (refreshLock) {
+            InvertedIndex fresh = new InvertedIndex();
+            repo.streamAll(cn, null, row -> fresh.add(row.getId(), row.getTitle(), row.getAbstractText(), row.getCitedBy()));
+            fresh.trim();
+            index = fresh; // queries keep using the old index until the swap
+        }
+    }
+
+    public InvertedIndex.Stats indexStats() {
+        return index.stats();
+    }
+}
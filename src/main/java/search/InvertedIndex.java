@@ -0,0 +1,217 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process full-text index over article title + abstract, for databases without a FULLTEXT index.
+ * Articles are added in ascending id order and get dense doc numbers, so every posting list is
+ * already sorted and stays compressed (see {@link PostingList}). A query is the AND of its terms:
+ * the rarest term drives the intersection and the others are skipped forward, and only the best
+ * offset + limit hits are kept in a heap. Ranking is BM25 with title terms counted twice.
+ *
+ * Thread-safe: queries share a read lock, add() takes the write lock.
+ */
+public class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int TITLE_WEIGHT = 2;
+
+    private final Map<String, PostingList> terms = new HashMap<>();
+    private long[] ids = new long[1024];      // doc -> articles.id
+    private int[] citedBy = new int[1024];    // doc -> cited_by (0 when null)
+    private int[] lengths = new int[1024];    // doc -> weighted term count
+    private int docCount;
+    private long totalLength;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** One search result; articles.id plus the score it was ranked by. */
+    public static final class Hit {
+        private final long articleId;
+        private final int citedBy;
+        private final double score;
+
+        Hit(long articleId, int citedBy, double score) {
+            this.articleId = articleId;
+            this.citedBy = citedBy;
+            this.score = score;
+        }
+
+        public long getArticleId() { return articleId; }
+        public int getCitedBy() { return citedBy; }
+        public double getScore() { return score; }
+    }
+
+    /** Indexes one article; articleId must be larger than every id added before. */
+    public void add(long articleId, String title, String abstractText, Integer cited) {
+        Map<String, Integer> tf = new HashMap<>();
+        Tokenizer.forEach(title, t -> tf.merge(t, TITLE_WEIGHT, Integer::sum));
+        Tokenizer.forEach(abstractText, t -> tf.merge(t, 1, Integer::sum));
+
+        lock.writeLock().lock();
+        try {
+            if (docCount > 0 && articleId <= ids[docCount - 1]) {
+                throw new IllegalArgumentException("article ids must be added in ascending order: " + articleId);
+            }
+            if (docCount == ids.length) grow();
+            int doc = docCount++;
+            ids[doc] = articleId;
+            citedBy[doc] = (cited == null) ? 0 : cited;
+            int length = 0;
+            for (Map.Entry<String, Integer> e : tf.entrySet()) {
+                terms.computeIfAbsent(e.getKey(), k -> new PostingList()).add(doc, e.getValue());
+                length += e.getValue();
+            }
+            lengths[doc] = length;
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Largest article id indexed so far, or 0 when empty. */
+    public long lastId() {
+        lock.readLock().lock();
+        try {
+            return docCount == 0 ? 0 : ids[docCount - 1];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Articles containing every term of the query, best first: by BM25 score, or by cited_by
+     * (score breaking ties) when byCitations. Returns at most limit hits after skipping offset.
+     */
+    public List<Hit> search(String query, boolean byCitations, int limit, int offset) {
+        Set<String> words = new LinkedHashSet<>(Tokenizer.tokens(query));
+        if (words.isEmpty() || limit <= 0) return List.of();
+
+        lock.readLock().lock();
+        try {
+            PostingList[] lists = new PostingList[words.size()];
+            int i = 0;
+            for (String w : words) {
+                PostingList p = terms.get(w);
+                if (p == null) return List.of(); // AND: one unknown term means no match
+                lists[i++] = p;
+            }
+            Arrays.sort(lists, Comparator.comparingInt(PostingList::docs)); // rarest first drives the scan
+
+            double[] idf = new double[lists.length];
+            PostingList.Cursor[] cursors = new PostingList.Cursor[lists.length];
+            for (int k = 0; k < lists.length; k++) {
+                double df = lists[k].docs();
+                idf[k] = Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+                cursors[k] = lists[k].cursor();
+            }
+            double avgLength = (double) totalLength / docCount;
+
+            Comparator<Hit> order = byCitations
+                    ? Comparator.comparingInt(Hit::getCitedBy).thenComparingDouble(Hit::getScore)
+                    : Comparator.comparingDouble(Hit::getScore);
+            order = order.thenComparingLong(Hit::getArticleId); // newer first on ties
+            int keep = offset + limit;
+            PriorityQueue<Hit> top = new PriorityQueue<>(keep + 1, order); // worst kept hit at the head
+
+            PostingList.Cursor driver = cursors[0];
+            outer:
+            while (driver.next()) {
+                int doc = driver.doc();
+                for (int k = 1; k < cursors.length; k++) {
+                    if (!cursors[k].advance(doc)) break outer; // a list ran out: no further matches
+                    if (cursors[k].doc() != doc) continue outer;
+                }
+                double norm = K1 * (1 - B + B * lengths[doc] / avgLength);
+                double score = 0;
+                for (int k = 0; k < cursors.length; k++) {
+                    int tf = cursors[k].tf();
+                    score += idf[k] * tf * (K1 + 1) / (tf + norm);
+                }
+                top.add(new Hit(ids[doc], citedBy[doc], score));
+                if (top.size() > keep) top.poll();
+            }
+
+            List<Hit> hits = new ArrayList<>(top.size());
+            while (!top.isEmpty()) hits.add(top.poll());
+            List<Hit> best = new ArrayList<>(hits.size());
+            for (int k = hits.size() - 1 - offset; k >= 0; k--) best.add(hits.get(k));
+            return best;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Terms, postings and bytes used by the postings; for sizing. */
+    public Stats stats() {
+        lock.readLock().lock();
+        try {
+            long postings = 0, bytes = 0;
+            for (PostingList p : terms.values()) {
+                postings += p.docs();
+                bytes += p.bytes();
+            }
+            return new Stats(docCount, terms.size(), postings, bytes);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Drops spare array capacity; call after a bulk load. */
+    public void trim() {
+        lock.writeLock().lock();
+        try {
+            terms.values().forEach(PostingList::trim);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void grow() {
+        int n = ids.length * 2;
+        ids = Arrays.copyOf(ids, n);
+        citedBy = Arrays.copyOf(citedBy, n);
+        lengths = Arrays.copyOf(lengths, n);
+    }
+
+    public static final class Stats {
+        private final int docs, terms;
+        private final long postings, bytes;
+
+        Stats(int docs, int terms, long postings, long bytes) {
+            this.docs = docs;
+            this.terms = terms;
+            this.postings = postings;
+            this.bytes = bytes;
+        }
+
+        public int getDocs() { return docs; }
+        public int getTerms() { return terms; }
+        public long getPostings() { return postings; }
+        public long getBytes() { return bytes; }
+
+        @Override
+        public String toString() {
+            return String.format("index[docs=%d terms=%d postings=%d postings.bytes=%d (%.2f/posting)]",
+                    docs, terms, postings, bytes, postings == 0 ? 0.0 : (double) bytes / postings);
+        }
+    }
+}
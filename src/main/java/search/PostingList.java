@@ -0,0 +1,90 @@
+package search;
+
+import java.util.Arrays;
+
+/**
+ * Postings of one term: (doc, tf) pairs in ascending doc order, stored as varint-encoded
+ * doc gaps followed by the varint term frequency. Most gaps and frequencies fit in one byte,
+ * so a posting costs ~2 bytes instead of the 8+ of an int pair.
+ */
+final class PostingList {
+
+    private byte[] data = new byte[4];
+    private int size;      // bytes used
+    private int docs;      // document frequency
+    private int lastDoc = -1;
+
+    /** doc must be larger than every doc added before. */
+    void add(int doc, int tf) {
+        if (doc <= lastDoc) throw new IllegalArgumentException("doc " + doc + " <= " + lastDoc);
+        ensure(10);
+        writeVarint(doc - lastDoc);
+        writeVarint(tf);
+        lastDoc = doc;
+        docs++;
+    }
+
+    int docs() { return docs; }
+
+    int bytes() { return size; }
+
+    /** Releases the spare capacity left by doubling. */
+    void trim() {
+        if (data.length > size) data = Arrays.copyOf(data, size);
+    }
+
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > data.length) data = Arrays.copyOf(data, Math.max(data.length * 2, size + extra));
+    }
+
+    private void writeVarint(int v) {
+        while ((v & ~0x7F) != 0) {
+            data[size++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        data[size++] = (byte) v;
+    }
+
+    /** Forward-only reader; doc() is -1 before the first next() and Integer.MAX_VALUE once exhausted. */
+    final class Cursor {
+        private final int end = size; // postings added later are not visible to this cursor
+        private int pos;
+        private int doc = -1;
+        private int tf;
+
+        boolean next() {
+            if (pos >= end) {
+                doc = Integer.MAX_VALUE;
+                return false;
+            }
+            doc += readVarint();
+            tf = readVarint();
+            return true;
+        }
+
+        /** Moves to the first doc >= target; false if there is none. */
+        boolean advance(int target) {
+            while (doc < target) {
+                if (!next()) return false;
+            }
+            return doc != Integer.MAX_VALUE;
+        }
+
+        int doc() { return doc; }
+
+        int tf() { return tf; }
+
+        private int readVarint() {
+            int v = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = data[pos++];
+                v |= (b & 0x7F) << shift;
+                if (b >= 0) return v;
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Splits text into search terms: runs of letters/digits, lower-cased and accent-folded.
+ * Follows the InnoDB FULLTEXT defaults (min token length 3, default stopword list) so that
+ * the in-memory index and the MySQL index agree on what a query matches.
+ */
+public final class Tokenizer {
+
+    public static final int MIN_LENGTH = 3;   // innodb_ft_min_token_size
+    public static final int MAX_LENGTH = 84;  // innodb_ft_max_token_size
+
+    // INFORMATION_SCHEMA.INNODB_FT_DEFAULT_STOPWORD
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "about", "an", "are", "as", "at", "be", "by", "com", "de", "en", "for", "from", "how",
+            "i", "in", "is", "it", "la", "of", "on", "or", "that", "the", "this", "to", "was", "what",
+            "when", "where", "who", "will", "with", "und", "www");
+
+    private Tokenizer() {}
+
+    public static List<String> tokens(String text) {
+        List<String> out = new ArrayList<>();
+        forEach(text, out::add);
+        return out;
+    }
+
+    /** Hands every term of text to sink, in order (duplicates included). */
+    public static void forEach(String text, Consumer<String> sink) {
+        if (text == null || text.isEmpty()) return;
+        String s = fold(text);
+        int start = -1;
+        for (int i = 0, n = s.length(); i <= n; i++) {
+            boolean word = i < n && Character.isLetterOrDigit(s.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                emit(s, start, i, sink);
+                start = -1;
+            }
+        }
+    }
+
+    private static void emit(String s, int start, int end, Consumer<String> sink) {
+        int len = end - start;
+        if (len < MIN_LENGTH || len > MAX_LENGTH) return;
+        String term = s.substring(start, end).toLowerCase(Locale.ROOT);
+        if (!STOPWORDS.contains(term)) sink.accept(term);
+    }
+
+    // "Université" -> "Universite"; pure ASCII (the common case) is returned as is.
+    private static String fold(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 127) {
+                return Normalizer.normalize(s, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+            }
+        }
+        return s;
+    }
+}
@@ -0,0 +1,360 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import db.ArticleRepository;
+import db.DbConfig;
+import metrics.Metrics;
+import model.ArticleRecord;
+import search.ArticleSearch;
+import util.Env;
+import util.JsonWriter;
+import util.QueryString;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Read-only HTTP/JSON access to the stored articles, for systems that should not open their own
+ * MySQL connections (GET or HEAD):
+ *   /articles?before=ID&limit=N                 newest first, keyset paged ("next" holds the following page)
+ *   /authors/{author_id}/articles               one researcher's articles (cached, see db.QueryCache)
+ *   /search?q=...&by=citations&limit=N&offset=M  same search as `app.Main search`
+ *
+ * Each request runs on its own virtual thread and borrows one pooled connection, so DB_POOL_MAX
+ * bounds the MySQL load however many clients connect; the rest wait for a connection (503 after
+ * DB_POOL_ACQUIRE_TIMEOUT_MS). Rows are written as they come off a streaming result set, through a
+ * small buffer and gzip when the client accepts it, so memory per request does not grow with the
+ * result. A failure after the first byte ends the body without its closing brackets: clients see
+ * invalid JSON rather than a short list.
+ *
+ * Responses carry a weak ETag built from the change counter of the article data
+ * (ArticleRepository#tableVersion, one primary key lookup); a matching If-None-Match gets 304
+ * without running the query.
+ */
+public class ArticleServer implements AutoCloseable {
+
+    private static final Metrics.Phase REQUEST = Metrics.phase("serve");
+
+    /** Host, port and the default/maximum page size; SERVE_HOST, SERVE_PORT and SERVE_*_LIMIT override them. */
+    public static final class Options {
+        String host = "127.0.0.1";
+        int port = 8080;
+        int defaultLimit = 100;
+        int maxLimit = 1_000;
+
+        /** "0.0.0.0" serves other hosts. */
+        public Options host(String host) { this.host = host; return this; }
+        /** 0 picks a free port. */
+        public Options port(int port) { this.port = port; return this; }
+        public Options limits(int defaultLimit, int maxLimit) { this.defaultLimit = defaultLimit; this.maxLimit = maxLimit; return this; }
+
+        public static Options fromEnv() {
+            return new Options()
+                    .host(Env.get("SERVE_HOST", "127.0.0.1"))
+                    .port(Integer.parseInt(Env.get("SERVE_PORT", "8080")))
+                    .limits(Integer.parseInt(Env.get("SERVE_DEFAULT_LIMIT", "100")), Integer.parseInt(Env.get("SERVE_MAX_LIMIT", "1000")));
+        }
+
+        @Override
+        public String toString() {
+            return "limit=" + defaultLimit + " max.limit=" + maxLimit;
+        }
+    }
+
+    /** A bad query parameter: answered with 400. */
+    static final class BadRequestException extends RuntimeException {
+        BadRequestException(String message) {
+            super(message);
+        }
+    }
+
+    private interface Route {
+        void handle(HttpExchange ex, Map<String, String> q, Connection cn) throws Exception;
+    }
+
+    /** Where requests borrow their connection (DbConfig.get outside tests). */
+    interface Connections {
+        Connection get() throws Exception;
+    }
+
+    private final Options options;
+    private final Connections connections;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ArticleRepository repo = new ArticleRepository();
+
+    private ArticleServer(Options options, Connections connections) throws IOException {
+        this.options = options;
+        this.connections = connections;
+        // as in stub.SerpApiStub: separate header/body writes otherwise stall on delayed ACKs
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        this.server = HttpServer.create(new InetSocketAddress(options.host, options.port), 512);
+        server.createContext("/articles", ex -> handle(ex, this::page));
+        server.createContext("/authors/", ex -> handle(ex, this::byAuthor));
+        server.createContext("/search", ex -> handle(ex, this::search));
+        server.setExecutor(executor);
+    }
+
+    /** Binds and starts serving. */
+    public static ArticleServer start(Options options) throws IOException {
+        return start(options, DbConfig::get);
+    }
+
+    static ArticleServer start(Options options, Connections connections) throws IOException {
+        ArticleServer s = new ArticleServer(options, connections);
+        s.server.start();
+        return s;
+    }
+
+    public String baseUrl() {
+        return "http://" + options.host + ":" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handle(HttpExchange ex, Route route) {
+        long t0 = System.nanoTime();
+        boolean ok = false;
+        try {
+            String method = ex.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("HEAD")) {
+                ex.getResponseHeaders().set("Allow", "GET, HEAD");
+                sendError(ex, 405, "Only GET and HEAD are supported");
+                return;
+            }
+            try (Connection cn = connections.get()) {
+                route.handle(ex, QueryString.parse(ex.getRequestURI().getRawQuery()), cn);
+            }
+            ok = true;
+        } catch (BadRequestException e) {
+            sendError(ex, 400, e.getMessage());
+            ok = true;
+        } catch (Exception e) {
+            Metrics.increment("serve.errors");
+            // a pool timeout means too many requests at once, not a broken server
+            boolean busy = e instanceof SQLException && String.valueOf(e.getMessage()).startsWith("Timed out");
+            sendError(ex, busy ? 503 : 500, busy ? "Database busy, retry later" : "Internal error");
+        } finally {
+            ex.close(); // after the catch blocks, which may still answer
+            REQUEST.record(t0, ok);
+        }
+    }
+
+    // GET /articles?before=ID&limit=N
+    private void page(HttpExchange ex, Map<String, String> q, Connection cn) throws Exception {
+        if (!ex.getRequestURI().getPath().equals("/articles")) {
+            sendError(ex, 404, "Not found");
+            return;
+        }
+        Long before = q.containsKey("before") ? parseLong(q.get("before"), "before") : null;
+        int limit = limit(q);
+        if (notModified(ex, "p" + repo.tableVersion(cn))) return;
+        try (JsonBody out = JsonBody.open(ex)) {
+            if (out == null) return;
+            out.begin();
+            long[] last = {0};
+            long n = repo.streamPage(cn, before, limit, r -> {
+                out.row(r);
+                last[0] = r.getId();
+            });
+            out.end(n, (n == limit) ? "/articles?before=" + last[0] + "&limit=" + limit : null);
+        }
+    }
+
+    // GET /authors/{author_id}/articles
+    private void byAuthor(HttpExchange ex, Map<String, String> q, Connection cn) throws Exception {
+        String path = ex.getRequestURI().getPath();
+        String prefix = "/authors/", suffix = "/articles";
+        if (!path.startsWith(prefix) || !path.endsWith(suffix) || path.length() <= prefix.length() + suffix.length()) {
+            sendError(ex, 404, "Not found");
+            return;
+        }
+        String authorId = path.substring(prefix.length(), path.length() - suffix.length());
+        if (authorId.contains("/")) {
+            sendError(ex, 404, "Not found");
+            return;
+        }
+        if (notModified(ex, "a" + repo.tableVersion(cn))) return;
+        try (JsonBody out = JsonBody.open(ex)) {
+            if (out == null) return;
+            out.begin();
+            out.end(repo.streamByAuthor(cn, authorId, out::row), null);
+        }
+    }
+
+    // GET /search?q=...&by=citations&limit=N&offset=M
+    private void search(HttpExchange ex, Map<String, String> q, Connection cn) throws Exception {
+        String text = q.get("q");
+        if (text == null || text.isBlank()) throw new BadRequestException("Missing q");
+        boolean byCitations = "citations".equals(q.get("by"));
+        int limit = limit(q);
+        int offset = q.containsKey("offset") ? parseInt(q.get("offset"), "offset") : 0;
+        if (offset < 0) throw new BadRequestException("offset must be >= 0");
+        if (notModified(ex, "s" + repo.tableVersion(cn))) return;
+        // a bounded page (limit), so the list is not worth streaming from the cursor
+        List<ArticleRecord> rows = ArticleSearch.shared().search(cn, text, byCitations, limit, offset);
+        try (JsonBody out = JsonBody.open(ex)) {
+            if (out == null) return;
+            out.begin();
+            for (ArticleRecord r : rows) out.row(r);
+            String next = (rows.size() == limit && offset <= Integer.MAX_VALUE - limit)
+                    ? "/search?q=" + URLEncoder.encode(text, StandardCharsets.UTF_8) + (byCitations ? "&by=citations" : "")
+                      + "&limit=" + limit + "&offset=" + (offset + limit)
+                    : null;
+            out.end(rows.size(), next);
+        }
+    }
+
+    private int limit(Map<String, String> q) {
+        if (!q.containsKey("limit")) return options.defaultLimit;
+        long limit = parseLong(q.get("limit"), "limit");
+        if (limit < 1 || limit > options.maxLimit) throw new BadRequestException("limit must be 1.." + options.maxLimit);
+        return (int) limit;
+    }
+
+    /** Sets the ETag; true (after sending 304) when the client's copy is current. */
+    static boolean notModified(HttpExchange ex, String version) throws IOException {
+        String etag = "W/\"" + version + "\""; // weak: the gzip and identity bodies share it
+        ex.getResponseHeaders().set("ETag", etag);
+        ex.getResponseHeaders().set("Cache-Control", "no-cache");
+        ex.getResponseHeaders().set("Vary", "Accept-Encoding");
+        String ifNoneMatch = ex.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch == null || !matches(ifNoneMatch, etag)) return false;
+        Metrics.increment("serve.not_modified");
+        ex.sendResponseHeaders(304, -1);
+        return true;
+    }
+
+    // If-None-Match compares weakly: W/"x" matches "x"; a list or * is allowed
+    static boolean matches(String ifNoneMatch, String etag) {
+        String opaque = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*")) return true;
+            if (c.startsWith("W/")) c = c.substring(2);
+            if (c.equals(opaque)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * {"articles":[...],"count":N,"next":"/..."} written row by row: chunked transfer, gzip when
+     * accepted, a 16 KB buffer between the rows and the socket.
+     */
+    static final class JsonBody implements AutoCloseable {
+        private final Writer out;
+        private boolean first = true;
+
+        private JsonBody(Writer out) {
+            this.out = out;
+        }
+
+        /** Sends the 200 headers; null for HEAD (headers only). */
+        static JsonBody open(HttpExchange ex) throws IOException {
+            ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            if (ex.getRequestMethod().equals("HEAD")) {
+                ex.sendResponseHeaders(200, -1);
+                return null;
+            }
+            String accept = ex.getRequestHeaders().getFirst("Accept-Encoding");
+            boolean gzip = accept != null && accept.contains("gzip");
+            if (gzip) ex.getResponseHeaders().set("Content-Encoding", "gzip");
+            ex.sendResponseHeaders(200, 0); // chunked
+            OutputStream body = ex.getResponseBody();
+            if (gzip) body = new GZIPOutputStream(body, 8_192);
+            return new JsonBody(new BufferedWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8), 16_384));
+        }
+
+        void begin() throws IOException {
+            out.write("{\"articles\":[");
+        }
+
+        /** Same fields as the NDJSON export. */
+        void row(ArticleRecord r) throws IOException {
+            out.write(first ? "\n{\"id\":" : ",\n{\"id\":");
+            first = false;
+            out.write(Long.toString(r.getId()));
+            field("title", r.getTitle());
+            field("authors", r.getAuthors());
+            field("publication_date", r.getPublicationDate());
+            field("abstract", r.getAbstractText());
+            field("link", r.getLink());
+            field("keywords", r.getKeywords());
+            out.write(",\"cited_by\":");
+            JsonWriter.number(out, r.getCitedBy());
+            out.write('}');
+        }
+
+        private void field(String name, String value) throws IOException {
+            out.write(",\"");
+            out.write(name);
+            out.write("\":");
+            JsonWriter.string(out, value);
+        }
+
+        void end(long count, String next) throws IOException {
+            out.write("\n],\"count\":");
+            out.write(Long.toString(count));
+            out.write(",\"next\":");
+            JsonWriter.string(out, next);
+            out.write("}\n");
+            Metrics.add("serve.rows", count);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close(); // finishes the gzip trailer and the last chunk
+        }
+    }
+
+    private static void sendError(HttpExchange ex, int status, String message) {
+        try {
+            StringBuilder sb = new StringBuilder("{\"error\":");
+            JsonWriter.string(sb, message);
+            byte[] bytes = sb.append("}\n").toString().getBytes(StandardCharsets.UTF_8);
+            ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            ex.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (IOException e) {
+            // headers already sent (failure mid-body) or client gone: nothing left to tell it
+        }
+    }
+
+    private static int parseInt(String s, String name) {
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException e) { // includes values past Integer.MAX_VALUE
+            throw new BadRequestException(name + " must be a number up to " + Integer.MAX_VALUE);
+        }
+    }
+
+    private static long parseLong(String s, String name) {
+        try {
+            return Long.parseLong(s);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException(name + " must be a number");
+        }
+    }
+}
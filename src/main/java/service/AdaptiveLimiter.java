@@ -0,0 +1,127 @@
+package service;
+
+import metrics.Metrics;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD cap on the requests in flight. Every call that completes while latency is healthy adds
+ * 1/limit (about +1 per round of `limit` calls); throttling (429/503), a timeout or a smoothed
+ * latency (EWMA, 1/8 weight per call) above the target halves the limit. Only one decrease per
+ * round counts: a call that started before the last decrease cannot trigger another, so a burst of
+ * 429s from the same round halves the limit once, not N times.
+ *
+ * The latency target is fixed (targetMillis > 0) or follows the traffic: three times a slowly rising
+ * floor of the observed latencies, so a server that is merely far away (or whose latency varies by
+ * request) is not mistaken for a busy one; queueing on the server pushes the average well past it.
+ */
+public class AdaptiveLimiter {
+
+    public enum Outcome {
+        /** Response arrived (2xx or a client error such as 404): latency decides. */
+        OK,
+        /** 429 / 503 / timeout: back off. */
+        CONGESTED,
+        /** Other failure (5xx, connection reset): no signal about load. */
+        IGNORED
+    }
+
+    /** Returned by tryAcquire() when every slot is taken. */
+    public static final long NO_SLOT = Long.MIN_VALUE;
+
+    private static final int WARMUP_SAMPLES = 20;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final int min, max;
+    private final long targetNanos;
+    private double limit;
+    private int inFlight;
+    private long lastDecrease = System.nanoTime();
+    private long floorNanos = Long.MAX_VALUE;
+    private long ewmaNanos;
+    private int samples;
+
+    public AdaptiveLimiter(int min, int initial, int max, long targetMillis) {
+        if (min < 1 || max < min) throw new IllegalArgumentException("need 1 <= min <= max: " + min + ".." + max);
+        this.min = min;
+        this.max = max;
+        this.limit = Math.max(min, Math.min(max, initial));
+        this.targetNanos = targetMillis * 1_000_000;
+    }
+
+    /** Blocks until a slot is free; returns the start time to pass to release(). */
+    public long acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) released.await();
+            inFlight++;
+            return System.nanoTime();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Takes a slot only if one is free right now; returns the start time, or {@link #NO_SLOT}. */
+    public long tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight >= (int) limit) return NO_SLOT;
+            inFlight++;
+            return System.nanoTime();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(long startNanos, Outcome outcome) {
+        long now = System.nanoTime();
+        long latency = now - startNanos;
+        lock.lock();
+        try {
+            inFlight--;
+            if (outcome == Outcome.OK) {
+                floorNanos = (latency < floorNanos) ? latency : floorNanos + (latency - floorNanos) / 64;
+                ewmaNanos = (ewmaNanos == 0) ? latency : ewmaNanos + (latency - ewmaNanos) / 8;
+                samples++;
+            }
+            // the first calls pay for connection setup and warm-up; judge latency once that has decayed
+            boolean slow = outcome == Outcome.OK && samples >= WARMUP_SAMPLES && ewmaNanos > target();
+            if ((outcome == Outcome.CONGESTED || slow) && startNanos > lastDecrease) {
+                lastDecrease = now;
+                limit = Math.max(min, limit / 2);
+                Metrics.increment("http.limit.decreased");
+            } else if (outcome == Outcome.OK && !slow) {
+                limit = Math.min(max, limit + 1 / limit);
+            }
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Current cap (rounded down). */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long target() {
+        if (targetNanos > 0) return targetNanos;
+        return 3 * floorNanos + 10_000_000; // +10 ms so sub-millisecond links do not flap
+    }
+}
@@ -0,0 +1,156 @@
+package service;
+
+import model.Article;
+import util.AuthorJson;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Walks an author's profile page by page with a window of async requests: while the consumer
+ * handles page N, up to `prefetch` of pages N+1.. are already in flight through
+ * HttpClient.sendAsync. Speculative pages only go out when a permit and an in-flight slot
+ * are free right now, so prefetch never queues ahead of other work; a page that could not be
+ * prefetched, or whose request failed, is fetched blocking with the client's usual retries.
+ *
+ * The first page with fewer than pageSize entries (or an API error) is the last one. Reaching it,
+ * or close(), cancels the requests still in flight with cancel(true) on HttpClient's own futures,
+ * which aborts the exchanges; a page the server already answered is billed all the same, so
+ * getRequests() counts every request sent. Not thread-safe: one consumer.
+ */
+public class ArticlePager implements AutoCloseable {
+
+    private record Slot(int start, CompletableFuture<HttpResponse<byte[]>> response) {}
+
+    private final ScholarAuthorClient client;
+    private final String authorId;
+    private final int pageSize;
+    private final String hl;
+    private final String sort;
+    private final int prefetch;
+    private final Pacer pacer; // null = no pacing
+
+    private final Deque<Slot> window = new ArrayDeque<>();
+    private int nextStart;
+    private int requests;
+    private boolean done;
+
+    ArticlePager(ScholarAuthorClient client, String authorId, int pageSize, String hl, String sort, int prefetch, Pacer pacer) {
+        if (pageSize < 1) throw new IllegalArgumentException("pageSize must be >= 1");
+        this.client = client;
+        this.authorId = authorId;
+        this.pageSize = pageSize;
+        this.hl = hl;
+        this.sort = sort;
+        this.prefetch = Math.max(0, prefetch);
+        this.pacer = pacer;
+    }
+
+    /** The next page, or null after the last one. An API error page is returned (and ends paging). */
+    public AuthorJson next() throws Exception {
+        if (done) return null;
+        Slot head = window.pollFirst();
+        if (head == null) head = new Slot(advance(), null);
+        fill(); // before blocking on the head, so the next pages overlap with it
+        AuthorJson page;
+        try {
+            page = AuthorJson.parse(load(head));
+        } catch (Exception e) {
+            close();
+            throw e;
+        }
+        if (page.hasError() || page.getArticleEntries() < pageSize) close();
+        return page;
+    }
+
+    /** Requests sent so far, cancelled speculative ones included. */
+    public int getRequests() {
+        return requests;
+    }
+
+    /** Stops paging and aborts the requests still in flight. */
+    @Override
+    public void close() {
+        done = true;
+        Slot s;
+        while ((s = window.pollFirst()) != null) s.response().cancel(true);
+    }
+
+    /** The articles of every page as a lazy stream; closing it closes the pager, an API error throws. */
+    public Stream<Article> articles() {
+        Iterator<Article> it = new Iterator<>() {
+            private Iterator<Article> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext()) {
+                    AuthorJson page;
+                    try {
+                        page = ArticlePager.this.next();
+                    } catch (RuntimeException e) {
+                        throw e;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                    if (page == null) return false;
+                    if (page.hasError()) throw new RuntimeException("API error for " + authorId + ": " + page.getError());
+                    current = page.getArticles().iterator();
+                }
+                return true;
+            }
+
+            @Override
+            public Article next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return current.next();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(it, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(this::close);
+    }
+
+    // Tops the window up to `prefetch` pages, as far as permits and slots are free right now.
+    private void fill() {
+        while (window.size() < prefetch) {
+            if (pacer != null && !pacer.tryAcquire()) return;
+            CompletableFuture<HttpResponse<byte[]>> f = client.tryFetchAsync(authorId, nextStart, pageSize, hl, sort);
+            if (f == null) return;
+            window.addLast(new Slot(advance(), f));
+            requests++;
+        }
+    }
+
+    private String load(Slot slot) throws Exception {
+        if (slot.response() != null) {
+            try {
+                return ScholarAuthorClient.body(slot.response().join());
+            } catch (CompletionException | CancellationException | HttpStatusException | UncheckedIOException e) {
+                // fall through: the blocking path retries with backoff
+            }
+        }
+        if (pacer != null) pacer.acquire();
+        requests++;
+        return client.fetchAuthorJson(authorId, slot.start(), pageSize, hl, sort, false);
+    }
+
+    private int advance() {
+        int start = nextStart;
+        nextStart += pageSize;
+        return start;
+    }
+}
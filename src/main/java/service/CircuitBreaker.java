@@ -0,0 +1,84 @@
+package service;
+
+import metrics.Metrics;
+
+/**
+ * Stops calling an endpoint that keeps failing. After `failures` consecutive failed calls the
+ * breaker opens and rejects calls for `openMillis`; then one probe call is let through (half-open):
+ * success closes the breaker, failure opens it again. A threshold of 0 disables it.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /** A call refused while the breaker is open; retry after getRetryAfterMillis(). */
+    public static class OpenException extends RuntimeException {
+        private final long retryAfterMillis;
+
+        OpenException(long retryAfterMillis) {
+            super("Circuit open: too many consecutive failures, retry in " + retryAfterMillis + " ms");
+            this.retryAfterMillis = retryAfterMillis;
+        }
+
+        public long getRetryAfterMillis() {
+            return retryAfterMillis;
+        }
+    }
+
+    private final int threshold;
+    private final long openNanos;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probing;
+
+    public CircuitBreaker(int failures, long openMillis) {
+        this.threshold = failures;
+        this.openNanos = openMillis * 1_000_000;
+    }
+
+    /** Throws OpenException if the call may not go out now. */
+    public synchronized void before() {
+        if (threshold <= 0 || state == State.CLOSED) return;
+        long now = System.nanoTime();
+        if (state == State.OPEN) {
+            long left = openedAt + openNanos - now;
+            if (left > 0) throw rejected(left / 1_000_000 + 1);
+            state = State.HALF_OPEN;
+            probing = false;
+        }
+        if (probing) throw rejected(Math.max(1, openNanos / 10_000_000)); // one probe at a time
+        probing = true;
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        probing = false;
+        state = State.CLOSED;
+    }
+
+    public synchronized void onFailure() {
+        if (threshold <= 0) return;
+        consecutiveFailures++;
+        probing = false;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= threshold)) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            Metrics.increment("http.breaker.opened");
+        }
+    }
+
+    /** Ends a call that produced no verdict (interrupted before or during the exchange): frees the probe slot. */
+    public synchronized void release() {
+        probing = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private static OpenException rejected(long retryAfterMillis) {
+        Metrics.increment("http.breaker.rejected");
+        return new OpenException(retryAfterMillis);
+    }
+}
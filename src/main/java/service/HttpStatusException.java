@@ -0,0 +1,36 @@
+package service;
+
+/**
+ * Non-2xx response from the API. The message keeps the "HTTP <status>: <body>" form; callers that
+ * need to branch use the status and the server's Retry-After instead of parsing it.
+ */
+public class HttpStatusException extends RuntimeException {
+
+    private final int statusCode;
+    private final long retryAfterMillis;
+
+    public HttpStatusException(int statusCode, String body, long retryAfterMillis) {
+        super("HTTP " + statusCode + ": " + body);
+        this.statusCode = statusCode;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /** The Retry-After header in milliseconds, or -1 if the response had none. */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    /** 408, 429 and 5xx: the same request may succeed later. */
+    public boolean isRetryable() {
+        return statusCode == 408 || statusCode == 429 || statusCode / 100 == 5;
+    }
+
+    /** The server asks us to slow down (429, 503). */
+    public boolean isThrottled() {
+        return statusCode == 429 || statusCode == 503;
+    }
+}
@@ -0,0 +1,30 @@
+package service;
+
+/**
+ * Gate asked before every API call: a {@link RateLimiter}, or one that also keeps a budget
+ * (controller.RefreshScheduler reserves an hourly API credit per call).
+ */
+public interface Pacer {
+
+    /** Blocks until one call may go out. */
+    void acquire() throws Exception;
+
+    /** Takes a permit only if one is free right now; for speculative calls that can be skipped. */
+    boolean tryAcquire();
+
+    /** Both gates, first then second. A permit taken from first is not returned when second refuses. */
+    static Pacer both(Pacer first, Pacer second) {
+        return new Pacer() {
+            @Override
+            public void acquire() throws Exception {
+                first.acquire();
+                second.acquire();
+            }
+
+            @Override
+            public boolean tryAcquire() {
+                return first.tryAcquire() && second.tryAcquire();
+            }
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket rate limiter shared by all request threads.
+ * Tokens refill continuously at permitsPerSecond up to `burst`; acquire() blocks until a token
+ * is available. Waiting happens outside the lock, so many (virtual) threads can queue cheaply.
+ */
+public class RateLimiter implements Pacer {
+
+    private final double permitsPerNano;
+    private final double burst;
+    private double tokens;
+    private long lastRefill = System.nanoTime();
+
+    public RateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) throw new IllegalArgumentException("permitsPerSecond must be > 0");
+        if (burst < 1) throw new IllegalArgumentException("burst must be >= 1");
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.tokens = burst;
+    }
+
+    /** Blocks until one permit is available. */
+    @Override
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+
+    /** Takes a permit only if one is available right now. */
+    @Override
+    public synchronized boolean tryAcquire() {
+        refill(System.nanoTime());
+        if (tokens < 1) return false;
+        tokens -= 1;
+        return true;
+    }
+
+    // Takes a token (possibly going negative = borrowing from the future) and returns how long to wait for it.
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        refill(now);
+        tokens -= 1;
+        return (tokens >= 0) ? 0 : (long) (-tokens / permitsPerNano);
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(burst, tokens + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,314 @@
+package service;
+
+import util.Env;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Client-side cache for SerpApi author payloads, keyed on (author_id, start, num, hl, sort).
+ * Two tiers: an in-memory LRU (maxMemoryEntries) in front of an on-disk store (maxDiskBytes, oldest
+ * files evicted first). Entries older than ttlMillis are treated as misses in both tiers.
+ * The API key is never part of the key, so a cache filled by one key can be replayed offline.
+ *
+ * Environment (see {@link #shared()} and {@link #optedIn()}):
+ *   SERPAPI_CACHE=on|off, SERPAPI_CACHE_DIR (~/.cache/scholar-serpapi), SERPAPI_CACHE_TTL_MINUTES (1440),
+ *   SERPAPI_CACHE_MEM_ENTRIES (256), SERPAPI_CACHE_DISK_MB (256), SERPAPI_OFFLINE=true (cache only)
+ */
+public class ResponseCache {
+
+    private static volatile ResponseCache shared;
+
+    private final Path dir;
+    private final long ttlMillis;
+    private final int maxMemoryEntries;
+    private final long maxDiskBytes;
+    private final boolean offline;
+    private volatile boolean enabled = true;
+
+    private final Map<String, Entry> memory;
+    private final Object diskLock = new Object();
+    private long diskBytes = -1; // lazily measured on first write
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stores = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ResponseCache(Path dir, long ttlMillis, int maxMemoryEntries, long maxDiskBytes, boolean offline) {
+        this.dir = dir;
+        this.ttlMillis = ttlMillis;
+        this.maxMemoryEntries = maxMemoryEntries;
+        this.maxDiskBytes = maxDiskBytes;
+        this.offline = offline;
+        this.memory = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > ResponseCache.this.maxMemoryEntries;
+            }
+        };
+    }
+
+    /** Process-wide cache configured from the environment; null when SERPAPI_CACHE=off. */
+    public static ResponseCache shared() {
+        ResponseCache c = shared;
+        if (c == null && !"off".equalsIgnoreCase(System.getenv("SERPAPI_CACHE"))) {
+            synchronized (ResponseCache.class) {
+                c = shared;
+                if (c == null) {
+                    String home = System.getProperty("user.home");
+                    Path dir = Path.of(Env.get("SERPAPI_CACHE_DIR", Path.of(home, ".cache", "scholar-serpapi").toString()));
+                    c = new ResponseCache(dir,
+                            Long.parseLong(Env.get("SERPAPI_CACHE_TTL_MINUTES", "1440")) * 60_000L,
+                            Integer.parseInt(Env.get("SERPAPI_CACHE_MEM_ENTRIES", "256")),
+                            Long.parseLong(Env.get("SERPAPI_CACHE_DISK_MB", "256")) * 1024 * 1024,
+                            Boolean.parseBoolean(Env.get("SERPAPI_OFFLINE", "false")));
+                    shared = c;
+                }
+            }
+        }
+        return c;
+    }
+
+    /**
+     * The cache for clients whose payloads end up in the database: {@link #shared()} only when
+     * SERPAPI_OFFLINE=true (replay) or SERPAPI_CACHE=on (development runs that accept citation counts
+     * up to SERPAPI_CACHE_TTL_MINUTES old), otherwise null so every call reaches the API.
+     */
+    public static ResponseCache optedIn() {
+        boolean on = Boolean.parseBoolean(System.getenv("SERPAPI_OFFLINE")) || "on".equalsIgnoreCase(System.getenv("SERPAPI_CACHE"));
+        return on ? shared() : null;
+    }
+
+    public static String key(String authorId, Integer start, Integer num, String hl, String sort) {
+        return authorId + "|" + start + "|" + num + "|" + hl + "|" + sort;
+    }
+
+    /** Cached body or null (miss, expired, or cache bypassed). */
+    public String get(String key) {
+        if (!enabled) return null;
+        long now = System.currentTimeMillis();
+        Entry e;
+        synchronized (memory) {
+            e = memory.get(key);
+            if (e != null && now - e.storedAt > ttlMillis) {
+                memory.remove(key);
+                e = null;
+            }
+        }
+        if (e != null) {
+            memoryHits.incrementAndGet();
+            return e.body;
+        }
+
+        e = readDisk(key, now);
+        if (e != null) {
+            diskHits.incrementAndGet();
+            synchronized (memory) {
+                memory.put(key, e);
+            }
+            return e.body;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(String key, String body) {
+        if (!enabled) return;
+        Entry e = new Entry(System.currentTimeMillis(), body);
+        synchronized (memory) {
+            memory.put(key, e);
+        }
+        writeDisk(key, e);
+        stores.incrementAndGet();
+    }
+
+    /** Bypass switch: when disabled, get() always misses and put() is a no-op. */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Offline mode: callers must not go to the network on a miss. */
+    public boolean isOffline() {
+        return offline;
+    }
+
+    public void clear() throws IOException {
+        synchronized (memory) {
+            memory.clear();
+        }
+        synchronized (diskLock) {
+            if (Files.isDirectory(dir)) {
+                try (Stream<Path> files = Files.list(dir)) {
+                    for (Path p : (Iterable<Path>) files::iterator) Files.deleteIfExists(p);
+                }
+            }
+            diskBytes = 0;
+        }
+    }
+
+    public Stats stats() {
+        int inMemory;
+        synchronized (memory) {
+            inMemory = memory.size();
+        }
+        return new Stats(memoryHits.get(), diskHits.get(), misses.get(), stores.get(), evictions.get(), inMemory);
+    }
+
+    // ---------- disk tier: one file per key, "storedAt\n" header then the body ----------
+
+    private Entry readDisk(String key, long now) {
+        Path file = fileFor(key);
+        try {
+            if (!Files.exists(file)) return null;
+            String content = Files.readString(file, StandardCharsets.UTF_8);
+            int nl = content.indexOf('\n');
+            if (nl < 0) return null;
+            long storedAt = Long.parseLong(content.substring(0, nl));
+            if (now - storedAt > ttlMillis) {
+                delete(file);
+                return null;
+            }
+            return new Entry(storedAt, content.substring(nl + 1));
+        } catch (IOException | NumberFormatException e) {
+            return null; // unreadable entry is just a miss
+        }
+    }
+
+    private void writeDisk(String key, Entry e) {
+        byte[] bytes = (e.storedAt + "\n" + e.body).getBytes(StandardCharsets.UTF_8);
+        synchronized (diskLock) {
+            try {
+                Files.createDirectories(dir);
+                if (diskBytes < 0) diskBytes = measureDisk();
+                Path file = fileFor(key);
+                long previous = Files.exists(file) ? Files.size(file) : 0;
+                Path tmp = Files.createTempFile(dir, "entry", ".tmp");
+                Files.write(tmp, bytes);
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                diskBytes += bytes.length - previous;
+                if (diskBytes > maxDiskBytes) evictDisk();
+            } catch (IOException ex) {
+                // disk tier is best effort; memory tier still has the entry
+            }
+        }
+    }
+
+    // Deletes oldest files until the store is back under 90% of its cap.
+    private void evictDisk() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> s = Files.list(dir)) {
+            s.filter(p -> p.toString().endsWith(".json")).forEach(files::add);
+        }
+        files.sort(Comparator.comparingLong(ResponseCache::lastModified));
+        long target = maxDiskBytes * 9 / 10;
+        for (Path p : files) {
+            if (diskBytes <= target) break;
+            delete(p);
+        }
+    }
+
+    private void delete(Path p) {
+        synchronized (diskLock) {
+            try {
+                long size = Files.size(p);
+                if (Files.deleteIfExists(p)) {
+                    if (diskBytes >= 0) diskBytes -= size;
+                    evictions.incrementAndGet();
+                }
+            } catch (IOException ignored) {
+                // already gone
+            }
+        }
+    }
+
+    private long measureDisk() throws IOException {
+        try (Stream<Path> s = Files.list(dir)) {
+            return s.filter(p -> p.toString().endsWith(".json")).mapToLong(p -> {
+                try {
+                    return Files.size(p);
+                } catch (IOException e) {
+                    return 0;
+                }
+            }).sum();
+        }
+    }
+
+    private static long lastModified(Path p) {
+        try {
+            return Files.getLastModifiedTime(p).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private Path fileFor(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return dir.resolve(HexFormat.of().formatHex(digest) + ".json");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Entry {
+        final long storedAt;
+        final String body;
+
+        Entry(long storedAt, String body) {
+            this.storedAt = storedAt;
+            this.body = body;
+        }
+    }
+
+    /** Hit/miss counters since start-up. */
+    public static final class Stats {
+        private final long memoryHits, diskHits, misses, stores, evictions;
+        private final int memoryEntries;
+
+        Stats(long memoryHits, long diskHits, long misses, long stores, long evictions, int memoryEntries) {
+            this.memoryHits = memoryHits;
+            this.diskHits = diskHits;
+            this.misses = misses;
+            this.stores = stores;
+            this.evictions = evictions;
+            this.memoryEntries = memoryEntries;
+        }
+
+        public long getMemoryHits() { return memoryHits; }
+        public long getDiskHits() { return diskHits; }
+        public long getMisses() { return misses; }
+        public long getStores() { return stores; }
+        public long getEvictions() { return evictions; }
+        public int getMemoryEntries() { return memoryEntries; }
+
+        public double getHitRatio() {
+            long total = memoryHits + diskHits + misses;
+            return total == 0 ? 0 : (double) (memoryHits + diskHits) / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("cache[mem.hits=%d disk.hits=%d misses=%d hit.ratio=%.2f stores=%d evictions=%d mem.entries=%d]",
+                    memoryHits, diskHits, misses, getHitRatio(), stores, evictions, memoryEntries);
+        }
+    }
+}
@@ -1,23 +1,272 @@
 package service;
 
+import metrics.FetchEvent;
+import metrics.Metrics;
+import model.Article;
+import util.AuthorJson;
+import util.Env;
+import util.SimpleJson;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
-/** Performs GET requests to SerpApi Google Scholar Author API. */
+/**
+ * Performs GET requests to SerpApi Google Scholar Author API.
+ * The endpoint defaults to https://serpapi.com/search; SERPAPI_BASE_URL (or the 3-arg constructor)
+ * points the client at another server, e.g. the local stand-in {@code stub.SerpApiStub}.
+ *
+ * Every call goes through the same guards (see {@link Options}): connect and request timeouts,
+ * retries with jittered exponential backoff that honour Retry-After (408, 429, 5xx, I/O errors),
+ * a {@link CircuitBreaker} and an {@link AdaptiveLimiter} on the requests in flight. They are per
+ * client instance, so share one client across the threads of a run.
+ */
 public class ScholarAuthorClient {
-    private final HttpClient http = HttpClient.newHttpClient();
+    private static final Metrics.Phase FETCH = Metrics.phase("fetch");
+
+    /** Timeouts, retry/backoff, breaker and AIMD in-flight bounds. Defaults suit the hosted API; tests shrink them. */
+    public static final class Options {
+        long connectTimeoutMs = 5_000;
+        long requestTimeoutMs = 30_000;
+        int retries = 4;
+        long backoffMs = 500;
+        long maxBackoffMs = 20_000;
+        long maxRetryAfterMs = 120_000;
+        int breakerFailures = 8;
+        long breakerOpenMs = 30_000;
+        int minInFlight = 1;
+        int initialInFlight = 8;
+        int maxInFlight = 32;
+        long latencyTargetMs = 0;
+
+        public Options connectTimeoutMs(long ms) { this.connectTimeoutMs = ms; return this; }
+        public Options requestTimeoutMs(long ms) { this.requestTimeoutMs = ms; return this; }
+        /** Extra attempts after the first; 0 fails on the first error. */
+        public Options retries(int n) { this.retries = n; return this; }
+        /** First backoff step and cap; the wait before retry k is random in [0, min(max, base * 2^k)]. */
+        public Options backoffMs(long base, long max) { this.backoffMs = base; this.maxBackoffMs = max; return this; }
+        /** A Retry-After longer than this fails the call instead of waiting. */
+        public Options maxRetryAfterMs(long ms) { this.maxRetryAfterMs = ms; return this; }
+        /** Consecutive failures that open the breaker (0 = no breaker), and how long it stays open. */
+        public Options breaker(int failures, long openMs) { this.breakerFailures = failures; this.breakerOpenMs = openMs; return this; }
+        public Options inFlight(int min, int initial, int max) { this.minInFlight = min; this.initialInFlight = initial; this.maxInFlight = max; return this; }
+        /** Average latency above which the in-flight limit is cut; 0 = derived from the observed latency. */
+        public Options latencyTargetMs(long ms) { this.latencyTargetMs = ms; return this; }
+
+        public static Options fromEnv() {
+            Options o = new Options();
+            o.connectTimeoutMs(Long.parseLong(Env.get("SERPAPI_CONNECT_TIMEOUT_MS", "5000")));
+            o.requestTimeoutMs(Long.parseLong(Env.get("SERPAPI_TIMEOUT_MS", "30000")));
+            o.retries(Integer.parseInt(Env.get("SERPAPI_RETRIES", "4")));
+            o.backoffMs(Long.parseLong(Env.get("SERPAPI_BACKOFF_MS", "500")), Long.parseLong(Env.get("SERPAPI_MAX_BACKOFF_MS", "20000")));
+            o.maxRetryAfterMs(Long.parseLong(Env.get("SERPAPI_MAX_RETRY_AFTER_MS", "120000")));
+            o.breaker(Integer.parseInt(Env.get("SERPAPI_BREAKER_FAILURES", "8")), Long.parseLong(Env.get("SERPAPI_BREAKER_OPEN_MS", "30000")));
+            o.inFlight(Integer.parseInt(Env.get("SERPAPI_MIN_INFLIGHT", "1")),
+                    Integer.parseInt(Env.get("SERPAPI_INITIAL_INFLIGHT", "8")),
+                    Integer.parseInt(Env.get("SERPAPI_MAX_INFLIGHT", "32")));
+            o.latencyTargetMs(Long.parseLong(Env.get("SERPAPI_LATENCY_TARGET_MS", "0")));
+            return o;
+        }
+    }
+
+    private final HttpClient http;
     private final String apiKey;
-    private final String baseUrl = "https://serpapi.com/search";
+    public static final String DEFAULT_BASE_URL = "https://serpapi.com/search";
+
+    private final String baseUrl;
+    private final ResponseCache cache; // null = no client-side caching
+    private final Options options;
+    private final CircuitBreaker breaker;
+    private final AdaptiveLimiter limiter;
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
 
+    /** Caches responses only when opted in (see {@link ResponseCache#optedIn()}). */
     public ScholarAuthorClient(String apiKey) {
+        this(apiKey, ResponseCache.optedIn());
+    }
+
+    public ScholarAuthorClient(String apiKey, ResponseCache cache) {
+        this(apiKey, cache, baseUrlFromEnv());
+    }
+
+    public ScholarAuthorClient(String apiKey, ResponseCache cache, String baseUrl) {
+        this(apiKey, cache, baseUrl, Options.fromEnv());
+    }
+
+    public ScholarAuthorClient(String apiKey, ResponseCache cache, String baseUrl, Options options) {
         this.apiKey = apiKey;
+        this.cache = cache;
+        this.baseUrl = baseUrl;
+        this.options = options;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2) // falls back to HTTP/1.1 if the server doesn't negotiate h2
+                .connectTimeout(Duration.ofMillis(options.connectTimeoutMs))
+                .build();
+        this.breaker = new CircuitBreaker(options.breakerFailures, options.breakerOpenMs);
+        this.limiter = new AdaptiveLimiter(options.minInFlight, options.initialInFlight, options.maxInFlight, options.latencyTargetMs);
     }
 
+    public static String baseUrlFromEnv() {
+        String v = System.getenv("SERPAPI_BASE_URL");
+        return (v == null || v.isBlank()) ? DEFAULT_BASE_URL : v.trim();
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Returns the payload from the client-side cache when present; otherwise calls the API and caches the body.
+     * noCache skips the cache lookup (and asks SerpApi not to use its cache) but still stores the fresh result.
+     */
     public String fetchAuthorJson(String authorId, Integer start, Integer num, String hl, String sort, boolean noCache) throws Exception {
+        FetchEvent event = new FetchEvent();
+        event.begin();
+        long t0 = System.nanoTime();
+        String json = null;
+        Exception error = null;
+        try {
+            String key = cacheKey(authorId, start, num, hl, sort);
+            json = cached(key, noCache);
+            event.cached = json != null;
+            if (json == null) {
+                json = store(key, send(request(authorId, start, num, hl, sort, noCache)));
+            }
+            return json;
+        } catch (Exception e) {
+            error = e;
+            throw e;
+        } finally {
+            FETCH.record(t0, error == null);
+            commit(event, authorId, start, json, error);
+        }
+    }
+
+    public ResponseCache getCache() {
+        return cache;
+    }
+
+    /** Retry, breaker and concurrency state of this client. */
+    public Stats stats() {
+        return new Stats(retries.sum(), throttled.sum(), serverErrors.sum(), timeouts.sum(),
+                breaker.getState(), limiter.getLimit(), limiter.getInFlight());
+    }
+
+    /** Fetches and maps the payload in one pass (see {@link AuthorJson}). */
+    public AuthorJson fetchAuthor(String authorId, Integer start, Integer num, String hl, String sort, boolean noCache) throws Exception {
+        return AuthorJson.parse(fetchAuthorJson(authorId, start, num, hl, sort, noCache));
+    }
+
+    /**
+     * Pages through a profile with up to `prefetch` further pages requested ahead of the consumer
+     * (see {@link ArticlePager}); pacer, if not null, is asked for a permit before every call.
+     */
+    public ArticlePager pages(String authorId, int pageSize, String hl, String sort, int prefetch, Pacer pacer) {
+        return new ArticlePager(this, authorId, pageSize, hl, sort, prefetch, pacer);
+    }
+
+    /**
+     * Every article of a profile as a lazy stream, pageSize per request (SerpApi allows up to 100).
+     * It ends at the first short page. Closing the stream early (try-with-resources) aborts the
+     * page requests still in flight; ones the server already answered are billed all the same.
+     */
+    public Stream<Article> streamArticles(String authorId, int pageSize, String hl, String sort, int prefetch) {
+        return pages(authorId, pageSize, hl, sort, prefetch, null).articles();
+    }
+
+    /**
+     * One speculative page request for the pager, sent only if it can go out right now: no cache in
+     * use (that path stays blocking), breaker not open and an in-flight slot free; otherwise null.
+     * The future is HttpClient's own, so cancel(true) aborts the exchange. No retries: the pager
+     * falls back to {@link #fetchAuthorJson} when it fails.
+     */
+    CompletableFuture<HttpResponse<byte[]>> tryFetchAsync(String authorId, int start, int num, String hl, String sort) {
+        if (cache != null) return null;
+        try {
+            breaker.before();
+        } catch (CircuitBreaker.OpenException e) {
+            return null;
+        }
+        long t0 = limiter.tryAcquire();
+        if (t0 == AdaptiveLimiter.NO_SLOT) {
+            breaker.release();
+            return null;
+        }
+        FetchEvent event = new FetchEvent();
+        event.begin();
+        CompletableFuture<HttpResponse<byte[]>> raw;
+        try {
+            raw = http.sendAsync(request(authorId, start, num, hl, sort, false), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (RuntimeException e) {
+            settle(t0, e);
+            throw e;
+        }
+        raw.whenComplete((res, error) -> {
+            Throwable failure = (error != null) ? error : statusError(res);
+            settle(t0, failure);
+            FETCH.record(t0, failure == null);
+            commit(event, authorId, start, null, failure);
+        });
+        return raw;
+    }
+
+    private static void commit(FetchEvent event, String authorId, Integer start, String json, Throwable error) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.authorId = authorId;
+            event.start = (start == null) ? 0 : start;
+            event.length = (json == null) ? 0 : json.length();
+            event.error = (error == null) ? null : String.valueOf(error.getMessage());
+            event.commit();
+        }
+    }
+
+    // Payloads from another endpoint (a stub, a proxy) never share cache entries with the real API.
+    private String cacheKey(String authorId, Integer start, Integer num, String hl, String sort) {
+        String key = ResponseCache.key(authorId, start, num, hl, sort);
+        return baseUrl.equals(DEFAULT_BASE_URL) ? key : baseUrl + "|" + key;
+    }
+
+    private String cached(String key, boolean noCache) {
+        if (cache == null) return null;
+        String body = noCache ? null : cache.get(key);
+        if (body == null && cache.isOffline()) {
+            throw new IllegalStateException("Offline mode: no cached response for " + key);
+        }
+        return body;
+    }
+
+    // Error payloads ({"error": ...}) are not cached so a retry can succeed.
+    private String store(String key, String json) {
+        if (cache != null && SimpleJson.extractTopLevelString(json, "error") == null) {
+            cache.put(key, json);
+        }
+        return json;
+    }
+
+    private HttpRequest request(String authorId, Integer start, Integer num, String hl, String sort, boolean noCache) {
         StringBuilder sb = new StringBuilder(baseUrl)
                 .append("?engine=google_scholar_author")
                 .append("&author_id=").append(enc(authorId))
@@ -28,16 +277,173 @@ public class ScholarAuthorClient {
         if (sort != null) sb.append("&sort=").append(enc(sort)); // e.g., "pubdate", "title"
         if (noCache) sb.append("&no_cache=true");
 
-        HttpRequest req = HttpRequest.newBuilder(URI.create(sb.toString())).GET().build();
-        HttpResponse<String> res = http.send(req, HttpResponse.BodyHandlers.ofString());
+        return HttpRequest.newBuilder(URI.create(sb.toString()))
+                .header("Accept-Encoding", "gzip") // HttpClient does not decompress; see body()
+                .timeout(Duration.ofMillis(options.requestTimeoutMs))
+                .GET()
+                .build();
+    }
 
+    // Retries retryable statuses, I/O errors and breaker rejections; waits at least the server's Retry-After.
+    private String send(HttpRequest req) throws Exception {
+        for (int attempt = 0; ; attempt++) {
+            Exception failure;
+            long retryAfter = -1;
+            try {
+                return attempt(req);
+            } catch (HttpStatusException e) {
+                if (!e.isRetryable()) throw e;
+                failure = e;
+                retryAfter = e.getRetryAfterMillis();
+            } catch (CircuitBreaker.OpenException e) {
+                failure = e;
+                retryAfter = e.getRetryAfterMillis();
+            } catch (IOException e) {
+                failure = e;
+            }
+            if (attempt >= options.retries || retryAfter > options.maxRetryAfterMs) throw failure;
+            retries.increment();
+            Metrics.increment("http.retries");
+            Thread.sleep(Math.max(retryAfter, backoff(attempt)));
+        }
+    }
+
+    // One request under the breaker and the in-flight limit.
+    private String attempt(HttpRequest req) throws IOException, InterruptedException {
+        breaker.before();
+        long t0;
+        try {
+            t0 = limiter.acquire();
+        } catch (InterruptedException | RuntimeException e) {
+            breaker.release(); // never sent: a half-open probe must not stay taken
+            throw e;
+        }
+        Throwable error = null;
+        try {
+            return body(http.send(req, HttpResponse.BodyHandlers.ofByteArray()));
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            settle(t0, error);
+        }
+    }
+
+    // Hands the outcome of one request (null = 2xx) to the limiter, the breaker and the counters.
+    private void settle(long t0, Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) error = error.getCause();
+        AdaptiveLimiter.Outcome outcome = AdaptiveLimiter.Outcome.IGNORED;
+        boolean failed = true;
+        boolean verdict = true;
+        if (error == null) {
+            outcome = AdaptiveLimiter.Outcome.OK;
+            failed = false;
+        } else if (error instanceof HttpStatusException e) {
+            if (e.isThrottled()) {
+                throttled.increment();
+                Metrics.increment("http.throttled");
+                outcome = AdaptiveLimiter.Outcome.CONGESTED;
+            } else if (e.getStatusCode() / 100 == 5) {
+                serverErrors.increment();
+                Metrics.increment("http.5xx");
+            } else {
+                outcome = AdaptiveLimiter.Outcome.OK; // 4xx: the server is answering
+            }
+            failed = e.isRetryable();
+        } else if (error instanceof HttpTimeoutException) {
+            timeouts.increment();
+            Metrics.increment("http.timeouts");
+            outcome = AdaptiveLimiter.Outcome.CONGESTED;
+        } else if (error instanceof InterruptedException || error instanceof CancellationException) {
+            verdict = false; // our caller gave up; says nothing about the endpoint
+        }
+        limiter.release(t0, outcome);
+        if (!verdict) breaker.release();
+        else if (failed) breaker.onFailure();
+        else breaker.onSuccess();
+    }
+
+    // "Full jitter": uniform in [0, min(max, base * 2^attempt)].
+    private long backoff(int attempt) {
+        long cap = Math.min(options.maxBackoffMs, options.backoffMs << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    static String body(HttpResponse<byte[]> res) {
+        String text = decode(res);
         if (res.statusCode() / 100 != 2) {
-            throw new RuntimeException("HTTP " + res.statusCode() + ": " + res.body());
+            throw new HttpStatusException(res.statusCode(), text, retryAfterMillis(res));
+        }
+        return text; // JSON
+    }
+
+    // The status part of body() without decoding, for the async path.
+    private static HttpStatusException statusError(HttpResponse<byte[]> res) {
+        return (res.statusCode() / 100 == 2) ? null : new HttpStatusException(res.statusCode(), "", retryAfterMillis(res));
+    }
+
+    // Retry-After is either delay-seconds or an HTTP date.
+    static long retryAfterMillis(HttpResponse<?> res) {
+        String v = res.headers().firstValue("Retry-After").orElse(null);
+        if (v == null || v.isBlank()) return -1;
+        try {
+            return Math.max(0, Long.parseLong(v.trim()) * 1000);
+        } catch (NumberFormatException e) {
+            try {
+                Instant at = ZonedDateTime.parse(v.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                return Math.max(0, Duration.between(Instant.now(), at).toMillis());
+            } catch (DateTimeParseException x) {
+                return -1;
+            }
+        }
+    }
+
+    private static String decode(HttpResponse<byte[]> res) {
+        byte[] bytes = res.body();
+        boolean gzip = res.headers().firstValue("Content-Encoding").map("gzip"::equalsIgnoreCase).orElse(false);
+        if (gzip) {
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+                bytes = in.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Invalid gzip response body", e);
+            }
         }
-        return res.body(); // JSON
+        return new String(bytes, StandardCharsets.UTF_8);
     }
 
     private static String enc(String s) {
         return URLEncoder.encode(s, StandardCharsets.UTF_8);
     }
+
+    public static final class Stats {
+        private final long retries, throttled, serverErrors, timeouts;
+        private final CircuitBreaker.State breaker;
+        private final int limit, inFlight;
+
+        Stats(long retries, long throttled, long serverErrors, long timeouts, CircuitBreaker.State breaker, int limit, int inFlight) {
+            this.retries = retries;
+            this.throttled = throttled;
+            this.serverErrors = serverErrors;
+            this.timeouts = timeouts;
+            this.breaker = breaker;
+            this.limit = limit;
+            this.inFlight = inFlight;
+        }
+
+        public long getRetries() { return retries; }
+        /** 429 / 503 responses. */
+        public long getThrottled() { return throttled; }
+        public long getServerErrors() { return serverErrors; }
+        public long getTimeouts() { return timeouts; }
+        public CircuitBreaker.State getBreaker() { return breaker; }
+        /** Current AIMD cap on requests in flight. */
+        public int getLimit() { return limit; }
+        public int getInFlight() { return inFlight; }
+
+        @Override
+        public String toString() {
+            return String.format("http[retries=%d throttled=%d 5xx=%d timeouts=%d breaker=%s limit=%d in.flight=%d]",
+                    retries, throttled, serverErrors, timeouts, breaker, limit, inFlight);
+        }
+    }
 }
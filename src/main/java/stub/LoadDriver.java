@@ -0,0 +1,126 @@
+package stub;
+
+import metrics.Histogram;
+import service.HttpStatusException;
+import service.RateLimiter;
+import service.ScholarAuthorClient;
+import util.AuthorJson;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load generator for ScholarAuthorClient: `requests` fetch + parse calls spread over
+ * `authors` synthetic author ids and `pages` pages each, at most `concurrency` in flight (optionally
+ * paced by a RateLimiter). The response cache is off, so every call goes to the server.
+ * Reports throughput, latency percentiles (successful calls) and failures by kind.
+ */
+public class LoadDriver {
+
+    private final ScholarAuthorClient client;
+    private final int concurrency;
+    private final RateLimiter limiter; // null = unpaced
+
+    public LoadDriver(String baseUrl, int concurrency, RateLimiter limiter) {
+        this(baseUrl, concurrency, limiter, ScholarAuthorClient.Options.fromEnv());
+    }
+
+    /** With explicit retry / breaker / in-flight settings (e.g. retries(0) to see raw server failures). */
+    public LoadDriver(String baseUrl, int concurrency, RateLimiter limiter, ScholarAuthorClient.Options options) {
+        this.client = new ScholarAuthorClient("stub", null, baseUrl, options);
+        this.concurrency = concurrency;
+        this.limiter = limiter;
+    }
+
+    public Report run(int requests, int authors, int pages, int pageSize) throws InterruptedException {
+        Report report = new Report();
+        Semaphore inFlight = new Semaphore(concurrency);
+        long t0 = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requests; i++) {
+                String authorId = "load-" + (i % authors);
+                int start = ((i / authors) % pages) * pageSize;
+                inFlight.acquire();
+                if (limiter != null) limiter.acquire();
+                executor.submit(() -> {
+                    try {
+                        call(report, authorId, start, pageSize);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } // close() waits for the stragglers
+        report.wallNanos = System.nanoTime() - t0;
+        return report;
+    }
+
+    private void call(Report report, String authorId, int start, int pageSize) {
+        long t = System.nanoTime();
+        try {
+            AuthorJson page = client.fetchAuthor(authorId, start, pageSize, "en", "pubdate", false);
+            if (page.hasError()) {
+                report.fail("api.error");
+            } else {
+                report.latency.record(System.nanoTime() - t);
+                report.articles.addAndGet(page.getArticles().size());
+            }
+        } catch (Exception e) {
+            report.fail(kind(e));
+        }
+    }
+
+    private static String kind(Exception e) {
+        if (e instanceof HttpStatusException) return "http." + ((HttpStatusException) e).getStatusCode();
+        return e.getClass().getSimpleName();
+    }
+
+    /** Retries, throttling and the adaptive in-flight limit of the driver's client. */
+    public ScholarAuthorClient.Stats clientStats() {
+        return client.stats();
+    }
+
+    /** Outcome of one run. */
+    public static final class Report {
+        private final Histogram latency = new Histogram(); // nanos, successful calls only
+        private final Map<String, Long> failures = new TreeMap<>();
+        private final AtomicLong articles = new AtomicLong();
+        private long wallNanos;
+
+        private void fail(String kind) {
+            synchronized (failures) {
+                failures.merge(kind, 1L, Long::sum);
+            }
+        }
+
+        public long getOk() { return latency.getCount(); }
+        public long getFailed() { return failures.values().stream().mapToLong(Long::longValue).sum(); }
+        public Map<String, Long> getFailures() { return failures; }
+        public Histogram getLatency() { return latency; }
+        public long getArticles() { return articles.get(); }
+        public long getWallMillis() { return wallNanos / 1_000_000; }
+
+        public double getThroughput() {
+            return wallNanos == 0 ? 0 : (getOk() + getFailed()) * 1e9 / wallNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "requests=%d ok=%d failed=%d %s wall=%d ms throughput=%.1f req/s articles=%d%n"
+                            + "latency ms: p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f mean=%.2f",
+                    getOk() + getFailed(), getOk(), getFailed(), failures, getWallMillis(), getThroughput(), getArticles(),
+                    ms(latency.percentile(50)), ms(latency.percentile(90)), ms(latency.percentile(99)),
+                    ms(latency.percentile(99.9)), ms(latency.getMax()), latency.getMean() / 1e6);
+        }
+
+        private static double ms(long nanos) {
+            return nanos / 1e6;
+        }
+    }
+}
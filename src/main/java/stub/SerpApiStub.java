@@ -0,0 +1,281 @@
+package stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import util.Env;
+import util.QueryString;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local stand-in for SerpApi's google_scholar_author endpoint (GET /search), for offline tests and
+ * load runs: point the client at it with SERPAPI_BASE_URL=http://localhost:8089/search.
+ *
+ * Modes:
+ *   synthetic  deterministic payloads: every author has `articles` articles, paged by start/num
+ *   replay     serves recordings from `dir` (404 + error payload when a page was never recorded)
+ *   record     serves recordings, fetching a missing page from `upstream` (the caller's api_key is
+ *              forwarded) and saving it first
+ *
+ * Fault injection applies in every mode, in this order: latency (uniform minLatency..maxLatency, plus
+ * slowMs for a slowRate share of requests), 429 with Retry-After (rate429), HTTP 500 (errorRate),
+ * 200 with an {"error": ...} payload (apiErrorRate). Requests are handled on virtual threads, so
+ * injected latency does not limit throughput.
+ */
+public class SerpApiStub implements AutoCloseable {
+
+    public enum Mode { SYNTHETIC, REPLAY, RECORD }
+
+    /** Mode, port and fault injection. The defaults serve clean synthetic pages with no latency. */
+    public static final class Options {
+        int port = 8089;
+        Mode mode = Mode.SYNTHETIC;
+        Path dir = Path.of("stub-recordings");
+        String upstream = "https://serpapi.com/search";
+        int articles = 120;
+        long minLatencyMs, maxLatencyMs;
+        double slowRate;
+        long slowMs = 2_000;
+        double rate429, errorRate, apiErrorRate;
+        int retryAfterSeconds = 1;
+
+        public Options port(int port) { this.port = port; return this; }
+        public Options mode(Mode mode) { this.mode = mode; return this; }
+        public Options dir(Path dir) { this.dir = dir; return this; }
+        public Options upstream(String upstream) { this.upstream = upstream; return this; }
+        public Options articles(int articles) { this.articles = articles; return this; }
+        public Options latency(long minMs, long maxMs) { this.minLatencyMs = minMs; this.maxLatencyMs = Math.max(minMs, maxMs); return this; }
+        public Options slow(double rate, long ms) { this.slowRate = rate; this.slowMs = ms; return this; }
+        public Options rate429(double rate, int retryAfterSeconds) { this.rate429 = rate; this.retryAfterSeconds = retryAfterSeconds; return this; }
+        public Options errorRate(double rate) { this.errorRate = rate; return this; }
+        public Options apiErrorRate(double rate) { this.apiErrorRate = rate; return this; }
+
+        public static Options fromEnv() {
+            Options o = new Options();
+            o.port = Integer.parseInt(Env.get("STUB_PORT", "8089"));
+            o.mode = Mode.valueOf(Env.get("STUB_MODE", "synthetic").toUpperCase());
+            o.dir = Path.of(Env.get("STUB_DIR", "stub-recordings"));
+            o.upstream = Env.get("STUB_UPSTREAM", o.upstream);
+            o.articles = Integer.parseInt(Env.get("STUB_ARTICLES", "120"));
+            String latency = Env.get("STUB_LATENCY_MS", "0"); // "50" or "20-200"
+            int dash = latency.indexOf('-');
+            o.latency(Long.parseLong(dash < 0 ? latency : latency.substring(0, dash)),
+                    Long.parseLong(dash < 0 ? latency : latency.substring(dash + 1)));
+            o.slow(Double.parseDouble(Env.get("STUB_SLOW_RATE", "0")), Long.parseLong(Env.get("STUB_SLOW_MS", "2000")));
+            o.rate429(Double.parseDouble(Env.get("STUB_429_RATE", "0")), Integer.parseInt(Env.get("STUB_RETRY_AFTER_S", "1")));
+            o.errorRate(Double.parseDouble(Env.get("STUB_ERROR_RATE", "0")));
+            o.apiErrorRate(Double.parseDouble(Env.get("STUB_API_ERROR_RATE", "0")));
+            return o;
+        }
+
+        @Override
+        public String toString() {
+            return "mode=" + mode.name().toLowerCase() + " articles=" + articles
+                    + " latency=" + minLatencyMs + "-" + maxLatencyMs + "ms slow=" + slowRate + "@" + slowMs + "ms"
+                    + " 429=" + rate429 + " 5xx=" + errorRate + " api.error=" + apiErrorRate
+                    + (mode == Mode.SYNTHETIC ? "" : " dir=" + dir);
+        }
+    }
+
+    private final Options options;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient upstream = HttpClient.newHttpClient();
+    private final Map<Integer, LongAdder> statusCounts = new TreeMap<>();
+    private final LongAdder requests = new LongAdder();
+
+    private SerpApiStub(Options options) throws IOException {
+        this.options = options;
+        // Without TCP_NODELAY the separate header/body writes hit the delayed-ACK stall (~40 ms per call).
+        // Read once when the JDK server is first used, hence set before create().
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", options.port), 512);
+        server.createContext("/search", this::handle);
+        server.setExecutor(executor);
+    }
+
+    /** Binds (port 0 picks a free port) and starts serving. */
+    public static SerpApiStub start(Options options) throws IOException {
+        SerpApiStub stub = new SerpApiStub(options);
+        stub.server.start();
+        return stub;
+    }
+
+    /** Endpoint to hand to ScholarAuthorClient / SERPAPI_BASE_URL. */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/search";
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    /** Responses sent so far, by HTTP status. */
+    public Map<Integer, Long> statusCounts() {
+        Map<Integer, Long> out = new TreeMap<>();
+        synchronized (statusCounts) {
+            statusCounts.forEach((k, v) -> out.put(k, v.sum()));
+        }
+        return out;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handle(HttpExchange ex) throws IOException {
+        requests.increment();
+        try (ex) {
+            Map<String, String> q = QueryString.parse(ex.getRequestURI().getRawQuery());
+            if (!"google_scholar_author".equals(q.get("engine")) || q.get("author_id") == null) {
+                send(ex, 400, error("Missing or unsupported engine / author_id"), null);
+                return;
+            }
+
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            long delay = options.minLatencyMs + (options.maxLatencyMs > options.minLatencyMs
+                    ? rnd.nextLong(options.maxLatencyMs - options.minLatencyMs + 1) : 0);
+            if (options.slowRate > 0 && rnd.nextDouble() < options.slowRate) delay += options.slowMs;
+            if (delay > 0) Thread.sleep(delay);
+
+            if (rnd.nextDouble() < options.rate429) {
+                send(ex, 429, error("Too many requests"), Map.of("Retry-After", Integer.toString(options.retryAfterSeconds)));
+            } else if (rnd.nextDouble() < options.errorRate) {
+                send(ex, 500, error("Internal stub error"), null);
+            } else if (rnd.nextDouble() < options.apiErrorRate) {
+                send(ex, 200, error("Stub API error"), null);
+            } else {
+                serve(ex, q);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            send(ex, 502, error("Stub failure: " + e.getMessage()), null);
+        }
+    }
+
+    private void serve(HttpExchange ex, Map<String, String> q) throws Exception {
+        String authorId = q.get("author_id");
+        int start = parseInt(q.get("start"), 0);
+        int num = parseInt(q.get("num"), 20);
+        if (options.mode == Mode.SYNTHETIC) {
+            send(ex, 200, synthetic(authorId, start, num, options.articles), null);
+            return;
+        }
+
+        Path file = options.dir.resolve(recordingName(q));
+        if (!Files.exists(file) && options.mode == Mode.RECORD) {
+            record(ex.getRequestURI().getRawQuery(), file);
+        }
+        if (Files.exists(file)) {
+            send(ex, 200, Files.readString(file, StandardCharsets.UTF_8), null);
+        } else {
+            send(ex, 404, error("No recording for " + file.getFileName()), null);
+        }
+    }
+
+    // Upstream errors are passed through by leaving no file behind; the caller then gets a 404.
+    private void record(String rawQuery, Path file) throws Exception {
+        HttpRequest req = HttpRequest.newBuilder(URI.create(options.upstream + "?" + rawQuery)).GET().build();
+        HttpResponse<String> res = upstream.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        if (res.statusCode() != 200 || res.body().contains("\"error\":")) return;
+        Files.createDirectories(file.getParent());
+        Path tmp = Files.createTempFile(file.getParent(), "rec", ".tmp");
+        Files.writeString(tmp, res.body(), StandardCharsets.UTF_8);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** File name of a recorded page: one file per (author_id, start, num, hl, sort); api_key is not part of it. */
+    public static String recordingName(Map<String, String> q) {
+        String name = q.get("author_id") + "_" + q.getOrDefault("start", "-") + "_" + q.getOrDefault("num", "-")
+                + "_" + q.getOrDefault("hl", "-") + "_" + q.getOrDefault("sort", "-");
+        return name.replaceAll("[^A-Za-z0-9_.-]", "_") + ".json";
+    }
+
+    /**
+     * A google_scholar_author payload for articles [start, start+num) of an author with `total` articles, newest first.
+     * The profile's cited_by table totals the citations of all `total` articles.
+     */
+    public static String synthetic(String authorId, int start, int num, int total) {
+        int end = Math.min(total, start + num);
+        long citations = 0;
+        for (int i = 0; i < total; i++) citations += citedBy(authorId, i);
+        StringBuilder sb = new StringBuilder(256 + Math.max(0, end - start) * 400);
+        sb.append("{\"search_metadata\":{\"status\":\"Success\"},")
+                .append("\"author\":{\"name\":\"Stub Author ").append(authorId).append("\",")
+                .append("\"affiliations\":\"Stub University\"},")
+                .append("\"cited_by\":{\"table\":[{\"citations\":{\"all\":").append(citations).append("}}]},")
+                .append("\"articles\":[");
+        for (int i = start; i < end; i++) {
+            if (i > start) sb.append(',');
+            sb.append("{\"title\":\"Stub article ").append(i).append(" of ").append(authorId).append("\",")
+                    .append("\"link\":\"https://scholar.example/").append(authorId).append('/').append(i).append("\",")
+                    .append("\"authors\":\"A Stub, B Stub\",")
+                    .append("\"publication\":\"Journal of Stubs ").append(i % 40).append("\",")
+                    .append("\"cited_by\":{\"value\":").append(citedBy(authorId, i)).append("},")
+                    .append("\"year\":\"").append(2025 - i / 10).append("\"}");
+        }
+        sb.append("]}");
+        return sb.toString();
+    }
+
+    private static int citedBy(String authorId, int i) {
+        return (i * 37 + authorId.length()) % 1000;
+    }
+
+    private static String error(String message) {
+        return "{\"error\":\"" + message.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+    }
+
+    private void send(HttpExchange ex, int status, String body, Map<String, String> headers) throws IOException {
+        synchronized (statusCounts) {
+            statusCounts.computeIfAbsent(status, k -> new LongAdder()).increment();
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        String accept = ex.getRequestHeaders().getFirst("Accept-Encoding");
+        if (accept != null && accept.contains("gzip")) {
+            ByteArrayOutputStream buf = new ByteArrayOutputStream(bytes.length / 4 + 64);
+            try (GZIPOutputStream gz = new GZIPOutputStream(buf)) {
+                gz.write(bytes);
+            }
+            bytes = buf.toByteArray();
+            ex.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        if (headers != null) headers.forEach((k, v) -> ex.getResponseHeaders().set(k, v));
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static int parseInt(String s, int def) {
+        try {
+            return (s == null) ? def : Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            return def;
+        }
+    }
+}
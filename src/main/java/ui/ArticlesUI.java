@@ -1,31 +1,53 @@
 package ui;
 
 import db.ArticleRepository;
+import db.AuthorStatsRepository;
 import db.DbConfig;
+import db.QueryCache;
+import metrics.Metrics;
+import search.ArticleSearch;
 import service.ScholarAuthorClient;
-import util.SimpleJson;
+import util.AuthorJson;
 
 import model.Article;
+import model.ArticleColumns;
 import model.ArticleRecord;
+import model.AuthorStats;
+import model.SaveStats;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.sql.Connection;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 
-public class ArticlesUI extends JFrame {
+// final: the constructor calls overridable JFrame methods and hands out this::showDbError
+public final class ArticlesUI extends JFrame {
 
     private final JTextField authorIdInput = new JTextField(24);
     private final JButton btnFetchAndSave = new JButton("Fetch & Save (3)");
     private final JButton btnLoadByAuthor = new JButton("Load by author_id");
     private final JButton btnLoadAll = new JButton("Load ALL");
+    private final JButton btnMetrics = new JButton("Metrics");
+    private final JTextField searchInput = new JTextField(32);
+    private final JCheckBox searchByCitations = new JCheckBox("most cited first");
+    private final JButton btnSearch = new JButton("Search");
 
-    private final DefaultTableModel tableModel = new DefaultTableModel(
-            new Object[]{"id", "title", "authors", "publication_date", "cited_by", "link", "keywords"}, 0
-    );
+    private final ColumnarTableModel tableModel = new ColumnarTableModel(); // by-author loads and search results
     private final JTable table = new JTable(tableModel);
+    private final TaskBar tasks = new TaskBar();
+    private ScholarAuthorClient client; // created on the first fetch; every later click shares its connections, limiter and breaker
+    private LoadByAuthorWorker loadWorker; // table contents currently streaming in, if any
+    private SearchWorker searchWorker;     // search whose results will fill the table, if any
+    private final PagedArticleTableModel allArticlesModel; // "Load ALL", created once the frame is set up
+
+    private final JComboBox<String> leaderboardOrder = new JComboBox<>(new String[]{"by citations", "by h-index"});
+    private final JButton btnLeaderboard = new JButton("Refresh");
+    private final LeaderboardTableModel leaderboardModel = new LeaderboardTableModel();
+    private final JTable leaderboard = new JTable(leaderboardModel);
+    private LeaderboardWorker leaderboardWorker;
 
     public ArticlesUI() {
         super("Scholar Articles — Sprint 4");
@@ -38,19 +60,82 @@ public class ArticlesUI extends JFrame {
         top.add(btnFetchAndSave);
         top.add(btnLoadByAuthor);
         top.add(btnLoadAll);
+        top.add(btnMetrics);
+
+        JPanel searchRow = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        searchRow.add(new JLabel("search:"));
+        searchRow.add(searchInput);
+        searchRow.add(searchByCitations);
+        searchRow.add(btnSearch);
 
-        add(top, BorderLayout.NORTH);
+        JPanel north = new JPanel(new GridLayout(2, 1));
+        north.add(top);
+        north.add(searchRow);
+        add(north, BorderLayout.NORTH);
         add(new JScrollPane(table), BorderLayout.CENTER);
+        add(leaderboardPanel(), BorderLayout.EAST);
+        add(tasks, BorderLayout.SOUTH);
 
         // Wire actions
         btnFetchAndSave.addActionListener(e -> onFetchAndSave());
         btnLoadByAuthor.addActionListener(e -> onLoadByAuthor());
         btnLoadAll.addActionListener(e -> onLoadAll());
+        btnMetrics.addActionListener(e -> onShowMetrics());
+        btnSearch.addActionListener(e -> onSearch());
+        searchInput.addActionListener(e -> onSearch()); // Enter
+        btnLeaderboard.addActionListener(e -> refreshLeaderboard());
+        leaderboardOrder.addActionListener(e -> refreshLeaderboard());
+        leaderboard.getSelectionModel().addListSelectionListener(e -> {
+            int row = leaderboard.getSelectedRow();
+            if (e.getValueIsAdjusting() || row < 0) return;
+            String authorId = leaderboardModel.getRow(row).getAuthorId();
+            authorIdInput.setText(authorId);
+            loadByAuthor(authorId);
+        });
 
-        setSize(1100, 520);
+        allArticlesModel = new PagedArticleTableModel(this::showDbError);
+
+        setSize(1400, 560);
         setLocationRelativeTo(null);
+        refreshLeaderboard();
     }
 
+    // Top authors from author_stats only (one indexed LIMIT query, however many articles are stored).
+    private JPanel leaderboardPanel() {
+        JPanel head = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        head.add(new JLabel("top authors"));
+        head.add(leaderboardOrder);
+        head.add(btnLeaderboard);
+
+        leaderboard.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        leaderboard.getColumnModel().getColumn(0).setPreferredWidth(30);
+        leaderboard.getColumnModel().getColumn(1).setPreferredWidth(120);
+
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(head, BorderLayout.NORTH);
+        panel.add(new JScrollPane(leaderboard), BorderLayout.CENTER);
+        panel.setPreferredSize(new Dimension(380, 0));
+        return panel;
+    }
+
+    private void refreshLeaderboard() {
+        if (leaderboardWorker != null) leaderboardWorker.cancel(true);
+        AuthorStatsRepository.Order order = leaderboardOrder.getSelectedIndex() == 1
+                ? AuthorStatsRepository.Order.H_INDEX : AuthorStatsRepository.Order.CITATIONS;
+        leaderboardWorker = new LeaderboardWorker(order);
+        leaderboardWorker.execute();
+    }
+
+    // Per-phase latency since start-up (fetch / parse / save), same table as METRICS=console, the query cache and the pool.
+    private void onShowMetrics() {
+        JTextArea text = new JTextArea(Metrics.toText() + "\n" + QueryCache.shared().stats() + "\n" + DbConfig.pool().stats()
+                + (client != null ? "\n" + client.stats() : ""));
+        text.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        text.setEditable(false);
+        JOptionPane.showMessageDialog(this, new JScrollPane(text), "Metrics", JOptionPane.PLAIN_MESSAGE);
+    }
+
+    // HTTP + DB run on a SwingWorker; a second click for the same author_id while it runs is ignored.
     private void onFetchAndSave() {
         String authorId = authorIdInput.getText().trim();
         if (authorId.isEmpty()) {
@@ -64,110 +149,235 @@ public class ArticlesUI extends JFrame {
             return;
         }
 
-        try {
-            // 1) Fetch JSON from SerpApi (google_scholar_author)
-            ScholarAuthorClient client = new ScholarAuthorClient(apiKey);
-            String json = client.fetchAuthorJson(authorId, 0, 10, "en", "pubdate", false);
+        if (client == null) client = new ScholarAuthorClient(apiKey);
+        if (!tasks.run("fetch:" + authorId, new FetchAndSaveWorker(authorId, client))) {
+            tasks.setMessage(authorId + ": fetch already in progress");
+        }
+    }
+
+    private void onLoadByAuthor() {
+        String authorId = authorIdInput.getText().trim();
+        if (authorId.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Enter an author_id to filter.", "Input required", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        loadByAuthor(authorId);
+    }
+
+    // Streams rows into the table; a load for another author replaces the one in flight, the same author is coalesced.
+    private void loadByAuthor(String authorId) {
+        if (loadWorker != null && !loadWorker.isDone()) {
+            if (loadWorker.authorId.equals(authorId)) return;
+            loadWorker.cancel(true);
+        }
+        if (searchWorker != null) searchWorker.cancel(true);
+        table.setModel(tableModel);
+        tableModel.clear();
+        loadWorker = new LoadByAuthorWorker(authorId);
+        tasks.run("load:" + authorId, loadWorker);
+    }
+
+    // Pages are fetched lazily as the user scrolls (see PagedArticleTableModel)
+    private void onLoadAll() {
+        if (loadWorker != null) loadWorker.cancel(true);
+        if (searchWorker != null) searchWorker.cancel(true);
+        table.setModel(allArticlesModel);
+        allArticlesModel.reload();
+        tasks.setMessage("All articles (loaded page by page while scrolling)");
+    }
+
+    // Top SEARCH_LIMIT matches over title + abstract; a new search replaces the one in flight.
+    private void onSearch() {
+        String query = searchInput.getText().trim();
+        if (query.isEmpty()) return;
+        if (searchWorker != null) searchWorker.cancel(true);
+        if (loadWorker != null) loadWorker.cancel(true);
+        searchWorker = new SearchWorker(query, searchByCitations.isSelected());
+        tasks.run("search", searchWorker);
+    }
+
+    private void showDbError(Exception ex) {
+        ex.printStackTrace();
+        JOptionPane.showMessageDialog(this, "DB error: " + ex.getMessage(), "DB Error", JOptionPane.ERROR_MESSAGE);
+    }
+
+    /** Fetch (HTTP) + parse + idempotent save of the top 3 articles, then reloads the author's rows. */
+    private final class FetchAndSaveWorker extends SwingWorker<SaveStats, String> {
+        private final String authorId;
+        private final ScholarAuthorClient client;
+
+        FetchAndSaveWorker(String authorId, ScholarAuthorClient client) {
+            this.authorId = authorId;
+            this.client = client;
+        }
+
+        @Override
+        protected SaveStats doInBackground() throws Exception {
+            // 1) Fetch JSON from SerpApi (google_scholar_author); cancel interrupts the blocking send
+            publish(authorId + ": fetching from SerpApi...");
+            AuthorJson payload = client.fetchAuthor(authorId, 0, 10, "en", "pubdate", false);
+            setProgress(60);
 
             // 2) Check API error
-            String apiError = SimpleJson.extractTopLevelString(json, "error");
-            if (apiError != null && !apiError.isBlank()) {
-                JOptionPane.showMessageDialog(this, "API error: " + apiError, "API Error", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
+            if (payload.hasError()) throw new IllegalStateException("API error: " + payload.getError());
+
+            // 3) First 3 articles (rows without a title are already dropped by the parser)
+            List<Article> articles = payload.getArticles();
+            List<Article> top3 = new ArrayList<>(articles.subList(0, Math.min(3, articles.size())));
+            if (top3.isEmpty()) throw new IllegalStateException("No articles parsed from API response.");
+            if (isCancelled()) return null;
 
-            // 3) Parse first 3 articles
-            List<String> blocks = SimpleJson.extractArrayObjects(json, "articles");
-            List<Article> top3 = new ArrayList<>();
-            for (String block : blocks) {
-                String title = SimpleJson.extractFieldString(block, "title");
-                if (title == null || title.isBlank()) continue;
-                String year = SimpleJson.extractFieldString(block, "year");
-                Integer cited = SimpleJson.extractNestedInt(block, "cited_by", "value");
-                String link = SimpleJson.extractFieldString(block, "link");
-                String abstractText = SimpleJson.extractFieldString(block, "snippet");
-                String authorsCsv = SimpleJson.extractFieldString(block, "authors");
-
-                Article a = new Article(title, year, cited);
-                a.setLink(link);
-                a.setAbstractText(abstractText);
-                a.setAuthors(authorsCsv);
-                top3.add(a);
-                if (top3.size() >= 3) break;
+            // 4) Persist
+            publish(authorId + ": saving " + top3.size() + " articles...");
+            try (Connection cn = DbConfig.get()) {
+                SaveStats saved = new ArticleRepository().saveAll(cn, top3, "author:" + authorId);
+                setProgress(100);
+                return saved;
             }
+        }
 
-            if (top3.isEmpty()) {
-                JOptionPane.showMessageDialog(this, "No articles parsed from API response.", "No Data", JOptionPane.WARNING_MESSAGE);
+        @Override
+        protected void process(List<String> messages) {
+            tasks.setMessage(messages.get(messages.size() - 1));
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled()) {
+                tasks.setMessage(authorId + ": fetch cancelled");
                 return;
             }
+            try {
+                SaveStats saved = get();
+                tasks.setMessage(authorId + ": " + saved.getWritten() + " written (" + saved.getInserted() + " new, "
+                        + saved.getUpdated() + " updated), " + saved.getUnchanged() + " unchanged");
+                // 5) Reload table for this author_id; the save refreshed its author_stats row
+                loadByAuthor(authorId);
+                refreshLeaderboard();
+            } catch (Exception ex) {
+                Throwable cause = (ex instanceof ExecutionException && ex.getCause() != null) ? ex.getCause() : ex;
+                cause.printStackTrace();
+                tasks.setMessage(authorId + ": failed");
+                JOptionPane.showMessageDialog(ArticlesUI.this, "Error: " + cause.getMessage(), "Failure", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
 
-            // 4) Persist
+    /** Streams an author's rows from the database and appends them to the table in chunks. */
+    private final class LoadByAuthorWorker extends SwingWorker<Long, ArticleRecord> {
+        private final String authorId;
+
+        LoadByAuthorWorker(String authorId) {
+            this.authorId = authorId;
+        }
+
+        @Override
+        protected Long doInBackground() throws Exception {
             try (Connection cn = DbConfig.get()) {
-                cn.setAutoCommit(false);
-                ArticleRepository repo = new ArticleRepository();
-                String tag = "author:" + authorId;
-                for (Article a : top3) {
-                    repo.save(cn, a, tag);
-                }
-                cn.commit();
+                return new ArticleRepository().streamByAuthor(cn, authorId, row -> {
+                    if (isCancelled()) throw new CancellationException();
+                    publish(row); // coalesced into chunks for process()
+                });
             }
+        }
 
-            // 5) Reload table for this author_id
-            loadByAuthor(authorId);
+        @Override
+        protected void process(List<ArticleRecord> rows) {
+            if (isCancelled()) return; // a newer load owns the table
+            tableModel.append(rows);
+            tasks.setMessage(authorId + ": " + tableModel.getRowCount() + " rows...");
+        }
 
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error: " + ex.getMessage(), "Failure", JOptionPane.ERROR_MESSAGE);
+        @Override
+        protected void done() {
+            if (isCancelled()) return;
+            try {
+                tasks.setMessage(authorId + ": " + get() + " rows");
+            } catch (Exception ex) {
+                Throwable cause = (ex instanceof ExecutionException && ex.getCause() != null) ? ex.getCause() : ex;
+                tasks.setMessage(authorId + ": load failed");
+                showDbError(cause instanceof Exception ? (Exception) cause : ex);
+            }
         }
     }
 
-    private void onLoadByAuthor() {
-        String authorId = authorIdInput.getText().trim();
-        if (authorId.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "Enter an author_id to filter.", "Input required", JOptionPane.WARNING_MESSAGE);
-            return;
+    /** Runs one search off the EDT; the first search of a process without FULLTEXT also builds the in-memory index. */
+    private final class SearchWorker extends SwingWorker<ArticleColumns, String> {
+        private static final int SEARCH_LIMIT = 200;
+        private final String query;
+        private final boolean byCitations;
+        private long millis;
+        private ArticleSearch.Mode mode;
+
+        SearchWorker(String query, boolean byCitations) {
+            this.query = query;
+            this.byCitations = byCitations;
         }
-        loadByAuthor(authorId);
-    }
 
-    private void loadByAuthor(String authorId) {
-        try (Connection cn = DbConfig.get()) {
-            ArticleRepository repo = new ArticleRepository();
-            List<ArticleRecord> rows = repo.findByAuthorTag(cn, authorId);
-            fillTable(rows);
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(this, "DB error: " + ex.getMessage(), "DB Error", JOptionPane.ERROR_MESSAGE);
+        @Override
+        protected ArticleColumns doInBackground() throws Exception {
+            publish("Searching \"" + query + "\"...");
+            long t0 = System.currentTimeMillis();
+            ArticleSearch search = ArticleSearch.shared();
+            try (Connection cn = DbConfig.get()) {
+                mode = search.mode(cn);
+                List<ArticleRecord> rows = search.search(cn, query, byCitations, SEARCH_LIMIT, 0);
+                ArticleColumns columns = new ArticleColumns(rows.size());
+                for (ArticleRecord r : rows) columns.add(r);
+                millis = System.currentTimeMillis() - t0;
+                return columns;
+            }
         }
-    }
 
-    private void onLoadAll() {
-        try (Connection cn = DbConfig.get()) {
-            ArticleRepository repo = new ArticleRepository();
-            List<ArticleRecord> rows = repo.findAll(cn);
-            fillTable(rows);
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(this, "DB error: " + ex.getMessage(), "DB Error", JOptionPane.ERROR_MESSAGE);
+        @Override
+        protected void process(List<String> messages) {
+            if (!isCancelled()) tasks.setMessage(messages.get(messages.size() - 1));
         }
-    }
 
-    private void fillTable(List<ArticleRecord> rows) {
-        tableModel.setRowCount(0);
-        for (ArticleRecord r : rows) {
-            tableModel.addRow(new Object[] {
-                    r.getId(),
-                    safe(r.getTitle()),
-                    safe(r.getAuthors()),
-                    safe(r.getPublicationDate()),
-                    r.getCitedBy(),
-                    safe(r.getLink()),
-                    safe(r.getKeywords())
-            });
+        @Override
+        protected void done() {
+            if (isCancelled()) return;
+            try {
+                ArticleColumns rows = get();
+                table.setModel(tableModel);
+                tableModel.setRows(rows);
+                tasks.setMessage("\"" + query + "\": " + rows.size() + (rows.size() == SEARCH_LIMIT ? "+" : "")
+                        + " matches (" + mode.name().toLowerCase() + ", " + millis + " ms)");
+            } catch (Exception ex) {
+                Throwable cause = (ex instanceof ExecutionException && ex.getCause() != null) ? ex.getCause() : ex;
+                tasks.setMessage("Search failed");
+                showDbError(cause instanceof Exception ? (Exception) cause : ex);
+            }
         }
     }
 
-    private static String safe(String s) { return (s == null) ? "" : s; }
+    /** Reads the leaderboard off the EDT; a newer refresh cancels this one. */
+    private final class LeaderboardWorker extends SwingWorker<List<AuthorStats>, Void> {
+        private static final int LEADERBOARD_LIMIT = 100;
+        private final AuthorStatsRepository.Order order;
+
+        LeaderboardWorker(AuthorStatsRepository.Order order) {
+            this.order = order;
+        }
+
+        @Override
+        protected List<AuthorStats> doInBackground() throws Exception {
+            try (Connection cn = DbConfig.get()) {
+                return new AuthorStatsRepository().top(cn, order, LEADERBOARD_LIMIT);
+            }
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled()) return;
+            try {
+                leaderboardModel.setRows(get());
+            } catch (Exception ex) {
+                Throwable cause = (ex instanceof ExecutionException && ex.getCause() != null) ? ex.getCause() : ex;
+                tasks.setMessage("Leaderboard failed: " + cause.getMessage());
+            }
+        }
+    }
 
     public static void main(String[] args) {
         SwingUtilities.invokeLater(() -> new ArticlesUI().setVisible(true));
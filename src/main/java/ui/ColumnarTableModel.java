@@ -0,0 +1,76 @@
+package ui;
+
+import model.ArticleColumns;
+import model.ArticleRecord;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.List;
+
+/**
+ * Table model rendering straight from an {@link ArticleColumns}: no Object[] copy per row, and
+ * title / abstract / link are decoded only for the cells the JTable actually paints.
+ * Used for by-author loads and search results; EDT only.
+ */
+class ColumnarTableModel extends AbstractTableModel {
+
+    static final String[] COLUMNS = {"id", "title", "authors", "publication_date", "cited_by", "link", "keywords"};
+
+    private ArticleColumns rows = new ArticleColumns(16);
+
+    /** Replaces the contents. */
+    void setRows(ArticleColumns rows) {
+        this.rows = rows;
+        fireTableDataChanged();
+    }
+
+    void clear() {
+        setRows(new ArticleColumns(16));
+    }
+
+    /** Appends a streamed chunk (SwingWorker.process). */
+    void append(List<ArticleRecord> chunk) {
+        if (chunk.isEmpty()) return;
+        int first = rows.size();
+        for (ArticleRecord r : chunk) rows.add(r);
+        fireTableRowsInserted(first, rows.size() - 1);
+    }
+
+    ArticleColumns getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        return cell(rows, rowIndex, columnIndex);
+    }
+
+    /** Cell value in {@link #COLUMNS} order; shared with PagedArticleTableModel. */
+    static Object cell(ArticleColumns c, int row, int column) {
+        switch (column) {
+            case 0: return c.getId(row);
+            case 1: return safe(c.getTitle(row));
+            case 2: return safe(c.getAuthors(row));
+            case 3: return safe(c.getPublicationDate(row));
+            case 4: return c.getCitedBy(row);
+            case 5: return safe(c.getLink(row));
+            default: return safe(c.getKeywords(row));
+        }
+    }
+
+    private static String safe(String s) { return (s == null) ? "" : s; }
+}
@@ -0,0 +1,58 @@
+package ui;
+
+import model.AuthorStats;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Author leaderboard rows (author_stats, already ranked by the query); EDT only. */
+class LeaderboardTableModel extends AbstractTableModel {
+
+    private static final String[] COLUMNS = {"#", "author_id", "citations", "h", "articles", "latest"};
+
+    private List<AuthorStats> rows = new ArrayList<>();
+
+    void setRows(List<AuthorStats> rows) {
+        this.rows = rows;
+        fireTableDataChanged();
+    }
+
+    AuthorStats getRow(int rowIndex) {
+        return rows.get(rowIndex);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        return columnIndex == 1 ? String.class : Number.class;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        AuthorStats s = rows.get(rowIndex);
+        switch (columnIndex) {
+            case 0: return rowIndex + 1;
+            case 1: return s.getAuthorId();
+            case 2: return s.getCitations();
+            case 3: return s.getHIndex();
+            case 4: return s.getArticles();
+            case 5: return s.getLatestYear();
+            default: return null;
+        }
+    }
+}
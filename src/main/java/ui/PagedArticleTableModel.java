@@ -0,0 +1,136 @@
+package ui;
+
+import db.ArticleRepository;
+import db.DbConfig;
+import model.ArticleColumns;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.sql.Connection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Virtual table over the whole articles table ("Load ALL").
+ * Only the row count is loaded up front; pages of PAGE_SIZE rows are fetched with keyset queries
+ * on a background thread the first time the JTable asks for one of their cells, and only the
+ * MAX_PAGES most recently rendered pages are kept, so memory is bounded by the viewport, not the table.
+ * Pages are held as {@link ArticleColumns} and rendered from them directly.
+ * All fields are touched on the EDT only.
+ */
+class PagedArticleTableModel extends AbstractTableModel {
+
+    static final int PAGE_SIZE = 200;
+    private static final int MAX_PAGES = 10;
+
+    private final ArticleRepository repo = new ArticleRepository();
+    private final Consumer<Exception> onError;
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "articles-page-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private int rowCount;
+    private long generation; // bumped by reload() so late pages from an older load are dropped
+    private final Set<Integer> loading = new HashSet<>();
+    // page -> id of the last row of the previous page (keyset bound); kept for every page seen
+    private final Map<Integer, Long> bounds = new HashMap<>();
+    private final Map<Integer, ArticleColumns> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, ArticleColumns> eldest) {
+            return size() > MAX_PAGES;
+        }
+    };
+
+    PagedArticleTableModel(Consumer<Exception> onError) {
+        this.onError = onError;
+    }
+
+    /** Drops cached pages and re-reads the row count. */
+    void reload() {
+        long gen = ++generation;
+        pages.clear();
+        bounds.clear();
+        loading.clear();
+        loader.submit(() -> {
+            try (Connection cn = DbConfig.get()) {
+                long count = repo.countAll(cn);
+                SwingUtilities.invokeLater(() -> {
+                    if (gen != generation) return;
+                    rowCount = (int) Math.min(count, Integer.MAX_VALUE);
+                    fireTableDataChanged();
+                });
+            } catch (Exception ex) {
+                SwingUtilities.invokeLater(() -> onError.accept(ex));
+            }
+        });
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return ColumnarTableModel.COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return ColumnarTableModel.COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        int page = rowIndex / PAGE_SIZE;
+        ArticleColumns rows = pages.get(page);
+        if (rows == null) {
+            request(page);
+            return (columnIndex == 1) ? "loading…" : null;
+        }
+        int i = rowIndex % PAGE_SIZE;
+        if (i >= rows.size()) return null; // table shrank since the count was taken
+        return ColumnarTableModel.cell(rows, i, columnIndex);
+    }
+
+    private void request(int page) {
+        if (!loading.add(page)) return;
+        long gen = generation;
+        boolean boundKnown = page == 0 || bounds.containsKey(page);
+        Long knownBound = bounds.get(page);
+
+        loader.submit(() -> {
+            try (Connection cn = DbConfig.get()) {
+                // jumping past unseen pages: find the keyset bound once, then page by id
+                Long before = boundKnown ? knownBound : repo.findIdAtOffset(cn, (long) page * PAGE_SIZE - 1);
+                ArticleColumns rows = (page > 0 && before == null)
+                        ? new ArticleColumns(0) // offset is past the end now
+                        : repo.findPageColumns(cn, before, PAGE_SIZE);
+                SwingUtilities.invokeLater(() -> onPage(gen, page, before, rows));
+            } catch (Exception ex) {
+                // the page stays marked as loading so repaints don't retry in a loop; reload() retries
+                SwingUtilities.invokeLater(() -> onError.accept(ex));
+            }
+        });
+    }
+
+    private void onPage(long gen, int page, Long before, ArticleColumns rows) {
+        if (gen != generation) return;
+        loading.remove(page);
+        pages.put(page, rows);
+        if (before != null) bounds.put(page, before);
+        if (rows.size() > 0) bounds.put(page + 1, rows.getId(rows.size() - 1));
+
+        int first = page * PAGE_SIZE;
+        int last = Math.min(rowCount, first + PAGE_SIZE) - 1;
+        if (last >= first) fireTableRowsUpdated(first, last);
+    }
+}
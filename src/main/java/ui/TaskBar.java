@@ -0,0 +1,83 @@
+package ui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Status line for background work: a message, a progress bar and a Cancel button.
+ * Workers are registered under a key (e.g. "fetch:<author_id>"); a key that is still running is not
+ * started twice, which coalesces repeated clicks. Progress is indeterminate until a worker calls setProgress.
+ * All methods are called on the Event Dispatch Thread.
+ */
+class TaskBar extends JPanel {
+
+    private final JLabel message = new JLabel(" ");
+    private final JProgressBar progress = new JProgressBar(0, 100);
+    private final JButton cancel = new JButton("Cancel");
+    private final Map<String, SwingWorker<?, ?>> running = new HashMap<>();
+
+    TaskBar() {
+        super(new BorderLayout(8, 0));
+        JPanel right = new JPanel(new FlowLayout(FlowLayout.RIGHT, 4, 0));
+        right.add(progress);
+        right.add(cancel);
+        add(message, BorderLayout.CENTER);
+        add(right, BorderLayout.EAST);
+        setBorder(BorderFactory.createEmptyBorder(2, 8, 4, 8));
+
+        cancel.addActionListener(e -> cancelAll());
+        refresh();
+    }
+
+    /** Starts the worker unless one is already running under the same key; returns whether it started. */
+    boolean run(String key, SwingWorker<?, ?> worker) {
+        SwingWorker<?, ?> current = running.get(key);
+        if (current != null && !current.isDone()) return false;
+
+        running.put(key, worker);
+        progress.setIndeterminate(true);
+        worker.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) {
+                progress.setIndeterminate(false);
+                progress.setValue((Integer) e.getNewValue());
+            } else if ("state".equals(e.getPropertyName()) && e.getNewValue() == SwingWorker.StateValue.DONE) {
+                running.remove(key, worker);
+                refresh();
+            }
+        });
+        worker.execute();
+        refresh();
+        return true;
+    }
+
+    boolean isRunning(String key) {
+        SwingWorker<?, ?> w = running.get(key);
+        return w != null && !w.isDone();
+    }
+
+    void cancel(String key) {
+        SwingWorker<?, ?> w = running.get(key);
+        if (w != null) w.cancel(true);
+    }
+
+    void cancelAll() {
+        for (SwingWorker<?, ?> w : new ArrayList<>(running.values())) w.cancel(true);
+    }
+
+    void setMessage(String text) {
+        message.setText((text == null || text.isEmpty()) ? " " : text);
+    }
+
+    private void refresh() {
+        boolean busy = !running.isEmpty();
+        progress.setVisible(busy);
+        cancel.setEnabled(busy);
+        if (!busy) {
+            progress.setIndeterminate(false);
+            progress.setValue(0);
+        }
+    }
+}
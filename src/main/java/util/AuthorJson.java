@@ -0,0 +1,222 @@
+package util;
+
+import metrics.Metrics;
+import metrics.ParseEvent;
+import model.Article;
+import model.Author;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps a SerpApi google_scholar_author payload in a single pass.
+ * Articles are built straight from the token stream; no per-object substrings are created.
+ */
+public class AuthorJson {
+
+    private static final Metrics.Phase PARSE = Metrics.phase("parse");
+
+    private String error;
+    private String authorName;
+    private String affiliations;
+    private final List<Article> articles = new ArrayList<>();
+    private int articleEntries; // entries in "articles", including ones skipped for a missing title
+    private Long citedByTotal;
+
+    /** Timed entry point used by the client: "parse" phase histogram and a scholar.Parse JFR event. */
+    public static AuthorJson parse(String json) throws IOException {
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        long t0 = System.nanoTime();
+        AuthorJson out = null;
+        try {
+            out = parse(new JsonReader(json));
+            return out;
+        } finally {
+            PARSE.record(t0, out != null);
+            event.end();
+            if (event.shouldCommit()) {
+                event.length = json.length();
+                event.articles = (out == null) ? 0 : out.articles.size();
+                event.commit();
+            }
+        }
+    }
+
+    public static AuthorJson parse(Reader in) throws IOException {
+        return parse(new JsonReader(in));
+    }
+
+    public static AuthorJson parse(ByteBuffer utf8) throws IOException {
+        return parse(JsonReader.of(utf8));
+    }
+
+    public static AuthorJson parse(JsonReader r) throws IOException {
+        AuthorJson out = new AuthorJson();
+        r.beginObject();
+        while (r.hasNext()) {
+            String name = r.nextName();
+            JsonReader.Token t = r.peek();
+            if (name.equals("error") && t == JsonReader.Token.STRING) {
+                out.error = r.nextString();
+            } else if (name.equals("author") && t == JsonReader.Token.BEGIN_OBJECT) {
+                readAuthor(r, out);
+            } else if (name.equals("articles") && t == JsonReader.Token.BEGIN_ARRAY) {
+                out.articleEntries = readArticles(r, out.articles);
+            } else if (name.equals("cited_by") && t == JsonReader.Token.BEGIN_OBJECT) {
+                out.citedByTotal = readProfileCitations(r);
+            } else {
+                r.skipValue();
+            }
+        }
+        r.endObject();
+        return out;
+    }
+
+    private static void readAuthor(JsonReader r, AuthorJson out) throws IOException {
+        r.beginObject();
+        while (r.hasNext()) {
+            switch (r.nextName()) {
+                case "name": out.authorName = stringOrSkip(r); break;
+                case "affiliations": out.affiliations = stringOrSkip(r); break;
+                default: r.skipValue();
+            }
+        }
+        r.endObject();
+    }
+
+    private static int readArticles(JsonReader r, List<Article> into) throws IOException {
+        int entries = 0;
+        r.beginArray();
+        while (r.hasNext()) {
+            entries++;
+            if (r.peek() != JsonReader.Token.BEGIN_OBJECT) {
+                r.skipValue();
+                continue;
+            }
+            String title = null, year = null, link = null, snippet = null, authors = null;
+            Integer cited = null;
+
+            r.beginObject();
+            while (r.hasNext()) {
+                switch (r.nextName()) {
+                    case "title": title = stringOrSkip(r); break;
+                    case "year": year = stringOrSkip(r); break;
+                    case "link": link = stringOrSkip(r); break;
+                    case "snippet": snippet = stringOrSkip(r); break;
+                    case "authors": authors = stringOrSkip(r); break;
+                    case "cited_by": cited = readCitedBy(r); break;
+                    default: r.skipValue();
+                }
+            }
+            r.endObject();
+
+            if (title == null || title.isBlank()) continue; // skip incomplete rows
+
+            Article a = new Article(title, year, cited);
+            a.setLink(link);
+            a.setAbstractText(snippet);
+            a.setAuthors(authors);
+            into.add(a);
+        }
+        r.endArray();
+        return entries;
+    }
+
+    // "cited_by": {"value": 12, "link": "...", ...}
+    private static Integer readCitedBy(JsonReader r) throws IOException {
+        if (r.peek() != JsonReader.Token.BEGIN_OBJECT) {
+            r.skipValue();
+            return null;
+        }
+        Integer value = null;
+        r.beginObject();
+        while (r.hasNext()) {
+            if (r.nextName().equals("value")) {
+                JsonReader.Token t = r.peek();
+                if (t == JsonReader.Token.NUMBER || t == JsonReader.Token.STRING || t == JsonReader.Token.NULL) {
+                    value = r.nextInt();
+                } else {
+                    r.skipValue();
+                }
+            } else {
+                r.skipValue();
+            }
+        }
+        r.endObject();
+        return value;
+    }
+
+    // "cited_by": {"table": [{"citations": {"all": 1234, "since_2020": 567}}, {"h_index": {...}}, ...], "graph": [...]}
+    private static Long readProfileCitations(JsonReader r) throws IOException {
+        Long all = null;
+        r.beginObject();
+        while (r.hasNext()) {
+            if (!r.nextName().equals("table") || r.peek() != JsonReader.Token.BEGIN_ARRAY) {
+                r.skipValue();
+                continue;
+            }
+            r.beginArray();
+            while (r.hasNext()) {
+                if (r.peek() != JsonReader.Token.BEGIN_OBJECT) {
+                    r.skipValue();
+                    continue;
+                }
+                r.beginObject();
+                while (r.hasNext()) {
+                    if (!r.nextName().equals("citations") || r.peek() != JsonReader.Token.BEGIN_OBJECT) {
+                        r.skipValue();
+                        continue;
+                    }
+                    r.beginObject();
+                    while (r.hasNext()) {
+                        JsonReader.Token t;
+                        if (r.nextName().equals("all") && ((t = r.peek()) == JsonReader.Token.NUMBER || t == JsonReader.Token.STRING)) {
+                            Integer v = r.nextInt();
+                            if (v != null) all = v.longValue();
+                        } else {
+                            r.skipValue();
+                        }
+                    }
+                    r.endObject();
+                }
+                r.endObject();
+            }
+            r.endArray();
+        }
+        r.endObject();
+        return all;
+    }
+
+    private static String stringOrSkip(JsonReader r) throws IOException {
+        JsonReader.Token t = r.peek();
+        if (t == JsonReader.Token.BEGIN_OBJECT || t == JsonReader.Token.BEGIN_ARRAY) {
+            r.skipValue();
+            return null;
+        }
+        return r.nextString();
+    }
+
+    public String getError() { return error; }
+    public String getAuthorName() { return authorName; }
+    public String getAffiliations() { return affiliations; }
+    public List<Article> getArticles() { return articles; }
+    /** Raw size of the "articles" array; compare with the requested num to detect the last page. */
+    public int getArticleEntries() { return articleEntries; }
+    /** The profile's total citations (cited_by.table, "all"), as of this response; null if absent. */
+    public Long getCitedByTotal() { return citedByTotal; }
+
+    public boolean hasError() { return error != null && !error.isBlank(); }
+
+    /** Builds the Author model, falling back to "(unknown)" for missing fields. */
+    public Author toAuthor() {
+        return new Author(
+                (authorName != null && !authorName.isBlank()) ? authorName : "(unknown)",
+                (affiliations != null && !affiliations.isBlank()) ? affiliations : "(unknown)",
+                articles
+        );
+    }
+}
@@ -0,0 +1,17 @@
+package util;
+
+/** Configuration lookups shared by the Options classes, Main and DbConfig. */
+public final class Env {
+
+    private Env() {}
+
+    /**
+     * The trimmed value of k, or def when it is unset or blank. A system property of the same name
+     * (-DDB_URL=...) wins over the environment variable, so tests can configure a process in place.
+     */
+    public static String get(String k, String def) {
+        String v = System.getProperty(k);
+        if (v == null || v.isBlank()) v = System.getenv(k);
+        return (v == null || v.isBlank()) ? def : v.trim();
+    }
+}
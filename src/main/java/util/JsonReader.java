@@ -0,0 +1,411 @@
+package util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Single-pass, pull-style JSON tokenizer.
+ * Reads the input once through a fixed char buffer; callers walk the document
+ * with beginObject/nextName/next*()/skipValue and only materialize the values they need.
+ */
+public class JsonReader implements Closeable {
+
+    public enum Token { BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT }
+
+    // Scopes kept on the container stack
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int EMPTY_OBJECT = 4;
+    private static final int DANGLING_NAME = 5;
+    private static final int NONEMPTY_OBJECT = 6;
+
+    private final Reader in;
+    private final char[] buf = new char[8192];
+    private int pos;
+    private int limit;
+    private long consumed;          // chars that were in the buffer before buf[0]
+
+    private int[] stack = new int[32];
+    private int depth;
+
+    private Token peeked;
+    private long tokenStart;
+    private boolean peekedBool;
+    private final StringBuilder sb = new StringBuilder(); // reused for strings and number literals
+
+    public JsonReader(Reader in) {
+        this.in = in;
+        stack[depth++] = EMPTY_DOCUMENT;
+    }
+
+    public JsonReader(String json) {
+        this(new StringReader(json));
+    }
+
+    /** Decodes UTF-8 straight from the buffer as the tokenizer advances (no intermediate String). */
+    public static JsonReader of(ByteBuffer utf8) {
+        return new JsonReader(new ByteBufferReader(utf8));
+    }
+
+    // ---------- navigation ----------
+
+    public Token peek() throws IOException {
+        if (peeked != null) return peeked;
+        int scope = stack[depth - 1];
+        int c;
+        switch (scope) {
+            case EMPTY_ARRAY:
+                stack[depth - 1] = NONEMPTY_ARRAY;
+                c = nextNonWhitespace();
+                if (c == ']') return token(Token.END_ARRAY);
+                pos--;
+                break;
+            case NONEMPTY_ARRAY:
+                c = nextNonWhitespace();
+                if (c == ']') return token(Token.END_ARRAY);
+                if (c != ',') throw syntaxError("Expected ',' or ']'");
+                break;
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                c = nextNonWhitespace();
+                if (c == '}') return token(Token.END_OBJECT);
+                if (scope == NONEMPTY_OBJECT) {
+                    if (c != ',') throw syntaxError("Expected ',' or '}'");
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') throw syntaxError("Expected name");
+                tokenStart = position() - 1;
+                return peeked = Token.NAME;
+            case DANGLING_NAME:
+                if (nextNonWhitespace() != ':') throw syntaxError("Expected ':'");
+                stack[depth - 1] = NONEMPTY_OBJECT;
+                break;
+            case EMPTY_DOCUMENT:
+                stack[depth - 1] = NONEMPTY_DOCUMENT;
+                break;
+            default: // NONEMPTY_DOCUMENT
+                c = read();
+                while (c != -1 && isWhitespace(c)) c = read();
+                if (c != -1) throw syntaxError("Trailing content after document");
+                return peeked = Token.END_DOCUMENT;
+        }
+        return peekValue();
+    }
+
+    /**
+     * Starts the next top-level value of a whitespace-separated sequence (NDJSON); false at end of input.
+     * Call before each document, including the first.
+     */
+    public boolean nextDocument() throws IOException {
+        if (depth != 1 || (peeked != null && peeked != Token.END_DOCUMENT)) {
+            throw new IllegalStateException("Current document not finished" + at());
+        }
+        peeked = null;
+        int c = read();
+        while (c != -1 && isWhitespace(c)) c = read();
+        if (c == -1) {
+            stack[0] = NONEMPTY_DOCUMENT;
+            peeked = Token.END_DOCUMENT;
+            return false;
+        }
+        pos--;
+        stack[0] = EMPTY_DOCUMENT;
+        return true;
+    }
+
+    public boolean hasNext() throws IOException {
+        Token t = peek();
+        return t != Token.END_OBJECT && t != Token.END_ARRAY && t != Token.END_DOCUMENT;
+    }
+
+    public void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        depth--;
+    }
+
+    public void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        depth--;
+    }
+
+    public String nextName() throws IOException {
+        expect(Token.NAME);
+        stack[depth - 1] = DANGLING_NAME;
+        return readString();
+    }
+
+    /** Returns strings, number literals and booleans as text; JSON null yields null. */
+    public String nextString() throws IOException {
+        Token t = peek();
+        peeked = null;
+        switch (t) {
+            case STRING: return readString();
+            case NUMBER: return sb.toString();
+            case BOOLEAN: return peekedBool ? "true" : "false";
+            case NULL: return null;
+            default: peeked = t; throw new IllegalStateException("Expected a value but was " + t + at());
+        }
+    }
+
+    /** Parses a number (or numeric string) as int; JSON null yields null. */
+    public Integer nextInt() throws IOException {
+        Token t = peek();
+        if (t == Token.NULL) { peeked = null; return null; }
+        if (t == Token.STRING) {
+            String s = nextString();
+            try {
+                return Integer.valueOf(s.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        expect(Token.NUMBER);
+        for (int i = 0; i < sb.length(); i++) {
+            char ch = sb.charAt(i);
+            if (ch == '.' || ch == 'e' || ch == 'E') return (int) Double.parseDouble(sb.toString());
+        }
+        return Integer.parseInt(sb, 0, sb.length(), 10);
+    }
+
+    public boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+        return peekedBool;
+    }
+
+    public void nextNull() throws IOException {
+        expect(Token.NULL);
+    }
+
+    /** Skips the next value (including whole objects/arrays) without materializing it. */
+    public void skipValue() throws IOException {
+        int count = 0;
+        do {
+            Token t = peek();
+            switch (t) {
+                case BEGIN_OBJECT: beginObject(); count++; break;
+                case BEGIN_ARRAY: beginArray(); count++; break;
+                case END_OBJECT: endObject(); count--; break;
+                case END_ARRAY: endArray(); count--; break;
+                case NAME:
+                    peeked = null;
+                    stack[depth - 1] = DANGLING_NAME;
+                    skipString();
+                    break;
+                case STRING: peeked = null; skipString(); break;
+                case END_DOCUMENT: throw new IllegalStateException("Nothing to skip" + at());
+                default: peeked = null; break; // NUMBER, BOOLEAN, NULL are consumed by peek
+            }
+        } while (count > 0);
+    }
+
+    /** Offset (in chars) of the first character of the currently peeked token. */
+    public long tokenStart() {
+        return tokenStart;
+    }
+
+    /** Offset (in chars) just after the last consumed character. */
+    public long position() {
+        return consumed + pos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        peeked = null;
+        in.close();
+    }
+
+    // ---------- scanning ----------
+
+    private Token peekValue() throws IOException {
+        int c = nextNonWhitespace();
+        tokenStart = position() - 1;
+        switch (c) {
+            case '{': return token(Token.BEGIN_OBJECT);
+            case '[': return token(Token.BEGIN_ARRAY);
+            case '"': return peeked = Token.STRING;
+            case 't': literal("rue"); peekedBool = true; return peeked = Token.BOOLEAN;
+            case 'f': literal("alse"); peekedBool = false; return peeked = Token.BOOLEAN;
+            case 'n': literal("ull"); return peeked = Token.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    sb.setLength(0);
+                    sb.append((char) c);
+                    while (true) {
+                        int n = read();
+                        if ((n >= '0' && n <= '9') || n == '.' || n == 'e' || n == 'E' || n == '+' || n == '-') {
+                            sb.append((char) n);
+                        } else {
+                            if (n != -1) pos--;
+                            break;
+                        }
+                    }
+                    return peeked = Token.NUMBER;
+                }
+                throw syntaxError("Unexpected character");
+        }
+    }
+
+    private Token token(Token t) {
+        if (t != Token.BEGIN_OBJECT && t != Token.BEGIN_ARRAY) tokenStart = position() - 1;
+        return peeked = t;
+    }
+
+    private void expect(Token want) throws IOException {
+        Token t = peek();
+        if (t != want) throw new IllegalStateException("Expected " + want + " but was " + t + at());
+        peeked = null;
+    }
+
+    private void push(int scope) {
+        if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+        stack[depth++] = scope;
+    }
+
+    private void literal(String rest) throws IOException {
+        for (int i = 0; i < rest.length(); i++) {
+            if (read() != rest.charAt(i)) throw syntaxError("Invalid literal");
+        }
+    }
+
+    // Reads the remainder of a string whose opening quote was already consumed.
+    private String readString() throws IOException {
+        sb.setLength(0);
+        while (true) {
+            // copy plain runs straight from the buffer
+            int start = pos;
+            while (pos < limit) {
+                char ch = buf[pos];
+                if (ch == '"' || ch == '\\') break;
+                pos++;
+            }
+            sb.append(buf, start, pos - start);
+            if (pos == limit) {
+                // run reached the end of the buffer: refill and keep copying
+                if (!fill()) throw syntaxError("Unterminated string");
+                continue;
+            }
+            int c = buf[pos++];
+            if (c == '"') return sb.toString();
+            if (c == '\\') sb.append(readEscape());
+        }
+    }
+
+    private void skipString() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == -1) throw syntaxError("Unterminated string");
+            if (c == '"') return;
+            if (c == '\\') readEscape();
+        }
+    }
+
+    private char readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case '"': case '\\': case '/': return (char) c;
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'n': return '\n';
+            case 'r': return '\r';
+            case 't': return '\t';
+            case 'u':
+                int v = 0;
+                for (int i = 0; i < 4; i++) {
+                    int h = Character.digit(read(), 16);
+                    if (h < 0) throw syntaxError("Invalid \\u escape");
+                    v = (v << 4) | h;
+                }
+                return (char) v;
+            default:
+                throw syntaxError("Invalid escape");
+        }
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c != -1 && isWhitespace(c));
+        if (c == -1) throw syntaxError("Unexpected end of input");
+        return c;
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    private int read() throws IOException {
+        if (pos == limit && !fill()) return -1;
+        return buf[pos++];
+    }
+
+    private boolean fill() throws IOException {
+        consumed += limit;
+        pos = 0;
+        limit = 0;
+        int n;
+        while ((n = in.read(buf, 0, buf.length)) == 0) { /* retry */ }
+        if (n < 0) return false;
+        limit = n;
+        return true;
+    }
+
+    private IOException syntaxError(String msg) {
+        return new IOException("Malformed JSON: " + msg + at());
+    }
+
+    private String at() {
+        return " at offset " + position();
+    }
+
+    /** Minimal Reader that decodes UTF-8 lazily from a ByteBuffer. */
+    private static final class ByteBufferReader extends Reader {
+        private final ByteBuffer src;
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        ByteBufferReader(ByteBuffer src) {
+            this.src = src;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+            if (src.hasRemaining()) {
+                CoderResult r = decoder.decode(src, out, true);
+                if (r.isError()) throw new CharacterCodingException();
+            }
+            if (!src.hasRemaining()) decoder.flush(out);
+            int n = out.position() - off;
+            return (n == 0 && !src.hasRemaining()) ? -1 : n;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package util;
+
+import java.io.IOException;
+
+/** Output-side JSON helpers: RFC 8259 string escaping straight into an Appendable (no intermediate String). */
+public final class JsonWriter {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private JsonWriter() {}
+
+    /** Appends s as a quoted JSON string, or null. */
+    public static void string(Appendable out, String s) throws IOException {
+        if (s == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        int run = 0; // start of the pending run of characters that need no escaping
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            String esc;
+            switch (c) {
+                case '"': esc = "\\\""; break;
+                case '\\': esc = "\\\\"; break;
+                case '\n': esc = "\\n"; break;
+                case '\r': esc = "\\r"; break;
+                case '\t': esc = "\\t"; break;
+                case '\b': esc = "\\b"; break;
+                case '\f': esc = "\\f"; break;
+                default:
+                    // control chars, plus U+2028/2029 which break JavaScript consumers of the output
+                    if (c >= 0x20 && c != '\u2028' && c != '\u2029') continue;
+                    esc = null;
+            }
+            out.append(s, run, i);
+            if (esc != null) {
+                out.append(esc);
+            } else {
+                out.append("\\u").append(HEX[c >> 12]).append(HEX[(c >> 8) & 0xF]).append(HEX[(c >> 4) & 0xF]).append(HEX[c & 0xF]);
+            }
+            run = i + 1;
+        }
+        out.append(s, run, s.length());
+        out.append('"');
+    }
+
+    /** Appends n, or null. */
+    public static void number(Appendable out, Number n) throws IOException {
+        out.append(n == null ? "null" : n.toString());
+    }
+}
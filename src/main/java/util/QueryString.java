@@ -0,0 +1,25 @@
+package util;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/** Request-side helper for the embedded HTTP servers (ArticleServer, SerpApiStub). */
+public final class QueryString {
+
+    private QueryString() {}
+
+    /** Decodes a raw query string; pairs without a name are skipped, a repeated name keeps its last value. */
+    public static Map<String, String> parse(String raw) {
+        Map<String, String> q = new HashMap<>();
+        if (raw == null) return q;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            q.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return q;
+    }
+}
@@ -1,46 +1,47 @@
 package util;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Tiny, dependency-free helpers to pull common fields from the SerpApi JSON.
- * NOTE: This is intentionally simple and not a full JSON parser.
- * It works for the expected Google Scholar Author payload shape.
+ * Backed by the streaming {@link JsonReader}, so escaped quotes and nested arrays are handled.
+ * For mapping a whole author payload prefer {@link AuthorJson#parse(String)}, which does it in one pass.
  */
 public class SimpleJson {
 
     // Extracts a top-level string field: {"error":"..."} --> "..."
     public static String extractTopLevelString(String json, String field) {
-        String regex = "\""+Pattern.quote(field)+"\"\\s*:\\s*\"([^\"]*)\"";
-        Matcher m = Pattern.compile(regex).matcher(json);
-        return m.find() ? m.group(1) : null;
+        try {
+            JsonReader r = new JsonReader(json);
+            return member(r, field) ? string(r) : null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
     }
 
     // Extracts a string field from within a named object: {"author":{"name":"...","affiliations":"..."}}
     public static String extractNestedString(String json, String object, String field) {
-        String objRegex = "\""+Pattern.quote(object)+"\"\\s*:\\s*\\{(.*?)\\}";
-        Matcher mObj = Pattern.compile(objRegex, Pattern.DOTALL).matcher(json);
-        if (mObj.find()) {
-            String block = mObj.group(1);
-            String fieldRegex = "\""+Pattern.quote(field)+"\"\\s*:\\s*\"([^\"]*)\"";
-            Matcher mField = Pattern.compile(fieldRegex).matcher(block);
-            if (mField.find()) return mField.group(1);
+        try {
+            JsonReader r = new JsonReader(json);
+            if (seek(r, object, JsonReader.Token.BEGIN_OBJECT) && member(r, field)) return string(r);
+        } catch (IOException | RuntimeException e) {
+            // malformed payload: treat as missing
         }
         return null;
     }
 
     // Extracts an integer field from a nested object: e.g., "cited_by":{"value":12}
     public static Integer extractNestedInt(String json, String object, String field) {
-        String objRegex = "\""+Pattern.quote(object)+"\"\\s*:\\s*\\{(.*?)\\}";
-        Matcher mObj = Pattern.compile(objRegex, Pattern.DOTALL).matcher(json);
-        if (mObj.find()) {
-            String block = mObj.group(1);
-            String fieldRegex = "\""+Pattern.quote(field)+"\"\\s*:\\s*(\\d+)";
-            Matcher mField = Pattern.compile(fieldRegex).matcher(block);
-            if (mField.find()) return Integer.parseInt(mField.group(1));
+        try {
+            JsonReader r = new JsonReader(json);
+            if (seek(r, object, JsonReader.Token.BEGIN_OBJECT) && member(r, field)
+                    && r.peek() == JsonReader.Token.NUMBER) {
+                return r.nextInt();
+            }
+        } catch (IOException | RuntimeException e) {
+            // malformed payload: treat as missing
         }
         return null;
     }
@@ -48,23 +49,63 @@ public class SimpleJson {
     // Extracts each JSON object from an array:  "articles":[ {...}, {...}, ... ]
     public static List<String> extractArrayObjects(String json, String arrayName) {
         List<String> blocks = new ArrayList<>();
-        String arrRegex = "\""+Pattern.quote(arrayName)+"\"\\s*:\\s*\\[(.*?)]";
-        Matcher mArr = Pattern.compile(arrRegex, Pattern.DOTALL).matcher(json);
-        if (!mArr.find()) return blocks;
-
-        String arrBody = mArr.group(1);
-        // split top-level objects inside the array in a simple way: find { ... } non-greedily
-        Matcher mObj = Pattern.compile("\\{(?>[^{}]|\\{[^{}]*\\})*\\}").matcher(arrBody);
-        while (mObj.find()) {
-            blocks.add(mObj.group());
+        try {
+            JsonReader r = new JsonReader(json);
+            if (!seek(r, arrayName, JsonReader.Token.BEGIN_ARRAY)) return blocks;
+            r.beginArray();
+            while (r.hasNext()) {
+                boolean isObject = r.peek() == JsonReader.Token.BEGIN_OBJECT;
+                int start = (int) r.tokenStart();
+                r.skipValue();
+                if (isObject) blocks.add(json.substring(start, (int) r.position()));
+            }
+        } catch (IOException | RuntimeException e) {
+            // keep whatever was collected before the malformed part
         }
         return blocks;
     }
 
     // Extracts a string field from a single object block
     public static String extractFieldString(String objectBlock, String field) {
-        String fieldRegex = "\""+Pattern.quote(field)+"\"\\s*:\\s*\"([^\"]*)\"";
-        Matcher m = Pattern.compile(fieldRegex).matcher(objectBlock);
-        return m.find() ? m.group(1) : null;
+        return extractTopLevelString(objectBlock, field);
+    }
+
+    // Positions the reader on the value of a direct member of the (top-level) object.
+    private static boolean member(JsonReader r, String name) throws IOException {
+        if (r.peek() != JsonReader.Token.BEGIN_OBJECT) return false;
+        r.beginObject();
+        while (r.hasNext()) {
+            if (r.nextName().equals(name)) return true;
+            r.skipValue();
+        }
+        return false;
+    }
+
+    // Depth-first search (document order) for the first member `name` whose value starts with `want`.
+    private static boolean seek(JsonReader r, String name, JsonReader.Token want) throws IOException {
+        switch (r.peek()) {
+            case BEGIN_OBJECT:
+                r.beginObject();
+                while (r.hasNext()) {
+                    if (r.nextName().equals(name) && r.peek() == want) return true;
+                    if (seek(r, name, want)) return true;
+                }
+                r.endObject();
+                return false;
+            case BEGIN_ARRAY:
+                r.beginArray();
+                while (r.hasNext()) {
+                    if (seek(r, name, want)) return true;
+                }
+                r.endArray();
+                return false;
+            default:
+                r.skipValue();
+                return false;
+        }
+    }
+
+    private static String string(JsonReader r) throws IOException {
+        return (r.peek() == JsonReader.Token.STRING) ? r.nextString() : null;
     }
 }
@@ -1,7 +1,16 @@
 package view;
 
+import controller.BatchPipeline;
 import model.Author;
+import model.AuthorStats;
 import model.Article;
+import model.ArticleRecord;
+import model.HarvestResult;
+import model.SaveStats;
+import model.ScheduledAuthor;
+
+import java.time.LocalTime;
+import java.util.List;
 
 public class ConsoleView {
 
@@ -28,6 +37,119 @@ public class ConsoleView {
         }
     }
 
+    public void renderHarvest(List<HarvestResult> results, long wallMillis) {
+        renderHarvest("Harvest", results, wallMillis);
+    }
+
+    /** Per-author report of a harvest or sync run; calls = API pages requested. */
+    public void renderHarvest(String title, List<HarvestResult> results, long wallMillis) {
+        System.out.println("=== " + title + " ===");
+        int ok = 0, calls = 0, saved = 0, unchanged = 0;
+        for (HarvestResult r : results) {
+            if (r.isOk()) {
+                ok++;
+                calls += r.getRequests();
+                saved += r.getArticlesSaved();
+                unchanged += r.getArticlesUnchanged();
+                System.out.printf("  OK   %s  %s | calls=%d fetched=%d saved=%d unchanged=%d (%d ms)%n",
+                        r.getAuthorId(), nullToDash(r.getAuthorName()), r.getRequests(),
+                        r.getArticlesFetched(), r.getArticlesSaved(), r.getArticlesUnchanged(), r.getElapsedMillis());
+            } else {
+                System.out.printf("  FAIL %s  %s (%d ms)%n", r.getAuthorId(), nullToDash(r.getError()), r.getElapsedMillis());
+            }
+        }
+        System.out.printf("authors=%d ok=%d failed=%d calls=%d saved=%d unchanged=%d wall=%d ms%n",
+                results.size(), ok, results.size() - ok, calls, saved, unchanged, wallMillis);
+    }
+
+    public void renderSearch(String query, String mode, List<ArticleRecord> rows, long millis) {
+        System.out.printf("=== Search \"%s\" (%s, %d ms) ===%n", query, mode, millis);
+        if (rows.isEmpty()) {
+            System.out.println("  (no matches)");
+            return;
+        }
+        for (ArticleRecord r : rows) {
+            String cited = (r.getCitedBy() == null) ? "0" : r.getCitedBy().toString();
+            System.out.printf("  #%d %s (%s) | cited_by=%s%n",
+                    r.getId(), nullToDash(r.getTitle()), nullToDash(r.getPublicationDate()), cited);
+        }
+    }
+
+    /** Ranked article list (top cited queries); title says what was asked. */
+    public void renderArticles(String title, List<ArticleRecord> rows, long millis) {
+        System.out.printf("=== %s (%d ms) ===%n", title, millis);
+        if (rows.isEmpty()) {
+            System.out.println("  (no articles)");
+            return;
+        }
+        for (ArticleRecord r : rows) {
+            String cited = (r.getCitedBy() == null) ? "0" : r.getCitedBy().toString();
+            System.out.printf("  cited_by=%-6s #%d %s (%s)%n",
+                    cited, r.getId(), nullToDash(r.getTitle()), nullToDash(r.getPublicationDate()));
+        }
+    }
+
+    /** Leaderboard from author_stats; total = authors in the table. */
+    public void renderLeaderboard(String order, List<AuthorStats> rows, int total, long millis) {
+        System.out.printf("=== Authors by %s (%d of %d, %d ms) ===%n", order, rows.size(), total, millis);
+        if (rows.isEmpty()) {
+            System.out.println("  (no authors; run `stats --rebuild` after migrating)");
+            return;
+        }
+        int rank = 0;
+        for (AuthorStats s : rows) {
+            System.out.printf("  %3d. %-16s citations=%d h=%d articles=%d latest=%s%n", ++rank, s.getAuthorId(),
+                    s.getCitations(), s.getHIndex(), s.getArticles(),
+                    (s.getLatestYear() == null) ? "-" : s.getLatestYear().toString());
+        }
+    }
+
+    public void renderBatch(BatchPipeline.Report r) {
+        double secs = Math.max(1, r.getWallMillis()) / 1000.0;
+        System.out.printf("=== Batch: %d authors ok, %d failed, %d articles in %.1f s (%s) ===%n",
+                r.getOk(), r.getFailed(), r.getArticles(), secs, r.getOptions());
+        System.out.printf("  %-8s %7s %8s %9s %9s %10s %10s %5s%n",
+                "stage", "workers", "items", "items/s", "busy ms", "blocked ms", "starved ms", "util");
+        for (BatchPipeline.StageStats s : r.getStages()) {
+            System.out.printf("  %-8s %7d %8d %9.1f %9d %10d %10d %4.0f%%%n", s.getName(), s.getWorkers(),
+                    s.getItems(), s.getItems() / secs, s.getBusyMillis(), s.getBlockedMillis(),
+                    s.getStarvedMillis(), 100 * s.utilization(r.getWallNanos()));
+        }
+        System.out.printf("Saved: written=%d skipped=%d in %d transactions (%d groups retried per author)%n",
+                r.getWritten(), r.getUnchanged(), r.getTransactions(), r.getGroupRetries());
+    }
+
+    public void renderSchedule(List<ScheduledAuthor> rows, int total, int creditsThisHour, int creditsPerHour) {
+        System.out.printf("=== Refresh schedule (%d of %d tracked, %d of %d credits spent this hour) ===%n",
+                rows.size(), total, creditsThisHour, creditsPerHour);
+        if (rows.isEmpty()) {
+            System.out.println("  (no tracked authors; add some with `schedule add`)");
+            return;
+        }
+        for (ScheduledAuthor a : rows) {
+            System.out.printf("  %-16s due=%s last=%s citations=%s velocity=%.2f/day%s%n", a.getAuthorId(),
+                    a.getNextDueAt(), a.getLastRefreshedAt() == null ? "never" : a.getLastRefreshedAt().toString(),
+                    a.getCitations() == null ? "-" : a.getCitations().toString(), a.getVelocity(),
+                    a.getFailures() > 0 ? " failures=" + a.getFailures() : "");
+        }
+    }
+
+    public void renderScheduledRefresh(ScheduledAuthor a, HarvestResult r, int creditsThisHour) {
+        if (r.isOk()) {
+            System.out.printf("[%s] %s: %d calls, %d saved, citations=%d velocity=%.2f/day, next %s (%d credits this hour)%n",
+                    LocalTime.now().withNano(0), a.getAuthorId(), r.getRequests(), r.getArticlesSaved(),
+                    a.getCitations(), a.getVelocity(), a.getNextDueAt(), creditsThisHour);
+        } else {
+            System.out.printf("[%s] %s: FAILED (%s), retry %s%n", LocalTime.now().withNano(0),
+                    a.getAuthorId(), r.getError(), a.getNextDueAt());
+        }
+    }
+
+    public void renderSaveStats(SaveStats stats) {
+        System.out.printf("Saved: written=%d (inserted=%d updated=%d) skipped=%d%n",
+                stats.getWritten(), stats.getInserted(), stats.getUpdated(), stats.getUnchanged());
+    }
+
     public void renderError(String message) {
         System.err.println("[ERROR] " + message);
     }
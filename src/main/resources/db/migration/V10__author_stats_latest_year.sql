@@ -0,0 +1,9 @@
+-- The V6 backfill took latest_year from any publication_date starting with four digits ("20190"
+-- gave 2019, " 2019" gave NULL). Recompute it from pub_year, which V7 filled with the db.PubYear rule;
+-- rows written since V7 already use pub_year and are left as they are.
+UPDATE author_stats s
+LEFT JOIN (SELECT aa.author_id, MAX(a.pub_year) AS y
+           FROM article_authors aa JOIN articles a ON a.id = aa.article_id
+           GROUP BY aa.author_id) t ON t.author_id = s.author_id
+SET s.latest_year = t.y
+WHERE NOT (s.latest_year <=> t.y);
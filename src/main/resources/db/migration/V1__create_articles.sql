@@ -0,0 +1,11 @@
+-- Baseline schema (same as src/main/java/db/query.txt); no-op on existing databases.
+CREATE TABLE IF NOT EXISTS articles (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  title VARCHAR(1024) NOT NULL,
+  authors TEXT,
+  publication_date VARCHAR(32),
+  abstract TEXT,
+  link TEXT,
+  keywords TEXT,
+  cited_by INT
+);
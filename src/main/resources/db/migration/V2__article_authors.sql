@@ -0,0 +1,14 @@
+-- Normalized author -> article relation; replaces FIND_IN_SET scans over keywords.
+CREATE TABLE IF NOT EXISTS article_authors (
+  author_id  VARCHAR(64) NOT NULL,
+  article_id BIGINT      NOT NULL,
+  PRIMARY KEY (author_id, article_id),
+  KEY idx_article_authors_article (article_id),
+  CONSTRAINT fk_article_authors_article FOREIGN KEY (article_id) REFERENCES articles (id) ON DELETE CASCADE
+);
+
+-- Backfill from the legacy 'author:<id>' tag that save() appends to keywords.
+INSERT IGNORE INTO article_authors (author_id, article_id)
+SELECT SUBSTRING_INDEX(SUBSTRING_INDEX(REPLACE(keywords, ' ', ''), 'author:', -1), ',', 1), id
+FROM articles
+WHERE keywords LIKE '%author:%';
@@ -0,0 +1,5 @@
+-- Content hash used for idempotent upserts (see db.ContentKey).
+-- Existing rows are keyed, merged and given the unique index by `app.Main dedupe`;
+-- until then the plain index keeps saveAll's key lookups off a table scan.
+ALTER TABLE articles ADD COLUMN content_key CHAR(64) NULL;
+CREATE INDEX idx_articles_content_key ON articles (content_key);
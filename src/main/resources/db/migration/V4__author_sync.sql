@@ -0,0 +1,9 @@
+-- Per-author checkpoint for `app.Main sync` (delta refresh, see HarvestController#sync).
+CREATE TABLE IF NOT EXISTS author_sync (
+  author_id      VARCHAR(64)   NOT NULL PRIMARY KEY,
+  last_synced_at TIMESTAMP     NULL,
+  newest_year    VARCHAR(32)   NULL,
+  newest_title   VARCHAR(1024) NULL,
+  newest_key     CHAR(64)      NULL,
+  article_count  INT           NOT NULL DEFAULT 0
+);
@@ -0,0 +1,5 @@
+-- Full-text search over title + abstract (ArticleRepository#search, InnoDB FULLTEXT: MySQL 5.6+ / MariaDB 10.0.5+).
+-- On a server without FULLTEXT support, record this version by hand instead:
+--   INSERT INTO schema_version (version, script) VALUES (5, 'V5__fulltext.sql');
+-- search.ArticleSearch then falls back to its in-memory index.
+ALTER TABLE articles ADD FULLTEXT INDEX ft_articles_title_abstract (title, abstract);
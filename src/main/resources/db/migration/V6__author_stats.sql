@@ -0,0 +1,22 @@
+-- Per-author citation summary, kept current by ArticleRepository#saveAll (same transaction) and
+-- BulkLoader; `app.Main stats --rebuild` recomputes it from article_authors + articles.
+CREATE TABLE IF NOT EXISTS author_stats (
+  author_id   VARCHAR(64) NOT NULL PRIMARY KEY,
+  articles    INT         NOT NULL DEFAULT 0,
+  citations   BIGINT      NOT NULL DEFAULT 0,
+  h_index     INT         NOT NULL DEFAULT 0,
+  latest_year SMALLINT    NULL,
+  updated_at  TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  KEY idx_author_stats_citations (citations, h_index),
+  KEY idx_author_stats_h_index (h_index, citations)
+);
+
+-- Backfill (same query as AuthorStatsRepository#rebuild). h-index: with an author's articles ranked
+-- by citations (rn = 1, 2, ...), it is the number of articles cited at least rn times.
+INSERT INTO author_stats (author_id, articles, citations, h_index, latest_year)
+SELECT author_id, COUNT(*), SUM(c), SUM(c >= rn), MAX(y)
+FROM (SELECT aa.author_id, COALESCE(a.cited_by, 0) AS c,
+             ROW_NUMBER() OVER (PARTITION BY aa.author_id ORDER BY COALESCE(a.cited_by, 0) DESC) AS rn,
+             CASE WHEN a.publication_date REGEXP '^[12][0-9]{3}' THEN CAST(LEFT(a.publication_date, 4) AS UNSIGNED) END AS y
+      FROM article_authors aa JOIN articles a ON a.id = aa.article_id) t
+GROUP BY author_id;
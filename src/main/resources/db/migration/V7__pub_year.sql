@@ -0,0 +1,12 @@
+-- Typed publication year + indexes for year / citation range queries
+-- (ArticleRepository#topCitedInYears, #citedAtLeast). Writers fill pub_year with db.PubYear;
+-- the backfill below applies the same rule: leading four-digit year, else NULL.
+ALTER TABLE articles ADD COLUMN pub_year SMALLINT NULL;
+
+UPDATE articles SET pub_year = CAST(LEFT(TRIM(publication_date), 4) AS UNSIGNED)
+WHERE TRIM(publication_date) REGEXP '^[12][0-9]{3}([^0-9]|$)';
+
+-- InnoDB appends the primary key, so both serve ORDER BY cited_by DESC, id DESC without a sort
+ALTER TABLE articles
+  ADD INDEX idx_articles_cited_by (cited_by),
+  ADD INDEX idx_articles_year_cited (pub_year, cited_by);
@@ -0,0 +1,19 @@
+-- Tracked authors of the refresh scheduler (`app.Main schedule`, controller.RefreshScheduler):
+-- next_due_at orders the queue; citations / velocity (citations gained per day, smoothed) decide
+-- how soon an author is due again after a refresh.
+CREATE TABLE IF NOT EXISTS refresh_schedule (
+  author_id         VARCHAR(64) NOT NULL PRIMARY KEY,
+  added_at          TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  last_refreshed_at TIMESTAMP   NULL,
+  next_due_at       TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  citations         BIGINT      NULL,
+  velocity          DOUBLE      NOT NULL DEFAULT 0,
+  failures          INT         NOT NULL DEFAULT 0,
+  KEY idx_refresh_schedule_due (next_due_at)
+);
+
+-- API calls spent per clock hour (UTC), so a restarted scheduler stays within its hourly budget.
+CREATE TABLE IF NOT EXISTS api_credits (
+  hour_start TIMESTAMP NOT NULL PRIMARY KEY,
+  credits    INT       NOT NULL DEFAULT 0
+);
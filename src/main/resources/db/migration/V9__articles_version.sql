@@ -0,0 +1,9 @@
+-- Change counter of the article data, for HTTP ETags (server.ArticleServer): bumped by every
+-- transaction that writes articles or their author links (ArticleRepository saves, BulkLoader,
+-- DedupeJob). Timestamps cannot stand in for it: two saves in the same second look the same.
+CREATE TABLE IF NOT EXISTS articles_version (
+  id      TINYINT NOT NULL PRIMARY KEY,
+  version BIGINT  NOT NULL
+);
+
+INSERT IGNORE INTO articles_version (id, version) VALUES (1, 0);
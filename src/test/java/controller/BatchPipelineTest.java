@@ -0,0 +1,91 @@
+package controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The bounded hand-off between stages (no HTTP or database). */
+public class BatchPipelineTest {
+
+    @Test
+    @DisplayName("A stage queue closes after its last producer; every consumer drains and sees the end")
+    void closes_after_last_producer() throws Exception {
+        BatchPipeline.StageQueue<Integer> queue = new BatchPipeline.StageQueue<>(4, 3);
+        BatchPipeline.StageStats stats = new BatchPipeline.StageStats("test", 3);
+        List<Integer> seen = Collections.synchronizedList(new ArrayList<>());
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < 3; p++) {
+            int base = p * 100;
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    for (int i = 0; i < 100; i++) queue.put(base + i, stats);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    queue.producerDone();
+                }
+            }));
+        }
+        for (int c = 0; c < 2; c++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    Integer item;
+                    while ((item = queue.take(stats)) != null) seen.add(item);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        for (Thread t : threads) t.join(10_000);
+
+        assertEquals(300, seen.size());
+        assertEquals(300, seen.stream().distinct().count());
+        assertNull(queue.poll(10, stats), "closed queue stays closed");
+    }
+
+    @Test
+    @DisplayName("A full queue blocks its producer until the consumer takes (backpressure is measured)")
+    void full_queue_blocks_producer() throws Exception {
+        BatchPipeline.StageQueue<Integer> queue = new BatchPipeline.StageQueue<>(2, 1);
+        BatchPipeline.StageStats stats = new BatchPipeline.StageStats("test", 1);
+        AtomicInteger produced = new AtomicInteger();
+
+        Thread producer = Thread.ofPlatform().start(() -> {
+            try {
+                for (int i = 0; i < 5; i++) {
+                    queue.put(i, stats);
+                    produced.incrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                queue.producerDone();
+            }
+        });
+        Thread.sleep(150);
+        assertEquals(2, produced.get(), "producer must stop at the queue capacity");
+
+        for (int i = 0; i < 5; i++) assertEquals(i, queue.take(stats));
+        assertNull(queue.take(stats));
+        producer.join(5_000);
+        assertTrue(stats.getBlockedMillis() >= 100, "blocked " + stats.getBlockedMillis() + " ms");
+    }
+
+    @Test
+    @DisplayName("poll gives up after the linger time on an empty open queue")
+    void poll_lingers() throws Exception {
+        BatchPipeline.StageQueue<Integer> queue = new BatchPipeline.StageQueue<>(2, 1);
+        BatchPipeline.StageStats stats = new BatchPipeline.StageStats("test", 1);
+        long t0 = System.nanoTime();
+        assertNull(queue.poll(50, stats));
+        assertTrue(System.nanoTime() - t0 >= 45_000_000L);
+        assertThrows(IllegalArgumentException.class, () -> new BatchPipeline.Options().parseThreads(0));
+    }
+}
@@ -0,0 +1,172 @@
+package controller;
+
+import db.AuthorSyncRepository;
+import db.DbConfig;
+import db.Migrations;
+import model.HarvestResult;
+import model.SyncCheckpoint;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import service.RateLimiter;
+import service.ScholarAuthorClient;
+import stub.SerpApiStub;
+import view.ConsoleView;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Delta sync against a replaying stub whose recordings are rewritten between syncs, as if the
+ * author had published in the meantime (needs a database at V4 or later). Skipped unless DB_URL is set.
+ */
+public class HarvestSyncIT {
+
+    private static final String AUTHOR = "harvestSyncIT";
+    private static final int PAGE = HarvestController.SYNC_PAGE_SIZE;
+
+    private static Connection cn;
+
+    @TempDir
+    Path dir;
+    private SerpApiStub stub;
+    private HarvestController controller;
+
+    @BeforeAll
+    static void setup() throws Exception {
+        Assumptions.assumeTrue(System.getenv("DB_URL") != null, "DB_URL is not set; skipping sync checks.");
+        cn = DbConfig.openBulk();
+        Assumptions.assumeTrue(Migrations.currentVersion(cn) >= 4, "schema is older than V4; run `app.Main migrate`.");
+    }
+
+    @BeforeEach
+    void start() throws Exception {
+        cleanUp();
+        stub = SerpApiStub.start(new SerpApiStub.Options().port(0).mode(SerpApiStub.Mode.REPLAY).dir(dir));
+        ScholarAuthorClient client = new ScholarAuthorClient("test", null, stub.baseUrl(),
+                new ScholarAuthorClient.Options().retries(0));
+        controller = new HarvestController(client, new ConsoleView(), new RateLimiter(1_000, 100), 1);
+    }
+
+    @AfterEach
+    void stop() {
+        if (stub != null) stub.close();
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        if (cn == null) return;
+        cleanUp();
+        cn.close();
+    }
+
+    private static void cleanUp() throws Exception {
+        try (PreparedStatement ps = cn.prepareStatement("DELETE FROM articles WHERE link LIKE 'https://sync-it/%'")) {
+            ps.executeUpdate();
+        }
+        for (String table : new String[] {"author_sync", "author_stats"}) {
+            try (PreparedStatement ps = cn.prepareStatement("DELETE FROM " + table + " WHERE author_id = ?")) {
+                ps.setString(1, AUTHOR);
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    /** Records the profile after `published` articles, newest first: article published-1 heads page one. */
+    private void publish(int published) throws Exception {
+        for (int start = 0; start <= published; start += PAGE) {
+            StringBuilder json = new StringBuilder("{\"search_metadata\":{\"status\":\"Success\"},")
+                    .append("\"author\":{\"name\":\"Sync IT\"},\"articles\":[");
+            for (int i = start; i < Math.min(published, start + PAGE); i++) {
+                int n = published - 1 - i;
+                json.append(i > start ? "," : "")
+                        .append("{\"title\":\"Sync IT article ").append(n).append("\",")
+                        .append("\"link\":\"https://sync-it/").append(n).append("\",")
+                        .append("\"authors\":\"A, B\",\"cited_by\":{\"value\":").append(n % 7).append("},")
+                        .append("\"year\":\"").append(2000 + n / 20).append("\"}");
+            }
+            String name = SerpApiStub.recordingName(Map.of("author_id", AUTHOR, "start", String.valueOf(start),
+                    "num", String.valueOf(PAGE), "hl", "en", "sort", "pubdate"));
+            Files.writeString(dir.resolve(name), json.append("]}").toString());
+        }
+    }
+
+    private HarvestResult sync() {
+        HarvestResult r = controller.syncAuthor(AUTHOR, false);
+        assertTrue(r.isOk(), r.getError());
+        return r;
+    }
+
+    private static SyncCheckpoint checkpoint() throws Exception {
+        return new AuthorSyncRepository().find(cn, AUTHOR);
+    }
+
+    @Test
+    @DisplayName("A first sync walks the profile to its short page and records the newest article")
+    void first_sync_stops_on_short_page() throws Exception {
+        publish(150);
+        HarvestResult r = sync();
+
+        assertEquals(2, r.getRequests(), "no request past the short page");
+        assertEquals(2, stub.getRequests());
+        assertEquals(150, r.getArticlesFetched());
+        assertEquals(150, r.getArticlesSaved());
+
+        SyncCheckpoint cp = checkpoint();
+        assertEquals("Sync IT article 149", cp.getNewestTitle());
+        assertEquals(150, cp.getArticleCount());
+    }
+
+    @Test
+    @DisplayName("The next sync writes only the new articles, stops at the known one and moves the checkpoint")
+    void delta_sync_writes_only_new_articles() throws Exception {
+        publish(150);
+        sync();
+        SyncCheckpoint first = checkpoint();
+
+        publish(153);
+        HarvestResult r = sync();
+        assertEquals(1, r.getRequests(), "the known article is on page one");
+        assertEquals(3, stub.getRequests());
+        assertEquals(3, r.getArticlesSaved());
+
+        SyncCheckpoint second = checkpoint();
+        assertEquals("Sync IT article 152", second.getNewestTitle());
+        assertNotEquals(first.getNewestKey(), second.getNewestKey());
+        assertEquals(153, second.getArticleCount());
+        assertFalse(second.getLastSyncedAt().isBefore(first.getLastSyncedAt()));
+
+        r = sync(); // nothing new since
+        assertEquals(1, r.getRequests());
+        assertEquals(0, r.getArticlesSaved());
+        assertEquals("Sync IT article 152", checkpoint().getNewestTitle());
+        assertEquals(153, checkpoint().getArticleCount());
+    }
+
+    @Test
+    @DisplayName("A sync that finds its known article on a later page stops there")
+    void delta_sync_stops_at_known_article_on_later_page() throws Exception {
+        publish(150);
+        sync();
+
+        publish(255); // page one is all new, page two reaches the known articles, page three is never asked for
+        HarvestResult r = sync();
+        assertEquals(2, r.getRequests());
+        assertEquals(4, stub.getRequests());
+        assertEquals(105, r.getArticlesSaved());
+
+        SyncCheckpoint cp = checkpoint();
+        assertEquals("Sync IT article 254", cp.getNewestTitle());
+        assertEquals(255, cp.getArticleCount());
+    }
+}
@@ -0,0 +1,105 @@
+package controller;
+
+import db.RefreshScheduleRepository;
+import model.HarvestResult;
+import model.ScheduledAuthor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.Year;
+import java.util.PriorityQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Priority arithmetic of the refresh scheduler (no API or database). */
+public class RefreshSchedulerTest {
+
+    private static final RefreshScheduler.Options OPTIONS = new RefreshScheduler.Options()
+            .baseHours(168).minHours(6).retryMinutes(30);
+    private static final Instant T0 = Instant.parse("2026-01-01T00:00:00Z");
+
+    private static ScheduledAuthor fresh(String id) {
+        return new ScheduledAuthor(id, T0, null, T0, null, 0, 0);
+    }
+
+    @Test
+    @DisplayName("Interval shrinks with citation velocity, between minHours and baseHours")
+    void interval() {
+        assertEquals(Duration.ofHours(168), RefreshScheduler.interval(0, OPTIONS));
+        assertEquals(Duration.ofHours(84), RefreshScheduler.interval(1, OPTIONS));
+        assertEquals(Duration.ofHours(14), RefreshScheduler.interval(11, OPTIONS));
+        assertEquals(Duration.ofHours(6), RefreshScheduler.interval(1_000, OPTIONS));
+    }
+
+    @Test
+    @DisplayName("First velocity is the lifetime average; later ones follow measured citation growth")
+    void velocity() {
+        int firstYear = Year.now().getValue() - 9; // 10 years
+        ScheduledAuthor first = RefreshScheduler.afterRefresh(fresh("a"),
+                new RefreshScheduleRepository.Citations(3_650, firstYear), T0, OPTIONS);
+        assertEquals(1.0, first.getVelocity(), 1e-9);
+        assertEquals(T0.plus(Duration.ofHours(84)), first.getNextDueAt());
+        assertEquals(3_650L, first.getCitations());
+
+        Instant later = T0.plus(Duration.ofDays(4));
+        ScheduledAuthor second = RefreshScheduler.afterRefresh(first,
+                new RefreshScheduleRepository.Citations(3_650 + 4 * 21, firstYear), later, OPTIONS);
+        assertEquals(11.0, second.getVelocity(), 1e-9); // halfway from 1 to the measured 21/day
+        assertEquals(later.plus(Duration.ofHours(14)), second.getNextDueAt());
+
+        ScheduledAuthor dormant = RefreshScheduler.afterRefresh(second,
+                new RefreshScheduleRepository.Citations(3_600, firstYear), later.plus(Duration.ofDays(1)), OPTIONS);
+        assertEquals(5.5, dormant.getVelocity(), 1e-9, "fewer stored citations count as no growth");
+    }
+
+    @Test
+    @DisplayName("Velocity uses the profile total reported with the fetch; stored sums only when it is missing")
+    void measured_citations() {
+        RefreshScheduleRepository.Citations stored = new RefreshScheduleRepository.Citations(500, 2010);
+        RefreshScheduleRepository.Citations profile = RefreshScheduler.measured(
+                HarvestResult.success("a", "A", 1, 10, 0, 10, 1_200L, 5), stored);
+        assertEquals(1_200, profile.getTotal());
+        assertEquals(2010, profile.getFirstYear());
+        assertSame(stored, RefreshScheduler.measured(HarvestResult.success("a", "A", 1, 10, 0, 10, 5), stored));
+
+        // delta syncs leave older stored counts as they were; the profile total still shows the growth
+        ScheduledAuthor prev = new ScheduledAuthor("a", T0, T0, T0, 1_000L, 0, 0);
+        ScheduledAuthor next = RefreshScheduler.afterRefresh(prev, profile, T0.plus(Duration.ofDays(10)), OPTIONS);
+        assertEquals(10.0, next.getVelocity(), 1e-9); // halfway from 0 to the measured 20/day
+        assertEquals(1_200L, next.getCitations());
+    }
+
+    @Test
+    @DisplayName("Failures back off exponentially and keep the measured state")
+    void failures() {
+        ScheduledAuthor a = RefreshScheduler.afterRefresh(fresh("a"), new RefreshScheduleRepository.Citations(0, null), T0, OPTIONS);
+        ScheduledAuthor f1 = RefreshScheduler.afterFailure(a, T0, OPTIONS);
+        ScheduledAuthor f3 = RefreshScheduler.afterFailure(RefreshScheduler.afterFailure(f1, T0, OPTIONS), T0, OPTIONS);
+        assertEquals(T0.plus(Duration.ofMinutes(30)), f1.getNextDueAt());
+        assertEquals(T0.plus(Duration.ofMinutes(120)), f3.getNextDueAt());
+        assertEquals(3, f3.getFailures());
+        assertEquals(a.getLastRefreshedAt(), f3.getLastRefreshedAt());
+
+        ScheduledAuthor many = f3;
+        for (int i = 0; i < 30; i++) many = RefreshScheduler.afterFailure(many, T0, OPTIONS);
+        assertEquals(T0.plus(Duration.ofHours(168)), many.getNextDueAt(), "capped at the base interval");
+        assertEquals(0, RefreshScheduler.afterRefresh(many, new RefreshScheduleRepository.Citations(0, null), T0, OPTIONS).getFailures());
+    }
+
+    @Test
+    @DisplayName("The queue serves the soonest due first, new authors in the order added")
+    void queue_order() {
+        PriorityQueue<ScheduledAuthor> queue = new PriorityQueue<>(RefreshScheduler.BY_DUE);
+        queue.add(new ScheduledAuthor("late", T0, T0, T0.plusSeconds(3_600), 10L, 0, 0));
+        queue.add(new ScheduledAuthor("new2", T0.plusSeconds(2), null, T0, null, 0, 0));
+        queue.add(new ScheduledAuthor("new1", T0.plusSeconds(1), null, T0, null, 0, 0));
+        queue.add(new ScheduledAuthor("overdue", T0, T0, T0.minusSeconds(60), 10L, 5, 0));
+
+        assertEquals("overdue", queue.poll().getAuthorId());
+        assertEquals("new1", queue.poll().getAuthorId());
+        assertEquals("new2", queue.poll().getAuthorId());
+        assertEquals("late", queue.poll().getAuthorId());
+    }
+}
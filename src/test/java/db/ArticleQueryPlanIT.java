@@ -0,0 +1,121 @@
+package db;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration-style test (needs a database at V7 with some dated, cited articles).
+ * Checks with EXPLAIN that the year / citation range queries of ArticleRepository are served by the
+ * V7 indexes, in index order (no filesort where the index can give the order).
+ * Skipped unless DB_URL is set.
+ */
+public class ArticleQueryPlanIT {
+
+    private static Connection cn;
+
+    @BeforeAll
+    static void setup() throws Exception {
+        Assumptions.assumeTrue(System.getenv("DB_URL") != null, "DB_URL is not set; skipping plan checks.");
+        cn = DbConfig.get();
+        Assumptions.assumeTrue(Migrations.currentVersion(cn) >= 7, "schema is older than V7; run `app.Main migrate`.");
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        if (cn != null) cn.close();
+    }
+
+    @Test
+    @DisplayName("Years of a range come from a loose scan of idx_articles_year_cited")
+    void years_loose_index_scan() throws Exception {
+        List<Map<String, String>> plan = explain(ArticleRepository.YEARS_SQL, 1000, 2999);
+        assertEquals("idx_articles_year_cited", plan.get(0).get("key"));
+        assertTrue(plan.get(0).get("Extra").contains("Using index for group-by"), plan.toString());
+    }
+
+    @Test
+    @DisplayName("Top cited in a year range reads each year from idx_articles_year_cited, covering and unsorted")
+    void top_cited_in_years() throws Exception {
+        List<Integer> years = new ArrayList<>();
+        try (PreparedStatement ps = cn.prepareStatement(ArticleRepository.YEARS_SQL)) {
+            ps.setInt(1, 1000);
+            ps.setInt(2, 2999);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next() && years.size() < 3) years.add(rs.getInt(1));
+            }
+        }
+        Assumptions.assumeFalse(years.isEmpty(), "no article has a pub_year");
+
+        List<Object> params = new ArrayList<>();
+        for (int y : years) {
+            params.add(y);
+            params.add(20);
+        }
+        params.add(20);
+        List<Map<String, String>> plan = explain(ArticleRepository.topCitedInYearsSql(years.size()), params.toArray());
+        int perYear = 0;
+        for (Map<String, String> row : plan) {
+            if (!"articles".equals(row.get("table"))) continue;
+            perYear++;
+            assertEquals("idx_articles_year_cited", row.get("key"), row.toString());
+            assertEquals("ref", row.get("type"), row.toString());
+            assertTrue(row.get("Extra").contains("Using index"), row.toString());
+            assertFalse(row.get("Extra").contains("filesort"), row.toString());
+        }
+        assertEquals(years.size(), perYear);
+        // the outer sort only sees years x limit ids, each joined back by primary key
+        assertTrue(plan.stream().anyMatch(r -> "a".equals(r.get("table")) && "PRIMARY".equals(r.get("key"))), plan.toString());
+    }
+
+    @Test
+    @DisplayName("Articles above N citations walk idx_articles_cited_by backwards, no filesort")
+    void cited_at_least() throws Exception {
+        int max;
+        try (PreparedStatement ps = cn.prepareStatement("SELECT MAX(cited_by) FROM articles");
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            max = rs.getInt(1);
+        }
+        Assumptions.assumeTrue(max > 0, "no article is cited");
+
+        Map<String, String> row = explain(ArticleRepository.CITED_AT_LEAST_SQL, max, 20).get(0);
+        assertEquals("idx_articles_cited_by", row.get("key"), row.toString());
+        assertEquals("range", row.get("type"), row.toString());
+        assertFalse(row.get("Extra").contains("filesort"), row.toString());
+
+        row = explain("SELECT COUNT(*) FROM articles WHERE cited_by >= ?", max).get(0);
+        assertEquals("idx_articles_cited_by", row.get("key"), row.toString());
+        assertTrue(row.get("Extra").contains("Using index"), row.toString());
+    }
+
+    private static List<Map<String, String>> explain(String sql, Object... params) throws Exception {
+        List<Map<String, String>> rows = new ArrayList<>();
+        try (PreparedStatement ps = cn.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < params.length; i++) ps.setObject(i + 1, params[i]);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Map<String, String> row = new LinkedHashMap<>();
+                    for (int c = 1; c <= rs.getMetaData().getColumnCount(); c++) {
+                        String v = rs.getString(c);
+                        row.put(rs.getMetaData().getColumnLabel(c), v == null ? "" : v);
+                    }
+                    rows.add(row);
+                }
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,108 @@
+package db;
+
+import model.ArticleRecord;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration-style test of the set-based merge (needs a database at V7 or later). Point DB_URL at
+ * MySQL as well as MariaDB: MySQL refuses statements that open one temporary table twice, MariaDB
+ * does not. Skipped unless DB_URL is set.
+ */
+public class BulkLoaderIT {
+
+    private static final String AUTHOR = "bulkLoaderIT";
+
+    private static Connection cn;
+
+    @BeforeAll
+    static void setup() throws Exception {
+        Assumptions.assumeTrue(System.getenv("DB_URL") != null, "DB_URL is not set; skipping bulk load checks.");
+        cn = DbConfig.openBulk();
+        Assumptions.assumeTrue(Migrations.currentVersion(cn) >= 7, "schema is older than V7; run `app.Main migrate`.");
+    }
+
+    @BeforeEach
+    void clean() throws Exception {
+        cleanUp();
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        if (cn == null) return;
+        cleanUp();
+        cn.close();
+    }
+
+    private static void cleanUp() throws Exception {
+        try (PreparedStatement ps = cn.prepareStatement("DELETE FROM articles WHERE link LIKE 'https://bulk-it/%'")) {
+            ps.executeUpdate();
+        }
+        try (PreparedStatement ps = cn.prepareStatement("DELETE FROM author_stats WHERE author_id = ?")) {
+            ps.setString(1, AUTHOR);
+            ps.executeUpdate();
+        }
+    }
+
+    private static ArticleRecord row(int i, Integer citedBy, String year) {
+        return new ArticleRecord(null, "Bulk IT " + i, "A, B", year, null, "https://bulk-it/" + i, null, citedBy);
+    }
+
+    private static BulkLoader.Report load(List<ArticleRecord> rows) throws Exception {
+        Iterator<ArticleRecord> it = rows.iterator();
+        return new BulkLoader(2, false).load(cn, () -> it.hasNext() ? it.next() : null, AUTHOR);
+    }
+
+    private static Integer citedBy(int i) throws Exception {
+        try (PreparedStatement ps = cn.prepareStatement("SELECT cited_by FROM articles WHERE link = ?")) {
+            ps.setString(1, "https://bulk-it/" + i);
+            try (ResultSet rs = ps.executeQuery()) {
+                assertTrue(rs.next());
+                return (Integer) rs.getObject(1);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A re-import updates stored rows, the last copy in a chunk winning, and links the author")
+    void reimport_updates() throws Exception {
+        BulkLoader.Report first = load(List.of(row(1, 1, "2020"), row(2, 2, "2021"), row(3, 3, "2022")));
+        assertEquals(3, first.getInserted());
+
+        // chunks of 2: rows 1 and 1 again share a chunk, so the second copy wins
+        BulkLoader.Report second = load(List.of(row(1, 10, "2020"), row(1, 11, "2020"), row(2, 2, "2021"), row(3, 30, "2022")));
+        assertEquals(0, second.getInserted());
+        assertEquals(2, second.getUpdated());
+        assertEquals(11, citedBy(1));
+        assertEquals(2, citedBy(2));
+        assertEquals(30, citedBy(3));
+        assertEquals(3, new ArticleRepository(null).countByAuthor(cn, AUTHOR));
+    }
+
+    @Test
+    @DisplayName("A key repeated in one chunk is inserted once, from its last copy")
+    void repeats_insert_once() throws Exception {
+        BulkLoader.Report report = load(List.of(row(4, 40, "2020"), row(4, 41, "2020")));
+        assertEquals(1, report.getInserted());
+        assertEquals(0, report.getUpdated());
+        assertEquals(1, report.getUnchanged());
+        assertEquals(41, citedBy(4));
+        try (PreparedStatement ps = cn.prepareStatement("SELECT COUNT(*) FROM articles WHERE link = 'https://bulk-it/4'");
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            assertEquals(1, rs.getInt(1));
+        }
+    }
+}
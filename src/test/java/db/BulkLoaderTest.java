@@ -0,0 +1,66 @@
+package db;
+
+import model.ArticleRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The client side of the bulk import: staging values and the LOAD DATA text stream. */
+public class BulkLoaderTest {
+
+    @Test
+    @DisplayName("TSV lines escape tabs, newlines and backslashes and write \\N for null")
+    void tsv_escaping() {
+        StringBuilder sb = new StringBuilder();
+        BulkLoader.appendTsv(sb, new String[]{"a\tb", "line1\nline2\r", "back\\slash", null, "", "nul\0"});
+        assertEquals("a\\tb\tline1\\nline2\\r\tback\\\\slash\t\\N\t\tnul\\0\n", sb.toString());
+    }
+
+    @Test
+    @DisplayName("Staged values carry the content key and tag keywords with the given author once")
+    void staged_values() {
+        ArticleRecord r = new ArticleRecord(9L, "Title", null, "2020", null, "https://x/9", "graphs", 3);
+        String[] v = BulkLoader.stagedValues(r, "AUTH1");
+        assertEquals("graphs,author:AUTH1", v[5]);
+        assertEquals("3", v[6]);
+        assertEquals(ContentKey.of("Title", "https://x/9"), v[7]);
+        assertEquals("AUTH1", v[8]);
+        assertEquals("2020", v[9]); // pub_year
+        assertNull(v[1]);
+
+        ArticleRecord tagged = new ArticleRecord(null, null, null, null, null, null, "author:AUTH1", null);
+        String[] t = BulkLoader.stagedValues(tagged, "AUTH1");
+        assertEquals("", t[0]); // title is NOT NULL
+        assertEquals("author:AUTH1", t[5]);
+        assertNull(t[6]);
+        assertNull(t[9]);
+        assertNull(BulkLoader.stagedValues(tagged, null)[8]);
+    }
+
+    @Test
+    @DisplayName("The stream pulls rows lazily across chunk boundaries and reports source failures")
+    void tsv_stream() throws Exception {
+        int[] next = {0};
+        BulkLoader.TsvStream in = new BulkLoader.TsvStream(() -> next[0] == 5_000 ? null
+                : new ArticleRecord(null, "Title é " + next[0]++, null, null, null, null, null, null), null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] small = new byte[777];
+        int n;
+        while ((n = in.read(small, 0, small.length)) != -1) out.write(small, 0, n);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(5_000, lines.length);
+        assertEquals(5_000, in.rows);
+        assertTrue(lines[4_999].startsWith("Title é 4999\t\\N\t"));
+
+        BulkLoader.TsvStream failing = new BulkLoader.TsvStream(() -> {
+            throw new IOException("bad line 3");
+        }, null);
+        assertThrows(IOException.class, failing::read);
+        assertEquals("bad line 3", failing.failure.getMessage());
+    }
+}
@@ -0,0 +1,142 @@
+package db;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Reuse, eviction, statement cache and return-to-pool hygiene against an in-memory H2 database. */
+public class ConnectionPoolTest {
+
+    private ConnectionPool pool;
+
+    private ConnectionPool pool(int maxSize, long idleTimeoutMs, long maxLifetimeMs, long acquireTimeoutMs) {
+        String url = "jdbc:h2:mem:pool-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        pool = new ConnectionPool(url, new Properties(), maxSize, idleTimeoutMs, maxLifetimeMs, acquireTimeoutMs, 8);
+        return pool;
+    }
+
+    @AfterEach
+    void close() {
+        if (pool != null) pool.close();
+    }
+
+    // the lease's toString names the physical connection behind it
+    private static String physical(Connection c) {
+        return c.toString();
+    }
+
+    @Test
+    @DisplayName("The connection returned last is handed out first")
+    void idle_lifo() throws Exception {
+        ConnectionPool p = pool(3, 60_000, 60_000, 1_000);
+        Connection a = p.getConnection();
+        Connection b = p.getConnection();
+        String first = physical(a), second = physical(b);
+        assertNotEquals(first, second);
+        a.close();
+        b.close();
+        assertTrue(b.isClosed());
+        assertThrows(SQLException.class, b::createStatement, "a returned lease is dead");
+
+        try (Connection c = p.getConnection()) {
+            assertEquals(second, physical(c));
+        }
+        ConnectionPool.Stats stats = p.stats();
+        assertEquals(2, stats.getCreated());
+        assertEquals(3, stats.getBorrows());
+        assertEquals(2, stats.getIdle());
+        assertEquals(0, stats.getActive());
+    }
+
+    @Test
+    @DisplayName("Connections past maxLifetime are replaced; idle ones are evicted after idleTimeout")
+    void lifetime_and_idle_eviction() throws Exception {
+        ConnectionPool old = pool(2, 60_000, 50, 1_000);
+        String first;
+        try (Connection c = old.getConnection()) {
+            first = physical(c);
+        }
+        Thread.sleep(80);
+        try (Connection c = old.getConnection()) {
+            assertNotEquals(first, physical(c));
+        }
+        assertEquals(2, old.stats().getCreated());
+        assertTrue(old.stats().getDestroyed() >= 1);
+        old.close();
+
+        ConnectionPool idle = pool(2, 100, 60_000, 1_000); // evictor runs every second
+        idle.getConnection().close();
+        assertEquals(1, idle.stats().getIdle());
+        long deadline = System.currentTimeMillis() + 3_000;
+        while (idle.stats().getIdle() > 0 && System.currentTimeMillis() < deadline) Thread.sleep(50);
+        assertEquals(0, idle.stats().getIdle());
+        assertEquals(1, idle.stats().getDestroyed());
+    }
+
+    @Test
+    @DisplayName("A prepared statement closed by one borrower is reused, cleared, by the next")
+    void statement_cache_hit() throws Exception {
+        ConnectionPool p = pool(1, 60_000, 60_000, 1_000);
+        try (Connection c = p.getConnection(); PreparedStatement ps = c.prepareStatement("SELECT ?")) {
+            ps.setInt(1, 7);
+            try (ResultSet rs = ps.executeQuery()) {
+                assertTrue(rs.next());
+            }
+        }
+        try (Connection c = p.getConnection(); PreparedStatement ps = c.prepareStatement("SELECT ?")) {
+            assertThrows(SQLException.class, ps::executeQuery, "parameters were cleared on return");
+            ps.setInt(1, 8);
+            try (ResultSet rs = ps.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals(8, rs.getInt(1));
+            }
+        }
+        ConnectionPool.Stats stats = p.stats();
+        assertEquals(1, stats.getStatementHits());
+        assertEquals(1, stats.getStatementMisses());
+        assertEquals(1, stats.getCreated());
+    }
+
+    @Test
+    @DisplayName("An open transaction is rolled back when its connection is returned")
+    void rollback_on_return() throws Exception {
+        ConnectionPool p = pool(1, 60_000, 60_000, 1_000);
+        try (Connection c = p.getConnection(); Statement st = c.createStatement()) {
+            st.execute("CREATE TABLE t (id INT PRIMARY KEY)");
+        }
+        try (Connection c = p.getConnection(); Statement st = c.createStatement()) {
+            c.setAutoCommit(false);
+            st.executeUpdate("INSERT INTO t VALUES (1)");
+            // returned without commit
+        }
+        try (Connection c = p.getConnection(); Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM t")) {
+            assertTrue(c.getAutoCommit());
+            rs.next();
+            assertEquals(0, rs.getInt(1));
+        }
+        assertEquals(1, p.stats().getCreated(), "same physical connection throughout");
+    }
+
+    @Test
+    @DisplayName("A borrower times out when every connection is taken")
+    void acquire_timeout() throws Exception {
+        ConnectionPool p = pool(1, 60_000, 60_000, 50);
+        try (Connection held = p.getConnection()) {
+            SQLException e = assertThrows(SQLException.class, p::getConnection);
+            assertTrue(e.getMessage().startsWith("Timed out after 50 ms"), e.getMessage());
+        }
+        assertEquals(1, p.stats().getTimeouts());
+        p.getConnection().close();
+    }
+}
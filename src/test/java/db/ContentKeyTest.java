@@ -0,0 +1,26 @@
+package db;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContentKeyTest {
+
+    @Test
+    @DisplayName("Case and whitespace differences map to the same key")
+    void normalized_copies_share_a_key() {
+        String a = ContentKey.of("Deep  Learning\tfor Graphs ", "https://scholar.google.com/x?id=1");
+        String b = ContentKey.of("deep learning for graphs", " https://scholar.google.com/x?id=1");
+        assertEquals(a, b);
+        assertEquals(64, a.length());
+    }
+
+    @Test
+    @DisplayName("Title and link both take part in the key")
+    void title_and_link_are_distinct() {
+        assertNotEquals(ContentKey.of("A", "l1"), ContentKey.of("A", "l2"));
+        assertNotEquals(ContentKey.of("A B", ""), ContentKey.of("A", "B"));
+        assertEquals(ContentKey.of(null, null), ContentKey.of("", " "));
+    }
+}
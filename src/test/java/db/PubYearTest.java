@@ -0,0 +1,28 @@
+package db;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PubYearTest {
+
+    @Test
+    @DisplayName("The leading four-digit year of a free-text date is its pub_year")
+    void leading_year() {
+        assertEquals(2019, PubYear.of("2019"));
+        assertEquals(2019, PubYear.of(" 2019/5/1"));
+        assertEquals(1998, PubYear.of("1998 - Nature"));
+    }
+
+    @Test
+    @DisplayName("Blank, non-year and longer numbers have no pub_year")
+    void no_year() {
+        assertNull(PubYear.of(null));
+        assertNull(PubYear.of(""));
+        assertNull(PubYear.of("201"));
+        assertNull(PubYear.of("20190"));
+        assertNull(PubYear.of("0999"));
+        assertNull(PubYear.of("May 2019"));
+    }
+}
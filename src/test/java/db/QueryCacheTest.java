@@ -0,0 +1,147 @@
+package db;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Hits, invalidation and admission of the query cache (no database). */
+public class QueryCacheTest {
+
+    private static final String[] A = {"author:a"};
+    private static final String[] B = {"author:b"};
+
+    private static String get(QueryCache cache, String key, String[] tags, String value, AtomicInteger loads) throws Exception {
+        return cache.get(key, tags, () -> {
+            loads.incrementAndGet();
+            return value;
+        }, v -> 100);
+    }
+
+    @Test
+    @DisplayName("A repeated query is served from the cache; invalidating its tag reloads only that query")
+    void hit_and_invalidate() throws Exception {
+        QueryCache cache = new QueryCache(10_000, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals("a1", get(cache, "byAuthor:a", A, "a1", loads));
+        assertEquals("a1", get(cache, "byAuthor:a", A, "a2", loads));
+        get(cache, "byAuthor:b", B, "b1", loads);
+        assertEquals(2, loads.get());
+
+        cache.invalidate("author:a");
+        assertEquals("a2", get(cache, "byAuthor:a", A, "a2", loads));
+        assertEquals("b1", get(cache, "byAuthor:b", B, "b2", loads));
+        assertEquals(3, loads.get());
+
+        QueryCache.Stats stats = cache.stats();
+        assertEquals(2, stats.getHits());
+        assertEquals(3, stats.getMisses());
+        assertEquals(1, stats.getInvalidations());
+        assertEquals(0.4, stats.getHitRatio(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("A load that overlaps an invalidation of its tag is returned but not stored")
+    void stale_load_not_stored() throws Exception {
+        QueryCache cache = new QueryCache(10_000, 60_000);
+        String loaded = cache.get("byAuthor:a", A, () -> {
+            cache.invalidate("author:a"); // a writer commits while the query runs
+            return "before commit";
+        }, v -> 100);
+        assertEquals("before commit", loaded);
+        assertEquals(0, cache.stats().getEntries());
+
+        long stamp = cache.stamp(A);
+        cache.invalidateAll();
+        cache.putIfUnchanged("byAuthor:a", A, "before clear", 100, stamp);
+        assertNull(cache.peek("byAuthor:a"));
+    }
+
+    @Test
+    @DisplayName("When full, a rarely asked query does not evict a popular one; a more popular one does")
+    void frequency_admission() throws Exception {
+        QueryCache cache = new QueryCache(400, 60_000); // room for four 100-byte entries
+        AtomicInteger loads = new AtomicInteger();
+        for (int k = 1; k <= 4; k++) {
+            for (int i = 0; i < 5; i++) get(cache, "hot" + k, A, "h" + k, loads);
+        }
+
+        get(cache, "once", B, "o", loads);
+        assertEquals(1, cache.stats().getRejected());
+        assertNull(cache.peek("once"));
+
+        for (int i = 0; i < 8; i++) get(cache, "rising", B, "r", loads);
+        assertEquals(1, cache.stats().getEvictions());
+        assertEquals("r", cache.peek("rising"));
+        assertNull(cache.peek("hot1"), "the least recently used entry was evicted");
+        assertEquals("h2", cache.peek("hot2"));
+        assertEquals(400, cache.stats().getBytes());
+    }
+
+    @Test
+    @DisplayName("A rejected result evicts nothing, even when the first victim alone was less popular")
+    void rejection_keeps_entries() throws Exception {
+        QueryCache cache = new QueryCache(800, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+        get(cache, "cold", A, "c", loads);
+        for (int k = 1; k <= 7; k++) {
+            for (int i = 0; i < 5; i++) get(cache, "hot" + k, A, "h" + k, loads);
+        }
+        for (int i = 0; i < 3; i++) { // 200 bytes: would need "cold" and "hot1" to go
+            cache.get("wide", B, () -> "w", v -> 200);
+        }
+        QueryCache.Stats stats = cache.stats();
+        assertEquals(3, stats.getRejected());
+        assertEquals(0, stats.getEvictions());
+        assertEquals(800, stats.getBytes());
+        assertEquals("c", cache.peek("cold"));
+    }
+
+    @Test
+    @DisplayName("Tag versions stay bounded, and a load overlapping a forgotten invalidation is still not stored")
+    void tag_versions_bounded() throws Exception {
+        QueryCache cache = new QueryCache(10_000, 60_000);
+        long stamp = cache.stamp(A);
+        cache.invalidate("author:a");
+        for (int i = 0; i < QueryCache.MAX_TAG_VERSIONS + 10; i++) cache.invalidate("author:other" + i);
+        assertTrue(cache.trackedTags() <= QueryCache.MAX_TAG_VERSIONS);
+
+        cache.putIfUnchanged("byAuthor:a", A, "stale", 100, stamp);
+        assertNull(cache.peek("byAuthor:a"));
+        cache.putIfUnchanged("byAuthor:a", A, "fresh", 100, cache.stamp(A));
+        assertEquals("fresh", cache.peek("byAuthor:a"));
+
+        long before = cache.stamp(B);
+        cache.invalidate("author:a");
+        assertEquals(before, cache.stamp(B), "other tags' stamps do not move");
+    }
+
+    @Test
+    @DisplayName("A result larger than a quarter of the budget is not stored")
+    void oversized() throws Exception {
+        QueryCache cache = new QueryCache(399, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+        get(cache, "big", A, "v", loads);
+        get(cache, "big", A, "v", loads);
+        assertEquals(2, loads.get());
+        assertEquals(2, cache.stats().getRejected());
+    }
+
+    @Test
+    @DisplayName("Entries expire after the TTL; a zero budget disables the cache")
+    void ttl_and_disabled() throws Exception {
+        QueryCache cache = new QueryCache(10_000, 0);
+        AtomicInteger loads = new AtomicInteger();
+        get(cache, "k", A, "v", loads);
+        get(cache, "k", A, "v", loads);
+        assertEquals(2, loads.get());
+
+        QueryCache off = new QueryCache(0, 60_000);
+        get(off, "k", A, "v", loads);
+        get(off, "k", A, "v", loads);
+        assertEquals(4, loads.get());
+        assertEquals(0, off.stats().getMisses());
+    }
+}
@@ -0,0 +1,164 @@
+package export;
+
+import db.ArticleRepository;
+import model.ArticleRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Export encodings (both directions) and checkpoint / resume, against generated rows (no database). */
+public class ExportJobTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("NDJSON and CSV escape quotes, separators, newlines and control characters")
+    void formats_escape() throws Exception {
+        ArticleRecord r = new ArticleRecord(5L, "Say \"hi\", then\nleave", "A, B", null,
+                "tab\there \u0001", "https://x/5", "author:a", null);
+
+        StringWriter json = new StringWriter();
+        ExportFormat.NDJSON.writeRow(json, r);
+        assertEquals("{\"id\":5,\"title\":\"Say \\\"hi\\\", then\\nleave\",\"authors\":\"A, B\",\"publication_date\":null,"
+                + "\"abstract\":\"tab\\there \\u0001\",\"link\":\"https://x/5\",\"keywords\":\"author:a\",\"cited_by\":null}\n",
+                json.toString());
+
+        StringWriter csv = new StringWriter();
+        ExportFormat.CSV.writeRow(csv, r);
+        assertEquals("5,\"Say \"\"hi\"\", then\nleave\",\"A, B\",,tab\there \u0001,https://x/5,author:a,\r\n", csv.toString());
+
+        assertEquals(ExportFormat.CSV, ExportFormat.forFile("snap.CSV.gz"));
+        assertEquals(ExportFormat.NDJSON, ExportFormat.forFile("snap.ndjson.gz"));
+    }
+
+    @Test
+    @DisplayName("Both formats read back what they wrote (bulk import input)")
+    void formats_read_back() throws Exception {
+        ArticleRecord[] rows = {
+                new ArticleRecord(1L, "Say \"hi\", then\r\nleave", "A, B", "2019", "Résumé ∑  ", "https://x/1", "author:a", 12),
+                new ArticleRecord(2L, "Plain", null, null, null, null, null, null)
+        };
+        for (ExportFormat format : ExportFormat.values()) {
+            StringWriter out = new StringWriter();
+            format.writeHeader(out);
+            for (ArticleRecord r : rows) format.writeRow(out, r);
+            out.write("\n"); // trailing blank line is ignored
+
+            try (ExportFormat.RowReader in = format.reader(new StringReader(out.toString()))) {
+                for (ArticleRecord r : rows) {
+                    ArticleRecord back = in.next();
+                    assertEquals(r.getId(), back.getId(), format.name());
+                    assertEquals(r.getTitle(), back.getTitle(), format.name());
+                    assertEquals(r.getAuthors(), back.getAuthors(), format.name());
+                    assertEquals(r.getPublicationDate(), back.getPublicationDate(), format.name());
+                    assertEquals(r.getAbstractText(), back.getAbstractText(), format.name());
+                    assertEquals(r.getLink(), back.getLink(), format.name());
+                    assertEquals(r.getKeywords(), back.getKeywords(), format.name());
+                    assertEquals(r.getCitedBy(), back.getCitedBy(), format.name());
+                }
+                assertNull(in.next(), format.name());
+            }
+        }
+
+        // CSV columns are matched by name
+        ExportFormat.RowReader csv = ExportFormat.CSV.reader(new StringReader("cited_by,extra,title\n5,x,\"T, 1\"\n"));
+        ArticleRecord r = csv.next();
+        assertEquals("T, 1", r.getTitle());
+        assertEquals(5, r.getCitedBy());
+        assertNull(r.getId());
+        assertNull(csv.next());
+    }
+
+    @Test
+    @DisplayName("An interrupted gzip CSV export resumes from its checkpoint into the same bytes as an uninterrupted one")
+    void resume_after_failure() throws Exception {
+        ExportJob.Options options = new ExportJob.Options().format(ExportFormat.CSV).gzip(true).checkpointRows(300);
+
+        Path straight = dir.resolve("straight.csv.gz");
+        ExportJob.Report full = new ExportJob(options).run(new Rows(1_000, -1), straight, false);
+        assertEquals(1_000, full.getRows());
+        assertEquals(1_000, full.getLastId());
+
+        Path target = dir.resolve("snap.csv.gz");
+        ExportJob job = new ExportJob(options);
+        assertThrows(IOException.class, () -> job.run(new Rows(1_000, 750), target, true));
+        assertFalse(Files.exists(target));
+        assertTrue(Files.exists(ExportSink.partFile(target)));
+        assertTrue(Files.exists(ExportJob.checkpointFile(target)));
+
+        ExportJob.Report resumed = job.run(new Rows(1_000, -1), target, true);
+        assertTrue(resumed.isResumed());
+        assertEquals(1_000, resumed.getRows());
+        assertEquals(400, resumed.getWrittenRows()); // last checkpoint was at row 600
+        assertFalse(Files.exists(ExportSink.partFile(target)));
+        assertFalse(Files.exists(ExportJob.checkpointFile(target)));
+
+        String text = gunzip(target);
+        assertEquals(gunzip(straight), text);
+        assertTrue(text.startsWith("id,title,"));
+        assertEquals(1_001, text.split("\r\n").length);
+    }
+
+    @Test
+    @DisplayName("Resuming with different options is refused; the id range bounds the rows")
+    void resume_mismatch_and_range() throws Exception {
+        Path target = dir.resolve("snap.ndjson");
+        ExportJob.Options options = new ExportJob.Options().checkpointRows(10);
+        assertThrows(IOException.class, () -> new ExportJob(options).run(new Rows(100, 50), target, false));
+        assertThrows(IllegalStateException.class,
+                () -> new ExportJob(new ExportJob.Options().gzip(true)).run(new Rows(100, -1), target, true));
+
+        ExportJob.Report report = new ExportJob(new ExportJob.Options().fromId(20).toId(29L)).run(new Rows(100, -1), target, false);
+        assertEquals(10, report.getRows());
+        String[] lines = Files.readString(target).split("\n");
+        assertEquals(10, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":20,"));
+        assertTrue(lines[9].startsWith("{\"id\":29,"));
+    }
+
+    private static String gunzip(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            in.transferTo(out);
+            return out.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    /** Ids 1..count; fails with an IOException on id failAt (when > 0). */
+    private static final class Rows implements ExportJob.Source {
+        private final long count;
+        private final long failAt;
+
+        Rows(long count, long failAt) {
+            this.count = count;
+            this.failAt = failAt;
+        }
+
+        @Override
+        public long maxId() {
+            return count;
+        }
+
+        @Override
+        public void stream(long afterId, long toId, ArticleRepository.RowHandler handler) throws Exception {
+            for (long id = afterId + 1; id <= Math.min(toId, count); id++) {
+                if (id == failAt) throw new IOException("connection lost");
+                handler.accept(new ArticleRecord(id, "Title " + id + (id % 7 == 0 ? ", with comma" : ""),
+                        "Author " + (id % 3), "2020", "Abstract é " + id, "https://x/" + id, "author:a", (int) id));
+            }
+        }
+    }
+}
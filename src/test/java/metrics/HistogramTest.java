@@ -0,0 +1,41 @@
+package metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HistogramTest {
+
+    @Test
+    @DisplayName("Percentiles are within bucket precision of the exact values")
+    void percentiles_within_precision() {
+        Histogram h = new Histogram();
+        for (long v = 1; v <= 100_000; v++) h.record(v * 1_000); // 1 µs .. 100 ms in ns
+
+        assertEquals(100_000, h.getCount());
+        assertEquals(100_000_000L, h.getMax());
+        assertWithin(50_000_000L, h.percentile(50));
+        assertWithin(99_000_000L, h.percentile(99));
+        assertEquals(h.getMax(), h.percentile(100));
+        assertEquals(50_000_500.0, h.getMean(), 1.0);
+    }
+
+    @Test
+    @DisplayName("Bucket index and bound are consistent across the whole range")
+    void buckets_cover_range() {
+        for (long v : new long[]{0, 1, 31, 32, 63, 64, 65, 1_000, 123_456_789L, Long.MAX_VALUE}) {
+            int i = Histogram.indexOf(v);
+            assertTrue(Histogram.upperBound(i) >= v, "bound of " + v);
+            if (i > 0) assertTrue(Histogram.upperBound(i - 1) < v, "previous bound of " + v);
+        }
+        Histogram h = new Histogram();
+        assertEquals(0, h.percentile(99));
+        h.record(7);
+        assertEquals(7, h.percentile(50));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected * 0.035, "expected ~" + expected + " but was " + actual);
+    }
+}
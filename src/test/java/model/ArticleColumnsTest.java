@@ -0,0 +1,61 @@
+package model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Round trips through the columnar row store. */
+public class ArticleColumnsTest {
+
+    @Test
+    @DisplayName("Values, nulls and non-ASCII text survive the encoding")
+    void round_trip() {
+        ArticleColumns c = new ArticleColumns(2);
+        c.add(new ArticleRecord(7L, "Théorie des ensembles ∑", "A Author, B Author", "2019",
+                "Résumé", "https://x/7", "author:abc", 42));
+        c.add(new ArticleRecord(8L, "", null, null, null, null, null, null));
+        c.add(new ArticleRecord(9L, "Third", "A Author, B Author", "2019", "", "https://x/9", "author:abc", 0));
+
+        assertEquals(3, c.size());
+        ArticleRecord first = c.get(0);
+        assertEquals(7L, first.getId());
+        assertEquals("Théorie des ensembles ∑", first.getTitle());
+        assertEquals("Résumé", first.getAbstractText());
+        assertEquals(42, first.getCitedBy());
+
+        assertEquals("", c.getTitle(1));
+        assertNull(c.getAuthors(1));
+        assertNull(c.getAbstractText(1));
+        assertNull(c.getLink(1));
+        assertNull(c.getCitedBy(1));
+
+        assertEquals("", c.getAbstractText(2));
+        assertEquals(0, c.getCitedBy(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> c.getTitle(3));
+    }
+
+    @Test
+    @DisplayName("Repeated authors / keywords / dates are stored once; growth and trim keep every row")
+    void dictionary_and_growth() {
+        ArticleColumns c = new ArticleColumns(16);
+        for (int i = 0; i < 1_000; i++) {
+            c.add(i, "Title " + i, "Author " + (i % 5), Integer.toString(2000 + i % 20),
+                    null, "https://x/" + i, "author:a" + (i % 3), (i % 7 == 0) ? null : i);
+        }
+        c.trim();
+        c.add(1_000, "After trim", "Author 1", "2001", null, null, "author:a1", 1);
+
+        assertArrayEquals(new int[]{5, 3, 20}, c.dictionarySizes());
+        assertEquals(1_001, c.size());
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(i, c.getId(i));
+            assertEquals("Title " + i, c.getTitle(i));
+            assertEquals("Author " + (i % 5), c.getAuthors(i));
+            assertEquals("author:a" + (i % 3), c.getKeywords(i));
+            assertEquals((i % 7 == 0) ? null : Integer.valueOf(i), c.getCitedBy(i));
+        }
+        assertEquals("After trim", c.getTitle(1_000));
+        assertEquals("Author 1", c.getAuthors(1_000));
+    }
+}
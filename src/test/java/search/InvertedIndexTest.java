@@ -0,0 +1,80 @@
+package search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tokenizer rules, compressed postings and ranking of the in-memory search index. */
+public class InvertedIndexTest {
+
+    private static List<Long> ids(List<InvertedIndex.Hit> hits) {
+        List<Long> out = new ArrayList<>();
+        for (InvertedIndex.Hit h : hits) out.add(h.getArticleId());
+        return out;
+    }
+
+    @Test
+    @DisplayName("Tokenizer lower-cases, folds accents and drops short words and stopwords")
+    void tokenizer() {
+        assertEquals(List.of("deep", "learning", "universite", "2019"),
+                Tokenizer.tokens("Deep-Learning at the Université (2019), AI"));
+        assertTrue(Tokenizer.tokens("of to a").isEmpty());
+        assertTrue(Tokenizer.tokens(null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Postings round-trip through varint gaps, including large gaps and frequencies")
+    void postings_round_trip() {
+        PostingList p = new PostingList();
+        int[] docs = {0, 1, 127, 128, 20_000, 3_000_000};
+        for (int d : docs) p.add(d, d % 300 + 1);
+        p.trim();
+
+        PostingList.Cursor c = p.cursor();
+        for (int d : docs) {
+            assertTrue(c.next());
+            assertEquals(d, c.doc());
+            assertEquals(d % 300 + 1, c.tf());
+        }
+        assertFalse(c.next());
+
+        PostingList.Cursor skip = p.cursor();
+        assertTrue(skip.advance(129));
+        assertEquals(20_000, skip.doc());
+        assertFalse(skip.advance(3_000_001));
+        assertThrows(IllegalArgumentException.class, () -> p.add(5, 1));
+    }
+
+    @Test
+    @DisplayName("Queries match all terms; title hits outrank abstract-only hits")
+    void and_semantics_and_ranking() {
+        InvertedIndex index = new InvertedIndex();
+        index.add(1, "Graph neural networks", "A survey of message passing.", 50);
+        index.add(2, "Protein folding", "We apply graph neural networks to protein structure.", 500);
+        index.add(3, "Neural machine translation", null, 900);
+        index.add(4, "Graph databases", "Storage engines for graphs.", 10);
+
+        assertEquals(List.of(1L, 2L), ids(index.search("graph neural", false, 10, 0)));
+        assertEquals(List.of(2L, 1L), ids(index.search("graph neural", true, 10, 0)));
+        assertEquals(List.of(3L, 2L, 1L), ids(index.search("NEURAL", true, 10, 0)));
+        assertTrue(index.search("graph quantum", false, 10, 0).isEmpty());
+        assertTrue(index.search("the of", false, 10, 0).isEmpty());
+    }
+
+    @Test
+    @DisplayName("limit and offset page through the ranked hits")
+    void paging() {
+        InvertedIndex index = new InvertedIndex();
+        for (int i = 1; i <= 50; i++) index.add(i * 10L, "Sparse matrix paper " + i, null, i);
+
+        assertEquals(List.of(500L, 490L, 480L), ids(index.search("sparse matrix", true, 3, 0)));
+        assertEquals(List.of(470L, 460L, 450L), ids(index.search("sparse matrix", true, 3, 3)));
+        assertEquals(List.of(10L), ids(index.search("sparse", true, 5, 49)));
+        assertEquals(500L, index.lastId());
+        assertThrows(IllegalArgumentException.class, () -> index.add(20, "late", null, 0));
+    }
+}
@@ -0,0 +1,116 @@
+package server;
+
+import db.ArticleRepository;
+import db.DbConfig;
+import db.Migrations;
+import model.Article;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration-style test (needs a database at V9 with at least two articles): paging, gzip and
+ * conditional requests against a server on a free port. Skipped unless DB_URL is set.
+ */
+public class ArticleServerIT {
+
+    private static final String ETAG_TITLE = "ArticleServerIT etag probe";
+
+    private static ArticleServer server;
+    private static final HttpClient HTTP = HttpClient.newHttpClient();
+
+    @BeforeAll
+    static void setup() throws Exception {
+        Assumptions.assumeTrue(System.getenv("DB_URL") != null, "DB_URL is not set; skipping server checks.");
+        try (Connection cn = DbConfig.get()) {
+            Assumptions.assumeTrue(Migrations.currentVersion(cn) >= 9, "schema is older than V9; run `app.Main migrate`.");
+        }
+        server = ArticleServer.start(new ArticleServer.Options().port(0));
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        if (server == null) return;
+        server.close();
+        try (Connection cn = DbConfig.get();
+             PreparedStatement ps = cn.prepareStatement("DELETE FROM articles WHERE title = ?")) {
+            ps.setString(1, ETAG_TITLE);
+            ps.executeUpdate();
+        }
+    }
+
+    private static HttpResponse<InputStream> get(String path, String... headers) throws Exception {
+        HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(server.baseUrl() + path));
+        if (headers.length > 0) b.headers(headers);
+        return HTTP.send(b.build(), HttpResponse.BodyHandlers.ofInputStream());
+    }
+
+    @Test
+    @DisplayName("A page links to the next one; gzip is used when accepted")
+    void paging_and_gzip() throws Exception {
+        HttpResponse<InputStream> first = get("/articles?limit=1", "Accept-Encoding", "gzip");
+        assertEquals(200, first.statusCode());
+        assertEquals("gzip", first.headers().firstValue("Content-Encoding").orElse(null));
+        String body;
+        try (InputStream in = new GZIPInputStream(first.body())) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertTrue(body.startsWith("{\"articles\":["), body);
+        assertTrue(body.contains("\"count\":1,\"next\":\"/articles?before="), body);
+
+        String next = body.substring(body.indexOf("/articles?before="), body.lastIndexOf('"'));
+        HttpResponse<InputStream> second = get(next);
+        assertEquals(200, second.statusCode());
+        String page2 = new String(second.body().readAllBytes(), StandardCharsets.UTF_8);
+        assertNotEquals(body.substring(0, 40), page2.substring(0, 40));
+    }
+
+    @Test
+    @DisplayName("A current ETag gets 304 with no body")
+    void conditional() throws Exception {
+        HttpResponse<InputStream> first = get("/articles?limit=5");
+        first.body().close();
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+        assertTrue(etag.startsWith("W/\""), etag);
+
+        HttpResponse<InputStream> again = get("/articles?limit=5", "If-None-Match", etag);
+        assertEquals(304, again.statusCode());
+        assertEquals(0, again.body().readAllBytes().length);
+        assertEquals(200, get("/articles?limit=5", "If-None-Match", "W/\"stale\"").statusCode());
+
+        // two saves within the same second: each must change the ETag
+        ArticleRepository repo = new ArticleRepository(null);
+        String previous = etag;
+        for (int cited = 1; cited <= 2; cited++) {
+            try (Connection cn = DbConfig.get()) {
+                repo.save(cn, new Article(ETAG_TITLE, "2024", cited), null);
+            }
+            HttpResponse<InputStream> changed = get("/articles?limit=5", "If-None-Match", previous);
+            changed.body().close();
+            assertEquals(200, changed.statusCode(), "save " + cited + " changed the data");
+            previous = changed.headers().firstValue("ETag").orElseThrow();
+        }
+    }
+
+    @Test
+    @DisplayName("Bad parameters and unknown paths are answered with JSON errors")
+    void errors() throws Exception {
+        assertEquals(400, get("/articles?limit=0").statusCode());
+        assertEquals(400, get("/search").statusCode());
+        assertEquals(404, get("/authors/x").statusCode());
+    }
+}
@@ -0,0 +1,146 @@
+package server;
+
+import com.sun.net.httpserver.HttpServer;
+import model.ArticleRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Response body, conditional requests and status codes without a database. */
+public class ArticleServerTest {
+
+    private static final HttpClient HTTP = HttpClient.newHttpClient();
+
+    private HttpServer plain;
+    private ArticleServer server;
+
+    @AfterEach
+    void stop() {
+        if (plain != null) plain.stop(0);
+        if (server != null) server.close();
+        server = null;
+    }
+
+    private static HttpResponse<byte[]> send(String url, String method, String... headers) throws Exception {
+        HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(url)).method(method, HttpRequest.BodyPublishers.noBody());
+        if (headers.length > 0) b.headers(headers);
+        return HTTP.send(b.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String text(HttpResponse<byte[]> res) {
+        return new String(res.body(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("If-None-Match compares weakly and accepts lists and *")
+    void etag_matching() {
+        String etag = "W/\"p42-1000\"";
+        assertTrue(ArticleServer.matches("W/\"p42-1000\"", etag));
+        assertTrue(ArticleServer.matches("\"p42-1000\"", etag));
+        assertTrue(ArticleServer.matches("\"x\", W/\"p42-1000\"", etag));
+        assertTrue(ArticleServer.matches("*", etag));
+        assertFalse(ArticleServer.matches("W/\"p43-1000\"", etag));
+        assertFalse(ArticleServer.matches("p42-1000", etag), "unquoted is a different tag");
+    }
+
+    @Test
+    @DisplayName("JsonBody writes the rows, count and next link, gzipped when accepted; 304 and HEAD send no body")
+    void json_body() throws Exception {
+        plain = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        plain.createContext("/rows", ex -> {
+            try {
+                if (ArticleServer.notModified(ex, "p7")) return;
+                try (ArticleServer.JsonBody out = ArticleServer.JsonBody.open(ex)) {
+                    if (out == null) return;
+                    out.begin();
+                    out.row(new ArticleRecord(1L, "Say \"hi\"", "A, B", "2021", null, "https://x/1", "author:a", 5));
+                    out.row(new ArticleRecord(2L, "Two\nlines", null, null, "abs", null, null, null));
+                    out.end(2, "/rows?before=2");
+                }
+            } finally {
+                ex.close();
+            }
+        });
+        plain.start();
+        String url = "http://127.0.0.1:" + plain.getAddress().getPort() + "/rows";
+        String expected = "{\"articles\":[" +
+                "\n{\"id\":1,\"title\":\"Say \\\"hi\\\"\",\"authors\":\"A, B\",\"publication_date\":\"2021\",\"abstract\":null," +
+                "\"link\":\"https://x/1\",\"keywords\":\"author:a\",\"cited_by\":5}" +
+                ",\n{\"id\":2,\"title\":\"Two\\nlines\",\"authors\":null,\"publication_date\":null,\"abstract\":\"abs\"," +
+                "\"link\":null,\"keywords\":null,\"cited_by\":null}" +
+                "\n],\"count\":2,\"next\":\"/rows?before=2\"}\n";
+
+        HttpResponse<byte[]> identity = send(url, "GET");
+        assertEquals(200, identity.statusCode());
+        assertEquals("application/json; charset=utf-8", identity.headers().firstValue("Content-Type").orElse(null));
+        assertEquals("W/\"p7\"", identity.headers().firstValue("ETag").orElse(null));
+        assertEquals(expected, text(identity));
+
+        HttpResponse<byte[]> gzip = send(url, "GET", "Accept-Encoding", "gzip");
+        assertEquals("gzip", gzip.headers().firstValue("Content-Encoding").orElse(null));
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip.body()))) {
+            assertEquals(expected, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        HttpResponse<byte[]> current = send(url, "GET", "If-None-Match", "W/\"p7\"");
+        assertEquals(304, current.statusCode());
+        assertEquals(0, current.body().length);
+        assertEquals(200, send(url, "GET", "If-None-Match", "W/\"p6\"").statusCode());
+
+        HttpResponse<byte[]> head = send(url, "HEAD");
+        assertEquals(200, head.statusCode());
+        assertEquals(0, head.body().length);
+    }
+
+    @Test
+    @DisplayName("Bad methods, paths and parameters get 405/404/400 before any query; pool timeouts 503, failures 500")
+    void status_codes() throws Exception {
+        // routes validate before they use the connection, so none is needed here
+        server = ArticleServer.start(new ArticleServer.Options().port(0).limits(10, 50), () -> null);
+        String base = server.baseUrl();
+
+        HttpResponse<byte[]> post = send(base + "/articles", "POST");
+        assertEquals(405, post.statusCode());
+        assertEquals("GET, HEAD", post.headers().firstValue("Allow").orElse(null));
+        assertEquals(404, send(base + "/articles/1", "GET").statusCode());
+        assertEquals(404, send(base + "/authors/a", "GET").statusCode());
+        assertEquals(404, send(base + "/authors/a/b/articles", "GET").statusCode());
+
+        HttpResponse<byte[]> tooMany = send(base + "/articles?limit=51", "GET");
+        assertEquals(400, tooMany.statusCode());
+        assertEquals("{\"error\":\"limit must be 1..50\"}\n", text(tooMany));
+        assertEquals(400, send(base + "/articles?before=x", "GET").statusCode());
+        assertEquals(400, send(base + "/search", "GET").statusCode());
+        assertEquals(400, send(base + "/search?q=x&offset=-1", "GET").statusCode());
+        HttpResponse<byte[]> huge = send(base + "/search?q=x&offset=4294967296", "GET"); // would wrap to 0 as an int cast
+        assertEquals(400, huge.statusCode());
+        assertEquals("{\"error\":\"offset must be a number up to 2147483647\"}\n", text(huge));
+        stop();
+
+        server = ArticleServer.start(new ArticleServer.Options().port(0), () -> {
+            throw new SQLException("Timed out after 5000 ms waiting for a connection");
+        });
+        HttpResponse<byte[]> busy = send(server.baseUrl() + "/articles", "GET");
+        assertEquals(503, busy.statusCode());
+        assertEquals("{\"error\":\"Database busy, retry later\"}\n", text(busy));
+        stop();
+
+        server = ArticleServer.start(new ArticleServer.Options().port(0), () -> {
+            throw new SQLException("Communications link failure");
+        });
+        assertEquals(500, send(server.baseUrl() + "/articles", "GET").statusCode());
+    }
+}
@@ -0,0 +1,130 @@
+package service;
+
+import com.sun.net.httpserver.HttpServer;
+import model.Article;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Paging, prefetch, fallback and cancellation against a local profile of `total` articles. */
+public class ArticlePagerTest {
+
+    private HttpServer server;
+    private final Map<Integer, AtomicInteger> hits = new ConcurrentHashMap<>();
+    private final AtomicInteger answered = new AtomicInteger();
+
+    /** Pages after the first wait delayMs; failStart answers 503 the first time it is asked for. */
+    private ScholarAuthorClient client(int total, long delayMs, int failStart) throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/search", ex -> {
+            Map<String, String> q = Stream.of(ex.getRequestURI().getRawQuery().split("&"))
+                    .map(p -> p.split("=", 2)).collect(Collectors.toMap(p -> p[0], p -> p[1]));
+            int start = Integer.parseInt(q.get("start"));
+            int num = Integer.parseInt(q.get("num"));
+            int hit = hits.computeIfAbsent(start, k -> new AtomicInteger()).incrementAndGet();
+            try {
+                if (start > 0) Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            StringBuilder json = new StringBuilder("{\"author\":{\"name\":\"X\"},\"articles\":[");
+            for (int i = start; i < Math.min(total, start + num); i++) {
+                json.append(i > start ? "," : "").append("{\"title\":\"t").append(i).append("\"}");
+            }
+            int status = (start == failStart && hit == 1) ? 503 : 200;
+            byte[] body = json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+            try {
+                ex.sendResponseHeaders(status, body.length);
+                try (OutputStream out = ex.getResponseBody()) {
+                    out.write(body);
+                }
+                answered.incrementAndGet();
+            } catch (IOException e) {
+                // the client aborted the exchange
+            }
+        });
+        server.start();
+        return new ScholarAuthorClient("test", null, "http://127.0.0.1:" + server.getAddress().getPort() + "/search",
+                new ScholarAuthorClient.Options().backoffMs(1, 5));
+    }
+
+    @AfterEach
+    void stop() {
+        if (server != null) server.stop(0);
+    }
+
+    private static List<String> titles(Stream<Article> articles) {
+        try (articles) {
+            return articles.map(Article::getTitle).toList();
+        }
+    }
+
+    private static void awaitIdle(ScholarAuthorClient client, long withinMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + withinMs;
+        while (client.stats().getInFlight() > 0 && System.currentTimeMillis() < deadline) Thread.sleep(5);
+        assertEquals(0, client.stats().getInFlight(), "every request settled");
+    }
+
+    @Test
+    @DisplayName("Pages in order until the first short page, with up to `prefetch` pages in flight")
+    void pages_until_short_page() throws Exception {
+        ScholarAuthorClient client = client(5, 0, -1);
+        try (ArticlePager pager = client.pages("a", 2, null, null, 2, null)) {
+            assertEquals(List.of("t0", "t1", "t2", "t3", "t4"), titles(pager.articles()));
+            assertTrue(pager.getRequests() >= 3 && pager.getRequests() <= 5, "requests=" + pager.getRequests());
+            assertNull(pager.next(), "ended at the short page");
+        }
+        assertTrue(hits.keySet().stream().allMatch(s -> s <= 8), "never more than prefetch pages past the end: " + hits.keySet());
+        awaitIdle(client, 2_000);
+
+        hits.clear();
+        assertEquals(List.of("t0", "t1", "t2", "t3", "t4"), titles(client.streamArticles("a", 2, null, null, 0)));
+        assertEquals(Map.of(0, 1, 2, 1, 4, 1), hits.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().get())), "without prefetch, one request per page");
+    }
+
+    @Test
+    @DisplayName("A failed prefetched page is fetched again through the retrying path")
+    void failed_prefetch_falls_back() throws Exception {
+        ScholarAuthorClient client = client(5, 0, 2);
+        assertEquals(List.of("t0", "t1", "t2", "t3", "t4"), titles(client.streamArticles("a", 2, null, null, 2)));
+        assertEquals(2, hits.get(2).get());
+        awaitIdle(client, 2_000);
+        assertEquals(CircuitBreaker.State.CLOSED, client.stats().getBreaker());
+    }
+
+    @Test
+    @DisplayName("Closing early aborts the prefetched requests instead of waiting for them")
+    void close_aborts_in_flight_pages() throws Exception {
+        ScholarAuthorClient client = client(100, 3_000, -1);
+        long t0 = System.nanoTime();
+        ArticlePager pager = client.pages("a", 2, null, null, 3, null);
+        try (Stream<Article> articles = pager.articles()) {
+            Iterator<Article> it = articles.iterator();
+            assertEquals("t0", it.next().getTitle());
+            assertEquals(4, pager.getRequests(), "the first page plus three prefetched");
+            assertEquals(3, client.stats().getInFlight());
+        }
+        long waitedMs = (System.nanoTime() - t0) / 1_000_000;
+        assertTrue(waitedMs < 1_500, "did not wait for the slow pages: " + waitedMs + " ms");
+        awaitIdle(client, 1_000); // settled by the cancellation, long before the server answers
+        assertEquals(1, answered.get());
+        assertEquals(CircuitBreaker.State.CLOSED, client.stats().getBreaker(), "a cancel is not a failure");
+    }
+}
@@ -0,0 +1,25 @@
+package service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimiterTest {
+
+    @Test
+    @DisplayName("Burst is served immediately, then permits are paced")
+    void burst_then_paced() throws Exception {
+        RateLimiter limiter = new RateLimiter(20, 3); // one permit every 50 ms after the burst
+
+        long t0 = System.nanoTime();
+        for (int i = 0; i < 3; i++) limiter.acquire();
+        assertTrue(System.nanoTime() - t0 < 30_000_000L, "burst should not wait");
+        assertFalse(limiter.tryAcquire(), "bucket is empty after the burst");
+
+        t0 = System.nanoTime();
+        for (int i = 0; i < 4; i++) limiter.acquire();
+        long elapsedMs = (System.nanoTime() - t0) / 1_000_000;
+        assertTrue(elapsedMs >= 150, "4 paced permits at 20/s should take ~200 ms, took " + elapsedMs);
+    }
+}
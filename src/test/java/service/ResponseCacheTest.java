@@ -0,0 +1,56 @@
+package service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResponseCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Memory hit, then disk hit from a fresh instance")
+    void memory_then_disk() {
+        String key = ResponseCache.key("A1", 0, 10, "en", "pubdate");
+        ResponseCache cache = new ResponseCache(dir, 60_000, 16, 1 << 20, false);
+        assertNull(cache.get(key));
+        cache.put(key, "{\"articles\":[]}");
+        assertEquals("{\"articles\":[]}", cache.get(key));
+
+        ResponseCache reopened = new ResponseCache(dir, 60_000, 16, 1 << 20, false);
+        assertEquals("{\"articles\":[]}", reopened.get(key));
+
+        assertEquals(1, cache.stats().getMemoryHits());
+        assertEquals(1, cache.stats().getMisses());
+        assertEquals(1, reopened.stats().getDiskHits());
+    }
+
+    @Test
+    @DisplayName("Expired entries and bypass both miss")
+    void ttl_and_bypass() throws Exception {
+        ResponseCache cache = new ResponseCache(dir, 20, 16, 1 << 20, false);
+        cache.put("k", "v");
+        Thread.sleep(40);
+        assertNull(cache.get("k"), "entry past TTL");
+
+        cache = new ResponseCache(dir, 60_000, 16, 1 << 20, false);
+        cache.put("k", "v");
+        cache.setEnabled(false);
+        assertNull(cache.get("k"), "bypassed");
+    }
+
+    @Test
+    @DisplayName("Disk tier stays under its byte cap")
+    void disk_eviction() {
+        ResponseCache cache = new ResponseCache(dir, 60_000, 1, 4_000, false);
+        String body = "x".repeat(1_000);
+        for (int i = 0; i < 10; i++) cache.put("k" + i, body);
+        assertTrue(cache.stats().getEvictions() > 0);
+        assertEquals(body, cache.get("k9"));
+    }
+}
@@ -0,0 +1,173 @@
+package service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Retry, breaker, timeout and AIMD behaviour against a scripted local server. */
+public class ScholarAuthorClientTest {
+
+    private static final String OK_BODY = "{\"author\":{\"name\":\"X\"},\"articles\":[]}";
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+
+    /** Serves the scripted statuses in order ("429:1" = 429 with Retry-After: 1), repeating the last one. */
+    private ScholarAuthorClient client(ScholarAuthorClient.Options options, long delayMs, String... script) throws Exception {
+        List<String> steps = new CopyOnWriteArrayList<>(script);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/search", ex -> {
+            int n = requests.getAndIncrement();
+            String[] step = steps.get(Math.min(n, steps.size() - 1)).split(":");
+            int status = Integer.parseInt(step[0]);
+            if (step.length > 1) ex.getResponseHeaders().set("Retry-After", step[1]);
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = (status == 200 ? OK_BODY : "{\"error\":\"" + status + "\"}").getBytes(StandardCharsets.UTF_8);
+            ex.sendResponseHeaders(status, body.length);
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        return new ScholarAuthorClient("test", null, "http://127.0.0.1:" + server.getAddress().getPort() + "/search", options);
+    }
+
+    @AfterEach
+    void stop() {
+        if (server != null) server.stop(0);
+    }
+
+    @Test
+    @DisplayName("429 and 503 are retried, waiting at least Retry-After")
+    void retries_honour_retry_after() throws Exception {
+        ScholarAuthorClient client = client(new ScholarAuthorClient.Options().backoffMs(10, 50), 0, "429:1", "503", "200");
+
+        long t0 = System.nanoTime();
+        assertEquals(OK_BODY, client.fetchAuthorJson("a", 0, 10, null, null, false));
+        assertTrue(System.nanoTime() - t0 >= 1_000_000_000L, "waited for Retry-After: 1");
+        assertEquals(3, requests.get());
+        ScholarAuthorClient.Stats stats = client.stats();
+        assertEquals(2, stats.getRetries());
+        assertEquals(2, stats.getThrottled());
+        assertEquals(CircuitBreaker.State.CLOSED, stats.getBreaker());
+    }
+
+    @Test
+    @DisplayName("Client errors are not retried; retries stop after the configured attempts")
+    void retry_limits() throws Exception {
+        ScholarAuthorClient notFound = client(new ScholarAuthorClient.Options().backoffMs(1, 5), 0, "404");
+        HttpStatusException e = assertThrows(HttpStatusException.class, () -> notFound.fetchAuthorJson("a", 0, 10, null, null, false));
+        assertEquals(404, e.getStatusCode());
+        assertEquals(1, requests.get());
+        stop();
+
+        requests.set(0);
+        ScholarAuthorClient failing = client(new ScholarAuthorClient.Options().retries(2).backoffMs(1, 5), 0, "500");
+        e = assertThrows(HttpStatusException.class, () -> failing.fetchAuthorJson("a", 0, 10, null, null, false));
+        assertEquals(500, e.getStatusCode());
+        assertEquals(3, requests.get());
+        assertEquals(3, failing.stats().getServerErrors());
+        stop();
+
+        requests.set(0);
+        ScholarAuthorClient tooLong = client(new ScholarAuthorClient.Options().maxRetryAfterMs(5_000), 0, "429:3600");
+        e = assertThrows(HttpStatusException.class, () -> tooLong.fetchAuthorJson("a", 0, 10, null, null, false));
+        assertEquals(3_600_000, e.getRetryAfterMillis());
+        assertEquals(1, requests.get(), "a Retry-After past the limit fails at once");
+    }
+
+    @Test
+    @DisplayName("The breaker opens after consecutive failures and rejects calls without sending them")
+    void breaker_opens() throws Exception {
+        ScholarAuthorClient client = client(new ScholarAuthorClient.Options().retries(0).breaker(3, 60_000), 0, "500");
+        for (int i = 0; i < 3; i++) {
+            assertThrows(HttpStatusException.class, () -> client.fetchAuthorJson("a", 0, 10, null, null, false));
+        }
+        CircuitBreaker.OpenException open = assertThrows(CircuitBreaker.OpenException.class,
+                () -> client.fetchAuthorJson("a", 0, 10, null, null, false));
+        assertTrue(open.getRetryAfterMillis() > 50_000);
+        assertEquals(3, requests.get());
+        assertEquals(CircuitBreaker.State.OPEN, client.stats().getBreaker());
+
+        CircuitBreaker breaker = new CircuitBreaker(1, 20);
+        breaker.before();
+        breaker.onFailure();
+        assertThrows(CircuitBreaker.OpenException.class, breaker::before);
+        Thread.sleep(30);
+        breaker.before(); // half-open probe
+        assertThrows(CircuitBreaker.OpenException.class, breaker::before, "one probe at a time");
+        breaker.onSuccess();
+        breaker.before();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    @DisplayName("An interrupted half-open probe frees the probe slot and does not reopen the breaker")
+    void interrupted_probe() throws Exception {
+        ScholarAuthorClient client = client(new ScholarAuthorClient.Options().retries(0).breaker(1, 20), 300, "500", "200");
+        assertThrows(HttpStatusException.class, () -> client.fetchAuthorJson("a", 0, 10, null, null, false));
+        assertEquals(CircuitBreaker.State.OPEN, client.stats().getBreaker());
+        Thread.sleep(30);
+
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        Thread probe = new Thread(() -> {
+            try {
+                client.fetchAuthorJson("a", 0, 10, null, null, false);
+            } catch (Throwable t) {
+                thrown.set(t);
+            }
+        });
+        probe.start();
+        Thread.sleep(100);
+        probe.interrupt();
+        probe.join(5_000);
+        assertInstanceOf(InterruptedException.class, thrown.get());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, client.stats().getBreaker());
+
+        assertEquals(OK_BODY, client.fetchAuthorJson("a", 0, 10, null, null, false));
+        assertEquals(CircuitBreaker.State.CLOSED, client.stats().getBreaker());
+    }
+
+    @Test
+    @DisplayName("A slow response times out")
+    void request_timeout() throws Exception {
+        ScholarAuthorClient client = client(new ScholarAuthorClient.Options().retries(0).requestTimeoutMs(100), 1_000, "200");
+        assertThrows(HttpTimeoutException.class, () -> client.fetchAuthorJson("a", 0, 10, null, null, false));
+        assertEquals(1, client.stats().getTimeouts());
+    }
+
+    @Test
+    @DisplayName("AIMD: one halving per round of throttled calls, +1 per round of healthy ones")
+    void adaptive_limit() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(1, 8, 16, 1_000);
+        long[] round = new long[8];
+        for (int i = 0; i < 8; i++) round[i] = limiter.acquire();
+        assertEquals(8, limiter.getInFlight());
+        for (long t : round) limiter.release(t, AdaptiveLimiter.Outcome.CONGESTED);
+        assertEquals(4, limiter.getLimit(), "the whole round counts as one signal");
+
+        for (int i = 0; i < 5; i++) limiter.release(limiter.acquire(), AdaptiveLimiter.Outcome.OK); // 4 + 1/4 + ... > 5
+        assertEquals(5, limiter.getLimit());
+
+        limiter.release(limiter.acquire(), AdaptiveLimiter.Outcome.CONGESTED);
+        assertEquals(2, limiter.getLimit());
+        for (int i = 0; i < 100; i++) limiter.release(limiter.acquire(), AdaptiveLimiter.Outcome.IGNORED);
+        assertEquals(2, limiter.getLimit(), "5xx say nothing about load");
+    }
+}
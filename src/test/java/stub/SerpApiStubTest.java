@@ -0,0 +1,88 @@
+package stub;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import service.HttpStatusException;
+import service.ScholarAuthorClient;
+import util.AuthorJson;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The client against the local stand-in (no network, no API key). */
+public class SerpApiStubTest {
+
+    // No retries and no breaker, so every injected fault reaches the caller.
+    private static final ScholarAuthorClient.Options FAIL_FAST = new ScholarAuthorClient.Options().retries(0).breaker(0, 0);
+
+    private static ScholarAuthorClient client(SerpApiStub stub) {
+        return new ScholarAuthorClient("test", null, stub.baseUrl(), FAIL_FAST);
+    }
+
+    @Test
+    @DisplayName("Synthetic mode pages an author's articles by start/num")
+    void synthetic_pages() throws Exception {
+        try (SerpApiStub stub = SerpApiStub.start(new SerpApiStub.Options().port(0).articles(120))) {
+            AuthorJson first = client(stub).fetchAuthor("abc", 0, 100, "en", "pubdate", false);
+            AuthorJson last = client(stub).fetchAuthor("abc", 100, 100, "en", "pubdate", false);
+
+            assertEquals("Stub Author abc", first.getAuthorName());
+            assertEquals(100, first.getArticles().size());
+            assertEquals(20, last.getArticles().size());
+            assertEquals("Stub article 119 of abc", last.getArticles().get(19).getTitle());
+            assertEquals(Map.of(200, 2L), stub.statusCounts());
+        }
+    }
+
+    @Test
+    @DisplayName("Injected 429s, 5xx and API errors surface as client failures")
+    void fault_injection() throws Exception {
+        try (SerpApiStub stub = SerpApiStub.start(new SerpApiStub.Options().port(0).rate429(1.0, 7))) {
+            HttpStatusException e = assertThrows(HttpStatusException.class, () -> client(stub).fetchAuthorJson("abc", 0, 10, null, null, false));
+            assertTrue(e.getMessage().startsWith("HTTP 429"), e.getMessage());
+            assertEquals(7_000, e.getRetryAfterMillis());
+        }
+        try (SerpApiStub stub = SerpApiStub.start(new SerpApiStub.Options().port(0).errorRate(1.0))) {
+            Exception e = assertThrows(Exception.class, () -> client(stub).fetchAuthorJson("abc", 0, 10, null, null, false));
+            assertTrue(e.getMessage().startsWith("HTTP 500"), e.getMessage());
+        }
+        try (SerpApiStub stub = SerpApiStub.start(new SerpApiStub.Options().port(0).apiErrorRate(1.0))) {
+            assertTrue(client(stub).fetchAuthor("abc", 0, 10, null, null, false).hasError());
+        }
+    }
+
+    @Test
+    @DisplayName("Replay serves recorded pages and 404s the rest")
+    void replay(@TempDir Path dir) throws Exception {
+        String name = SerpApiStub.recordingName(Map.of("author_id", "rec1", "start", "0", "num", "5", "hl", "en", "sort", "pubdate"));
+        Files.writeString(dir.resolve(name), SerpApiStub.synthetic("recorded", 0, 5, 5));
+
+        try (SerpApiStub stub = SerpApiStub.start(new SerpApiStub.Options().port(0).mode(SerpApiStub.Mode.REPLAY).dir(dir))) {
+            AuthorJson page = client(stub).fetchAuthor("rec1", 0, 5, "en", "pubdate", false);
+            assertEquals("Stub Author recorded", page.getAuthorName());
+            assertEquals(5, page.getArticles().size());
+
+            Exception e = assertThrows(Exception.class, () -> client(stub).fetchAuthorJson("rec1", 5, 5, "en", "pubdate", false));
+            assertTrue(e.getMessage().startsWith("HTTP 404"), e.getMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("Load driver counts every request and classifies failures")
+    void load_driver() throws Exception {
+        try (SerpApiStub stub = SerpApiStub.start(new SerpApiStub.Options().port(0).latency(1, 3).errorRate(0.2))) {
+            LoadDriver.Report report = new LoadDriver(stub.baseUrl(), 16, null, FAIL_FAST).run(300, 10, 2, 20);
+
+            assertEquals(300, report.getOk() + report.getFailed());
+            assertEquals(300, stub.getRequests());
+            assertEquals(report.getFailed(), report.getFailures().getOrDefault("http.500", 0L));
+            assertTrue(report.getFailed() > 0 && report.getOk() > 0, report.toString());
+            assertEquals(report.getOk() * 20, report.getArticles());
+            assertTrue(report.getLatency().percentile(50) >= 1_000_000, "latency includes the injected delay");
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package util;
+
+import model.Article;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Offline checks for the streaming parser (no API key needed).
+ * Covers escaped quotes, nested arrays inside article objects and the ByteBuffer entry point.
+ */
+public class AuthorJsonTest {
+
+    private static final String PAYLOAD = "{"
+            + "\"search_metadata\":{\"status\":\"Success\",\"tags\":[[1,2],[3]]},"
+            + "\"author\":{\"name\":\"Ada \\\"The Countess\\\" Lovelace\",\"affiliations\":\"Univ\\u00e9rsity\","
+            + "\"interests\":[{\"title\":\"Math\"}]},"
+            + "\"articles\":["
+            + "{\"title\":\"Notes [on] the Engine\",\"year\":\"1843\",\"authors\":\"A Lovelace\","
+            + "\"versions\":[[\"a\"],[\"b\",\"c\"]],\"cited_by\":{\"value\":42,\"cites_id\":\"x\"}},"
+            + "{\"title\":\"\",\"year\":\"1850\"},"
+            + "{\"title\":\"Second\",\"cited_by\":{\"value\":null}}"
+            + "],"
+            + "\"cited_by\":{\"table\":[{\"citations\":{\"all\":10,\"since_2021\":4}},{\"h_index\":{\"all\":2}}],"
+            + "\"graph\":[{\"year\":2020,\"citations\":3}]}"
+            + "}";
+
+    @Test
+    @DisplayName("Single-pass parse maps author and articles")
+    void parse_maps_author_and_articles() throws Exception {
+        AuthorJson json = AuthorJson.parse(PAYLOAD);
+
+        assertFalse(json.hasError());
+        assertEquals("Ada \"The Countess\" Lovelace", json.getAuthorName());
+        assertEquals("Univérsity", json.getAffiliations());
+
+        List<Article> articles = json.getArticles();
+        assertEquals(2, articles.size(), "blank titles are skipped");
+        assertEquals("Notes [on] the Engine", articles.get(0).getTitle());
+        assertEquals("1843", articles.get(0).getYear());
+        assertEquals(42, articles.get(0).getCitedBy());
+        assertNull(articles.get(1).getCitedBy());
+        assertEquals(10L, json.getCitedByTotal(), "profile total from the cited_by table");
+    }
+
+    @Test
+    @DisplayName("ByteBuffer input gives the same result as String input")
+    void parse_from_byte_buffer() throws Exception {
+        AuthorJson json = AuthorJson.parse(ByteBuffer.wrap(PAYLOAD.getBytes(StandardCharsets.UTF_8)));
+        assertEquals("Univérsity", json.getAffiliations());
+        assertEquals(2, json.getArticles().size());
+    }
+
+    @Test
+    @DisplayName("SimpleJson helpers survive nested arrays and escapes")
+    void simple_json_helpers() {
+        assertNull(SimpleJson.extractTopLevelString(PAYLOAD, "error"));
+        assertEquals("Ada \"The Countess\" Lovelace", SimpleJson.extractNestedString(PAYLOAD, "author", "name"));
+
+        List<String> blocks = SimpleJson.extractArrayObjects(PAYLOAD, "articles");
+        assertEquals(3, blocks.size());
+        assertEquals(42, SimpleJson.extractNestedInt(blocks.get(0), "cited_by", "value"));
+        assertEquals("Second", SimpleJson.extractFieldString(blocks.get(2), "title"));
+    }
+
+    @Test
+    @DisplayName("Strings that straddle the 8K read buffer keep every character")
+    void string_across_buffer_boundary() throws Exception {
+        StringBuilder json = new StringBuilder("{\"articles\":[");
+        for (int i = 0; i < 400; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"title\":\"Boundary title ").append(i).append("\",\"year\":\"2020\"}");
+        }
+        json.append("]}");
+
+        List<Article> articles = AuthorJson.parse(json.toString()).getArticles();
+        assertEquals(400, articles.size());
+        for (int i = 0; i < 400; i++) {
+            assertEquals("Boundary title " + i, articles.get(i).getTitle());
+        }
+    }
+
+    @Test
+    @DisplayName("API error payload is reported")
+    void api_error() throws Exception {
+        AuthorJson json = AuthorJson.parse("{\"error\":\"Invalid API key.\"}");
+        assertTrue(json.hasError());
+        assertEquals("Invalid API key.", json.getError());
+    }
+}